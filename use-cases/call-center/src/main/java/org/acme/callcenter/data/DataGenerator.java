@@ -2,9 +2,10 @@ package org.acme.callcenter.data;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.EnumSet;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicLong;
 
 import jakarta.enterprise.context.ApplicationScoped;
@@ -13,6 +14,7 @@ import org.acme.callcenter.domain.Agent;
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
 import org.acme.callcenter.domain.Skill;
+import org.acme.callcenter.domain.SkillCatalog;
 
 @ApplicationScoped
 public class DataGenerator {
@@ -37,11 +39,24 @@ public class DataGenerator {
             new Skill[] { Skill.CAR_INSURANCE, Skill.LIFE_INSURANCE, Skill.PROPERTY_INSURANCE };
 
     private static Set<Skill> buildSkillSet(Skill... skills) {
-        return EnumSet.copyOf(Arrays.asList(skills));
+        return new TreeSet<>(Arrays.asList(skills));
     }
 
     public CallCenter generateCallCenter() {
-        return new CallCenter(EnumSet.allOf(Skill.class), Arrays.asList(AGENTS), new ArrayList<>());
+        return generateCallCenter(AGENTS.length);
+    }
+
+    /**
+     * @param agentCount at least 1, the agents beyond the predefined ones get a random language and product skill
+     */
+    public CallCenter generateCallCenter(int agentCount) {
+        List<Agent> agents = new ArrayList<>(agentCount);
+        agents.addAll(Arrays.asList(AGENTS).subList(0, Math.min(agentCount, AGENTS.length)));
+        for (int i = AGENTS.length; i < agentCount; i++) {
+            agents.add(new Agent(nextId(), "Agent " + (i + 1), buildSkillSet(pickRandomLanguageSkill(),
+                    pickRandomProductSkill())));
+        }
+        return new CallCenter(SkillCatalog.DEFAULT.getSkills(), agents, new ArrayList<>());
     }
 
     public Call generateCall(int durationSeconds) {
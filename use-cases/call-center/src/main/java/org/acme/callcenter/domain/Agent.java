@@ -1,18 +1,19 @@
 package org.acme.callcenter.domain;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class Agent extends PreviousCallOrAgent {
 
     private String name;
     private Set<Skill> skills;
+    private long skillMask;
 
     public Agent() {
         // Required by Timefold.
@@ -21,17 +22,18 @@ public class Agent extends PreviousCallOrAgent {
     public Agent(long id, String name) {
         super(id);
         this.name = name;
-        this.skills = EnumSet.noneOf(Skill.class);
+        this.skills = new TreeSet<>();
     }
 
     public Agent(long id, String name, Set<Skill> skills) {
         super(id);
         this.name = name;
-        this.skills = EnumSet.copyOf(skills);
+        this.skills = new TreeSet<>(skills);
+        this.skillMask = Skill.toMask(skills);
     }
 
     public Agent(long id, String name, Skill... skills) {
-        this(id, name, EnumSet.copyOf(Arrays.asList(skills)));
+        this(id, name, Set.copyOf(Arrays.asList(skills)));
     }
 
     @JsonProperty(value = "calls", access = JsonProperty.Access.READ_ONLY)
@@ -46,8 +48,8 @@ public class Agent extends PreviousCallOrAgent {
     }
 
     @Override
-    public Duration getDurationTillPickUp() {
-        return Duration.ZERO;
+    public long getSecondsTillPickUp(long clockSeconds) {
+        return 0L;
     }
 
     public String getName() {
@@ -57,4 +59,12 @@ public class Agent extends PreviousCallOrAgent {
     public Set<Skill> getSkills() {
         return skills;
     }
+
+    /**
+     * @return the {@link Skill#getMask() bits} of {@link #getSkills()}
+     */
+    @JsonIgnore
+    public long getSkillMask() {
+        return skillMask;
+    }
 }
@@ -1,11 +1,14 @@
 package org.acme.callcenter.domain;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.Arrays;
-import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.acme.callcenter.solver.ResponseTimeUpdatingVariableListener;
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
@@ -16,15 +19,20 @@ import ai.timefold.solver.core.api.domain.variable.PlanningVariableGraphType;
 import ai.timefold.solver.core.api.domain.variable.ShadowVariable;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 @PlanningEntity
 public class Call extends PreviousCallOrAgent {
 
+    private static final long NOT_PICKED_UP = Long.MIN_VALUE;
+
     private String phoneNumber;
     private Set<Skill> requiredSkills;
-    private Duration duration = Duration.ZERO;
+    private long requiredSkillMask;
+    private long durationSeconds;
     private LocalTime startTime;
-    private LocalTime pickUpTime;
+    // In epoch seconds, like CallCenter.getClockSeconds().
+    private long pickUpSeconds = NOT_PICKED_UP;
 
     @PlanningPin
     private boolean pinned;
@@ -37,8 +45,9 @@ public class Call extends PreviousCallOrAgent {
     @AnchorShadowVariable(sourceVariableName = "previousCallOrAgent")
     private Agent agent;
 
+    @JsonIgnore
     @ShadowVariable(variableListenerClass = ResponseTimeUpdatingVariableListener.class, sourceVariableName = "previousCallOrAgent")
-    private Duration estimatedWaiting;
+    private long estimatedWaitingSeconds;
 
     public Call() {
         // Required by Timefold.
@@ -47,21 +56,23 @@ public class Call extends PreviousCallOrAgent {
     public Call(long id, String phoneNumber) {
         super(id);
         this.phoneNumber = phoneNumber;
-        this.requiredSkills = EnumSet.noneOf(Skill.class);
+        this.requiredSkills = new TreeSet<>();
         this.startTime = LocalTime.now();
     }
 
     public Call(long id, String phoneNumber, Set<Skill> requiredSkills, int durationSeconds) {
         super(id);
         this.phoneNumber = phoneNumber;
-        this.requiredSkills = EnumSet.copyOf(requiredSkills);
-        this.duration = Duration.ofSeconds(durationSeconds);
+        this.requiredSkills = new TreeSet<>(requiredSkills);
+        this.requiredSkillMask = Skill.toMask(requiredSkills);
+        this.durationSeconds = durationSeconds;
         this.startTime = LocalTime.now();
     }
 
     public Call(long id, String phoneNumber, Skill... requiredSkills) {
         this(id, phoneNumber);
         this.requiredSkills.addAll(Arrays.asList(requiredSkills));
+        this.requiredSkillMask = Skill.toMask(this.requiredSkills);
     }
 
     public int getMissingSkillCount() {
@@ -69,23 +80,16 @@ public class Call extends PreviousCallOrAgent {
             return 0;
         }
 
-        return (int) requiredSkills.stream()
-                .filter(skill -> !agent.getSkills().contains(skill))
-                .count();
+        return Long.bitCount(requiredSkillMask & ~agent.getSkillMask());
     }
 
     @Override
-    public Duration getDurationTillPickUp() {
-        Duration durationTillPickUp;
-        if (estimatedWaiting == null) {
-            return null;
-        } else {
-            durationTillPickUp = estimatedWaiting.plus(getDuration());
-            if (pickUpTime != null) {
-                durationTillPickUp = durationTillPickUp.minus(Duration.between(pickUpTime, LocalTime.now()));
-            }
+    public long getSecondsTillPickUp(long clockSeconds) {
+        long secondsTillPickUp = estimatedWaitingSeconds + durationSeconds;
+        if (isPickedUp()) {
+            secondsTillPickUp -= clockSeconds - pickUpSeconds;
         }
-        return durationTillPickUp;
+        return secondsTillPickUp;
     }
 
     public String getPhoneNumber() {
@@ -96,6 +100,14 @@ public class Call extends PreviousCallOrAgent {
         return requiredSkills;
     }
 
+    /**
+     * @return the {@link Skill#getMask() bits} of {@link #getRequiredSkills()}
+     */
+    @JsonIgnore
+    public long getRequiredSkillMask() {
+        return requiredSkillMask;
+    }
+
     public boolean isPinned() {
         return pinned;
     }
@@ -108,8 +120,16 @@ public class Call extends PreviousCallOrAgent {
         return agent;
     }
 
-    public Duration getEstimatedWaiting() {
-        return estimatedWaiting;
+    /**
+     * @return null if the call is not assigned, otherwise the estimated waiting in seconds
+     */
+    @JsonProperty("estimatedWaiting")
+    public Long getEstimatedWaiting() {
+        return previousCallOrAgent == null ? null : estimatedWaitingSeconds;
+    }
+
+    public long getEstimatedWaitingSeconds() {
+        return estimatedWaitingSeconds;
     }
 
     public void setPinned(boolean pinned) {
@@ -124,28 +144,64 @@ public class Call extends PreviousCallOrAgent {
         this.agent = agent;
     }
 
-    public void setEstimatedWaiting(Duration estimatedWaiting) {
-        this.estimatedWaiting = estimatedWaiting;
+    public void setEstimatedWaitingSeconds(long estimatedWaitingSeconds) {
+        this.estimatedWaitingSeconds = estimatedWaitingSeconds;
     }
 
     public Duration getDuration() {
-        return duration;
+        return Duration.ofSeconds(durationSeconds);
     }
 
     public void setDuration(Duration duration) {
-        this.duration = duration;
+        this.durationSeconds = duration.getSeconds();
+    }
+
+    @JsonIgnore
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
     }
 
     public LocalTime getStartTime() {
         return startTime;
     }
 
+    /**
+     * @return null if the call has not been picked up yet
+     */
     public LocalTime getPickUpTime() {
-        return pickUpTime;
+        return isPickedUp() ? LocalTime.ofInstant(Instant.ofEpochSecond(pickUpSeconds), ZoneId.systemDefault()) : null;
     }
 
+    /**
+     * @param pickUpTime null if the call has not been picked up yet, otherwise a time of today
+     */
     public void setPickUpTime(LocalTime pickUpTime) {
-        this.pickUpTime = pickUpTime;
+        this.pickUpSeconds = pickUpTime == null ? NOT_PICKED_UP
+                : LocalDate.now().atTime(pickUpTime).atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    @JsonIgnore
+    public boolean isPickedUp() {
+        return pickUpSeconds != NOT_PICKED_UP;
+    }
+
+    /**
+     * @return in epoch seconds, only meaningful if {@link #isPickedUp()}
+     */
+    @JsonIgnore
+    public long getPickUpSeconds() {
+        return pickUpSeconds;
+    }
+
+    /**
+     * @param pickUpSeconds in epoch seconds
+     */
+    public void setPickUpSeconds(long pickUpSeconds) {
+        this.pickUpSeconds = pickUpSeconds;
     }
 
     @Override
@@ -7,8 +7,12 @@ import ai.timefold.solver.core.api.domain.solution.PlanningEntityCollectionPrope
 import ai.timefold.solver.core.api.domain.solution.PlanningScore;
 import ai.timefold.solver.core.api.domain.solution.PlanningSolution;
 import ai.timefold.solver.core.api.domain.solution.ProblemFactCollectionProperty;
+import ai.timefold.solver.core.api.domain.solution.ProblemFactProperty;
 import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @PlanningSolution
 public class CallCenter {
@@ -29,6 +33,10 @@ public class CallCenter {
 
     private boolean solving;
 
+    @JsonIgnore
+    @ProblemFactProperty
+    private CallCenterClock clock;
+
     public CallCenter() {
         // Required by Timefold.
     }
@@ -37,6 +45,7 @@ public class CallCenter {
         this.skills = skills;
         this.agents = agents;
         this.calls = calls;
+        this.clock = new CallCenterClock(0L, 0L);
     }
 
     public Set<Skill> getSkills() {
@@ -59,6 +68,28 @@ public class CallCenter {
         this.score = score;
     }
 
+    public CallCenterClock getClock() {
+        return clock;
+    }
+
+    /**
+     * @return the {@link CallCenterClock#getSeconds() time} the solver sees, in epoch seconds
+     */
+    @JsonIgnore
+    public long getClockSeconds() {
+        return clock.getSeconds();
+    }
+
+    /**
+     * Only for a problem that is not being solved,
+     * a problem change moves the clock with {@link ProblemChangeDirector#changeProblemProperty}.
+     *
+     * @param clockSeconds in epoch seconds
+     */
+    public void setClockSeconds(long clockSeconds) {
+        clock.setSeconds(clockSeconds);
+    }
+
     public boolean isSolving() {
         return solving;
     }
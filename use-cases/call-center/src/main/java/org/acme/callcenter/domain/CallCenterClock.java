@@ -0,0 +1,45 @@
+package org.acme.callcenter.domain;
+
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.solution.cloner.DeepPlanningClone;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * The time the solver sees, in epoch seconds, so the score does not change between two evaluations of the same
+ * solution. It only moves when a batch of problem changes arrives,
+ * through {@link ProblemChangeDirector#changeProblemProperty(Object, java.util.function.Consumer)}.
+ * <p>
+ * Cloned with every solution, so moving the clock of the working solution does not move the clock
+ * of a best solution that is being sent to the client.
+ */
+@DeepPlanningClone
+public class CallCenterClock {
+
+    private Long id;
+    private long seconds;
+
+    public CallCenterClock() {
+        // Required by Timefold.
+    }
+
+    public CallCenterClock(long id, long seconds) {
+        this.id = id;
+        this.seconds = seconds;
+    }
+
+    @PlanningId
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return in epoch seconds
+     */
+    public long getSeconds() {
+        return seconds;
+    }
+
+    public void setSeconds(long seconds) {
+        this.seconds = seconds;
+    }
+}
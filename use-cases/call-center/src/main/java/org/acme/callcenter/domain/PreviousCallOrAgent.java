@@ -1,7 +1,5 @@
 package org.acme.callcenter.domain;
 
-import java.time.Duration;
-
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import ai.timefold.solver.core.api.domain.variable.InverseRelationShadowVariable;
@@ -33,7 +31,11 @@ public abstract class PreviousCallOrAgent {
         this.nextCall = nextCall;
     }
 
-    public abstract Duration getDurationTillPickUp();
+    /**
+     * @param clockSeconds the {@link CallCenter#getClockSeconds() clock} of the solution
+     * @return how long until the agent picks up the next call
+     */
+    public abstract long getSecondsTillPickUp(long clockSeconds);
 
     @PlanningId
     public Long getId() {
@@ -1,24 +1,78 @@
 package org.acme.callcenter.domain;
 
+import java.util.Collection;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 
-public enum Skill {
+/**
+ * A skill that a call requires and an agent has. Every skill of a {@link SkillCatalog} gets its own bit,
+ * so a set of skills fits in a {@code long} bitmask.
+ * Skills are created by their catalog only, so skills are equal by identity, and they sort in catalog order.
+ * The masks of skills of different catalogs must not be combined.
+ */
+public final class Skill implements Comparable<Skill> {
 
-    ENGLISH("EN"),
-    GERMAN("DE"),
-    SPANISH("ES"),
-    CAR_INSURANCE("Car insurance"),
-    LIFE_INSURANCE("Life insurance"),
-    PROPERTY_INSURANCE("Property insurance");
+    // The skills of SkillCatalog.DEFAULT, in that order.
+    public static final Skill ENGLISH = new Skill("EN", 0);
+    public static final Skill GERMAN = new Skill("DE", 1);
+    public static final Skill SPANISH = new Skill("ES", 2);
+    public static final Skill CAR_INSURANCE = new Skill("Car insurance", 3);
+    public static final Skill LIFE_INSURANCE = new Skill("Life insurance", 4);
+    public static final Skill PROPERTY_INSURANCE = new Skill("Property insurance", 5);
 
-    private String name;
+    private final String name;
+    private final int index;
 
-    Skill(String name) {
+    Skill(String name, int index) {
         this.name = name;
+        this.index = index;
+    }
+
+    /**
+     * Resolves a skill name of JSON data against {@link SkillCatalog#DEFAULT}, instead of creating a skill.
+     *
+     * @param name never null
+     * @return never null
+     * @throws IllegalArgumentException if the default catalog has no skill with that name
+     */
+    @JsonCreator
+    public static Skill of(String name) {
+        return SkillCatalog.DEFAULT.get(name);
+    }
+
+    /**
+     * @param skills never null
+     * @return the bits of the skills
+     */
+    public static long toMask(Collection<Skill> skills) {
+        long mask = 0L;
+        for (Skill skill : skills) {
+            mask |= skill.getMask();
+        }
+        return mask;
     }
 
     @JsonValue
     public String getName() {
         return name;
     }
+
+    int getIndex() {
+        return index;
+    }
+
+    public long getMask() {
+        return 1L << index;
+    }
+
+    @Override
+    public int compareTo(Skill other) {
+        return Integer.compare(index, other.index);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
 }
@@ -0,0 +1,88 @@
+package org.acme.callcenter.domain;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/**
+ * The skills of a call center, which assigns every skill its bit.
+ * A catalog is immutable and holds at most {@value #MAX_SKILL_COUNT} skills, so skill names from request data
+ * are resolved against it instead of creating skills.
+ */
+public final class SkillCatalog {
+
+    public static final int MAX_SKILL_COUNT = Long.SIZE;
+
+    public static final SkillCatalog DEFAULT = new SkillCatalog(List.of(Skill.ENGLISH, Skill.GERMAN, Skill.SPANISH,
+            Skill.CAR_INSURANCE, Skill.LIFE_INSURANCE, Skill.PROPERTY_INSURANCE));
+
+    private final Map<String, Skill> nameToSkill;
+
+    private SkillCatalog(List<Skill> skills) {
+        if (skills.size() > MAX_SKILL_COUNT) {
+            throw new IllegalArgumentException("The skill count (" + skills.size() + ") must be at most "
+                    + MAX_SKILL_COUNT + ".");
+        }
+        Map<String, Skill> nameToSkill = new LinkedHashMap<>(skills.size());
+        for (Skill skill : skills) {
+            if (skill.getIndex() != nameToSkill.size()) {
+                throw new IllegalArgumentException("The skill (" + skill + ") has index (" + skill.getIndex()
+                        + ") instead of (" + nameToSkill.size() + ").");
+            }
+            if (nameToSkill.put(skill.getName(), skill) != null) {
+                throw new IllegalArgumentException("The skill (" + skill + ") must be unique.");
+            }
+        }
+        this.nameToSkill = Collections.unmodifiableMap(nameToSkill);
+    }
+
+    /**
+     * @param names never null, unique
+     * @return never null, with the skills in the order of their names
+     * @throws IllegalArgumentException if there are more than {@value #MAX_SKILL_COUNT} names or duplicates
+     */
+    public static SkillCatalog of(List<String> names) {
+        return new SkillCatalog(IntStream.range(0, names.size())
+                .mapToObj(i -> new Skill(names.get(i), i))
+                .toList());
+    }
+
+    /**
+     * @param name never null
+     * @return never null
+     * @throws IllegalArgumentException if the catalog has no skill with that name
+     */
+    public Skill get(String name) {
+        Skill skill = nameToSkill.get(name);
+        if (skill == null) {
+            throw new IllegalArgumentException("The skill (" + name + ") is not in the skill catalog "
+                    + nameToSkill.keySet() + ".");
+        }
+        return skill;
+    }
+
+    /**
+     * @param names never null
+     * @return never null, sorted in catalog order
+     * @throws IllegalArgumentException if a name is not in the catalog
+     */
+    public Set<Skill> get(Collection<String> names) {
+        Set<Skill> skills = new TreeSet<>();
+        for (String name : names) {
+            skills.add(get(name));
+        }
+        return skills;
+    }
+
+    /**
+     * @return never null, every skill, sorted in catalog order
+     */
+    public Set<Skill> getSkills() {
+        return new TreeSet<>(nameToSkill.values());
+    }
+}
@@ -3,7 +3,10 @@ package org.acme.callcenter.rest;
 import java.util.concurrent.atomic.AtomicReference;
 
 import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
@@ -11,6 +14,9 @@ import jakarta.ws.rs.core.MediaType;
 
 import org.acme.callcenter.data.DataGenerator;
 import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.service.LoadTestParameters;
+import org.acme.callcenter.service.LoadTestReport;
+import org.acme.callcenter.service.LoadTestService;
 import org.acme.callcenter.service.SimulationService;
 import org.acme.callcenter.service.SolverService;
 
@@ -20,14 +26,20 @@ public class CallCenterResource {
     private AtomicReference<CallCenter> bestSolution = new AtomicReference<>();
     private AtomicReference<Throwable> solvingError = new AtomicReference<>();
 
+    private final DataGenerator dataGenerator;
+
     @Inject
     SolverService solverService;
 
     @Inject
     SimulationService simulationService;
 
+    @Inject
+    LoadTestService loadTestService;
+
     @Inject
     CallCenterResource(DataGenerator dataGenerator) {
+        this.dataGenerator = dataGenerator;
         bestSolution.set(dataGenerator.generateCallCenter());
     }
 
@@ -45,10 +57,7 @@ public class CallCenterResource {
     @POST
     @Path("solve")
     public void solve() {
-        solverService.startSolving(bestSolution.get(), newBestSolution -> {
-            bestSolution.set(newBestSolution);
-            simulationService.onNewBestSolution(newBestSolution);
-        }, throwable -> solvingError.set(throwable));
+        startSolving(bestSolution.get());
         simulationService.startSimulation();
     }
 
@@ -57,5 +66,51 @@ public class CallCenterResource {
     public void stop() {
         solverService.stopSolving();
         simulationService.stopSimulation();
+        loadTestService.stopLoadTest();
+    }
+
+    /**
+     * Restarts solving with a new call center of {@link LoadTestParameters#getAgentCount()} agents,
+     * and generates calls for it instead of the simulation.
+     */
+    @POST
+    @Path("load-test")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public void startLoadTest(LoadTestParameters loadTestParameters) {
+        LoadTestService.validate(loadTestParameters);
+        stop();
+        solvingError.set(null);
+        CallCenter callCenter = dataGenerator.generateCallCenter(loadTestParameters.getAgentCount());
+        bestSolution.set(callCenter);
+        startSolving(callCenter);
+        loadTestService.startLoadTest(loadTestParameters);
+    }
+
+    @GET
+    @Path("load-test")
+    @Produces(MediaType.APPLICATION_JSON)
+    public LoadTestReport getLoadTestReport() {
+        LoadTestReport loadTestReport = loadTestService.getReport();
+        if (loadTestReport == null) {
+            throw new NotFoundException("No load test has been started.");
+        }
+        return loadTestReport;
+    }
+
+    /**
+     * Stops generating calls, but keeps solving the calls that have arrived.
+     */
+    @DELETE
+    @Path("load-test")
+    public void stopLoadTest() {
+        loadTestService.stopLoadTest();
+    }
+
+    private void startSolving(CallCenter callCenter) {
+        solverService.startSolving(callCenter, newBestSolution -> {
+            bestSolution.set(newBestSolution);
+            simulationService.onNewBestSolution(newBestSolution);
+            loadTestService.onNewBestSolution(newBestSolution);
+        }, throwable -> solvingError.set(throwable));
     }
 }
@@ -0,0 +1,109 @@
+package org.acme.callcenter.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records latencies in microseconds, in the log-linear buckets of an HdrHistogram:
+ * every power of two is split into {@value #SUB_BUCKET_HALF_COUNT} buckets,
+ * so every reported value is within 1/{@value #SUB_BUCKET_HALF_COUNT} of a recorded one.
+ * The memory does not grow with the number of recorded values, and recording is lock-free,
+ * so the arrival threads and the solver thread record at the same time.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_COUNT = 128;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    // The values below SUB_BUCKET_COUNT have a bucket each, the higher powers of two have half as many.
+    private static final int BUCKET_COUNT = SUB_BUCKET_COUNT
+            + (Long.SIZE - 1 - Integer.numberOfTrailingZeros(SUB_BUCKET_COUNT)) * SUB_BUCKET_HALF_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * @param nanos negative values are recorded as 0
+     */
+    public void recordNanos(long nanos) {
+        recordMicros(nanos / 1_000L);
+    }
+
+    /**
+     * @param micros negative values are recorded as 0
+     */
+    public void recordMicros(long micros) {
+        long value = Math.max(0L, micros);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public double getMeanMicros() {
+        long count = totalCount.get();
+        return count == 0L ? 0.0 : (double) totalMicros.get() / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return 0 if nothing has been recorded, otherwise the highest value
+     *         that is equivalent to the value at that percentile
+     */
+    public long getMicrosAtPercentile(double percentile) {
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("The percentile (" + percentile + ") must be between 0 and 100.");
+        }
+        long count = totalCount.get();
+        if (count == 0L) {
+            return 0L;
+        }
+        long countAtPercentile = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+        long cumulativeCount = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulativeCount += counts.get(i);
+            if (cumulativeCount >= countAtPercentile) {
+                return Math.min(highestEquivalentValue(i), maxMicros.get());
+            }
+        }
+        // Only reached when a value is recorded during the iteration.
+        return maxMicros.get();
+    }
+
+    /**
+     * Not atomic: the values recorded while taking the summary may be counted in some figures only.
+     */
+    public LatencySummary toSummary() {
+        return new LatencySummary(getCount(), getMeanMicros(), getMicrosAtPercentile(50.0),
+                getMicrosAtPercentile(90.0), getMicrosAtPercentile(99.0), getMicrosAtPercentile(99.9),
+                getMaxMicros());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value))
+                - Integer.numberOfTrailingZeros(SUB_BUCKET_HALF_COUNT);
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT + (subBucket - SUB_BUCKET_HALF_COUNT);
+    }
+
+    static long highestEquivalentValue(int bucketIndex) {
+        if (bucketIndex < SUB_BUCKET_COUNT) {
+            return bucketIndex;
+        }
+        int shift = (bucketIndex - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (bucketIndex - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
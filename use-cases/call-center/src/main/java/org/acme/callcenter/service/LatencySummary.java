@@ -0,0 +1,8 @@
+package org.acme.callcenter.service;
+
+/**
+ * The latencies recorded by a {@link LatencyHistogram}, in microseconds.
+ */
+public record LatencySummary(long count, double meanMicros, long p50Micros, long p90Micros, long p99Micros,
+        long p999Micros, long maxMicros) {
+}
@@ -0,0 +1,88 @@
+package org.acme.callcenter.service;
+
+import java.util.List;
+
+public class LoadTestParameters {
+
+    public enum DurationDistribution {
+        /**
+         * Every call takes the mean duration.
+         */
+        CONSTANT,
+        /**
+         * Uniformly distributed between 1 second and twice the mean duration.
+         */
+        UNIFORM,
+        /**
+         * Exponentially distributed around the mean duration, at least 1 second.
+         */
+        EXPONENTIAL
+    }
+
+    private int agentCount = 100;
+    private double callsPerMinute = 3_000.0;
+    private List<Double> traceCallsPerMinute;
+    private int durationMinutes = 5;
+    private DurationDistribution durationDistribution = DurationDistribution.EXPONENTIAL;
+    private int meanCallDurationSeconds = 60;
+
+    public LoadTestParameters() {
+        // Required by Jackson.
+    }
+
+    public LoadTestParameters(int agentCount, double callsPerMinute, List<Double> traceCallsPerMinute,
+            int durationMinutes, DurationDistribution durationDistribution, int meanCallDurationSeconds) {
+        this.agentCount = agentCount;
+        this.callsPerMinute = callsPerMinute;
+        this.traceCallsPerMinute = traceCallsPerMinute;
+        this.durationMinutes = durationMinutes;
+        this.durationDistribution = durationDistribution;
+        this.meanCallDurationSeconds = meanCallDurationSeconds;
+    }
+
+    public int getAgentCount() {
+        return agentCount;
+    }
+
+    /**
+     * @return the mean of the Poisson arrivals, unless {@link #getTraceCallsPerMinute()} is set
+     */
+    public double getCallsPerMinute() {
+        return callsPerMinute;
+    }
+
+    /**
+     * @return null or empty for a constant {@link #getCallsPerMinute()},
+     *         otherwise the mean of the Poisson arrivals for every minute of the load test, in order
+     */
+    public List<Double> getTraceCallsPerMinute() {
+        return traceCallsPerMinute;
+    }
+
+    /**
+     * @return ignored if {@link #getTraceCallsPerMinute()} is set, as the trace then decides how long the test runs
+     */
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public DurationDistribution getDurationDistribution() {
+        return durationDistribution;
+    }
+
+    public int getMeanCallDurationSeconds() {
+        return meanCallDurationSeconds;
+    }
+
+    boolean isTraceDriven() {
+        return traceCallsPerMinute != null && !traceCallsPerMinute.isEmpty();
+    }
+
+    int getTotalMinutes() {
+        return isTraceDriven() ? traceCallsPerMinute.size() : durationMinutes;
+    }
+
+    double getCallsPerMinute(int minute) {
+        return isTraceDriven() ? traceCallsPerMinute.get(minute) : callsPerMinute;
+    }
+}
@@ -0,0 +1,13 @@
+package org.acme.callcenter.service;
+
+/**
+ * @param running true while calls are still arriving
+ * @param elapsedSeconds since the start of the load test, until its end once it is no longer running
+ * @param arrivedCallCount the calls added to the solver
+ * @param assignedCallCount the calls that have been assigned to an agent, in a best solution
+ * @param assignmentLatency from the arrival of a call until a best solution assigns it to an agent
+ * @param problemChangeLatency from the arrival of a call until the solver has applied the problem change that adds it
+ */
+public record LoadTestReport(boolean running, double elapsedSeconds, long arrivedCallCount, long assignedCallCount,
+        LatencySummary assignmentLatency, LatencySummary problemChangeLatency) {
+}
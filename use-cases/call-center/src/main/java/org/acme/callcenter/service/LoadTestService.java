@@ -0,0 +1,234 @@
+package org.acme.callcenter.service;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.acme.callcenter.data.DataGenerator;
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+
+/**
+ * Generates calls at far higher rates than the {@link SimulationService}, to size a deployment.
+ * The calls arrive as a Poisson process, at a constant rate or at a rate replayed per minute from a trace,
+ * and are scheduled one by one, each at its own arrival time, instead of at a fixed rate.
+ * <p>
+ * Records how long it takes until the solver applies the problem change of a new call,
+ * and until a best solution assigns that call to an agent.
+ */
+@ApplicationScoped
+public class LoadTestService {
+
+    private static final int MAX_AGENT_COUNT = 10_000;
+    private static final double MAX_CALLS_PER_MINUTE = 60_000.0;
+    private static final int MAX_DURATION_MINUTES = 24 * 60;
+    private static final int MAX_CALL_DURATION_SECONDS = 60 * 60;
+    private static final long NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1L);
+
+    private final ScheduledExecutorService arrivalExecutorService = Executors.newSingleThreadScheduledExecutor();
+    private final SolverService solverService;
+    private final DataGenerator dataGenerator;
+    private final ConcurrentMap<Long, Long> callIdToArrivalNanos = new ConcurrentHashMap<>();
+    private final AtomicLong arrivedCallCount = new AtomicLong();
+    private final AtomicLong assignedCallCount = new AtomicLong();
+    private volatile LatencyHistogram assignmentLatency = new LatencyHistogram();
+    private volatile LatencyHistogram problemChangeLatency = new LatencyHistogram();
+
+    // Guarded by this.
+    private LoadTestParameters parameters;
+    private Random random;
+    private long startNanos;
+    private long endNanos;
+    private boolean running = false;
+    private ScheduledFuture<?> nextArrivalScheduledFuture;
+
+    @Inject
+    public LoadTestService(SolverService solverService, DataGenerator dataGenerator) {
+        this.solverService = solverService;
+        this.dataGenerator = dataGenerator;
+    }
+
+    /**
+     * @param parameters never null
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public static void validate(LoadTestParameters parameters) {
+        if (parameters.getAgentCount() < 1 || parameters.getAgentCount() > MAX_AGENT_COUNT) {
+            throw new IllegalArgumentException(
+                    "AgentCount (" + parameters.getAgentCount() + ") must be between 1 and " + MAX_AGENT_COUNT + ".");
+        }
+        if (parameters.isTraceDriven()) {
+            List<Double> traceCallsPerMinute = parameters.getTraceCallsPerMinute();
+            if (traceCallsPerMinute.size() > MAX_DURATION_MINUTES) {
+                throw new IllegalArgumentException("TraceCallsPerMinute has " + traceCallsPerMinute.size()
+                        + " minutes, but must have at most " + MAX_DURATION_MINUTES + ".");
+            }
+            for (Double callsPerMinute : traceCallsPerMinute) {
+                validateCallsPerMinute(callsPerMinute == null ? -1.0 : callsPerMinute, 0.0);
+            }
+        } else {
+            validateCallsPerMinute(parameters.getCallsPerMinute(), Double.MIN_VALUE);
+            if (parameters.getDurationMinutes() < 1 || parameters.getDurationMinutes() > MAX_DURATION_MINUTES) {
+                throw new IllegalArgumentException("DurationMinutes (" + parameters.getDurationMinutes()
+                        + ") must be between 1 and " + MAX_DURATION_MINUTES + ".");
+            }
+        }
+        if (parameters.getDurationDistribution() == null) {
+            throw new IllegalArgumentException("DurationDistribution must not be null.");
+        }
+        if (parameters.getMeanCallDurationSeconds() < 1
+                || parameters.getMeanCallDurationSeconds() > MAX_CALL_DURATION_SECONDS) {
+            throw new IllegalArgumentException("MeanCallDurationSeconds (" + parameters.getMeanCallDurationSeconds()
+                    + ") must be between 1 and " + MAX_CALL_DURATION_SECONDS + ".");
+        }
+    }
+
+    private static void validateCallsPerMinute(double callsPerMinute, double minimum) {
+        if (!(callsPerMinute >= minimum && callsPerMinute <= MAX_CALLS_PER_MINUTE)) {
+            throw new IllegalArgumentException("CallsPerMinute (" + callsPerMinute + ") must be between "
+                    + (minimum == 0.0 ? "0" : "more than 0") + " and " + MAX_CALLS_PER_MINUTE + ".");
+        }
+    }
+
+    /**
+     * Resets the results and starts generating calls, stopping a load test that is still running.
+     * The solver is expected to be solving the call center the calls are added to.
+     *
+     * @param parameters never null
+     */
+    public synchronized void startLoadTest(LoadTestParameters parameters) {
+        validate(parameters);
+        stopLoadTest();
+        this.parameters = parameters;
+        random = new Random(37);
+        callIdToArrivalNanos.clear();
+        arrivedCallCount.set(0L);
+        assignedCallCount.set(0L);
+        assignmentLatency = new LatencyHistogram();
+        problemChangeLatency = new LatencyHistogram();
+        startNanos = System.nanoTime();
+        running = true;
+        scheduleNextArrival(startNanos);
+    }
+
+    public synchronized void stopLoadTest() {
+        if (running) {
+            running = false;
+            endNanos = System.nanoTime();
+        }
+        if (nextArrivalScheduledFuture != null) {
+            nextArrivalScheduledFuture.cancel(false);
+            nextArrivalScheduledFuture = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return null if no load test has been started yet
+     */
+    public LoadTestReport getReport() {
+        boolean reportRunning;
+        double elapsedSeconds;
+        synchronized (this) {
+            if (parameters == null) {
+                return null;
+            }
+            reportRunning = running;
+            elapsedSeconds = ((running ? System.nanoTime() : endNanos) - startNanos) / 1_000_000_000.0;
+        }
+        return new LoadTestReport(reportRunning, elapsedSeconds, arrivedCallCount.get(), assignedCallCount.get(),
+                assignmentLatency.toSummary(), problemChangeLatency.toSummary());
+    }
+
+    /**
+     * The method is called from the Solver thread.
+     */
+    public void onNewBestSolution(CallCenter newBestSolution) {
+        if (callIdToArrivalNanos.isEmpty()) {
+            return;
+        }
+        long nowNanos = System.nanoTime();
+        for (Call call : newBestSolution.getCalls()) {
+            if (call.getPreviousCallOrAgent() instanceof Agent) {
+                // Only the first best solution that assigns the call counts.
+                Long arrivalNanos = callIdToArrivalNanos.remove(call.getId());
+                if (arrivalNanos != null) {
+                    assignmentLatency.recordNanos(nowNanos - arrivalNanos);
+                    assignedCallCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private synchronized void arrive(long arrivalNanos) {
+        if (!running) {
+            return;
+        }
+        if (arrivalNanos - startNanos >= parameters.getTotalMinutes() * NANOS_PER_MINUTE) {
+            stopLoadTest();
+            return;
+        }
+        Call call = dataGenerator.generateCall(nextCallDurationSeconds());
+        long nowNanos = System.nanoTime();
+        callIdToArrivalNanos.put(call.getId(), nowNanos);
+        arrivedCallCount.incrementAndGet();
+        LatencyHistogram histogram = problemChangeLatency;
+        solverService.addCall(call).thenRun(() -> histogram.recordNanos(System.nanoTime() - nowNanos));
+        scheduleNextArrival(arrivalNanos);
+    }
+
+    /**
+     * Schedules relative to the planned arrival, not to the actual one, so the scheduling delays do not add up
+     * and lower the rate.
+     */
+    private void scheduleNextArrival(long previousArrivalNanos) {
+        long fromNanos = previousArrivalNanos;
+        long nextArrivalNanos;
+        while (true) {
+            int minute = (int) ((fromNanos - startNanos) / NANOS_PER_MINUTE);
+            if (minute >= parameters.getTotalMinutes()) {
+                // Arriving after the end stops the load test.
+                nextArrivalNanos = fromNanos;
+                break;
+            }
+            long minuteEndNanos = startNanos + (minute + 1) * NANOS_PER_MINUTE;
+            double callsPerMinute = parameters.getCallsPerMinute(minute);
+            if (callsPerMinute > 0.0) {
+                // The interarrival times of a Poisson process are exponentially distributed.
+                double interarrivalMinutes = -Math.log(1.0 - random.nextDouble()) / callsPerMinute;
+                nextArrivalNanos = fromNanos + (long) (interarrivalMinutes * NANOS_PER_MINUTE);
+                if (nextArrivalNanos < minuteEndNanos) {
+                    break;
+                }
+            }
+            // The rate changes with the next minute of the trace. The process is memoryless, so draw again from there.
+            fromNanos = minuteEndNanos;
+        }
+        long arrivalNanos = nextArrivalNanos;
+        nextArrivalScheduledFuture = arrivalExecutorService.schedule(() -> arrive(arrivalNanos),
+                arrivalNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    private int nextCallDurationSeconds() {
+        int mean = parameters.getMeanCallDurationSeconds();
+        double seconds = switch (parameters.getDurationDistribution()) {
+            case CONSTANT -> mean;
+            case UNIFORM -> 1.0 + random.nextDouble() * (2.0 * mean - 1.0);
+            case EXPONENTIAL -> -Math.log(1.0 - random.nextDouble()) * mean;
+        };
+        return (int) Math.max(1L, Math.min(MAX_CALL_DURATION_SECONDS, Math.round(seconds)));
+    }
+}
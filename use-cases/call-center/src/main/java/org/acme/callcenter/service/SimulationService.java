@@ -1,7 +1,6 @@
 package org.acme.callcenter.service;
 
-import java.time.Duration;
-import java.time.LocalTime;
+import java.time.Instant;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
@@ -105,8 +104,8 @@ public class SimulationService {
         callsInProgress.computeIfPresent(callId, (id, callInProgress) -> {
             callInProgress.scheduledCallEnd.cancel(true);
             Call call = callInProgress.call;
-            Duration remaining = call.getDuration().minus(Duration.between(call.getPickUpTime(), LocalTime.now()));
-            long nextCallEndSeconds = remaining.plusMinutes(1).getSeconds(); // Prolong the call by a minute.
+            long remainingSeconds = call.getDurationSeconds() - (Instant.now().getEpochSecond() - call.getPickUpSeconds());
+            long nextCallEndSeconds = remainingSeconds + 60L; // Prolong the call by a minute.
             return new CallInProgress(call, scheduleCallEnd(call, nextCallEndSeconds, TimeUnit.SECONDS));
         });
     }
@@ -122,7 +121,7 @@ public class SimulationService {
                     ScheduledFuture<?> existingCallScheduledFuture =
                             scheduleCallEnd(call, call.getDuration().getSeconds(), TimeUnit.SECONDS);
                     // Pick-up time needs to be set, as it hasn't been propagated to this best solution yet.
-                    call.setPickUpTime(LocalTime.now());
+                    call.setPickUpSeconds(Instant.now().getEpochSecond());
                     return new CallInProgress(call, existingCallScheduledFuture);
                 });
             }
@@ -1,11 +1,19 @@
 package org.acme.callcenter.service;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -13,50 +21,135 @@ import org.acme.callcenter.domain.Agent;
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
 import org.acme.callcenter.solver.change.AddCallProblemChange;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
 import org.acme.callcenter.solver.change.PinCallProblemChange;
 import org.acme.callcenter.solver.change.ProlongCallByMinuteProblemChange;
+import org.acme.callcenter.solver.change.RefreshClockProblemChange;
 import org.acme.callcenter.solver.change.RemoveCallProblemChange;
 import ai.timefold.solver.core.api.solver.SolverManager;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 import ai.timefold.solver.core.api.solver.change.ProblemChange;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
 @ApplicationScoped
 public class SolverService {
 
     private final SolverManager<CallCenter, Long> solverManager;
     public static final long SINGLETON_ID = 1L;
 
-    private final BlockingQueue<WaitingProblemChange> waitingProblemChanges = new LinkedBlockingQueue<>();
+    /*
+     * Changes that wait for the solver to start again.
+     * Guarded by this, together with the start of the solver,
+     * so a change either waits and gets drained by the start, or goes to the started solver.
+     */
+    private final List<WaitingProblemChange> waitingProblemChanges = new ArrayList<>();
+
+    /*
+     * The id of the call each agent has picked up, pinned already or of which the pin is queued,
+     * so the best solutions that precede the pin do not pin the same call again.
+     */
+    private final Map<Long, Long> pickedUpCallIdByAgentId = new ConcurrentHashMap<>();
+
+    /*
+     * Every problem change restarts the solver, so the changes that arrive within the batch window
+     * are sent together as a single change.
+     */
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService batchExecutorService =
+            Executors.newSingleThreadScheduledExecutor(SolverService::newBatchThread);
+    // Guarded by this.
+    private final List<WaitingProblemChange> batchedProblemChanges = new ArrayList<>();
+    private ScheduledFuture<?> scheduledBatch;
+
+    // The solver sees the time of this clock once per batch, instead of looking at the time itself.
+    private final Clock clock;
 
     @Inject
-    public SolverService(SolverManager<CallCenter, Long> solverManager) {
+    public SolverService(SolverManager<CallCenter, Long> solverManager,
+            @ConfigProperty(name = "call-center.problem-change-batch.window") Duration batchWindow,
+            @ConfigProperty(name = "call-center.problem-change-batch.max-size") int maxBatchSize) {
+        this(solverManager, batchWindow, maxBatchSize, Clock.systemUTC());
+    }
+
+    SolverService(SolverManager<CallCenter, Long> solverManager, Duration batchWindow, int maxBatchSize,
+            Clock clock) {
+        if (batchWindow.isNegative()) {
+            throw new IllegalArgumentException("The batchWindow (" + batchWindow + ") must not be negative.");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The maxBatchSize (" + maxBatchSize + ") must be at least 1.");
+        }
         this.solverManager = solverManager;
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+        this.clock = clock;
     }
 
-    private void pinCallAssignedToAgents(List<Call> calls) {
-        calls.stream()
-                .filter(call -> !call.isPinned()
-                        && call.getPreviousCallOrAgent() != null
-                        && call.getPreviousCallOrAgent() instanceof Agent)
-                .map(PinCallProblemChange::new)
-                .forEach(problemChange -> solverManager.addProblemChange(SINGLETON_ID, problemChange));
+    @PreDestroy
+    void close() {
+        batchExecutorService.shutdownNow();
     }
 
-    public void startSolving(CallCenter inputProblem,
-            Consumer<CallCenter> bestSolutionConsumer, Consumer<Throwable> errorHandler) {
-        solverManager.solveAndListen(SINGLETON_ID, id -> inputProblem, bestSolution -> {
-            if (bestSolution.getScore().isSolutionInitialized()) {
-                bestSolutionConsumer.accept(bestSolution);
-                pinCallAssignedToAgents(bestSolution.getCalls());
+    private static Thread newBatchThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "ProblemChangeBatch");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Pins the calls that have just been picked up by an agent, all of them in a single problem change.
+     * Only the first call of every agent is picked up, so only those are looked at, instead of every call.
+     */
+    private void pinCallsPickedUpByAgents(List<Agent> agents) {
+        List<Call> pickedUpCalls = new ArrayList<>();
+        for (Agent agent : agents) {
+            Call call = agent.getNextCall();
+            if (call == null) {
+                continue;
+            }
+            Long previousCallId = pickedUpCallIdByAgentId.put(agent.getId(), call.getId());
+            if (!call.isPinned() && !call.getId().equals(previousCallId)) {
+                pickedUpCalls.add(call);
+            }
+        }
+        if (pickedUpCalls.isEmpty()) {
+            return;
+        }
+        List<ProblemChange<CallCenter>> pinChanges = new ArrayList<>(pickedUpCalls.size());
+        for (Call call : pickedUpCalls) {
+            pinChanges.add(new PinCallProblemChange(call));
+        }
+        ProblemChange<CallCenter> problemChange =
+                pinChanges.size() == 1 ? pinChanges.get(0) : new CompositeProblemChange(pinChanges);
+        registerProblemChange(problemChange).exceptionally(throwable -> {
+            // Pin these calls again with the next best solution.
+            for (Call call : pickedUpCalls) {
+                pickedUpCallIdByAgentId.remove(call.getPreviousCallOrAgent().getId(), call.getId());
             }
-        }, (id, error) -> errorHandler.accept(error));
+            return null;
+        });
+    }
 
-        for (WaitingProblemChange waitingProblemChange : waitingProblemChanges) {
-            CompletableFuture<Void> changeInProgress =
-                    solverManager.addProblemChange(SINGLETON_ID, waitingProblemChange.getProblemChange());
-            changeInProgress.thenRun(() -> waitingProblemChange.getCompletion().complete(null));
+    public void startSolving(CallCenter inputProblem,
+            Consumer<CallCenter> bestSolutionConsumer, Consumer<Throwable> errorHandler) {
+        pickedUpCallIdByAgentId.clear();
+        inputProblem.setClockSeconds(clock.instant().getEpochSecond());
+        List<WaitingProblemChange> startingProblemChanges;
+        synchronized (this) {
+            solverManager.solveAndListen(SINGLETON_ID, id -> inputProblem, bestSolution -> {
+                if (bestSolution.getScore().isSolutionInitialized()) {
+                    bestSolutionConsumer.accept(bestSolution);
+                    pinCallsPickedUpByAgents(bestSolution.getAgents());
+                }
+            }, (id, error) -> errorHandler.accept(error));
+            startingProblemChanges = new ArrayList<>(waitingProblemChanges);
+            waitingProblemChanges.clear();
+        }
+        if (!startingProblemChanges.isEmpty()) {
+            addProblemChanges(startingProblemChanges);
         }
-        waitingProblemChanges.clear();
     }
 
     public void stopSolving() {
@@ -80,17 +173,99 @@ public class SolverService {
     }
 
     private CompletableFuture<Void> registerProblemChange(ProblemChange<CallCenter> problemChange) {
+        /*
+         * Expose a temporary CompletableFuture that will get completed once the solver processes the change,
+         * which might be after the solver is started again.
+         */
+        WaitingProblemChange waitingProblemChange = new WaitingProblemChange(new CompletableFuture<>(), problemChange);
+        if (waitIfNotSolving(List.of(waitingProblemChange))) {
+            return waitingProblemChange.getCompletion();
+        }
+        if (batchWindow.isZero()) {
+            return solverManager.addProblemChange(SINGLETON_ID, refreshClock(problemChange));
+        }
+        batchProblemChange(waitingProblemChange);
+        return waitingProblemChange.getCompletion();
+    }
+
+    /**
+     * @return true if the solver is not solving, so the changes have been queued until it starts again
+     */
+    private synchronized boolean waitIfNotSolving(List<WaitingProblemChange> problemChanges) {
         if (isSolving()) {
-            return solverManager.addProblemChange(SINGLETON_ID, problemChange);
-        } else {
-            /*
-             * Expose a temporary CompletableFuture that will get completed once the solver is started again
-             * and processes the change.
-             */
-            CompletableFuture<Void> completion = new CompletableFuture<>();
-            waitingProblemChanges.add(new WaitingProblemChange(completion, problemChange));
-            return completion;
+            return false;
         }
+        waitingProblemChanges.addAll(problemChanges);
+        return true;
+    }
+
+    private synchronized void batchProblemChange(WaitingProblemChange waitingProblemChange) {
+        batchedProblemChanges.add(waitingProblemChange);
+        if (batchedProblemChanges.size() >= maxBatchSize) {
+            batchExecutorService.execute(this::sendBatch);
+        } else if (scheduledBatch == null) {
+            scheduledBatch = batchExecutorService.schedule(this::sendBatch, batchWindow.toNanos(),
+                    TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void sendBatch() {
+        List<WaitingProblemChange> batch;
+        synchronized (this) {
+            if (scheduledBatch != null) {
+                scheduledBatch.cancel(false);
+                scheduledBatch = null;
+            }
+            batch = new ArrayList<>(batchedProblemChanges);
+            batchedProblemChanges.clear();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        // The solver might have stopped during the batch window, then the changes wait for it to start again.
+        if (!waitIfNotSolving(batch)) {
+            addProblemChanges(batch);
+        }
+    }
+
+    /**
+     * Sends the changes to the solver as a single change and completes each of them once it has been processed.
+     * A change that fails only fails its own completion.
+     */
+    private void addProblemChanges(List<WaitingProblemChange> problemChanges) {
+        CompositeProblemChange compositeProblemChange = problemChanges.size() == 1 ? null
+                : new CompositeProblemChange(problemChanges.stream()
+                        .map(WaitingProblemChange::getProblemChange)
+                        .toList());
+        ProblemChange<CallCenter> problemChange = compositeProblemChange == null
+                ? problemChanges.get(0).getProblemChange()
+                : compositeProblemChange;
+        CompletableFuture<Void> completion;
+        try {
+            completion = solverManager.addProblemChange(SINGLETON_ID, refreshClock(problemChange));
+        } catch (RuntimeException e) {
+            // The solver stopped since the changes were batched, so they wait for it to start again.
+            if (waitIfNotSolving(problemChanges)) {
+                return;
+            }
+            completion = CompletableFuture.failedFuture(e);
+        }
+        completion.whenComplete((result, throwable) -> {
+            for (int i = 0; i < problemChanges.size(); i++) {
+                Throwable failure = throwable != null || compositeProblemChange == null
+                        ? throwable
+                        : compositeProblemChange.getFailure(i);
+                if (failure == null) {
+                    problemChanges.get(i).getCompletion().complete(null);
+                } else {
+                    problemChanges.get(i).getCompletion().completeExceptionally(failure);
+                }
+            }
+        });
+    }
+
+    private ProblemChange<CallCenter> refreshClock(ProblemChange<CallCenter> problemChange) {
+        return new RefreshClockProblemChange(clock.instant().getEpochSecond(), problemChange);
     }
 
     private static class WaitingProblemChange {
@@ -1,7 +1,5 @@
 package org.acme.callcenter.solver;
 
-import java.time.Duration;
-
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
 import org.acme.callcenter.domain.PreviousCallOrAgent;
@@ -41,24 +39,16 @@ public class ResponseTimeUpdatingVariableListener implements VariableListener<Ca
     }
 
     protected void updateResponseTime(ScoreDirector<CallCenter> scoreDirector, Call call) {
+        long clockSeconds = scoreDirector.getWorkingSolution().getClockSeconds();
         PreviousCallOrAgent previous = call.getPreviousCallOrAgent();
+        long estimatedWaitingSeconds = previous == null ? 0L : previous.getSecondsTillPickUp(clockSeconds);
         Call shadowCall = call;
-        Duration previousDurationTillPickUp = (previous == null ? null : previous.getDurationTillPickUp());
-        Duration estimatedWaiting = calculateWaitingTimeEstimate(shadowCall, previousDurationTillPickUp);
         while (shadowCall != null) {
-            scoreDirector.beforeVariableChanged(shadowCall, "estimatedWaiting");
-            shadowCall.setEstimatedWaiting(estimatedWaiting);
-            scoreDirector.afterVariableChanged(shadowCall, "estimatedWaiting");
-            previousDurationTillPickUp = shadowCall.getDurationTillPickUp();
+            scoreDirector.beforeVariableChanged(shadowCall, "estimatedWaitingSeconds");
+            shadowCall.setEstimatedWaitingSeconds(estimatedWaitingSeconds);
+            scoreDirector.afterVariableChanged(shadowCall, "estimatedWaitingSeconds");
+            estimatedWaitingSeconds = shadowCall.getSecondsTillPickUp(clockSeconds);
             shadowCall = shadowCall.getNextCall();
-            estimatedWaiting = calculateWaitingTimeEstimate(shadowCall, previousDurationTillPickUp);
-        }
-    }
-
-    private Duration calculateWaitingTimeEstimate(Call call, Duration previousEndTime) {
-        if (call == null || previousEndTime == null) {
-            return null;
         }
-        return previousEndTime;
     }
 }
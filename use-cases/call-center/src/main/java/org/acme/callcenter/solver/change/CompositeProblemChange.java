@@ -0,0 +1,45 @@
+package org.acme.callcenter.solver.change;
+
+import java.util.List;
+
+import org.acme.callcenter.domain.CallCenter;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Applies several problem changes in order, so the solver restarts once for all of them instead of once per change.
+ * <p>
+ * A change that fails is skipped instead of failing the others, and its failure is kept for {@link #getFailure(int)}.
+ * The changes look up the working objects they need before they change anything,
+ * so a failed change leaves the working solution as it was.
+ */
+public class CompositeProblemChange implements ProblemChange<CallCenter> {
+
+    private final List<ProblemChange<CallCenter>> problemChanges;
+    // Written by the solver thread, read once the solver has processed this change.
+    private final RuntimeException[] failures;
+
+    public CompositeProblemChange(List<ProblemChange<CallCenter>> problemChanges) {
+        this.problemChanges = List.copyOf(problemChanges);
+        this.failures = new RuntimeException[this.problemChanges.size()];
+    }
+
+    @Override
+    public void doChange(CallCenter workingCallCenter, ProblemChangeDirector problemChangeDirector) {
+        for (int i = 0; i < problemChanges.size(); i++) {
+            try {
+                problemChanges.get(i).doChange(workingCallCenter, problemChangeDirector);
+            } catch (RuntimeException e) {
+                failures[i] = e;
+            }
+        }
+    }
+
+    /**
+     * @param index the index of the change in the list given to the constructor
+     * @return null if the change has been applied or has not been processed yet
+     */
+    public RuntimeException getFailure(int index) {
+        return failures[index];
+    }
+}
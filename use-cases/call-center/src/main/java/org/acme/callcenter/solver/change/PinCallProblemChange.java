@@ -1,6 +1,6 @@
 package org.acme.callcenter.solver.change;
 
-import java.time.LocalTime;
+import java.util.Optional;
 
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
@@ -17,9 +17,14 @@ public class PinCallProblemChange implements ProblemChange<CallCenter> {
 
     @Override
     public void doChange(CallCenter workingCallCenter, ProblemChangeDirector problemChangeDirector) {
-        problemChangeDirector.changeProblemProperty(call, workingCall -> {
+        // The call might have ended already, or been pinned by an earlier change, which set its pick-up time.
+        Optional<Call> workingCallOptional = problemChangeDirector.lookUpWorkingObject(call);
+        if (workingCallOptional.isEmpty() || workingCallOptional.get().isPinned()) {
+            return;
+        }
+        problemChangeDirector.changeProblemProperty(workingCallOptional.get(), workingCall -> {
             workingCall.setPinned(true);
-            workingCall.setPickUpTime(LocalTime.now());
+            workingCall.setPickUpSeconds(workingCallCenter.getClockSeconds());
         });
     }
 }
@@ -1,7 +1,5 @@
 package org.acme.callcenter.solver.change;
 
-import java.time.Duration;
-
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
 import ai.timefold.solver.core.api.solver.change.ProblemChange;
@@ -9,7 +7,7 @@ import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
 
 public class ProlongCallByMinuteProblemChange implements ProblemChange<CallCenter> {
 
-    private static final Duration PROLONGATION = Duration.ofMinutes(1L);
+    private static final long PROLONGATION_SECONDS = 60L;
     private final long callId;
 
     public ProlongCallByMinuteProblemChange(long callId) {
@@ -21,6 +19,6 @@ public class ProlongCallByMinuteProblemChange implements ProblemChange<CallCente
         Call call = new Call(callId, null);
 
         problemChangeDirector.changeProblemProperty(call,
-                workingCall -> workingCall.setDuration(workingCall.getDuration().plus(PROLONGATION)));
+                workingCall -> workingCall.setDurationSeconds(workingCall.getDurationSeconds() + PROLONGATION_SECONDS));
     }
 }
@@ -0,0 +1,60 @@
+package org.acme.callcenter.solver.change;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+/**
+ * Moves the {@link CallCenter#getClockSeconds() clock} of the solver forward before applying another change,
+ * so the clock only moves once per batch of problem changes and the score is stable in between.
+ */
+public class RefreshClockProblemChange implements ProblemChange<CallCenter> {
+
+    private final long clockSeconds;
+    private final ProblemChange<CallCenter> problemChange;
+
+    /**
+     * @param clockSeconds in epoch seconds
+     * @param problemChange never null, applied after the clock has moved
+     */
+    public RefreshClockProblemChange(long clockSeconds, ProblemChange<CallCenter> problemChange) {
+        this.clockSeconds = clockSeconds;
+        this.problemChange = problemChange;
+    }
+
+    public ProblemChange<CallCenter> getProblemChange() {
+        return problemChange;
+    }
+
+    @Override
+    public void doChange(CallCenter workingCallCenter, ProblemChangeDirector problemChangeDirector) {
+        problemChangeDirector.changeProblemProperty(workingCallCenter.getClock(),
+                workingClock -> workingClock.setSeconds(clockSeconds));
+        for (Agent agent : workingCallCenter.getAgents()) {
+            // Only a call in progress depends on the clock, and it is the first one of its agent.
+            Call firstCall = agent.getNextCall();
+            if (firstCall != null && firstCall.isPickedUp()) {
+                updateEstimatedWaitingAfter(firstCall, problemChangeDirector);
+            }
+        }
+        problemChange.doChange(workingCallCenter, problemChangeDirector);
+    }
+
+    /**
+     * The variable listener only reacts to a change of the chain, not to the clock,
+     * so the waiting of the calls after the call in progress is changed here, until a waiting stays the same.
+     */
+    private void updateEstimatedWaitingAfter(Call callInProgress, ProblemChangeDirector problemChangeDirector) {
+        long estimatedWaitingSeconds = callInProgress.getSecondsTillPickUp(clockSeconds);
+        Call call = callInProgress.getNextCall();
+        while (call != null && call.getEstimatedWaitingSeconds() != estimatedWaitingSeconds) {
+            long newEstimatedWaitingSeconds = estimatedWaitingSeconds;
+            problemChangeDirector.changeVariable(call, "estimatedWaitingSeconds",
+                    workingCall -> workingCall.setEstimatedWaitingSeconds(newEstimatedWaitingSeconds));
+            estimatedWaitingSeconds = call.getSecondsTillPickUp(clockSeconds);
+            call = call.getNextCall();
+        }
+    }
+}
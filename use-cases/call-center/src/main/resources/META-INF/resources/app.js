@@ -7,6 +7,7 @@ const skillToColorMap = new Map([
   ['Life insurance', '#73d216']
 ]);
 
+const otherSkillColor = '#d3d7cf';
 const pinnedCallColor = '#ebfadc';
 const waitingCallColor = 'White';
 
@@ -122,7 +123,7 @@ function printSkills(container, skills) {
   const skillRow = $(`<div/>`);
   container.append(skillRow);
   skills.forEach((skill) => {
-    let color = skillToColorMap.get(skill);
+    let color = skillToColorMap.get(skill) ?? otherSkillColor;
     skillRow.append($(`<span class="badge me-1 mt-1" style="background-color:${color}">${skill}</span>`));
   });
 }
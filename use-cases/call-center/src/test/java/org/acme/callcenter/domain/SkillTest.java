@@ -0,0 +1,67 @@
+package org.acme.callcenter.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SkillTest {
+
+    @Test
+    void bitsPerCatalog() {
+        assertThat(SkillCatalog.DEFAULT.get("EN")).isSameAs(Skill.ENGLISH);
+        SkillCatalog skillCatalog = SkillCatalog.of(List.of("EN", "Pet insurance"));
+        assertThat(skillCatalog.get("Pet insurance")).isSameAs(skillCatalog.get("Pet insurance"));
+        assertThat(skillCatalog.get("Pet insurance").getMask()).isEqualTo(2L);
+        // Another catalog does not use up bits.
+        assertThat(SkillCatalog.of(List.of("Pet insurance")).get("Pet insurance").getMask()).isEqualTo(1L);
+    }
+
+    @Test
+    void readSkillsFromJson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Set<Skill> skills = objectMapper.readValue("[\"Car insurance\", \"EN\"]", new TypeReference<Set<Skill>>() {
+        });
+        assertThat(skills).containsExactlyInAnyOrder(Skill.ENGLISH, Skill.CAR_INSURANCE);
+        assertThat(objectMapper.writeValueAsString(Skill.ENGLISH)).isEqualTo("\"EN\"");
+        assertThatThrownBy(() -> objectMapper.readValue("\"Pet insurance\"", Skill.class))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectUnknownOrTooManySkills() {
+        assertThatThrownBy(() -> SkillCatalog.DEFAULT.get("Pet insurance"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SkillCatalog.of(List.of("EN", "EN")))
+                .isInstanceOf(IllegalArgumentException.class);
+        List<String> names = IntStream.rangeClosed(0, SkillCatalog.MAX_SKILL_COUNT)
+                .mapToObj(i -> "Skill " + i)
+                .toList();
+        assertThat(SkillCatalog.of(names.subList(0, SkillCatalog.MAX_SKILL_COUNT)).getSkills())
+                .hasSize(SkillCatalog.MAX_SKILL_COUNT);
+        assertThatThrownBy(() -> SkillCatalog.of(names))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void missingSkillCount() {
+        SkillCatalog skillCatalog = SkillCatalog.of(List.of("EN", "NL", "Car insurance", "Life insurance"));
+        Skill dutch = skillCatalog.get("NL");
+        Skill carInsurance = skillCatalog.get("Car insurance");
+        Skill lifeInsurance = skillCatalog.get("Life insurance");
+        Agent agent = new Agent(1L, "Ann", skillCatalog.get(List.of("EN", "NL", "Car insurance")));
+        Call call = new Call(2L, "123-456-7890", dutch, carInsurance, lifeInsurance);
+        assertThat(call.getMissingSkillCount()).isZero();
+        call.setAgent(agent);
+        assertThat(call.getMissingSkillCount()).isEqualTo(1);
+        assertThat(call.getRequiredSkillMask())
+                .isEqualTo(dutch.getMask() | carInsurance.getMask() | lifeInsurance.getMask());
+    }
+}
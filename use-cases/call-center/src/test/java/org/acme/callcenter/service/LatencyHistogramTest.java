@@ -0,0 +1,66 @@
+package org.acme.callcenter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void emptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencySummary summary = histogram.toSummary();
+        assertThat(summary.count()).isZero();
+        assertThat(summary.p99Micros()).isZero();
+        assertThat(summary.maxMicros()).isZero();
+    }
+
+    @Test
+    void exactBelowSubBucketCount() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1L; micros <= 100L; micros++) {
+            histogram.recordMicros(micros);
+        }
+        assertThat(histogram.getCount()).isEqualTo(100L);
+        assertThat(histogram.getMicrosAtPercentile(50.0)).isEqualTo(50L);
+        assertThat(histogram.getMicrosAtPercentile(99.0)).isEqualTo(99L);
+        assertThat(histogram.getMicrosAtPercentile(100.0)).isEqualTo(100L);
+        assertThat(histogram.getMeanMicros()).isCloseTo(50.5, within(0.001));
+    }
+
+    @Test
+    void percentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1L; millis <= 1_000L; millis++) {
+            histogram.recordNanos(millis * 1_000_000L);
+        }
+        assertThat(histogram.getCount()).isEqualTo(1_000L);
+        assertThat(histogram.getMaxMicros()).isEqualTo(1_000_000L);
+        // The buckets split every power of two in 64, so a value is off by less than 1/64.
+        assertThat(histogram.getMicrosAtPercentile(50.0)).isCloseTo(500_000L, within(500_000L / 64));
+        assertThat(histogram.getMicrosAtPercentile(90.0)).isCloseTo(900_000L, within(900_000L / 64));
+        assertThat(histogram.getMicrosAtPercentile(99.9)).isCloseTo(999_000L, within(999_000L / 64));
+        assertThat(histogram.getMicrosAtPercentile(100.0)).isEqualTo(1_000_000L);
+    }
+
+    @Test
+    void bucketsCoverEveryValue() {
+        long previousHighest = -1L;
+        for (long value : new long[] { 0L, 127L, 128L, 129L, 255L, 256L, 1_000_003L, Long.MAX_VALUE }) {
+            int bucketIndex = LatencyHistogram.bucketIndex(value);
+            long highest = LatencyHistogram.highestEquivalentValue(bucketIndex);
+            assertThat(highest).isGreaterThanOrEqualTo(value);
+            assertThat(highest).isGreaterThanOrEqualTo(previousHighest);
+            assertThat(LatencyHistogram.bucketIndex(highest)).isEqualTo(bucketIndex);
+            previousHighest = highest;
+        }
+    }
+
+    @Test
+    void negativeRecordedAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(-5_000L);
+        assertThat(histogram.getMicrosAtPercentile(100.0)).isZero();
+    }
+}
@@ -0,0 +1,287 @@
+package org.acme.callcenter.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Proxy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import org.acme.callcenter.domain.Agent;
+import org.acme.callcenter.domain.Call;
+import org.acme.callcenter.domain.CallCenter;
+import org.acme.callcenter.domain.Skill;
+import org.acme.callcenter.solver.change.AddCallProblemChange;
+import org.acme.callcenter.solver.change.CompositeProblemChange;
+import org.acme.callcenter.solver.change.PinCallProblemChange;
+import org.acme.callcenter.solver.change.RefreshClockProblemChange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+class ProblemChangeBatchingTest {
+
+    private final List<ProblemChange<CallCenter>> sentProblemChanges = new CopyOnWriteArrayList<>();
+    private Consumer<CallCenter> bestSolutionConsumer;
+    private volatile SolverStatus solverStatus = SolverStatus.SOLVING_ACTIVE;
+    private volatile RuntimeException addProblemChangeException = null;
+    private volatile boolean stopSolvingOnAddProblemChange = false;
+    // If not null, the sent changes are applied to an empty call center.
+    private volatile ProblemChangeDirector sentProblemChangeDirector = null;
+
+    @Test
+    @Timeout(10)
+    void sendChangesWithinWindowAsOne() throws Exception {
+        SolverService solverService = new SolverService(solverManager(), Duration.ofMillis(200), 100);
+        List<CompletableFuture<Void>> completions = IntStream.range(0, 5)
+                .mapToObj(i -> solverService.addCall(new Call(i, "123-456-789" + i, Skill.ENGLISH)))
+                .toList();
+        CompletableFuture.allOf(completions.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(sentProblemChanges).hasSize(1);
+        assertThat(unwrapSentProblemChange(0)).isInstanceOf(CompositeProblemChange.class);
+    }
+
+    @Test
+    @Timeout(10)
+    void sendFullBatchBeforeWindowEnds() throws Exception {
+        SolverService solverService = new SolverService(solverManager(), Duration.ofHours(1), 2);
+        CompletableFuture<Void> first = solverService.addCall(new Call(1L, "123-456-7891", Skill.ENGLISH));
+        CompletableFuture<Void> second = solverService.removeCall(1L);
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+
+        assertThat(sentProblemChanges).hasSize(1);
+    }
+
+    @Test
+    @Timeout(10)
+    void failBatchWhenSolverRejectsIt() {
+        SolverService solverService = new SolverService(solverManager(), Duration.ofHours(1), 2);
+        addProblemChangeException = new IllegalStateException("Rejected.");
+        CompletableFuture<Void> first = solverService.addCall(new Call(1L, "123-456-7891", Skill.ENGLISH));
+        CompletableFuture<Void> second = solverService.addCall(new Call(2L, "123-456-7892", Skill.ENGLISH));
+
+        assertThatThrownBy(() -> CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(second).isCompletedExceptionally();
+    }
+
+    @Test
+    @Timeout(10)
+    @SuppressWarnings("unchecked")
+    void failOnlyTheFailingChangeOfBatch() throws Exception {
+        SolverService solverService = new SolverService(solverManager(), Duration.ofHours(1), 2);
+        List<Object> addedEntities = new ArrayList<>();
+        sentProblemChangeDirector = (ProblemChangeDirector) Proxy.newProxyInstance(
+                ProblemChangeDirector.class.getClassLoader(), new Class<?>[] { ProblemChangeDirector.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "addEntity":
+                            addedEntities.add(args[0]);
+                            return null;
+                        case "changeProblemProperty":
+                            if (args[0] instanceof Call) {
+                                throw new IllegalArgumentException("Unknown call.");
+                            }
+                            ((Consumer<Object>) args[1]).accept(args[0]);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        CompletableFuture<Void> prolonged = solverService.prolongCall(1L);
+        Call call = new Call(2L, "123-456-7892", Skill.ENGLISH);
+        CompletableFuture<Void> added = solverService.addCall(call);
+
+        added.get(5, TimeUnit.SECONDS);
+        assertThat(addedEntities).containsExactly(call);
+        assertThatThrownBy(() -> prolonged.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(sentProblemChanges).hasSize(1);
+    }
+
+    @Test
+    @Timeout(10)
+    void requeueBatchWhenSolverStopped() throws Exception {
+        SolverService solverService = new SolverService(solverManager(), Duration.ofHours(1), 2);
+        // The solver stops between the status check of the batch and sending it.
+        addProblemChangeException = new IllegalStateException("Not solving.");
+        stopSolvingOnAddProblemChange = true;
+        CompletableFuture<Void> first = solverService.addCall(new Call(1L, "123-456-7891", Skill.ENGLISH));
+        CompletableFuture<Void> second = solverService.addCall(new Call(2L, "123-456-7892", Skill.ENGLISH));
+        Thread.sleep(200L);
+        assertThat(first).isNotDone();
+
+        addProblemChangeException = null;
+        solverStatus = SolverStatus.SOLVING_ACTIVE;
+        solverService.startSolving(new CallCenter(Set.of(Skill.ENGLISH), List.of(), List.of()), bestSolution -> {
+        }, throwable -> {
+        });
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertThat(sentProblemChanges).hasSize(1);
+    }
+
+    @Test
+    void sendOneByOneWithoutWindow() {
+        SolverService solverService = new SolverService(solverManager(), Duration.ZERO, 100);
+        solverService.addCall(new Call(1L, "123-456-7891", Skill.ENGLISH));
+        solverService.addCall(new Call(2L, "123-456-7892", Skill.ENGLISH));
+
+        assertThat(sentProblemChanges).hasSize(2);
+        assertThat(unwrapSentProblemChange(0)).isInstanceOf(AddCallProblemChange.class);
+    }
+
+    @Test
+    void pinPickedUpCallsOnce() {
+        SolverService solverService = new SolverService(solverManager(), Duration.ZERO, 100);
+        Agent agent = new Agent(1L, "Agent", Skill.ENGLISH);
+        Agent otherAgent = new Agent(2L, "Other agent", Skill.ENGLISH);
+        Call pickedUpCall = new Call(3L, "123-456-7893", Skill.ENGLISH);
+        Call pinnedCall = new Call(4L, "123-456-7894", Skill.ENGLISH);
+        Call waitingCall = new Call(5L, "123-456-7895", Skill.ENGLISH);
+        pickedUpCall.setPreviousCallOrAgent(agent);
+        agent.setNextCall(pickedUpCall);
+        pinnedCall.setPreviousCallOrAgent(otherAgent);
+        pinnedCall.setPinned(true);
+        otherAgent.setNextCall(pinnedCall);
+        waitingCall.setPreviousCallOrAgent(pickedUpCall);
+        pickedUpCall.setNextCall(waitingCall);
+        CallCenter callCenter = new CallCenter(Set.of(Skill.ENGLISH), List.of(agent, otherAgent),
+                List.of(pickedUpCall, pinnedCall, waitingCall));
+        callCenter.setScore(HardSoftScore.ZERO);
+
+        solverService.startSolving(callCenter, bestSolution -> {
+        }, throwable -> {
+        });
+        bestSolutionConsumer.accept(callCenter);
+        // The pin has not reached the best solution yet.
+        bestSolutionConsumer.accept(callCenter);
+        assertThat(sentProblemChanges).hasSize(1);
+        assertThat(unwrapSentProblemChange(0)).isInstanceOf(PinCallProblemChange.class);
+
+        // Both agents finished their call and picked up the next one.
+        Call secondPickedUpCall = new Call(6L, "123-456-7896", Skill.ENGLISH);
+        secondPickedUpCall.setPreviousCallOrAgent(agent);
+        agent.setNextCall(secondPickedUpCall);
+        waitingCall.setPreviousCallOrAgent(otherAgent);
+        otherAgent.setNextCall(waitingCall);
+        CallCenter nextCallCenter = new CallCenter(Set.of(Skill.ENGLISH), List.of(agent, otherAgent),
+                List.of(secondPickedUpCall, waitingCall));
+        nextCallCenter.setScore(HardSoftScore.ZERO);
+        bestSolutionConsumer.accept(nextCallCenter);
+        assertThat(sentProblemChanges).hasSize(2);
+        assertThat(unwrapSentProblemChange(1)).isInstanceOf(CompositeProblemChange.class);
+    }
+
+    @Test
+    void pinWithSolverClock() {
+        Instant now = Instant.parse("2023-12-01T10:15:30Z");
+        SolverService solverService = new SolverService(solverManager(), Duration.ZERO, 100,
+                Clock.fixed(now, ZoneOffset.UTC));
+        Agent agent = new Agent(1L, "Agent", Skill.ENGLISH);
+        Call pickedUpCall = new Call(2L, "123-456-7892", Set.of(Skill.ENGLISH), 60);
+        Call waitingCall = new Call(3L, "123-456-7893", Set.of(Skill.ENGLISH), 60);
+        pickedUpCall.setPreviousCallOrAgent(agent);
+        pickedUpCall.setPinned(true);
+        pickedUpCall.setPickUpSeconds(now.getEpochSecond() - 100L);
+        agent.setNextCall(pickedUpCall);
+        waitingCall.setPreviousCallOrAgent(pickedUpCall);
+        waitingCall.setEstimatedWaitingSeconds(60L);
+        pickedUpCall.setNextCall(waitingCall);
+        Call newlyPickedUpCall = new Call(4L, "123-456-7894", Set.of(Skill.ENGLISH), 60);
+        Agent otherAgent = new Agent(5L, "Other agent", Skill.ENGLISH);
+        newlyPickedUpCall.setPreviousCallOrAgent(otherAgent);
+        otherAgent.setNextCall(newlyPickedUpCall);
+        CallCenter callCenter = new CallCenter(Set.of(Skill.ENGLISH), List.of(agent, otherAgent),
+                List.of(pickedUpCall, waitingCall, newlyPickedUpCall));
+        callCenter.setScore(HardSoftScore.ZERO);
+        solverService.startSolving(callCenter, bestSolution -> {
+        }, throwable -> {
+        });
+        assertThat(callCenter.getClockSeconds()).isEqualTo(now.getEpochSecond());
+
+        callCenter.setClockSeconds(0L);
+        bestSolutionConsumer.accept(callCenter);
+        List<Object> changedVariableEntities = new ArrayList<>();
+        sentProblemChanges.get(0).doChange(callCenter, problemChangeDirector(changedVariableEntities));
+
+        assertThat(callCenter.getClockSeconds()).isEqualTo(now.getEpochSecond());
+        assertThat(newlyPickedUpCall.getPickUpSeconds()).isEqualTo(now.getEpochSecond());
+        // The call in progress has 100 of its 60 seconds behind it, so the waiting estimates after it change.
+        assertThat(pickedUpCall.getSecondsTillPickUp(callCenter.getClockSeconds())).isEqualTo(-40L);
+        assertThat(changedVariableEntities).containsExactly(waitingCall);
+        assertThat(waitingCall.getEstimatedWaitingSeconds()).isEqualTo(-40L);
+    }
+
+    private ProblemChange<CallCenter> unwrapSentProblemChange(int index) {
+        ProblemChange<CallCenter> problemChange = sentProblemChanges.get(index);
+        assertThat(problemChange).isInstanceOf(RefreshClockProblemChange.class);
+        return ((RefreshClockProblemChange) problemChange).getProblemChange();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProblemChangeDirector problemChangeDirector(List<Object> changedVariableEntities) {
+        return (ProblemChangeDirector) Proxy.newProxyInstance(ProblemChangeDirector.class.getClassLoader(),
+                new Class<?>[] { ProblemChangeDirector.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "lookUpWorkingObject":
+                            return Optional.of(args[0]);
+                        case "changeProblemProperty":
+                            ((Consumer<Object>) args[1]).accept(args[0]);
+                            return null;
+                        case "changeVariable":
+                            changedVariableEntities.add(args[0]);
+                            ((Consumer<Object>) args[2]).accept(args[0]);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @SuppressWarnings("unchecked")
+    private SolverManager<CallCenter, Long> solverManager() {
+        return (SolverManager<CallCenter, Long>) Proxy.newProxyInstance(SolverManager.class.getClassLoader(),
+                new Class<?>[] { SolverManager.class }, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getSolverStatus":
+                            return solverStatus;
+                        case "solveAndListen":
+                            bestSolutionConsumer = (Consumer<CallCenter>) args[2];
+                            return null;
+                        case "addProblemChange":
+                            if (addProblemChangeException != null) {
+                                if (stopSolvingOnAddProblemChange) {
+                                    solverStatus = SolverStatus.NOT_SOLVING;
+                                }
+                                throw addProblemChangeException;
+                            }
+                            ProblemChange<CallCenter> problemChange = (ProblemChange<CallCenter>) args[1];
+                            sentProblemChanges.add(problemChange);
+                            if (sentProblemChangeDirector != null) {
+                                problemChange.doChange(new CallCenter(Set.of(Skill.ENGLISH), List.of(), List.of()),
+                                        sentProblemChangeDirector);
+                            }
+                            return CompletableFuture.completedFuture(null);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -1,6 +1,7 @@
 package org.acme.callcenter.solver;
 
 import java.time.Duration;
+import java.util.List;
 
 import jakarta.inject.Inject;
 
@@ -8,6 +9,7 @@ import org.acme.callcenter.domain.Agent;
 import org.acme.callcenter.domain.Call;
 import org.acme.callcenter.domain.CallCenter;
 import org.acme.callcenter.domain.Skill;
+import org.acme.callcenter.domain.SkillCatalog;
 import org.junit.jupiter.api.Test;
 import ai.timefold.solver.test.api.score.stream.ConstraintVerifier;
 
@@ -30,6 +32,19 @@ class CallCenterConstraintProviderTest {
                 .penalizesBy(2);
     }
 
+    @Test
+    void noDataDrivenSkillMissing() {
+        SkillCatalog skillCatalog = SkillCatalog.of(List.of("EN", "FR", "Travel insurance"));
+        Skill french = skillCatalog.get("FR");
+        Agent agent = new Agent(1L, "Carl", skillCatalog.get("EN"), french);
+        Call call = new Call(1L, "123-456-7890", french, skillCatalog.get("Travel insurance"));
+        call.setPreviousCallOrAgent(agent);
+        call.setAgent(agent);
+        constraintVerifier.verifyThat(CallCenterConstraintsProvider::noRequiredSkillMissing)
+                .given(call, agent)
+                .penalizesBy(1);
+    }
+
     @Test
     void minimizeWaitingTime() {
         Agent agent = new Agent(1L, "Carl", Skill.ENGLISH);
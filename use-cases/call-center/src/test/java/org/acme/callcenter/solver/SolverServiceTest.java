@@ -2,6 +2,7 @@ package org.acme.callcenter.solver;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -72,7 +73,8 @@ public class SolverServiceTest {
                 .findFirst()
                 .orElseGet(() -> Assertions.fail("The expected prolonged call has not been found."));
         assertThat(prolongedCall.getDuration()).hasMinutes(1L);
-        assertThat(prolongedCall.getDurationTillPickUp()).hasMinutes(1L);
+        assertThat(Duration.ofSeconds(prolongedCall.getSecondsTillPickUp(bestSolution.getClockSeconds())))
+                .hasMinutes(1L);
     }
 
     @Test
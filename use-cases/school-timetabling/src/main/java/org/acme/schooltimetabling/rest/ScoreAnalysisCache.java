@@ -0,0 +1,86 @@
+package org.acme.schooltimetabling.rest;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import ai.timefold.solver.core.api.score.analysis.ScoreAnalysis;
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.ScoreAnalysisFetchPolicy;
+
+import org.acme.schooltimetabling.domain.Timetable;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Remembers the score analyses of recently analyzed timetables,
+ * so submitting the same timetable again does not evaluate all constraints again.
+ * <p>
+ * Timetables are identified by a SHA-256 hash of their JSON content,
+ * so equal timetables match even if they are different instances.
+ */
+@Singleton
+public class ScoreAnalysisCache {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Key, ScoreAnalysis<HardSoftScore>> keyToScoreAnalysis;
+
+    @Inject
+    public ScoreAnalysisCache(ObjectMapper objectMapper,
+            @ConfigProperty(name = "timetabling.score-analysis-cache.max-size") int maxSize) {
+        this.objectMapper = objectMapper;
+        // Least recently used analyses are evicted first.
+        this.keyToScoreAnalysis = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ScoreAnalysis<HardSoftScore>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param timetable never null
+     * @param fetchPolicy null for the default fetch policy
+     * @param analyzer never null, analyzes the timetable if it was not analyzed recently with the same fetch policy
+     * @return never null
+     */
+    public ScoreAnalysis<HardSoftScore> computeIfAbsent(Timetable timetable, ScoreAnalysisFetchPolicy fetchPolicy,
+            Supplier<ScoreAnalysis<HardSoftScore>> analyzer) {
+        // Hash before analyzing, because analyzing updates the score of the timetable.
+        Key key = new Key(calculateContentHash(timetable), fetchPolicy);
+        synchronized (keyToScoreAnalysis) {
+            ScoreAnalysis<HardSoftScore> scoreAnalysis = keyToScoreAnalysis.get(key);
+            if (scoreAnalysis != null) {
+                return scoreAnalysis;
+            }
+        }
+        // Analyze outside of the lock, so other timetables are not blocked meanwhile.
+        ScoreAnalysis<HardSoftScore> scoreAnalysis = analyzer.get();
+        synchronized (keyToScoreAnalysis) {
+            keyToScoreAnalysis.put(key, scoreAnalysis);
+        }
+        return scoreAnalysis;
+    }
+
+    private String calculateContentHash(Timetable timetable) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(objectMapper.writeValueAsBytes(timetable)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Every JVM supports SHA-256.", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed serializing the timetable (" + timetable.getName() + ").", e);
+        }
+    }
+
+    private record Key(String contentHash, ScoreAnalysisFetchPolicy fetchPolicy) {
+    }
+}
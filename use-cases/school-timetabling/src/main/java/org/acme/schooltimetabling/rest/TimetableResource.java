@@ -47,6 +47,7 @@ public class TimetableResource {
 
     private final SolverManager<Timetable, String> solverManager;
     private final SolutionManager<Timetable, HardSoftScore> solutionManager;
+    private final ScoreAnalysisCache scoreAnalysisCache;
 
     // TODO: Without any "time to live", the map may eventually grow out of memory.
     private final ConcurrentMap<String, Job> jobIdToJob = new ConcurrentHashMap<>();
@@ -55,12 +56,15 @@ public class TimetableResource {
     public TimetableResource() {
         this.solverManager = null;
         this.solutionManager = null;
+        this.scoreAnalysisCache = null;
     }
 
     @Inject
-    public TimetableResource(SolverManager<Timetable, String> solverManager, SolutionManager<Timetable, HardSoftScore> solutionManager) {
+    public TimetableResource(SolverManager<Timetable, String> solverManager, SolutionManager<Timetable, HardSoftScore> solutionManager,
+            ScoreAnalysisCache scoreAnalysisCache) {
         this.solverManager = solverManager;
         this.solutionManager = solutionManager;
+        this.scoreAnalysisCache = scoreAnalysisCache;
     }
 
     @Operation(summary = "List the job IDs of all submitted timetables.")
@@ -105,7 +109,8 @@ public class TimetableResource {
     @Produces(MediaType.APPLICATION_JSON)
     @Path("analyze")
     public ScoreAnalysis<HardSoftScore> analyze(Timetable problem, @QueryParam("fetchPolicy") ScoreAnalysisFetchPolicy fetchPolicy) {
-        return fetchPolicy == null ? solutionManager.analyze(problem) : solutionManager.analyze(problem, fetchPolicy);
+        return scoreAnalysisCache.computeIfAbsent(problem, fetchPolicy,
+                () -> fetchPolicy == null ? solutionManager.analyze(problem) : solutionManager.analyze(problem, fetchPolicy));
     }
 
     @Operation(
@@ -0,0 +1,81 @@
+package org.acme.schooltimetabling.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Inject;
+
+import ai.timefold.solver.core.api.score.analysis.ScoreAnalysis;
+import ai.timefold.solver.core.api.score.buildin.hardsoft.HardSoftScore;
+import ai.timefold.solver.core.api.solver.ScoreAnalysisFetchPolicy;
+import ai.timefold.solver.core.api.solver.SolutionManager;
+
+import org.acme.schooltimetabling.domain.Lesson;
+import org.acme.schooltimetabling.domain.Room;
+import org.acme.schooltimetabling.domain.Timeslot;
+import org.acme.schooltimetabling.domain.Timetable;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class ScoreAnalysisCacheTest {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    SolutionManager<Timetable, HardSoftScore> solutionManager;
+
+    @Test
+    void analyzeEqualTimetablesOnce() {
+        ScoreAnalysisCache scoreAnalysisCache = new ScoreAnalysisCache(objectMapper, 10);
+        AtomicInteger analyzeCount = new AtomicInteger();
+
+        ScoreAnalysis<HardSoftScore> scoreAnalysis = analyze(scoreAnalysisCache, createTimetable("Room1"), null,
+                analyzeCount);
+        assertThat(analyzeCount).hasValue(1);
+        // Equal content, different instances.
+        assertThat(analyze(scoreAnalysisCache, createTimetable("Room1"), null, analyzeCount)).isSameAs(scoreAnalysis);
+        assertThat(analyzeCount).hasValue(1);
+
+        analyze(scoreAnalysisCache, createTimetable("Room1"), ScoreAnalysisFetchPolicy.FETCH_SHALLOW, analyzeCount);
+        assertThat(analyzeCount).hasValue(2);
+        analyze(scoreAnalysisCache, createTimetable("Room2"), null, analyzeCount);
+        assertThat(analyzeCount).hasValue(3);
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        ScoreAnalysisCache scoreAnalysisCache = new ScoreAnalysisCache(objectMapper, 1);
+        AtomicInteger analyzeCount = new AtomicInteger();
+        analyze(scoreAnalysisCache, createTimetable("Room1"), null, analyzeCount);
+        analyze(scoreAnalysisCache, createTimetable("Room2"), null, analyzeCount);
+        analyze(scoreAnalysisCache, createTimetable("Room1"), null, analyzeCount);
+        assertThat(analyzeCount).hasValue(3);
+    }
+
+    private ScoreAnalysis<HardSoftScore> analyze(ScoreAnalysisCache scoreAnalysisCache, Timetable timetable,
+            ScoreAnalysisFetchPolicy fetchPolicy, AtomicInteger analyzeCount) {
+        return scoreAnalysisCache.computeIfAbsent(timetable, fetchPolicy, () -> {
+            analyzeCount.incrementAndGet();
+            return fetchPolicy == null ? solutionManager.analyze(timetable)
+                    : solutionManager.analyze(timetable, fetchPolicy);
+        });
+    }
+
+    private static Timetable createTimetable(String roomName) {
+        Room room = new Room(1, roomName);
+        Timeslot timeslot = new Timeslot(1, DayOfWeek.MONDAY, LocalTime.NOON);
+        List<Lesson> lessons = List.of(
+                new Lesson(1, "Math", "A. Turing", "9th grade", timeslot, room),
+                new Lesson(2, "Physics", "M. Curie", "9th grade", timeslot, room));
+        return new Timetable("test", List.of(timeslot), List.of(room), lessons);
+    }
+}
@@ -0,0 +1,68 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource.DemoData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Euclidean distance of single location pairs and of a whole distance matrix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceCalculatorBenchmark {
+
+    @Param({ "FIRENZE" })
+    public DemoData demoData;
+
+    // From 2 depots and less than 100 customers up to a few thousand locations.
+    @Param({ "1", "10", "50" })
+    public int copyCount;
+
+    private final DistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+    private List<Location> locations;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        locations = BenchmarkData.build(demoData, copyCount).getLocations();
+    }
+
+    /**
+     * @return the sum of the distances between consecutive locations, so nothing is optimized away
+     */
+    @Benchmark
+    public long calculateDistance() {
+        long sum = 0L;
+        Location previousLocation = locations.get(locations.size() - 1);
+        for (Location location : locations) {
+            sum += distanceCalculator.calculateDistance(previousLocation, location);
+            previousLocation = location;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public DistanceMatrix initDistanceMatrix() {
+        return distanceCalculator.initDistanceMatrix(locations);
+    }
+}
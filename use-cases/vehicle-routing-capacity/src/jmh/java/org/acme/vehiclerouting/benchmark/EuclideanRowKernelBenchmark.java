@@ -0,0 +1,76 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.EuclideanRowKernel;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource.DemoData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the scalar and the SIMD kernel on every row of a distance matrix, single threaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class EuclideanRowKernelBenchmark {
+
+    public enum RowKernel {
+        SCALAR,
+        VECTOR
+    }
+
+    @Param({ "FIRENZE" })
+    public DemoData demoData;
+
+    @Param({ "1", "10", "50" })
+    public int copyCount;
+
+    @Param
+    public RowKernel rowKernel;
+
+    private EuclideanRowKernel kernel;
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] row;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kernel = switch (rowKernel) {
+            case SCALAR -> EuclideanRowKernel.scalar();
+            case VECTOR -> EuclideanRowKernel.vector().orElseThrow();
+        };
+        List<Location> locations = BenchmarkData.build(demoData, copyCount).getLocations();
+        latitudes = locations.stream().mapToDouble(Location::getLatitude).toArray();
+        longitudes = locations.stream().mapToDouble(Location::getLongitude).toArray();
+        row = new long[locations.size()];
+    }
+
+    /**
+     * @return the sum of the distances, so nothing is optimized away
+     */
+    @Benchmark
+    public long calculateAllRows() {
+        long sum = 0L;
+        for (int from = 0; from < latitudes.length; from++) {
+            kernel.calculateRow(latitudes[from], longitudes[from], latitudes, longitudes, row);
+            sum += row[from == 0 ? row.length - 1 : from - 1];
+        }
+        return sum;
+    }
+}
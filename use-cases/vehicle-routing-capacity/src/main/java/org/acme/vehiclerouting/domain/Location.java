@@ -1,6 +1,6 @@
 package org.acme.vehiclerouting.domain;
 
-import java.util.Map;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonFormat;
@@ -14,7 +14,9 @@ public class Location {
     private double longitude;
 
     @JsonIgnore
-    private Map<Location, Long> distanceMap;
+    private DistanceMatrix distanceMatrix;
+    @JsonIgnore
+    private int index = -1;
 
     @JsonCreator
     public Location(@JsonProperty("latitude") double latitude, @JsonProperty("longitude") double longitude) {
@@ -30,17 +32,23 @@ public class Location {
         return longitude;
     }
 
-    public Map<Location, Long> getDistanceMap() {
-        return distanceMap;
+    public DistanceMatrix getDistanceMatrix() {
+        return distanceMatrix;
+    }
+
+    public int getIndex() {
+        return index;
     }
 
     /**
-     * Set the distance map. Distances are in meters.
+     * Set the shared distance matrix and the row/column of this location in it. Distances are in meters.
      *
-     * @param distanceMap a map containing distances from here to other locations
+     * @param distanceMatrix a matrix containing distances between all locations of the plan
+     * @param index the dense index of this location in the matrix
      */
-    public void setDistanceMap(Map<Location, Long> distanceMap) {
-        this.distanceMap = distanceMap;
+    public void setDistanceMatrix(DistanceMatrix distanceMatrix, int index) {
+        this.distanceMatrix = distanceMatrix;
+        this.index = index;
     }
 
     /**
@@ -50,7 +58,7 @@ public class Location {
      * @return distance in meters
      */
     public long getDistanceTo(Location location) {
-        return distanceMap.get(location);
+        return distanceMatrix.get(index, location.index);
     }
 
     // ************************************************************************
@@ -5,7 +5,11 @@ import java.util.List;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
+import ai.timefold.solver.core.api.domain.variable.PiggybackShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.PlanningListVariable;
+import ai.timefold.solver.core.api.domain.variable.ShadowVariable;
+
+import org.acme.vehiclerouting.solver.VehicleTotalsUpdatingVariableListener;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIdentityReference;
@@ -16,6 +20,9 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 @PlanningEntity
 public class Vehicle {
 
+    // The solver has not calculated the totals yet, for example of a plan that has not been solved.
+    private static final int NOT_CALCULATED = -1;
+
     @PlanningId
     private long id;
     private int capacity;
@@ -26,6 +33,9 @@ public class Vehicle {
     @PlanningListVariable
     private List<Customer> customers;
 
+    private int totalDemand = NOT_CALCULATED;
+    private long totalDistanceMeters = NOT_CALCULATED;
+
     public Vehicle() {
     }
 
@@ -68,35 +78,40 @@ public class Vehicle {
         this.customers = customers;
     }
 
-    // ************************************************************************
-    // Complex methods
-    // ************************************************************************
-
+    /**
+     * @return the demand of all customers of the vehicle,
+     *         calculated from the route if the solver has not calculated it yet
+     */
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ShadowVariable(variableListenerClass = VehicleTotalsUpdatingVariableListener.class,
+            sourceVariableName = "customers")
     public int getTotalDemand() {
-        int totalDemand = 0;
-        for (Customer customer : customers) {
-            totalDemand += customer.getDemand();
+        if (totalDemand == NOT_CALCULATED) {
+            return VehicleTotalsUpdatingVariableListener.calculateTotalDemand(this);
         }
         return totalDemand;
     }
 
+    public void setTotalDemand(int totalDemand) {
+        this.totalDemand = totalDemand;
+    }
+
+    /**
+     * @return the distance from the depot past all customers back to the depot, in meters,
+     *         calculated from the route if the solver has not calculated it yet and the distance matrix is initialized
+     */
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @PiggybackShadowVariable(shadowVariableName = "totalDemand")
     public long getTotalDistanceMeters() {
-        if (customers.isEmpty()) {
-            return 0;
+        if (totalDistanceMeters == NOT_CALCULATED) {
+            return depot.getLocation().getDistanceMatrix() == null ? 0L
+                    : VehicleTotalsUpdatingVariableListener.calculateTotalDistanceMeters(this);
         }
+        return totalDistanceMeters;
+    }
 
-        long totalDistance = 0;
-        Location previousLocation = depot.getLocation();
-
-        for (Customer customer : customers) {
-            totalDistance += previousLocation.getDistanceTo(customer.getLocation());
-            previousLocation = customer.getLocation();
-        }
-        totalDistance += previousLocation.getDistanceTo(depot.getLocation());
-
-        return totalDistance;
+    public void setTotalDistanceMeters(long totalDistanceMeters) {
+        this.totalDistanceMeters = totalDistanceMeters;
     }
 
     @Override
@@ -11,9 +11,6 @@ import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 
-import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
-import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
-
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -73,9 +70,6 @@ public class VehicleRoutePlan {
         this.locations = Stream.concat(
                 depots.stream().map(Depot::getLocation),
                 customers.stream().map(Customer::getLocation)).toList();
-
-        DistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
-        distanceCalculator.initDistanceMaps(locations);
     }
 
     public String getName() {
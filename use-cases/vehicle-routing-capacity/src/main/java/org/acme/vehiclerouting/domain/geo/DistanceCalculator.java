@@ -1,9 +1,11 @@
 package org.acme.vehiclerouting.domain.geo;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.acme.vehiclerouting.domain.Location;
 
@@ -39,12 +41,45 @@ public interface DistanceCalculator {
     }
 
     /**
-     * Calculate distance matrix for the given list of locations and assign distance maps accordingly.
+     * Bulk calculation of distance into a dense matrix, in which each location is addressed by its position
+     * in the list.
+     * The rows are calculated in parallel, so implementations must be thread-safe.
      *
-     * @param locations
+     * @param locations      never null
+     * @param distanceMatrix never null, of the same size as {@code locations}
      */
-    default void initDistanceMaps(Collection<Location> locations) {
-        Map<Location, Map<Location, Long>> distanceMatrix = calculateBulkDistance(locations, locations);
-        locations.forEach(location -> location.setDistanceMap(distanceMatrix.get(location)));
+    default void fillDistanceMatrix(List<Location> locations, DistanceMatrix distanceMatrix) {
+        IntStream.range(0, locations.size()).parallel().forEach(fromIndex -> {
+            Location from = locations.get(fromIndex);
+            for (int toIndex = 0; toIndex < locations.size(); toIndex++) {
+                distanceMatrix.set(fromIndex, toIndex, calculateDistance(from, locations.get(toIndex)));
+            }
+        });
+    }
+
+    /**
+     * Calculate distance matrix for the given list of locations and assign it to every location,
+     * together with the dense index of that location in the matrix.
+     *
+     * @param locations locations list
+     * @return never null
+     */
+    default DistanceMatrix initDistanceMatrix(Collection<Location> locations) {
+        return initDistanceMatrix(locations, DistanceMatrix.METER_RESOLUTION);
+    }
+
+    /**
+     * As {@link #initDistanceMatrix(Collection)}, but quantized to the given resolution to save memory.
+     *
+     * @param locations locations list
+     * @param resolutionMeters at least 1, see {@link DistanceMatrix#create(int, int)}
+     * @return never null
+     */
+    default DistanceMatrix initDistanceMatrix(Collection<Location> locations, int resolutionMeters) {
+        List<Location> indexedLocations = List.copyOf(locations);
+        DistanceMatrix distanceMatrix = DistanceMatrix.create(indexedLocations.size(), resolutionMeters);
+        fillDistanceMatrix(indexedLocations, distanceMatrix);
+        distanceMatrix.assignTo(indexedLocations);
+        return distanceMatrix;
     }
 }
@@ -0,0 +1,165 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Dense, index-addressed distance matrix shared by all {@link Location}s of a plan.
+ * Each location carries its own row/column index, so a lookup is a single buffer read instead of a hash lookup
+ * and an unboxing.
+ * <p>
+ * Distances are stored as {@code int} meters (good for 2 million kilometers) in one flat row-major buffer,
+ * which is either on the heap or memory-mapped from a file (see
+ * {@link org.acme.vehiclerouting.persistence.DistanceMatrixCache}).
+ * A heap matrix is limited to 46,340 locations.
+ * <p>
+ * Optionally, distances are quantized to unsigned {@code short} units of a coarser resolution, such as 10 meters,
+ * which halves the memory of the matrix (15,000 locations take 450 MB instead of 900 MB)
+ * but limits the distances to 65,535 units (655 kilometers at 10 meters).
+ */
+public final class DistanceMatrix {
+
+    public static final int METER_RESOLUTION = 1;
+
+    private static final int MAX_QUANTIZED_DISTANCE = 0xFFFF;
+
+    private final int size;
+    private final int resolutionMeters;
+    // Exactly one of these is null, depending on the resolution.
+    private final IntBuffer distanceMeters;
+    private final ShortBuffer quantizedDistances;
+
+    public DistanceMatrix(int size) {
+        this(size, IntBuffer.allocate(Math.multiplyExact(checkSize(size), size)));
+    }
+
+    /**
+     * @param size number of locations
+     * @param distanceMeters never null, with room for at least {@code size * size} values
+     */
+    public DistanceMatrix(int size, IntBuffer distanceMeters) {
+        checkSize(size);
+        if (distanceMeters.capacity() < (long) size * size) {
+            throw new IllegalArgumentException("The buffer capacity (" + distanceMeters.capacity()
+                    + ") is too small for a matrix of size (" + size + ").");
+        }
+        this.size = size;
+        this.resolutionMeters = METER_RESOLUTION;
+        this.distanceMeters = distanceMeters;
+        this.quantizedDistances = null;
+    }
+
+    /**
+     * @param size number of locations
+     * @param quantizedDistances never null, with room for at least {@code size * size} values
+     * @param resolutionMeters greater than 1, the meters per unit in {@code quantizedDistances}
+     */
+    public DistanceMatrix(int size, ShortBuffer quantizedDistances, int resolutionMeters) {
+        checkSize(size);
+        if (resolutionMeters <= METER_RESOLUTION) {
+            throw new IllegalArgumentException("The resolutionMeters (" + resolutionMeters
+                    + ") of a quantized matrix must be greater than " + METER_RESOLUTION + ".");
+        }
+        if (quantizedDistances.capacity() < (long) size * size) {
+            throw new IllegalArgumentException("The buffer capacity (" + quantizedDistances.capacity()
+                    + ") is too small for a matrix of size (" + size + ").");
+        }
+        this.size = size;
+        this.resolutionMeters = resolutionMeters;
+        this.distanceMeters = null;
+        this.quantizedDistances = quantizedDistances;
+    }
+
+    /**
+     * @param size number of locations
+     * @param resolutionMeters at least 1, the matrix stores {@code int} meters if 1, else quantized units
+     * @return never null, a heap matrix
+     */
+    public static DistanceMatrix create(int size, int resolutionMeters) {
+        if (resolutionMeters < METER_RESOLUTION) {
+            throw new IllegalArgumentException("The resolutionMeters (" + resolutionMeters
+                    + ") must be at least " + METER_RESOLUTION + ".");
+        }
+        if (resolutionMeters == METER_RESOLUTION) {
+            return new DistanceMatrix(size);
+        }
+        return new DistanceMatrix(size, ShortBuffer.allocate(Math.multiplyExact(checkSize(size), size)),
+                resolutionMeters);
+    }
+
+    /**
+     * @param resolutionMeters at least 1
+     * @return the bytes per distance of a matrix with that resolution
+     */
+    public static int getBytesPerDistance(int resolutionMeters) {
+        return resolutionMeters == METER_RESOLUTION ? Integer.BYTES : Short.BYTES;
+    }
+
+    private static int checkSize(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("The size (" + size + ") must not be negative.");
+        }
+        return size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getResolutionMeters() {
+        return resolutionMeters;
+    }
+
+    /**
+     * Distance between two locations in meters.
+     *
+     * @param fromIndex index of the starting location
+     * @param toIndex index of the target location
+     * @return distance in meters, rounded to the resolution
+     */
+    public long get(int fromIndex, int toIndex) {
+        if (quantizedDistances == null) {
+            return distanceMeters.get(fromIndex * size + toIndex);
+        }
+        return (long) Short.toUnsignedInt(quantizedDistances.get(fromIndex * size + toIndex)) * resolutionMeters;
+    }
+
+    /**
+     * @param fromIndex index of the starting location
+     * @param toIndex index of the target location
+     * @param distanceMeters not negative, rounded to the nearest multiple of the resolution
+     * @throws ArithmeticException if the distance does not fit the matrix
+     */
+    public void set(int fromIndex, int toIndex, long distanceMeters) {
+        if (quantizedDistances == null) {
+            this.distanceMeters.put(fromIndex * size + toIndex, Math.toIntExact(distanceMeters));
+            return;
+        }
+        long quantizedDistance = (distanceMeters + resolutionMeters / 2) / resolutionMeters;
+        if (quantizedDistance > MAX_QUANTIZED_DISTANCE) {
+            throw new ArithmeticException("The distance (" + distanceMeters
+                    + ") exceeds the maximum distance (" + ((long) MAX_QUANTIZED_DISTANCE * resolutionMeters)
+                    + ") of a matrix with a resolution of (" + resolutionMeters + ") meters.");
+        }
+        quantizedDistances.put(fromIndex * size + toIndex, (short) quantizedDistance);
+    }
+
+    /**
+     * Assign this matrix to every location, together with its position in the list as its dense index.
+     *
+     * @param locations never null, in the same order as the matrix rows
+     */
+    public void assignTo(List<Location> locations) {
+        if (locations.size() != size) {
+            throw new IllegalArgumentException("The locations size (" + locations.size()
+                    + ") differs from the matrix size (" + size + ").");
+        }
+        for (int index = 0; index < size; index++) {
+            locations.get(index).setDistanceMatrix(this, index);
+        }
+    }
+
+}
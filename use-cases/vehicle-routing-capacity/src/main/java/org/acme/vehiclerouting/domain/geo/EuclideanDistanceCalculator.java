@@ -3,6 +3,9 @@ package org.acme.vehiclerouting.domain.geo;
 import static java.lang.Math.ceil;
 import static java.lang.Math.sqrt;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import org.acme.vehiclerouting.domain.Location;
 
 public class EuclideanDistanceCalculator implements DistanceCalculator {
@@ -11,13 +14,51 @@ public class EuclideanDistanceCalculator implements DistanceCalculator {
     // the following approximations are valid: 1° = 111 km (or 60 nautical miles) 0.1° = 11.1 km.
     public static final long METERS_PER_DEGREE = 111_000;
 
+    private static final EuclideanRowKernel PREFERRED_ROW_KERNEL = EuclideanRowKernel.preferred();
+
+    private final EuclideanRowKernel rowKernel;
+
+    public EuclideanDistanceCalculator() {
+        this(PREFERRED_ROW_KERNEL);
+    }
+
+    /**
+     * @param rowKernel never null, calculates the rows of the distance matrix
+     */
+    public EuclideanDistanceCalculator(EuclideanRowKernel rowKernel) {
+        this.rowKernel = rowKernel;
+    }
+
     @Override
     public long calculateDistance(Location from, Location to) {
         if (from.equals(to)) {
             return 0L;
         }
-        double latitudeDiff = to.getLatitude() - from.getLatitude();
-        double longitudeDiff = to.getLongitude() - from.getLongitude();
+        return calculateDistance(to.getLatitude() - from.getLatitude(), to.getLongitude() - from.getLongitude());
+    }
+
+    static long calculateDistance(double latitudeDiff, double longitudeDiff) {
         return (long) ceil(sqrt(latitudeDiff * latitudeDiff + longitudeDiff * longitudeDiff) * METERS_PER_DEGREE);
     }
+
+    /**
+     * Calculates the matrix row by row with the {@link EuclideanRowKernel}, instead of pair by pair.
+     */
+    @Override
+    public void fillDistanceMatrix(List<Location> locations, DistanceMatrix distanceMatrix) {
+        int size = locations.size();
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = locations.get(i).getLatitude();
+            longitudes[i] = locations.get(i).getLongitude();
+        }
+        IntStream.range(0, size).parallel().forEach(fromIndex -> {
+            long[] row = new long[size];
+            rowKernel.calculateRow(latitudes[fromIndex], longitudes[fromIndex], latitudes, longitudes, row);
+            for (int toIndex = 0; toIndex < size; toIndex++) {
+                distanceMatrix.set(fromIndex, toIndex, row[toIndex]);
+            }
+        });
+    }
 }
@@ -0,0 +1,74 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Calculates a whole row of the {@link EuclideanDistanceCalculator Euclidean} distance matrix at once,
+ * from coordinates in structure-of-arrays layout, so the row can be calculated in SIMD lanes.
+ * <p>
+ * The application uses the SIMD kernel if the JVM runs with {@code --add-modules jdk.incubator.vector},
+ * and the scalar kernel otherwise (see {@link #preferred()}).
+ */
+public interface EuclideanRowKernel {
+
+    /**
+     * @param fromLatitude latitude of the starting location
+     * @param fromLongitude longitude of the starting location
+     * @param toLatitudes never null, latitudes of the target locations
+     * @param toLongitudes never null, longitudes of the target locations, in the same order
+     * @param distances never null, receives the distances in meters, of the same length as the coordinates
+     */
+    void calculateRow(double fromLatitude, double fromLongitude, double[] toLatitudes, double[] toLongitudes,
+            long[] distances);
+
+    /**
+     * @return never null
+     */
+    static EuclideanRowKernel scalar() {
+        return new ScalarEuclideanRowKernel();
+    }
+
+    /**
+     * Loads the SIMD kernel reflectively, so this class links without the {@code jdk.incubator.vector} module.
+     * The kernel is only returned if it calculates the same row as the scalar kernel.
+     *
+     * @return empty if the {@code jdk.incubator.vector} module is not in the boot layer or the kernel fails
+     */
+    static Optional<EuclideanRowKernel> vector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return Optional.empty();
+        }
+        EuclideanRowKernel kernel;
+        try {
+            kernel = (EuclideanRowKernel) Class.forName("org.acme.vehiclerouting.domain.geo.VectorEuclideanRowKernel")
+                    .getDeclaredConstructor()
+                    .newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return Optional.empty();
+        }
+        // Longer than any vector species, to cover both the lanes and the scalar tail.
+        double[] latitudes = new double[67];
+        double[] longitudes = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = 50.0 + i * 0.013;
+            longitudes[i] = 14.0 - i * 0.007;
+        }
+        long[] expectedRow = new long[latitudes.length];
+        long[] row = new long[latitudes.length];
+        scalar().calculateRow(latitudes[0], longitudes[0], latitudes, longitudes, expectedRow);
+        try {
+            kernel.calculateRow(latitudes[0], longitudes[0], latitudes, longitudes, row);
+        } catch (RuntimeException | LinkageError e) {
+            return Optional.empty();
+        }
+        return Arrays.equals(row, expectedRow) ? Optional.of(kernel) : Optional.empty();
+    }
+
+    /**
+     * @return never null, the SIMD kernel if it is available, otherwise the scalar kernel
+     */
+    static EuclideanRowKernel preferred() {
+        return vector().orElseGet(EuclideanRowKernel::scalar);
+    }
+}
@@ -0,0 +1,13 @@
+package org.acme.vehiclerouting.domain.geo;
+
+final class ScalarEuclideanRowKernel implements EuclideanRowKernel {
+
+    @Override
+    public void calculateRow(double fromLatitude, double fromLongitude, double[] toLatitudes, double[] toLongitudes,
+            long[] distances) {
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = EuclideanDistanceCalculator.calculateDistance(
+                    toLatitudes[i] - fromLatitude, toLongitudes[i] - fromLongitude);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A SIMD row kernel, which needs the {@code jdk.incubator.vector} module at runtime.
+ * Only ever loaded by {@link EuclideanRowKernel#vector()}, so the application still runs without that module.
+ * Calculates exactly the same distances as the scalar kernel,
+ * as the lane operations round like their scalar counterparts.
+ * <p>
+ * The distances are rounded up and converted to {@code long} in a scalar loop,
+ * because the double to long lane conversion is not intrinsified on Java 17 and is slower than scalar code.
+ */
+final class VectorEuclideanRowKernel implements EuclideanRowKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void calculateRow(double fromLatitude, double fromLongitude, double[] toLatitudes, double[] toLongitudes,
+            long[] distances) {
+        double[] exactDistances = new double[distances.length];
+        int upperBound = SPECIES.loopBound(distances.length);
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            DoubleVector latitudeDiff = DoubleVector.fromArray(SPECIES, toLatitudes, i).sub(fromLatitude);
+            DoubleVector longitudeDiff = DoubleVector.fromArray(SPECIES, toLongitudes, i).sub(fromLongitude);
+            latitudeDiff.mul(latitudeDiff)
+                    .add(longitudeDiff.mul(longitudeDiff))
+                    .lanewise(VectorOperators.SQRT)
+                    .mul(EuclideanDistanceCalculator.METERS_PER_DEGREE)
+                    .intoArray(exactDistances, i);
+        }
+        for (; i < distances.length; i++) {
+            double latitudeDiff = toLatitudes[i] - fromLatitude;
+            double longitudeDiff = toLongitudes[i] - fromLongitude;
+            exactDistances[i] = Math.sqrt(latitudeDiff * latitudeDiff + longitudeDiff * longitudeDiff)
+                    * EuclideanDistanceCalculator.METERS_PER_DEGREE;
+        }
+        for (int j = 0; j < distances.length; j++) {
+            distances[j] = (long) Math.ceil(exactDistances[j]);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.acme.vehiclerouting.persistence;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reuses distance matrices across jobs and restarts, as memory-mapped files on local disk.
+ * <p>
+ * A matrix file is keyed by a content hash of the ordered locations and the {@link DistanceCalculator} class,
+ * so the same depots and customers submitted again map the same file instead of recalculating the matrix.
+ * The resolution of the matrices is part of the key too, so changing it never maps a file of the other format.
+ * Files are evicted least recently used first, once they are older than the max age
+ * or once the cache grows beyond its max size.
+ */
+@Singleton
+public class DistanceMatrixCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistanceMatrixCache.class);
+
+    private static final String FILE_SUFFIX = ".matrix";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final Duration maxAge;
+    private final int resolutionMeters;
+
+    @Inject
+    public DistanceMatrixCache(
+            @ConfigProperty(name = "vehicle-routing.distance-matrix-cache.enabled", defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "vehicle-routing.distance-matrix-cache.directory") String directory,
+            @ConfigProperty(name = "vehicle-routing.distance-matrix-cache.max-size-bytes") long maxSizeBytes,
+            @ConfigProperty(name = "vehicle-routing.distance-matrix-cache.max-age") Duration maxAge,
+            @ConfigProperty(name = "vehicle-routing.distance-matrix.resolution-meters", defaultValue = "1") int resolutionMeters) {
+        if (resolutionMeters < DistanceMatrix.METER_RESOLUTION) {
+            throw new IllegalArgumentException("The resolutionMeters (" + resolutionMeters
+                    + ") must be at least " + DistanceMatrix.METER_RESOLUTION + ".");
+        }
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxAge = maxAge;
+        this.resolutionMeters = resolutionMeters;
+    }
+
+    /**
+     * Load the distance matrix of the given locations from the cache, or calculate and store it on a miss.
+     * Either way, assign it to every location.
+     * Falls back to a heap matrix if the cache is disabled or unusable.
+     * Either way, the matrix has the configured resolution.
+     *
+     * @param distanceCalculator never null
+     * @param locations never null
+     * @return never null
+     */
+    public DistanceMatrix initDistanceMatrix(DistanceCalculator distanceCalculator, List<Location> locations) {
+        long byteSize = (long) locations.size() * locations.size() * DistanceMatrix.getBytesPerDistance(resolutionMeters);
+        if (!enabled || locations.isEmpty() || byteSize > Integer.MAX_VALUE) {
+            return distanceCalculator.initDistanceMatrix(locations, resolutionMeters);
+        }
+        Path file = directory.resolve(calculateKey(distanceCalculator, locations) + FILE_SUFFIX);
+        DistanceMatrix distanceMatrix;
+        try {
+            distanceMatrix = load(file, locations.size(), byteSize);
+            if (distanceMatrix == null) {
+                distanceMatrix = store(file, distanceCalculator, locations, byteSize);
+                evict();
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not use the distance matrix cache file ({}), falling back to the heap.", file, e);
+            return distanceCalculator.initDistanceMatrix(locations, resolutionMeters);
+        }
+        distanceMatrix.assignTo(locations);
+        return distanceMatrix;
+    }
+
+    private DistanceMatrix load(Path file, int size, long byteSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != byteSize) {
+                LOGGER.warn("Ignoring the distance matrix cache file ({}) with an unexpected size ({}).",
+                        file, channel.size());
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, byteSize);
+            // The last modified time doubles as the last access time for the eviction.
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            LOGGER.debug("Reusing the cached distance matrix ({}).", file);
+            return wrap(size, buffer);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private DistanceMatrix store(Path file, DistanceCalculator distanceCalculator, List<Location> locations,
+            long byteSize) throws IOException {
+        Files.createDirectories(directory);
+        // Write to a temporary file first, so concurrent jobs never map a half-written matrix.
+        Path temporaryFile = Files.createTempFile(directory, "distance-matrix-", ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, byteSize);
+            DistanceMatrix distanceMatrix = wrap(locations.size(), buffer);
+            distanceCalculator.fillDistanceMatrix(locations, distanceMatrix);
+            buffer.force();
+            Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.debug("Cached the distance matrix ({}).", file);
+            return distanceMatrix;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporaryFile);
+            throw e;
+        }
+    }
+
+    private DistanceMatrix wrap(int size, MappedByteBuffer buffer) {
+        buffer.order(ByteOrder.nativeOrder());
+        if (resolutionMeters == DistanceMatrix.METER_RESOLUTION) {
+            return new DistanceMatrix(size, buffer.asIntBuffer());
+        }
+        return new DistanceMatrix(size, buffer.asShortBuffer(), resolutionMeters);
+    }
+
+    /**
+     * Matrices that are still mapped by a running job stay valid after their file is deleted.
+     */
+    private synchronized void evict() {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted(Comparator.comparing(DistanceMatrixCache::getLastModifiedTime).reversed())
+                    .toList();
+        } catch (IOException e) {
+            LOGGER.warn("Could not list the distance matrix cache directory ({}).", directory, e);
+            return;
+        }
+        Instant expiry = Instant.now().minus(maxAge);
+        long totalSizeBytes = 0L;
+        for (Path file : files) {
+            try {
+                totalSizeBytes += Files.size(file);
+                if (totalSizeBytes > maxSizeBytes || getLastModifiedTime(file).toInstant().isBefore(expiry)) {
+                    Files.deleteIfExists(file);
+                    LOGGER.debug("Evicted the cached distance matrix ({}).", file);
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not evict the cached distance matrix ({}).", file, e);
+            }
+        }
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0L);
+        }
+    }
+
+    private String calculateKey(DistanceCalculator distanceCalculator, List<Location> locations) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+        }
+        digest.update(distanceCalculator.getClass().getName().getBytes(StandardCharsets.UTF_8));
+        if (resolutionMeters != DistanceMatrix.METER_RESOLUTION) {
+            // Keeps the keys of int meter matrices as they were.
+            digest.update(("@" + resolutionMeters).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] coordinates = new byte[2 * Long.BYTES];
+        for (Location location : locations) {
+            writeLong(coordinates, 0, Double.doubleToLongBits(location.getLatitude()));
+            writeLong(coordinates, Long.BYTES, Double.doubleToLongBits(location.getLongitude()));
+            digest.update(coordinates);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            bytes[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+}
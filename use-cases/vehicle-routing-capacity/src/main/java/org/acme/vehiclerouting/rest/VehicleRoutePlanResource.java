@@ -2,8 +2,6 @@ package org.acme.vehiclerouting.rest;
 
 import java.util.Collection;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
@@ -13,8 +11,11 @@ import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.solver.SolutionManager;
@@ -22,6 +23,10 @@ import ai.timefold.solver.core.api.solver.SolverManager;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 
 import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.acme.vehiclerouting.persistence.DistanceMatrixCache;
+import org.acme.vehiclerouting.persistence.JobStore;
+import org.acme.vehiclerouting.persistence.JobStore.Job;
 import org.acme.vehiclerouting.rest.exception.ErrorInfo;
 import org.acme.vehiclerouting.rest.exception.VehicleRoutingSolverException;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -46,20 +51,31 @@ public class VehicleRoutePlanResource {
 
     private final SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager;
 
-    // TODO: Without any "time to live", the map may eventually grow out of memory.
-    private final ConcurrentMap<String, Job> jobIdToJob = new ConcurrentHashMap<>();
+    private final DistanceMatrixCache distanceMatrixCache;
+
+    private final JobStore jobStore;
+
+    private final RoutePlanEventPublisher routePlanEventPublisher;
 
     // Workaround to make Quarkus CDI happy. Do not use.
     public VehicleRoutePlanResource() {
         this.solverManager = null;
         this.solutionManager = null;
+        this.distanceMatrixCache = null;
+        this.jobStore = null;
+        this.routePlanEventPublisher = null;
     }
 
     @Inject
     public VehicleRoutePlanResource(SolverManager<VehicleRoutePlan, String> solverManager,
-            SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager) {
+            SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager,
+            DistanceMatrixCache distanceMatrixCache, JobStore jobStore,
+            RoutePlanEventPublisher routePlanEventPublisher) {
         this.solverManager = solverManager;
         this.solutionManager = solutionManager;
+        this.distanceMatrixCache = distanceMatrixCache;
+        this.jobStore = jobStore;
+        this.routePlanEventPublisher = routePlanEventPublisher;
     }
 
     @Operation(summary = "List the job IDs of all submitted route plans.")
@@ -70,7 +86,7 @@ public class VehicleRoutePlanResource {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     public Collection<String> list() {
-        return jobIdToJob.keySet();
+        return jobStore.getJobIds();
     }
 
     @Operation(summary = "Submit a route plan to start solving as soon as CPU resources are available.")
@@ -82,18 +98,39 @@ public class VehicleRoutePlanResource {
     @Consumes({ MediaType.APPLICATION_JSON })
     @Produces(MediaType.TEXT_PLAIN)
     public String solve(VehicleRoutePlan problem) {
+        initDistanceMatrix(problem);
         String jobId = UUID.randomUUID().toString();
-        jobIdToJob.put(jobId, Job.ofRoutePlan(problem));
-        solverManager.solveAndListen(jobId,
-                jobId_ -> jobIdToJob.get(jobId).routePlan,
-                solution -> jobIdToJob.put(jobId, Job.ofRoutePlan(solution)),
-                (jobId_, exception) -> {
-                    jobIdToJob.put(jobId, Job.ofException(exception));
+        jobStore.put(jobId, Job.ofRoutePlan(problem));
+        solverManager.solveBuilder()
+                .withProblemId(jobId)
+                .withProblemFinder(jobId_ -> findProblem(jobId))
+                .withBestSolutionConsumer(solution -> {
+                    jobStore.put(jobId, Job.ofRoutePlan(solution));
+                    routePlanEventPublisher.publishBestSolution(jobId, solution);
+                })
+                .withFinalBestSolutionConsumer(solution -> routePlanEventPublisher.publishSolvingEnded(jobId, solution))
+                .withExceptionHandler((jobId_, exception) -> {
+                    jobStore.put(jobId, Job.ofException(exception));
+                    routePlanEventPublisher.publishSolvingFailed(jobId, exception);
                     LOGGER.error("Failed solving jobId ({}).", jobId, exception);
-                });
+                })
+                .run();
         return jobId;
     }
 
+    private VehicleRoutePlan findProblem(String jobId) {
+        Job job = jobStore.get(jobId, this::initDistanceMatrix);
+        if (job == null || job.routePlan() == null) {
+            // Fails the job through its exception handler.
+            throw new IllegalStateException("The jobId (" + jobId + ") expired before solving started.");
+        }
+        return job.routePlan();
+    }
+
+    private void initDistanceMatrix(VehicleRoutePlan routePlan) {
+        distanceMatrixCache.initDistanceMatrix(new EuclideanDistanceCalculator(), routePlan.getLocations());
+    }
+
     @Operation(
             summary = "Get the route plan and score for a given job ID. This is the best solution so far, as it might still be running or not even started.")
     @APIResponses(value = {
@@ -112,9 +149,11 @@ public class VehicleRoutePlanResource {
     @Path("{jobId}")
     public VehicleRoutePlan getRoutePlan(
             @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
-        VehicleRoutePlan routePlan = getRoutePlanAndCheckForExceptions(jobId);
+        Job job = getJobAndCheckForExceptions(jobId);
+        VehicleRoutePlan routePlan = job.routePlan();
         SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
-        String scoreExplanation = solutionManager.explain(routePlan).getSummary();
+        String scoreExplanation =
+                job.getScoreExplanation(routePlan_ -> solutionManager.explain(routePlan_).getSummary());
         routePlan.setSolverStatus(solverStatus);
         routePlan.setScoreExplanation(scoreExplanation);
         return routePlan;
@@ -138,20 +177,53 @@ public class VehicleRoutePlanResource {
     @Path("{jobId}/status")
     public VehicleRoutePlan getStatus(
             @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
-        VehicleRoutePlan routePlan = getRoutePlanAndCheckForExceptions(jobId);
+        VehicleRoutePlan routePlan = getJobAndCheckForExceptions(jobId).routePlan();
         SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
         return new VehicleRoutePlan(routePlan.getName(), routePlan.getScore(), solverStatus);
     }
 
-    private VehicleRoutePlan getRoutePlanAndCheckForExceptions(String jobId) {
-        Job job = jobIdToJob.get(jobId);
+    @Operation(
+            summary = "Stream the score and the changed vehicle routes of every new best solution for a given job ID, as server-sent events. Get the full route plan with the GET method when needed.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200",
+                    description = "A routes event with all vehicle routes, a best-solution event per new best solution and a final solving-ended or solving-failed event.",
+                    content = @Content(mediaType = MediaType.SERVER_SENT_EVENTS,
+                            schema = @Schema(implementation = RoutePlanEventPublisher.RoutePlanEvent.class))),
+            @APIResponse(responseCode = "404", description = "No route plan found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "500", description = "Exception during solving a route plan.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Path("{jobId}/events")
+    public void streamEvents(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Context SseEventSink eventSink, @Context Sse sse) {
+        VehicleRoutePlan routePlan = getJobAndCheckForExceptions(jobId).routePlan();
+        routePlanEventPublisher.subscribe(jobId, routePlan, eventSink, sse);
+        // Solving might have ended before or while subscribing.
+        if (solverManager.getSolverStatus(jobId) == SolverStatus.NOT_SOLVING) {
+            Job job = jobStore.get(jobId, this::initDistanceMatrix);
+            if (job != null && job.exception() != null) {
+                routePlanEventPublisher.publishSolvingFailed(jobId, job.exception());
+            } else {
+                routePlanEventPublisher.publishSolvingEnded(jobId, job == null ? routePlan : job.routePlan());
+            }
+        }
+    }
+
+    private Job getJobAndCheckForExceptions(String jobId) {
+        Job job = jobStore.get(jobId, this::initDistanceMatrix);
         if (job == null) {
             throw new VehicleRoutingSolverException(jobId, Response.Status.NOT_FOUND, "No route plan found.");
         }
-        if (job.exception != null) {
-            throw new VehicleRoutingSolverException(jobId, job.exception);
+        if (job.exception() != null) {
+            throw new VehicleRoutingSolverException(jobId, job.exception());
         }
-        return job.routePlan;
+        return job;
     }
 
     @Operation(
@@ -176,16 +248,4 @@ public class VehicleRoutePlanResource {
         solverManager.terminateEarly(jobId);
         return getRoutePlan(jobId);
     }
-
-    private record Job(VehicleRoutePlan routePlan, Throwable exception) {
-
-        static Job ofRoutePlan(VehicleRoutePlan routePlan) {
-            return new Job(routePlan, null);
-        }
-
-        static Job ofException(Throwable exception) {
-            return new Job(null, exception);
-        }
-
-    }
 }
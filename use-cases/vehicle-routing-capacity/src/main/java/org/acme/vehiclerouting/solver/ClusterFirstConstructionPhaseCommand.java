@@ -0,0 +1,205 @@
+package org.acme.vehiclerouting.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+import ai.timefold.solver.core.impl.phase.custom.CustomPhaseCommand;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Constructs the initial routes cluster first, route second, instead of inserting the customers one by one
+ * at their best position in any route, which evaluates every position of every route per customer.
+ * <ol>
+ * <li>Every unassigned customer goes to the nearest depot that has vehicles.</li>
+ * <li>Per depot, the customers are swept by their angle around the depot into one cluster per vehicle,
+ * until the next customer no longer fits the capacity of that vehicle.</li>
+ * <li>Per cluster, the route visits the nearest unvisited customer next.</li>
+ * </ol>
+ * The depots and the clusters are calculated in parallel, only applying the routes is single threaded.
+ * If the vehicles of a depot run out of capacity, the remaining customers are added to the vehicle with
+ * the most capacity left, so the solution is initialized and local search repairs the overloaded routes.
+ * <p>
+ * Customers that are already assigned, for example by an earlier run, stay where they are.
+ */
+public class ClusterFirstConstructionPhaseCommand implements CustomPhaseCommand<VehicleRoutePlan> {
+
+    private static final String CUSTOMERS_FIELD = "customers";
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<VehicleRoutePlan> scoreDirector) {
+        VehicleRoutePlan routePlan = scoreDirector.getWorkingSolution();
+        Map<Depot, List<Vehicle>> depotToVehicles = new LinkedHashMap<>();
+        for (Vehicle vehicle : routePlan.getVehicles()) {
+            depotToVehicles.computeIfAbsent(vehicle.getDepot(), depot -> new ArrayList<>()).add(vehicle);
+        }
+        List<Customer> unassignedCustomers = findUnassignedCustomers(routePlan);
+        if (depotToVehicles.isEmpty() || unassignedCustomers.isEmpty()) {
+            return;
+        }
+        Map<Depot, List<Customer>> depotToCustomers = new IdentityHashMap<>();
+        for (Customer customer : unassignedCustomers) {
+            Depot nearestDepot = findNearestDepot(depotToVehicles.keySet(), customer);
+            depotToCustomers.computeIfAbsent(nearestDepot, depot -> new ArrayList<>()).add(customer);
+        }
+        List<Map.Entry<Vehicle, List<Customer>>> clusters = depotToCustomers.entrySet().parallelStream()
+                .flatMap(entry -> {
+                    List<Vehicle> vehicles = depotToVehicles.get(entry.getKey());
+                    List<List<Customer>> depotClusters = sweep(entry.getKey(), vehicles, entry.getValue());
+                    return IntStream.range(0, vehicles.size())
+                            .mapToObj(i -> Map.entry(vehicles.get(i), depotClusters.get(i)));
+                })
+                .toList();
+        Map<Vehicle, List<Customer>> vehicleToNewRoute = clusters.parallelStream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        entry -> routeNearestNeighborFirst(entry.getKey(), entry.getValue())));
+        for (Vehicle vehicle : routePlan.getVehicles()) {
+            List<Customer> newRoute = vehicleToNewRoute.get(vehicle);
+            if (newRoute != null) {
+                appendRoute(scoreDirector, vehicle, newRoute);
+            }
+        }
+        scoreDirector.triggerVariableListeners();
+    }
+
+    private static List<Customer> findUnassignedCustomers(VehicleRoutePlan routePlan) {
+        Set<Customer> assignedCustomers = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Vehicle vehicle : routePlan.getVehicles()) {
+            assignedCustomers.addAll(vehicle.getCustomers());
+        }
+        List<Customer> unassignedCustomers = new ArrayList<>();
+        for (Customer customer : routePlan.getCustomers()) {
+            if (!assignedCustomers.contains(customer)) {
+                unassignedCustomers.add(customer);
+            }
+        }
+        return unassignedCustomers;
+    }
+
+    private static Depot findNearestDepot(Set<Depot> depots, Customer customer) {
+        Depot nearestDepot = null;
+        long nearestDistance = Long.MAX_VALUE;
+        for (Depot depot : depots) {
+            long distance = depot.getLocation().getDistanceTo(customer.getLocation());
+            if (distance < nearestDistance) {
+                nearestDepot = depot;
+                nearestDistance = distance;
+            }
+        }
+        return nearestDepot;
+    }
+
+    /**
+     * @return one cluster per vehicle, in the same order, some of them possibly empty
+     */
+    static List<List<Customer>> sweep(Depot depot, List<Vehicle> vehicles, List<Customer> customers) {
+        Location depotLocation = depot.getLocation();
+        int customerCount = customers.size();
+        double[] angles = new double[customerCount];
+        Integer[] sortedIndexes = new Integer[customerCount];
+        for (int i = 0; i < customerCount; i++) {
+            angles[i] = depotLocation.getAngle(customers.get(i).getLocation());
+            sortedIndexes[i] = i;
+        }
+        Arrays.parallelSort(sortedIndexes, Comparator.comparingDouble(i -> angles[i]));
+        // Start right after the widest empty angle, so no cluster spans it.
+        int start = 0;
+        double widestGap = angles[sortedIndexes[0]] + 2 * Math.PI - angles[sortedIndexes[customerCount - 1]];
+        for (int i = 1; i < customerCount; i++) {
+            double gap = angles[sortedIndexes[i]] - angles[sortedIndexes[i - 1]];
+            if (gap > widestGap) {
+                widestGap = gap;
+                start = i;
+            }
+        }
+
+        List<List<Customer>> clusters = new ArrayList<>(vehicles.size());
+        int[] loads = new int[vehicles.size()];
+        for (int v = 0; v < vehicles.size(); v++) {
+            clusters.add(new ArrayList<>());
+            loads[v] = vehicles.get(v).getCustomers().stream().mapToInt(Customer::getDemand).sum();
+        }
+        int v = 0;
+        for (int i = 0; i < customerCount; i++) {
+            Customer customer = customers.get(sortedIndexes[(start + i) % customerCount]);
+            // An empty vehicle takes the customer anyway, even if its demand exceeds the capacity.
+            while (v < vehicles.size() && loads[v] > 0
+                    && loads[v] + customer.getDemand() > vehicles.get(v).getCapacity()) {
+                v++;
+            }
+            int target = v < vehicles.size() ? v : findMostCapacityLeft(vehicles, loads);
+            clusters.get(target).add(customer);
+            loads[target] += customer.getDemand();
+        }
+        return clusters;
+    }
+
+    private static int findMostCapacityLeft(List<Vehicle> vehicles, int[] loads) {
+        int best = 0;
+        for (int v = 1; v < vehicles.size(); v++) {
+            if (vehicles.get(v).getCapacity() - loads[v] > vehicles.get(best).getCapacity() - loads[best]) {
+                best = v;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return the customers in the order to visit them, starting from the end of the current route
+     */
+    static List<Customer> routeNearestNeighborFirst(Vehicle vehicle, List<Customer> cluster) {
+        List<Customer> unvisited = new ArrayList<>(cluster);
+        List<Customer> route = new ArrayList<>(cluster.size());
+        List<Customer> currentRoute = vehicle.getCustomers();
+        Location current = currentRoute.isEmpty() ? vehicle.getDepot().getLocation()
+                : currentRoute.get(currentRoute.size() - 1).getLocation();
+        while (!unvisited.isEmpty()) {
+            int nearestIndex = 0;
+            long nearestDistance = Long.MAX_VALUE;
+            for (int i = 0; i < unvisited.size(); i++) {
+                long distance = current.getDistanceTo(unvisited.get(i).getLocation());
+                if (distance < nearestDistance) {
+                    nearestIndex = i;
+                    nearestDistance = distance;
+                }
+            }
+            // Swap with the last element, so the removal does not shift the list.
+            Customer nearest = unvisited.get(nearestIndex);
+            unvisited.set(nearestIndex, unvisited.get(unvisited.size() - 1));
+            unvisited.remove(unvisited.size() - 1);
+            route.add(nearest);
+            current = nearest.getLocation();
+        }
+        return route;
+    }
+
+    private static void appendRoute(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            List<Customer> newRoute) {
+        List<Customer> customers = vehicle.getCustomers();
+        int fromIndex = customers.size();
+        for (Customer customer : newRoute) {
+            scoreDirector.beforeListVariableElementAssigned(vehicle, CUSTOMERS_FIELD, customer);
+        }
+        scoreDirector.beforeListVariableChanged(vehicle, CUSTOMERS_FIELD, fromIndex, fromIndex);
+        customers.addAll(newRoute);
+        scoreDirector.afterListVariableChanged(vehicle, CUSTOMERS_FIELD, fromIndex, customers.size());
+        for (Customer customer : newRoute) {
+            scoreDirector.afterListVariableElementAssigned(vehicle, CUSTOMERS_FIELD, customer);
+        }
+    }
+}
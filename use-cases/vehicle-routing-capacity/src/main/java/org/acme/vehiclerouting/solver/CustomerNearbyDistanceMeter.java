@@ -0,0 +1,33 @@
+package org.acme.vehiclerouting.solver;
+
+import ai.timefold.solver.core.impl.heuristic.selector.common.nearby.NearbyDistanceMeter;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+
+/**
+ * Measures how near a customer is to a destination of a list change or swap move,
+ * so nearby selection favours moves between customers that are close to each other.
+ * <p>
+ * The distances are looked up in the distance matrix, which is calculated before solving.
+ * Nearby selection ranks the destinations of every customer by this distance only once per solver
+ * and reuses that ranking for every move.
+ */
+public class CustomerNearbyDistanceMeter implements NearbyDistanceMeter<Customer, Object> {
+
+    /**
+     * @param origin never null, the customer that is moved
+     * @param destination never null, the customer after which the origin is inserted or with which it is swapped,
+     *        or the vehicle at the start of whose route the origin is inserted
+     * @return the distance in meters from the destination to the origin
+     */
+    @Override
+    public double getNearbyDistance(Customer origin, Object destination) {
+        Location destinationLocation = destination instanceof Vehicle vehicle
+                ? vehicle.getDepot().getLocation()
+                : ((Customer) destination).getLocation();
+        // The origin is visited right after the destination.
+        return destinationLocation.getDistanceTo(origin.getLocation());
+    }
+}
@@ -0,0 +1,163 @@
+package org.acme.vehiclerouting.solver;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ai.timefold.solver.core.api.domain.variable.ListVariableListener;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Keeps {@link Vehicle#getTotalDemand()} and {@link Vehicle#getTotalDistanceMeters()} up to date incrementally.
+ * <p>
+ * Only the customers and legs in the changed range of the route are recalculated:
+ * their totals before the change are subtracted and their totals after the change are added,
+ * so a move costs the same on a route of 3 or 300 customers.
+ */
+public class VehicleTotalsUpdatingVariableListener
+        implements ListVariableListener<VehicleRoutePlan, Vehicle, Customer> {
+
+    private static final String TOTAL_DEMAND_FIELD = "totalDemand";
+    private static final String TOTAL_DISTANCE_FIELD = "totalDistanceMeters";
+
+    // The totals of the customers and legs outside of the changed range, which the change does not touch.
+    private final Map<Vehicle, RangeTotals> vehicleToTotalsOutsideChange = new IdentityHashMap<>();
+
+    @Override
+    public void resetWorkingSolution(ScoreDirector<VehicleRoutePlan> scoreDirector) {
+        vehicleToTotalsOutsideChange.clear();
+        for (Vehicle vehicle : scoreDirector.getWorkingSolution().getVehicles()) {
+            setTotals(scoreDirector, vehicle, calculateTotalDemand(vehicle), calculateTotalDistanceMeters(vehicle));
+        }
+    }
+
+    @Override
+    public void beforeListVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            int fromIndex, int toIndex) {
+        vehicleToTotalsOutsideChange.put(vehicle, new RangeTotals(
+                vehicle.getTotalDemand() - calculateDemand(vehicle, fromIndex, toIndex),
+                vehicle.getTotalDistanceMeters() - calculateDistanceMeters(vehicle, fromIndex, toIndex)));
+    }
+
+    @Override
+    public void afterListVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            int fromIndex, int toIndex) {
+        RangeTotals totalsOutsideChange = vehicleToTotalsOutsideChange.remove(vehicle);
+        if (totalsOutsideChange == null) {
+            setTotals(scoreDirector, vehicle, calculateTotalDemand(vehicle), calculateTotalDistanceMeters(vehicle));
+            return;
+        }
+        updateTotals(scoreDirector, vehicle,
+                totalsOutsideChange.demand + calculateDemand(vehicle, fromIndex, toIndex),
+                totalsOutsideChange.distanceMeters + calculateDistanceMeters(vehicle, fromIndex, toIndex));
+    }
+
+    @Override
+    public void afterListVariableElementUnassigned(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void beforeEntityAdded(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle) {
+
+    }
+
+    @Override
+    public void afterEntityAdded(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle) {
+        setTotals(scoreDirector, vehicle, calculateTotalDemand(vehicle), calculateTotalDistanceMeters(vehicle));
+    }
+
+    @Override
+    public void beforeEntityRemoved(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle) {
+
+    }
+
+    @Override
+    public void afterEntityRemoved(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle) {
+
+    }
+
+    private static void updateTotals(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            int totalDemand, long totalDistanceMeters) {
+        if (vehicle.getTotalDemand() != totalDemand) {
+            setTotalDemand(scoreDirector, vehicle, totalDemand);
+        }
+        if (vehicle.getTotalDistanceMeters() != totalDistanceMeters) {
+            setTotalDistanceMeters(scoreDirector, vehicle, totalDistanceMeters);
+        }
+    }
+
+    /**
+     * Also sets totals that are not calculated yet, which the getters of the {@link Vehicle}
+     * would otherwise calculate from the whole route on every call.
+     */
+    private static void setTotals(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            int totalDemand, long totalDistanceMeters) {
+        setTotalDemand(scoreDirector, vehicle, totalDemand);
+        setTotalDistanceMeters(scoreDirector, vehicle, totalDistanceMeters);
+    }
+
+    private static void setTotalDemand(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            int totalDemand) {
+        scoreDirector.beforeVariableChanged(vehicle, TOTAL_DEMAND_FIELD);
+        vehicle.setTotalDemand(totalDemand);
+        scoreDirector.afterVariableChanged(vehicle, TOTAL_DEMAND_FIELD);
+    }
+
+    private static void setTotalDistanceMeters(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            long totalDistanceMeters) {
+        scoreDirector.beforeVariableChanged(vehicle, TOTAL_DISTANCE_FIELD);
+        vehicle.setTotalDistanceMeters(totalDistanceMeters);
+        scoreDirector.afterVariableChanged(vehicle, TOTAL_DISTANCE_FIELD);
+    }
+
+    /**
+     * @param vehicle never null
+     * @return the demand of all customers of the vehicle
+     */
+    public static int calculateTotalDemand(Vehicle vehicle) {
+        return calculateDemand(vehicle, 0, vehicle.getCustomers().size());
+    }
+
+    /**
+     * @param vehicle never null
+     * @return the distance of the whole route, from the depot back to the depot, in meters
+     */
+    public static long calculateTotalDistanceMeters(Vehicle vehicle) {
+        return calculateDistanceMeters(vehicle, 0, vehicle.getCustomers().size());
+    }
+
+    private static int calculateDemand(Vehicle vehicle, int fromIndex, int toIndex) {
+        List<Customer> customers = vehicle.getCustomers();
+        int demand = 0;
+        for (int index = fromIndex; index < toIndex; index++) {
+            demand += customers.get(index).getDemand();
+        }
+        return demand;
+    }
+
+    /**
+     * Calculate the distance of the legs that end at the customers in the range, including the leg that leaves
+     * the range. The route starts and ends at the depot.
+     */
+    private static long calculateDistanceMeters(Vehicle vehicle, int fromIndex, int toIndex) {
+        List<Customer> customers = vehicle.getCustomers();
+        Location depotLocation = vehicle.getDepot().getLocation();
+        Location previousLocation = fromIndex == 0 ? depotLocation : customers.get(fromIndex - 1).getLocation();
+        long distance = 0L;
+        for (int index = fromIndex; index <= toIndex; index++) {
+            Location location = index < customers.size() ? customers.get(index).getLocation() : depotLocation;
+            distance += previousLocation.getDistanceTo(location);
+            previousLocation = location;
+        }
+        return distance;
+    }
+
+    private record RangeTotals(int demand, long distanceMeters) {
+    }
+}
@@ -0,0 +1,30 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class DistanceMatrixTest {
+
+    @Test
+    void meters() {
+        DistanceMatrix distanceMatrix = DistanceMatrix.create(2, 1);
+        distanceMatrix.set(0, 1, 1_234_567L);
+        assertThat(distanceMatrix.get(0, 1)).isEqualTo(1_234_567L);
+        assertThat(distanceMatrix.get(1, 0)).isZero();
+    }
+
+    @Test
+    void quantized() {
+        DistanceMatrix distanceMatrix = DistanceMatrix.create(2, 10);
+        distanceMatrix.set(0, 1, 1_234L);
+        distanceMatrix.set(1, 0, 1_235L);
+        assertThat(distanceMatrix.get(0, 1)).isEqualTo(1_230L);
+        assertThat(distanceMatrix.get(1, 0)).isEqualTo(1_240L);
+        // Above Short.MAX_VALUE units, which are stored unsigned.
+        distanceMatrix.set(0, 0, 655_350L);
+        assertThat(distanceMatrix.get(0, 0)).isEqualTo(655_350L);
+        assertThatThrownBy(() -> distanceMatrix.set(1, 1, 655_360L)).isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -2,9 +2,11 @@ package org.acme.vehiclerouting.domain.geo;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import org.acme.vehiclerouting.domain.Location;
 import org.junit.jupiter.api.Test;
@@ -32,4 +34,25 @@ class EuclideanDistanceCalculatorTest {
         Map<Location, Map<Location, Long>> distanceMatrix = distanceCalculator.calculateBulkDistance(locations, locations);
         assertThat(distanceMatrix.get(a).get(b)).isEqualTo(distanceCalculator.calculateDistance(a, b));
     }
+
+    @Test
+    void fillDistanceMatrixByRow() {
+        Random random = new Random(37);
+        List<Location> locations = new ArrayList<>();
+        for (int i = 0; i < 37; i++) {
+            locations.add(new Location(50.0 + random.nextDouble(), 14.0 + random.nextDouble()));
+        }
+        locations.add(new Location(50.5, 14.5));
+        locations.add(new Location(50.5, 14.5));
+
+        EuclideanDistanceCalculator distanceCalculator = new EuclideanDistanceCalculator();
+        DistanceMatrix distanceMatrix = new DistanceMatrix(locations.size());
+        distanceCalculator.fillDistanceMatrix(locations, distanceMatrix);
+        for (int from = 0; from < locations.size(); from++) {
+            for (int to = 0; to < locations.size(); to++) {
+                assertThat(distanceMatrix.get(from, to))
+                        .isEqualTo(distanceCalculator.calculateDistance(locations.get(from), locations.get(to)));
+            }
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EuclideanRowKernelTest {
+
+    @Test
+    void vectorKernelCalculatesSameRowsAsScalarKernel() {
+        // The surefire configuration adds the jdk.incubator.vector module.
+        EuclideanRowKernel vectorKernel = EuclideanRowKernel.vector().orElseThrow();
+        EuclideanRowKernel scalarKernel = EuclideanRowKernel.scalar();
+        Random random = new Random(37);
+        // Every remainder of the lane count, so the scalar tail of the vector kernel is covered too.
+        for (int size = 0; size <= 37; size++) {
+            double[] latitudes = new double[size];
+            double[] longitudes = new double[size];
+            for (int i = 0; i < size; i++) {
+                latitudes[i] = 50.0 + random.nextDouble();
+                longitudes[i] = 14.0 + random.nextDouble();
+            }
+            for (int from = 0; from < size; from++) {
+                long[] expectedRow = new long[size];
+                long[] row = new long[size];
+                scalarKernel.calculateRow(latitudes[from], longitudes[from], latitudes, longitudes, expectedRow);
+                vectorKernel.calculateRow(latitudes[from], longitudes[from], latitudes, longitudes, row);
+                assertThat(row).containsExactly(expectedRow);
+            }
+        }
+    }
+
+    @Test
+    void preferredKernelIsVectorKernelIfAvailable() {
+        assertThat(EuclideanRowKernel.preferred()).isInstanceOf(VectorEuclideanRowKernel.class);
+    }
+}
@@ -0,0 +1,73 @@
+package org.acme.vehiclerouting.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.rest.RoutePlanEventPublisher.RoutePlanEvent;
+import org.acme.vehiclerouting.rest.RoutePlanEventPublisher.VehicleRoute;
+import org.junit.jupiter.api.Test;
+
+class RoutePlanEventPublisherTest {
+
+    @Test
+    void updateOnlyChangedVehicleRoutes() {
+        Location location = new Location(49.288087, 16.562172);
+        Depot depot = new Depot(1L, location);
+        Vehicle vehicleA = new Vehicle(1L, 100, depot);
+        Vehicle vehicleB = new Vehicle(2L, 100, depot);
+        Customer customer1 = new Customer(1L, location, 10);
+        Customer customer2 = new Customer(2L, location, 20);
+        VehicleRoutePlan routePlan = new VehicleRoutePlan("test", List.of(depot), List.of(vehicleA, vehicleB),
+                List.of(customer1, customer2), location, location);
+        vehicleA.setCustomers(new ArrayList<>(List.of(customer1, customer2)));
+
+        Map<Long, VehicleRoute> vehicleIdToRoute = new HashMap<>();
+        assertThat(RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, routePlan).vehicleRoutes())
+                .extracting(VehicleRoute::vehicleId)
+                .containsExactly(1L, 2L);
+        assertThat(RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, routePlan).vehicleRoutes()).isEmpty();
+
+        vehicleA.setCustomers(new ArrayList<>(List.of(customer1)));
+        vehicleB.setCustomers(new ArrayList<>(List.of(customer2)));
+        List<VehicleRoute> changedVehicleRoutes =
+                RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, routePlan).vehicleRoutes();
+        assertThat(changedVehicleRoutes).containsExactly(
+                new VehicleRoute(1L, List.of(1L), 10, 0L),
+                new VehicleRoute(2L, List.of(2L), 20, 0L));
+
+        vehicleA.setCustomers(new ArrayList<>(List.of(customer1)));
+        assertThat(RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, routePlan).vehicleRoutes()).isEmpty();
+    }
+
+    @Test
+    void sendRemovedVehicleIds() {
+        Location location = new Location(49.288087, 16.562172);
+        Depot depot = new Depot(1L, location);
+        Vehicle vehicleA = new Vehicle(1L, 100, depot);
+        Vehicle vehicleB = new Vehicle(2L, 100, depot);
+        Map<Long, VehicleRoute> vehicleIdToRoute = new HashMap<>();
+        RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, createRoutePlan(depot, vehicleA, vehicleB));
+
+        RoutePlanEvent routePlanEvent =
+                RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, createRoutePlan(depot, vehicleB));
+        assertThat(routePlanEvent.vehicleRoutes()).isEmpty();
+        assertThat(routePlanEvent.removedVehicleIds()).containsExactly(1L);
+        assertThat(vehicleIdToRoute.keySet()).containsExactly(2L);
+        assertThat(RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, createRoutePlan(depot, vehicleB))
+                .removedVehicleIds()).isEmpty();
+    }
+
+    private static VehicleRoutePlan createRoutePlan(Depot depot, Vehicle... vehicles) {
+        Location location = depot.getLocation();
+        return new VehicleRoutePlan("test", List.of(depot), List.of(vehicles), List.of(), location, location);
+    }
+}
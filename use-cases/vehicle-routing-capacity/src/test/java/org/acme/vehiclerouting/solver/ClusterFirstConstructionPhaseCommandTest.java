@@ -0,0 +1,79 @@
+package org.acme.vehiclerouting.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+class ClusterFirstConstructionPhaseCommandTest {
+
+    @Test
+    void sweepRespectsCapacity() {
+        Depot depot = new Depot(1L, new Location(50.0, 15.0));
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            double angle = 2 * Math.PI * i / 12;
+            customers.add(new Customer(10L + i,
+                    new Location(50.0 + Math.sin(angle) * 0.1, 15.0 + Math.cos(angle) * 0.1), 10));
+        }
+        List<Vehicle> vehicles = List.of(new Vehicle(1L, 40, depot), new Vehicle(2L, 40, depot),
+                new Vehicle(3L, 40, depot));
+
+        List<List<Customer>> clusters = ClusterFirstConstructionPhaseCommand.sweep(depot, vehicles, customers);
+        assertThat(clusters).hasSize(3);
+        assertThat(clusters).allMatch(cluster -> cluster.size() == 4);
+    }
+
+    @Test
+    void sweepOverloadsVehicleWithMostCapacityLeft() {
+        Depot depot = new Depot(1L, new Location(50.0, 15.0));
+        List<Customer> customers = List.of(new Customer(10L, new Location(50.1, 15.0), 30),
+                new Customer(11L, new Location(50.0, 15.1), 30),
+                new Customer(12L, new Location(49.9, 15.0), 30));
+        List<Vehicle> vehicles = List.of(new Vehicle(1L, 40, depot), new Vehicle(2L, 50, depot));
+
+        List<List<Customer>> clusters = ClusterFirstConstructionPhaseCommand.sweep(depot, vehicles, customers);
+        assertThat(clusters.get(0).size() + clusters.get(1).size()).isEqualTo(3);
+        assertThat(clusters.get(1)).hasSize(2);
+    }
+
+    @Test
+    void assignEveryCustomerToNearestDepot() {
+        Depot westDepot = new Depot(1L, new Location(50.0, 14.0));
+        Depot eastDepot = new Depot(2L, new Location(50.0, 16.0));
+        Customer westCustomer = new Customer(10L, new Location(50.1, 14.1), 10);
+        Customer eastCustomer = new Customer(11L, new Location(50.1, 16.1), 10);
+        Customer farEastCustomer = new Customer(12L, new Location(50.2, 16.2), 10);
+        Customer assignedCustomer = new Customer(13L, new Location(49.9, 15.9), 10);
+        Vehicle westVehicle = new Vehicle(1L, 100, westDepot);
+        Vehicle eastVehicle = new Vehicle(2L, 100, eastDepot);
+        eastVehicle.getCustomers().add(assignedCustomer);
+        VehicleRoutePlan routePlan = new VehicleRoutePlan("test", List.of(westDepot, eastDepot),
+                List.of(westVehicle, eastVehicle),
+                List.of(westCustomer, eastCustomer, farEastCustomer, assignedCustomer),
+                new Location(49.0, 13.0), new Location(51.0, 17.0));
+        new EuclideanDistanceCalculator().initDistanceMatrix(routePlan.getLocations());
+
+        new ClusterFirstConstructionPhaseCommand().changeWorkingSolution(scoreDirector(routePlan));
+        assertThat(westVehicle.getCustomers()).containsExactly(westCustomer);
+        assertThat(eastVehicle.getCustomers()).containsExactly(assignedCustomer, eastCustomer, farEastCustomer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ScoreDirector<VehicleRoutePlan> scoreDirector(VehicleRoutePlan routePlan) {
+        return (ScoreDirector<VehicleRoutePlan>) Proxy.newProxyInstance(ScoreDirector.class.getClassLoader(),
+                new Class<?>[] { ScoreDirector.class },
+                (proxy, method, args) -> method.getName().equals("getWorkingSolution") ? routePlan : null);
+    }
+}
@@ -0,0 +1,33 @@
+package org.acme.vehiclerouting.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.geo.EuclideanDistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+class CustomerNearbyDistanceMeterTest {
+
+    @Test
+    void distanceFromDestinationToOrigin() {
+        Location depotLocation = new Location(49.288087, 16.562172);
+        Location nearLocation = new Location(49.190922, 16.624466);
+        Location farLocation = new Location(50.0, 17.5);
+        new EuclideanDistanceCalculator().initDistanceMatrix(List.of(depotLocation, nearLocation, farLocation));
+        Vehicle vehicle = new Vehicle(1L, 100, new Depot(1L, depotLocation));
+        Customer origin = new Customer(2L, nearLocation, 10);
+        Customer farCustomer = new Customer(3L, farLocation, 10);
+
+        CustomerNearbyDistanceMeter meter = new CustomerNearbyDistanceMeter();
+        assertThat(meter.getNearbyDistance(origin, vehicle)).isEqualTo(
+                (double) depotLocation.getDistanceTo(nearLocation));
+        assertThat(meter.getNearbyDistance(origin, farCustomer)).isEqualTo(
+                (double) farLocation.getDistanceTo(nearLocation));
+        assertThat(meter.getNearbyDistance(origin, vehicle)).isLessThan(meter.getNearbyDistance(origin, farCustomer));
+    }
+}
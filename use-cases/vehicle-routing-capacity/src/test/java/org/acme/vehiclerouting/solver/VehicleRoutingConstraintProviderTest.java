@@ -27,15 +27,15 @@ class VehicleRoutingConstraintProviderTest {
     private static final Location location3 = new Location( 3.0, 0.0);
 
     @BeforeAll
-    static void initDistanceMaps() {
-        new EuclideanDistanceCalculator().initDistanceMaps(Arrays.asList(location1, location2, location3));
+    static void initDistanceMatrix() {
+        new EuclideanDistanceCalculator().initDistanceMatrix(Arrays.asList(location1, location2, location3));
     }
 
     @Test
     void vehicleCapacityUnpenalized() {
         Vehicle vehicleA = new Vehicle(1L, 100, new Depot(1L, location1));
         Customer customer1 = new Customer(2L, location2, 80);
-        vehicleA.getCustomers().add(customer1);
+        assign(vehicleA, customer1);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::vehicleCapacity)
                 .given(vehicleA, customer1)
@@ -46,10 +46,8 @@ class VehicleRoutingConstraintProviderTest {
     void vehicleCapacityPenalized() {
         Vehicle vehicleA = new Vehicle(1L, 100, new Depot(1L, location1));
         Customer customer1 = new Customer(2L, location2, 80);
-        vehicleA.getCustomers().add(customer1);
-
         Customer customer2 = new Customer(3L, location3, 40);
-        vehicleA.getCustomers().add(customer2);
+        assign(vehicleA, customer1, customer2);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::vehicleCapacity)
                 .given(vehicleA, customer1, customer2)
@@ -60,12 +58,17 @@ class VehicleRoutingConstraintProviderTest {
     void totalDistance() {
         Vehicle vehicleA = new Vehicle(1L, 100, new Depot(1L, location1));
         Customer customer1 = new Customer(2L, location2, 80);
-        vehicleA.getCustomers().add(customer1);
         Customer customer2 = new Customer(3L, location3, 40);
-        vehicleA.getCustomers().add(customer2);
+        assign(vehicleA, customer1, customer2);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::totalDistance)
                 .given(vehicleA, customer1, customer2)
                 .penalizesBy((4 + 5 + 3) * EuclideanDistanceCalculator.METERS_PER_DEGREE);
     }
+
+    static void assign(Vehicle vehicle, Customer... customers) {
+        vehicle.getCustomers().addAll(Arrays.asList(customers));
+        vehicle.setTotalDemand(VehicleTotalsUpdatingVariableListener.calculateTotalDemand(vehicle));
+        vehicle.setTotalDistanceMeters(VehicleTotalsUpdatingVariableListener.calculateTotalDistanceMeters(vehicle));
+    }
 }
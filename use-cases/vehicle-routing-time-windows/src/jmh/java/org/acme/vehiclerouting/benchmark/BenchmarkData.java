@@ -0,0 +1,47 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource.DemoData;
+
+/**
+ * Problems of several sizes, grown from the demo data, so the benchmarks measure realistic location spreads.
+ */
+final class BenchmarkData {
+
+    // About 10 meters, so the copies of a location are distinct, but do not change the spread.
+    private static final double COPY_OFFSET_DEGREES = 0.0001;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param demoData never null
+     * @param copyCount at least 1, how many times the demo plan is repeated
+     * @return never null, a route plan with {@code copyCount} times the customers of the demo plan,
+     *         every copy slightly shifted
+     */
+    static VehicleRoutePlan build(DemoData demoData, int copyCount) {
+        VehicleRoutePlan demoPlan = new VehicleRouteDemoResource().build(demoData);
+        List<Customer> demoCustomers = demoPlan.getCustomers();
+        List<Customer> customers = new ArrayList<>(demoCustomers.size() * copyCount);
+        for (int copy = 0; copy < copyCount; copy++) {
+            double offset = copy * COPY_OFFSET_DEGREES;
+            for (Customer demoCustomer : demoCustomers) {
+                Location demoLocation = demoCustomer.getLocation();
+                customers.add(new Customer(copy + "-" + demoCustomer.getId(), demoCustomer.getName(),
+                        new Location(demoLocation.getLatitude() + offset, demoLocation.getLongitude() + offset),
+                        demoCustomer.getMinStartTime(), demoCustomer.getMaxEndTime(),
+                        demoCustomer.getServiceDuration()));
+            }
+        }
+        return new VehicleRoutePlan(demoPlan.getName(), demoPlan.getSouthWestCorner(), demoPlan.getNorthEastCorner(),
+                demoPlan.getStartDateTime(), demoPlan.getEndDateTime(), demoPlan.getDepots(), demoPlan.getVehicles(),
+                customers);
+    }
+}
@@ -0,0 +1,121 @@
+package org.acme.vehiclerouting.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.HaversineDistanceCalculator;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource.DemoData;
+import org.acme.vehiclerouting.solver.ArrivalTimeUpdatingVariableListener;
+import org.acme.vehiclerouting.solver.VehicleTotalsUpdatingVariableListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the shadow variable updates of a single long route, as the solver triggers them on every move.
+ * <p>
+ * The score director only hands out the working solution and ignores the change notifications,
+ * so the listeners are measured without the constraint streams behind them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteShadowVariableBenchmark {
+
+    @Param({ "200" })
+    public int customerCount;
+
+    private final ArrivalTimeUpdatingVariableListener arrivalTimeListener = new ArrivalTimeUpdatingVariableListener();
+    private final VehicleTotalsUpdatingVariableListener vehicleTotalsListener =
+            new VehicleTotalsUpdatingVariableListener();
+    private ScoreDirector<VehicleRoutePlan> scoreDirector;
+    private Vehicle vehicle;
+    private Customer firstCustomer;
+    private long departureEpochSecond;
+    private boolean delayed = false;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setUp() {
+        DemoData demoData = DemoData.FIRENZE;
+        int demoCustomerCount = new VehicleRouteDemoResource().build(demoData).getCustomers().size();
+        VehicleRoutePlan routePlan = BenchmarkData.build(demoData,
+                (customerCount + demoCustomerCount - 1) / demoCustomerCount);
+        new HaversineDistanceCalculator().initDistanceMatrix(routePlan.getLocations());
+        scoreDirector = (ScoreDirector<VehicleRoutePlan>) Proxy.newProxyInstance(
+                ScoreDirector.class.getClassLoader(), new Class<?>[] { ScoreDirector.class },
+                (proxy, method, arguments) -> method.getName().equals("getWorkingSolution") ? routePlan : null);
+
+        vehicle = routePlan.getVehicles().get(0);
+        List<Customer> route = new ArrayList<>(routePlan.getCustomers().subList(0, customerCount));
+        Customer previousCustomer = null;
+        for (Customer customer : route) {
+            customer.setVehicle(vehicle);
+            customer.setPreviousCustomer(previousCustomer);
+            if (previousCustomer != null) {
+                previousCustomer.setNextCustomer(customer);
+            }
+            previousCustomer = customer;
+        }
+        vehicle.setCustomers(route);
+        firstCustomer = route.get(0);
+        departureEpochSecond = vehicle.getDepartureEpochSecond();
+        arrivalTimeListener.afterVariableChanged(scoreDirector, firstCustomer);
+        vehicleTotalsListener.resetWorkingSolution(scoreDirector);
+    }
+
+    /**
+     * Every invocation delays or advances the departure of the vehicle,
+     * so the arrival time of every customer on the route changes.
+     *
+     * @return the arrival time at the last customer
+     */
+    @Benchmark
+    public long updateArrivalTimesOfWholeRoute() {
+        delayed = !delayed;
+        vehicle.setDepartureTime(Customer.toLocalDateTime(departureEpochSecond + (delayed ? 60L : 0L)));
+        arrivalTimeListener.afterVariableChanged(scoreDirector, firstCustomer);
+        List<Customer> customers = vehicle.getCustomers();
+        return customers.get(customers.size() - 1).getArrivalEpochSecond();
+    }
+
+    @Benchmark
+    public long calculateTotalDrivingTimeOfWholeRoute() {
+        return VehicleTotalsUpdatingVariableListener.calculateTotalDrivingTimeSeconds(vehicle);
+    }
+
+    /**
+     * Swaps 2 adjacent customers in the middle of the route, like a list swap move.
+     *
+     * @return {@link Vehicle#getTotalDrivingTimeSeconds()} after the incremental update
+     */
+    @Benchmark
+    public long updateTotalDrivingTimeAfterSwap() {
+        int fromIndex = customerCount / 2;
+        vehicleTotalsListener.beforeListVariableChanged(scoreDirector, vehicle, fromIndex, fromIndex + 2);
+        Collections.swap(vehicle.getCustomers(), fromIndex, fromIndex + 1);
+        vehicleTotalsListener.afterListVariableChanged(scoreDirector, vehicle, fromIndex, fromIndex + 2);
+        return vehicle.getTotalDrivingTimeSeconds();
+    }
+}
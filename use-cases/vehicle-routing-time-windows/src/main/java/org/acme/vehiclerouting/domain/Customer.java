@@ -2,8 +2,10 @@ package org.acme.vehiclerouting.domain;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
+import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import ai.timefold.solver.core.api.domain.variable.InverseRelationShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.NextElementShadowVariable;
 import ai.timefold.solver.core.api.domain.variable.PreviousElementShadowVariable;
@@ -21,6 +23,12 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 @PlanningEntity
 public class Customer {
 
+    /**
+     * Epoch second of an unknown time, because the customer is not assigned to a vehicle (yet).
+     */
+    public static final long NO_EPOCH_SECOND = Long.MIN_VALUE;
+
+    @PlanningId
     private String id;
     private String name;
     private Location location;
@@ -28,13 +36,18 @@ public class Customer {
     private LocalDateTime maxEndTime;
     private Duration serviceDuration;
 
+    // The times above as epoch seconds in UTC, to avoid creating LocalDateTime instances during solving.
+    private long minStartEpochSecond;
+    private long maxEndEpochSecond;
+    private long serviceDurationSeconds;
+
     private Vehicle vehicle;
 
     private Customer previousCustomer;
 
     private Customer nextCustomer;
 
-    private LocalDateTime arrivalTime;
+    private long arrivalEpochSecond = NO_EPOCH_SECOND;
 
     public Customer() {
     }
@@ -44,9 +57,9 @@ public class Customer {
         this.id = id;
         this.name = name;
         this.location = location;
-        this.minStartTime = minStartTime;
-        this.maxEndTime = maxEndTime;
-        this.serviceDuration = serviceDuration;
+        setMinStartTime(minStartTime);
+        setMaxEndTime(maxEndTime);
+        setServiceDuration(serviceDuration);
     }
 
     public String getId() {
@@ -73,14 +86,29 @@ public class Customer {
         return minStartTime;
     }
 
+    public void setMinStartTime(LocalDateTime minStartTime) {
+        this.minStartTime = minStartTime;
+        this.minStartEpochSecond = toEpochSecond(minStartTime);
+    }
+
     public LocalDateTime getMaxEndTime() {
         return maxEndTime;
     }
 
+    public void setMaxEndTime(LocalDateTime maxEndTime) {
+        this.maxEndTime = maxEndTime;
+        this.maxEndEpochSecond = toEpochSecond(maxEndTime);
+    }
+
     public Duration getServiceDuration() {
         return serviceDuration;
     }
 
+    public void setServiceDuration(Duration serviceDuration) {
+        this.serviceDuration = serviceDuration;
+        this.serviceDurationSeconds = serviceDuration == null ? 0L : serviceDuration.toSeconds();
+    }
+
     @JsonIdentityReference(alwaysAsId = true)
     @InverseRelationShadowVariable(sourceVariableName = "customers")
     public Vehicle getVehicle() {
@@ -111,48 +139,71 @@ public class Customer {
         this.nextCustomer = nextCustomer;
     }
 
+    /**
+     * @return the arrival time in epoch seconds in UTC, or {@link #NO_EPOCH_SECOND} if unknown
+     */
+    @JsonIgnore
     @ShadowVariable(variableListenerClass = ArrivalTimeUpdatingVariableListener.class, sourceVariableName = "vehicle")
     @ShadowVariable(variableListenerClass = ArrivalTimeUpdatingVariableListener.class, sourceVariableName = "previousCustomer")
+    public long getArrivalEpochSecond() {
+        return arrivalEpochSecond;
+    }
+
+    @JsonIgnore
+    public void setArrivalEpochSecond(long arrivalEpochSecond) {
+        this.arrivalEpochSecond = arrivalEpochSecond;
+    }
+
     public LocalDateTime getArrivalTime() {
-        return arrivalTime;
+        return toLocalDateTime(arrivalEpochSecond);
     }
 
     public void setArrivalTime(LocalDateTime arrivalTime) {
-        this.arrivalTime = arrivalTime;
+        this.arrivalEpochSecond = toEpochSecond(arrivalTime);
     }
 
     // ************************************************************************
     // Complex methods
     // ************************************************************************
 
+    @JsonIgnore
+    public long getStartServiceEpochSecond() {
+        if (arrivalEpochSecond == NO_EPOCH_SECOND) {
+            return NO_EPOCH_SECOND;
+        }
+        return Math.max(arrivalEpochSecond, minStartEpochSecond);
+    }
+
+    @JsonIgnore
+    public long getDepartureEpochSecond() {
+        if (arrivalEpochSecond == NO_EPOCH_SECOND) {
+            return NO_EPOCH_SECOND;
+        }
+        return getStartServiceEpochSecond() + serviceDurationSeconds;
+    }
+
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public LocalDateTime getDepartureTime() {
-        if (arrivalTime == null) {
-            return null;
-        }
-        return getStartServiceTime().plus(serviceDuration);
+        return toLocalDateTime(getDepartureEpochSecond());
     }
 
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public LocalDateTime getStartServiceTime() {
-        if (arrivalTime == null) {
-            return null;
-        }
-        return arrivalTime.isBefore(minStartTime) ? minStartTime : arrivalTime;
+        return toLocalDateTime(getStartServiceEpochSecond());
     }
 
     @JsonIgnore
     public boolean isServiceFinishedAfterMaxEndTime() {
-        return arrivalTime != null
-                && arrivalTime.plus(serviceDuration).isAfter(maxEndTime);
+        return arrivalEpochSecond != NO_EPOCH_SECOND
+                && arrivalEpochSecond + serviceDurationSeconds > maxEndEpochSecond;
     }
 
     @JsonIgnore
     public long getServiceFinishedDelayInMinutes() {
-        if (arrivalTime == null) {
+        if (arrivalEpochSecond == NO_EPOCH_SECOND) {
             return 0;
         }
-        return Duration.between(maxEndTime, arrivalTime.plus(serviceDuration)).toMinutes();
+        return (arrivalEpochSecond + serviceDurationSeconds - maxEndEpochSecond) / 60;
     }
 
     @JsonIgnore
@@ -176,6 +227,17 @@ public class Customer {
         return getDrivingTimeSecondsFromPreviousStandstill();
     }
 
+    /**
+     * Sub-second precision is dropped, as driving times are in seconds anyway.
+     */
+    public static long toEpochSecond(LocalDateTime dateTime) {
+        return dateTime == null ? NO_EPOCH_SECOND : dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochSecond) {
+        return epochSecond == NO_EPOCH_SECOND ? null : LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
     @Override
     public String toString() {
         return id;
@@ -1,6 +1,6 @@
 package org.acme.vehiclerouting.domain;
 
-import java.util.Map;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonFormat;
@@ -14,7 +14,9 @@ public class Location {
     private double longitude;
 
     @JsonIgnore
-    private Map<Location, Long> drivingTimeSecondsMap;
+    private DistanceMatrix distanceMatrix;
+    @JsonIgnore
+    private int index = -1;
 
     @JsonCreator
     public Location(@JsonProperty("latitude") double latitude, @JsonProperty("longitude") double longitude) {
@@ -30,17 +32,23 @@ public class Location {
         return longitude;
     }
 
-    public Map<Location, Long> getDrivingTimeSecondsMap() {
-        return drivingTimeSecondsMap;
+    public DistanceMatrix getDistanceMatrix() {
+        return distanceMatrix;
+    }
+
+    public int getIndex() {
+        return index;
     }
 
     /**
-     * Set the driving time map (in seconds).
+     * Set the shared driving time matrix (in seconds) and the row/column of this location in it.
      *
-     * @param drivingTimeSecondsMap a map containing driving time from here to other locations
+     * @param distanceMatrix a matrix containing driving time between all locations of the plan
+     * @param index the dense index of this location in the matrix
      */
-    public void setDrivingTimeSecondsMap(Map<Location, Long> drivingTimeSecondsMap) {
-        this.drivingTimeSecondsMap = drivingTimeSecondsMap;
+    public void setDistanceMatrix(DistanceMatrix distanceMatrix, int index) {
+        this.distanceMatrix = distanceMatrix;
+        this.index = index;
     }
 
     /**
@@ -50,7 +58,7 @@ public class Location {
      * @return driving time in seconds
      */
     public long getDrivingTimeTo(Location location) {
-        return drivingTimeSecondsMap.get(location);
+        return distanceMatrix.get(index, location.index);
     }
 
     @Override
@@ -7,9 +7,13 @@ import java.util.List;
 import ai.timefold.solver.core.api.domain.entity.PlanningEntity;
 import ai.timefold.solver.core.api.domain.lookup.PlanningId;
 import ai.timefold.solver.core.api.domain.variable.PlanningListVariable;
+import ai.timefold.solver.core.api.domain.variable.ShadowVariable;
+
+import org.acme.vehiclerouting.solver.VehicleTotalsUpdatingVariableListener;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonIdentityReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 
@@ -17,24 +21,30 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 @PlanningEntity
 public class Vehicle {
 
+    // The solver has not calculated the totals yet, for example of a plan that has not been solved.
+    private static final long NOT_CALCULATED = -1L;
+
     @PlanningId
     private String id;
     @JsonIdentityReference
     private Depot depot;
 
     private LocalDateTime departureTime;
+    private long departureEpochSecond = Customer.NO_EPOCH_SECOND;
 
     @JsonIdentityReference(alwaysAsId = true)
     @PlanningListVariable
     private List<Customer> customers;
 
+    private long totalDrivingTimeSeconds = NOT_CALCULATED;
+
     public Vehicle() {
     }
 
     public Vehicle(String id, Depot depot, LocalDateTime departureTime) {
         this.id = id;
         this.depot = depot;
-        this.departureTime = departureTime;
+        setDepartureTime(departureTime);
         this.customers = new ArrayList<>();
     }
 
@@ -58,6 +68,19 @@ public class Vehicle {
         return departureTime;
     }
 
+    public void setDepartureTime(LocalDateTime departureTime) {
+        this.departureTime = departureTime;
+        this.departureEpochSecond = Customer.toEpochSecond(departureTime);
+    }
+
+    /**
+     * @return the departure time in epoch seconds in UTC, or {@link Customer#NO_EPOCH_SECOND} if unknown
+     */
+    @JsonIgnore
+    public long getDepartureEpochSecond() {
+        return departureEpochSecond;
+    }
+
     public List<Customer> getCustomers() {
         return customers;
     }
@@ -66,28 +89,29 @@ public class Vehicle {
         this.customers = customers;
     }
 
-    // ************************************************************************
-    // Complex methods
-    // ************************************************************************
-
+    /**
+     * @return the driving time from the depot past all customers back to the depot, in seconds,
+     *         calculated from the route if the solver has not calculated it yet and the distance matrix is initialized
+     */
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @ShadowVariable(variableListenerClass = VehicleTotalsUpdatingVariableListener.class,
+            sourceVariableName = "customers")
     public long getTotalDrivingTimeSeconds() {
-        if (customers.isEmpty()) {
-            return 0;
-        }
-
-        long totalDistance = 0;
-        Location previousLocation = depot.getLocation();
-
-        for (Customer customer : customers) {
-            totalDistance += previousLocation.getDrivingTimeTo(customer.getLocation());
-            previousLocation = customer.getLocation();
+        if (totalDrivingTimeSeconds == NOT_CALCULATED) {
+            return depot.getLocation().getDistanceMatrix() == null ? 0L
+                    : VehicleTotalsUpdatingVariableListener.calculateTotalDrivingTimeSeconds(this);
         }
-        totalDistance += previousLocation.getDrivingTimeTo(depot.getLocation());
+        return totalDrivingTimeSeconds;
+    }
 
-        return totalDistance;
+    public void setTotalDrivingTimeSeconds(long totalDrivingTimeSeconds) {
+        this.totalDrivingTimeSeconds = totalDrivingTimeSeconds;
     }
 
+    // ************************************************************************
+    // Complex methods
+    // ************************************************************************
+
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
     public LocalDateTime arrivalTime() {
         if (customers.isEmpty()) {
@@ -95,7 +119,12 @@ public class Vehicle {
         }
 
         Customer lastCustomer = customers.get(customers.size()-1);
-        return lastCustomer.getDepartureTime().plusSeconds(lastCustomer.getLocation().getDrivingTimeTo(depot.getLocation()));
+        long lastDepartureEpochSecond = lastCustomer.getDepartureEpochSecond();
+        if (lastDepartureEpochSecond == Customer.NO_EPOCH_SECOND) {
+            return null;
+        }
+        return Customer.toLocalDateTime(lastDepartureEpochSecond
+                + lastCustomer.getLocation().getDrivingTimeTo(depot.getLocation()));
     }
 
     @Override
@@ -1,8 +1,9 @@
 package org.acme.vehiclerouting.domain;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Stream;
 
 import ai.timefold.solver.core.api.domain.solution.PlanningEntityCollectionProperty;
 import ai.timefold.solver.core.api.domain.solution.PlanningScore;
@@ -12,10 +13,8 @@ import ai.timefold.solver.core.api.domain.valuerange.ValueRangeProvider;
 import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.solver.SolverStatus;
 
-import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
-import org.acme.vehiclerouting.domain.geo.HaversineDistanceCalculator;
-
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -32,6 +31,24 @@ public class VehicleRoutePlan {
 
     private LocalDateTime endDateTime;
 
+    @JsonIgnore
+    private List<Location> locations;
+
+    /**
+     * If set, only the driving times to this many nearest neighbours of every location are precomputed,
+     * instead of a full distance matrix (see {@link org.acme.vehiclerouting.domain.geo.SparseDistanceMatrix}).
+     * Useful for plans with tens of thousands of customers, for which a full distance matrix does not fit in memory.
+     */
+    private Integer sparseDistanceMatrixNeighborCount;
+
+    /**
+     * If set, the customers are split in this many geographic regions, which are solved in parallel,
+     * before the merged plan is solved as a whole to improve the routes across region boundaries
+     * (see {@link org.acme.vehiclerouting.solver.RegionDecomposition}).
+     * Useful for plans with thousands of customers, which converge too slowly when solved as a whole.
+     */
+    private Integer decompositionRegionCount;
+
     @ProblemFactCollectionProperty
     private List<Depot> depots;
 
@@ -75,12 +92,9 @@ public class VehicleRoutePlan {
         this.depots = depots;
         this.vehicles = vehicles;
         this.customers = customers;
-        List<Location> locations = Stream.concat(
-                depots.stream().map(Depot::getLocation),
-                customers.stream().map(Customer::getLocation)).toList();
-
-        DistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
-        distanceCalculator.initDistanceMaps(locations);
+        this.locations = new ArrayList<>(depots.size() + customers.size());
+        depots.forEach(depot -> locations.add(depot.getLocation()));
+        customers.forEach(customer -> locations.add(customer.getLocation()));
     }
 
     public String getName() {
@@ -103,6 +117,42 @@ public class VehicleRoutePlan {
         return endDateTime;
     }
 
+    /**
+     * All depot and customer locations, in the order of the rows of their distance matrix,
+     * unless that matrix is shared with the other route plans of a batch.
+     *
+     * @return never null, unmodifiable
+     */
+    public List<Location> getLocations() {
+        return Collections.unmodifiableList(locations);
+    }
+
+    /**
+     * Add the location of a customer added while the plan is being solved, as the last row of the distance matrix.
+     * The locations of removed customers are kept, so the other rows do not move.
+     *
+     * @param location never null
+     */
+    public void addLocation(Location location) {
+        locations.add(location);
+    }
+
+    public Integer getSparseDistanceMatrixNeighborCount() {
+        return sparseDistanceMatrixNeighborCount;
+    }
+
+    public void setSparseDistanceMatrixNeighborCount(Integer sparseDistanceMatrixNeighborCount) {
+        this.sparseDistanceMatrixNeighborCount = sparseDistanceMatrixNeighborCount;
+    }
+
+    public Integer getDecompositionRegionCount() {
+        return decompositionRegionCount;
+    }
+
+    public void setDecompositionRegionCount(Integer decompositionRegionCount) {
+        this.decompositionRegionCount = decompositionRegionCount;
+    }
+
     public List<Depot> getDepots() {
         return depots;
     }
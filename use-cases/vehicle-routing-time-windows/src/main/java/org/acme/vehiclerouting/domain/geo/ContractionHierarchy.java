@@ -0,0 +1,572 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Contraction hierarchy over a directed road graph with non-negative {@code int} weights.
+ * <p>
+ * Preprocessing contracts the nodes one by one, in the order of their edge difference, and adds a shortcut
+ * wherever a shortest path through the contracted node has no witness path around it.
+ * Afterwards, every shortest path is an upward path from the source followed by a downward path to the target,
+ * so a query only searches the (small) upward graphs from both ends.
+ * <p>
+ * Many-to-many distances use buckets: one backward upward search per target stores its search space
+ * in per-node buckets, after which one forward upward search per source scans the buckets of the nodes it settles.
+ * That is far cheaper than one point-to-point query per pair.
+ * <p>
+ * Instances are immutable after construction and queries are thread-safe.
+ * Every search allocates its own state, sized by the nodes it touches, so nothing is kept per thread.
+ */
+final class ContractionHierarchy {
+
+    static final long UNREACHABLE = Long.MAX_VALUE;
+
+    /**
+     * Bounds every witness search, trading a few superfluous shortcuts for a much faster preprocessing.
+     */
+    private static final int WITNESS_SEARCH_SETTLED_LIMIT = 500;
+
+    private final int nodeCount;
+    // Upward graph in compressed sparse row format: edges towards higher ranked nodes.
+    private final int[] upwardOutStart;
+    private final int[] upwardOutTarget;
+    private final int[] upwardOutWeight;
+    // Reverse upward graph: for each node, the edges that reach it from higher ranked nodes.
+    private final int[] upwardInStart;
+    private final int[] upwardInSource;
+    private final int[] upwardInWeight;
+
+    /**
+     * @param nodeCount number of nodes, addressed as {@code 0} to {@code nodeCount - 1}
+     * @param arcFroms never null, the source node of every directed arc
+     * @param arcTos never null, the target node of every directed arc
+     * @param arcWeights never null, the non-negative weight of every directed arc
+     */
+    ContractionHierarchy(int nodeCount, int[] arcFroms, int[] arcTos, int[] arcWeights) {
+        this.nodeCount = nodeCount;
+        Adjacency outAdjacency = new Adjacency(nodeCount);
+        Adjacency inAdjacency = new Adjacency(nodeCount);
+        for (int i = 0; i < arcFroms.length; i++) {
+            if (arcWeights[i] < 0) {
+                throw new IllegalArgumentException("The arc (" + arcFroms[i] + " -> " + arcTos[i]
+                        + ") has a negative weight (" + arcWeights[i] + ").");
+            }
+            if (arcFroms[i] != arcTos[i]) {
+                outAdjacency.addOrDecrease(arcFroms[i], arcTos[i], arcWeights[i]);
+                inAdjacency.addOrDecrease(arcTos[i], arcFroms[i], arcWeights[i]);
+            }
+        }
+
+        Adjacency upwardOut = new Adjacency(nodeCount);
+        Adjacency upwardIn = new Adjacency(nodeCount);
+        new Contractor(outAdjacency, inAdjacency).contract(upwardOut, upwardIn);
+
+        upwardOutStart = new int[nodeCount + 1];
+        upwardOutTarget = new int[upwardOut.totalSize()];
+        upwardOutWeight = new int[upwardOut.totalSize()];
+        upwardOut.toCompressedSparseRows(upwardOutStart, upwardOutTarget, upwardOutWeight);
+        upwardInStart = new int[nodeCount + 1];
+        upwardInSource = new int[upwardIn.totalSize()];
+        upwardInWeight = new int[upwardIn.totalSize()];
+        upwardIn.toCompressedSparseRows(upwardInStart, upwardInSource, upwardInWeight);
+    }
+
+    int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @param from source node
+     * @param to target node
+     * @return the shortest distance, or {@link #UNREACHABLE}
+     */
+    long calculateDistance(int from, int to) {
+        if (from == to) {
+            return 0L;
+        }
+        QuerySearchSpace forward = searchUpward(from, upwardOutStart, upwardOutTarget, upwardOutWeight);
+        QuerySearchSpace backward = searchUpward(to, upwardInStart, upwardInSource, upwardInWeight);
+        long best = UNREACHABLE;
+        for (int i = 0; i < forward.getTouchedCount(); i++) {
+            long backwardDistance = backward.getDistance(forward.getTouchedNode(i));
+            if (backwardDistance != UNREACHABLE) {
+                best = Math.min(best, forward.getTouchedDistance(i) + backwardDistance);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Calculate the shortest distance from every source to every target.
+     * Rows are calculated in parallel, so the consumer must be thread-safe.
+     *
+     * @param sources never null
+     * @param targets never null
+     * @param rowConsumer never null, receives a fresh row of distances to all targets (or {@link #UNREACHABLE})
+     *        together with the index of its source
+     */
+    void calculateDistances(int[] sources, int[] targets, ObjIntConsumer<long[]> rowConsumer) {
+        int[][] targetSpaceNodes = new int[targets.length][];
+        long[][] targetSpaceDistances = new long[targets.length][];
+        IntStream.range(0, targets.length).parallel().forEach(targetIndex -> {
+            QuerySearchSpace space = searchUpward(targets[targetIndex], upwardInStart, upwardInSource, upwardInWeight);
+            int[] nodes = new int[space.getTouchedCount()];
+            long[] distances = new long[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = space.getTouchedNode(i);
+                distances[i] = space.getTouchedDistance(i);
+            }
+            targetSpaceNodes[targetIndex] = nodes;
+            targetSpaceDistances[targetIndex] = distances;
+        });
+
+        // Buckets in compressed sparse row format: for each node, the targets that reach it and at what distance.
+        int[] bucketStart = new int[nodeCount + 1];
+        for (int[] nodes : targetSpaceNodes) {
+            for (int node : nodes) {
+                bucketStart[node + 1]++;
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            bucketStart[node + 1] += bucketStart[node];
+        }
+        int[] bucketTarget = new int[bucketStart[nodeCount]];
+        long[] bucketDistance = new long[bucketStart[nodeCount]];
+        int[] bucketFill = Arrays.copyOf(bucketStart, nodeCount);
+        for (int targetIndex = 0; targetIndex < targets.length; targetIndex++) {
+            int[] nodes = targetSpaceNodes[targetIndex];
+            long[] distances = targetSpaceDistances[targetIndex];
+            for (int i = 0; i < nodes.length; i++) {
+                int entry = bucketFill[nodes[i]]++;
+                bucketTarget[entry] = targetIndex;
+                bucketDistance[entry] = distances[i];
+            }
+        }
+
+        IntStream.range(0, sources.length).parallel().forEach(sourceIndex -> {
+            QuerySearchSpace space =
+                    searchUpward(sources[sourceIndex], upwardOutStart, upwardOutTarget, upwardOutWeight);
+            long[] row = new long[targets.length];
+            Arrays.fill(row, UNREACHABLE);
+            for (int i = 0; i < space.getTouchedCount(); i++) {
+                int node = space.getTouchedNode(i);
+                long distance = space.getTouchedDistance(i);
+                for (int entry = bucketStart[node]; entry < bucketStart[node + 1]; entry++) {
+                    int targetIndex = bucketTarget[entry];
+                    row[targetIndex] = Math.min(row[targetIndex], distance + bucketDistance[entry]);
+                }
+            }
+            rowConsumer.accept(row, sourceIndex);
+        });
+    }
+
+    /**
+     * Exhaustive Dijkstra search over an upward graph. Upward search spaces are small, so there is no need to stop early.
+     */
+    private static QuerySearchSpace searchUpward(int start, int[] edgeStart, int[] edgeNode, int[] edgeWeight) {
+        QuerySearchSpace space = new QuerySearchSpace();
+        space.relax(start, 0L);
+        while (!space.heap.isEmpty()) {
+            long entry = space.heap.poll();
+            int node = MinHeap.node(entry);
+            long distance = MinHeap.distance(entry);
+            if (distance > space.getDistance(node)) {
+                continue; // Stale entry
+            }
+            for (int edge = edgeStart[node]; edge < edgeStart[node + 1]; edge++) {
+                space.relax(edgeNode[edge], distance + edgeWeight[edge]);
+            }
+        }
+        return space;
+    }
+
+    // ************************************************************************
+    // Preprocessing
+    // ************************************************************************
+
+    private record Candidate(int node, int importance) {
+    }
+
+    private final class Contractor {
+
+        private final Adjacency outAdjacency;
+        private final Adjacency inAdjacency;
+        private final boolean[] contracted;
+        private final int[] contractedNeighborCounts;
+        private final SearchSpace witnessSpace;
+
+        private Contractor(Adjacency outAdjacency, Adjacency inAdjacency) {
+            this.outAdjacency = outAdjacency;
+            this.inAdjacency = inAdjacency;
+            this.contracted = new boolean[nodeCount];
+            this.contractedNeighborCounts = new int[nodeCount];
+            this.witnessSpace = new SearchSpace(nodeCount);
+        }
+
+        void contract(Adjacency upwardOut, Adjacency upwardIn) {
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(Math.max(1, nodeCount),
+                    Comparator.comparingInt(Candidate::importance).thenComparingInt(Candidate::node));
+            for (int node = 0; node < nodeCount; node++) {
+                queue.add(new Candidate(node, calculateImportance(node)));
+            }
+            while (!queue.isEmpty()) {
+                Candidate candidate = queue.poll();
+                int node = candidate.node();
+                // Lazy update: the importance may have grown since the neighbors were contracted.
+                int importance = calculateImportance(node);
+                if (!queue.isEmpty() && importance > queue.peek().importance()) {
+                    queue.add(new Candidate(node, importance));
+                    continue;
+                }
+                // All remaining neighbors are contracted later, so they rank higher.
+                for (int i = 0; i < outAdjacency.sizes[node]; i++) {
+                    upwardOut.addOrDecrease(node, outAdjacency.nodes[node][i], outAdjacency.weights[node][i]);
+                }
+                for (int i = 0; i < inAdjacency.sizes[node]; i++) {
+                    upwardIn.addOrDecrease(node, inAdjacency.nodes[node][i], inAdjacency.weights[node][i]);
+                }
+                processShortcuts(node, true);
+                for (int i = 0; i < outAdjacency.sizes[node]; i++) {
+                    int neighbor = outAdjacency.nodes[node][i];
+                    inAdjacency.remove(neighbor, node);
+                    contractedNeighborCounts[neighbor]++;
+                }
+                for (int i = 0; i < inAdjacency.sizes[node]; i++) {
+                    int neighbor = inAdjacency.nodes[node][i];
+                    outAdjacency.remove(neighbor, node);
+                    contractedNeighborCounts[neighbor]++;
+                }
+                contracted[node] = true;
+            }
+        }
+
+        private int calculateImportance(int node) {
+            int edgeDifference = processShortcuts(node, false) - outAdjacency.sizes[node] - inAdjacency.sizes[node];
+            return edgeDifference + contractedNeighborCounts[node];
+        }
+
+        /**
+         * @param node the node to (simulate to) contract
+         * @param add true to add the shortcuts, false to only count them
+         * @return the number of shortcuts
+         */
+        private int processShortcuts(int node, boolean add) {
+            int shortcutCount = 0;
+            int[] inNodes = Arrays.copyOf(inAdjacency.nodes[node], inAdjacency.sizes[node]);
+            int[] inWeights = Arrays.copyOf(inAdjacency.weights[node], inAdjacency.sizes[node]);
+            int outSize = outAdjacency.sizes[node];
+            int[] outNodes = outAdjacency.nodes[node];
+            int[] outWeights = outAdjacency.weights[node];
+            int maxOutWeight = 0;
+            for (int i = 0; i < outSize; i++) {
+                maxOutWeight = Math.max(maxOutWeight, outWeights[i]);
+            }
+            for (int i = 0; i < inNodes.length; i++) {
+                int from = inNodes[i];
+                searchWitnesses(from, node, (long) inWeights[i] + maxOutWeight);
+                for (int j = 0; j < outSize; j++) {
+                    int to = outNodes[j];
+                    long viaDistance = (long) inWeights[i] + outWeights[j];
+                    if (to != from && witnessSpace.distances[to] > viaDistance) {
+                        shortcutCount++;
+                        if (add) {
+                            int shortcutWeight = Math.toIntExact(viaDistance);
+                            outAdjacency.addOrDecrease(from, to, shortcutWeight);
+                            inAdjacency.addOrDecrease(to, from, shortcutWeight);
+                        }
+                    }
+                }
+            }
+            return shortcutCount;
+        }
+
+        /**
+         * Bounded Dijkstra search among the uncontracted nodes, avoiding the node being contracted.
+         */
+        private void searchWitnesses(int from, int avoidedNode, long maxDistance) {
+            witnessSpace.reset();
+            witnessSpace.relax(from, 0L);
+            int settledCount = 0;
+            while (!witnessSpace.heap.isEmpty() && settledCount < WITNESS_SEARCH_SETTLED_LIMIT) {
+                long entry = witnessSpace.heap.poll();
+                int node = MinHeap.node(entry);
+                long distance = MinHeap.distance(entry);
+                if (distance > witnessSpace.distances[node]) {
+                    continue; // Stale entry
+                }
+                if (distance > maxDistance) {
+                    break;
+                }
+                settledCount++;
+                for (int i = 0; i < outAdjacency.sizes[node]; i++) {
+                    int neighbor = outAdjacency.nodes[node][i];
+                    if (neighbor != avoidedNode && !contracted[neighbor]) {
+                        witnessSpace.relax(neighbor, distance + outAdjacency.weights[node][i]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Growable adjacency lists, keeping only the lightest of parallel edges.
+     */
+    private static final class Adjacency {
+
+        private final int[][] nodes;
+        private final int[][] weights;
+        private final int[] sizes;
+
+        Adjacency(int nodeCount) {
+            nodes = new int[nodeCount][];
+            weights = new int[nodeCount][];
+            sizes = new int[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                nodes[node] = new int[4];
+                weights[node] = new int[4];
+            }
+        }
+
+        void addOrDecrease(int node, int neighbor, int weight) {
+            int size = sizes[node];
+            for (int i = 0; i < size; i++) {
+                if (nodes[node][i] == neighbor) {
+                    weights[node][i] = Math.min(weights[node][i], weight);
+                    return;
+                }
+            }
+            if (size == nodes[node].length) {
+                nodes[node] = Arrays.copyOf(nodes[node], size * 2);
+                weights[node] = Arrays.copyOf(weights[node], size * 2);
+            }
+            nodes[node][size] = neighbor;
+            weights[node][size] = weight;
+            sizes[node]++;
+        }
+
+        void remove(int node, int neighbor) {
+            int size = sizes[node];
+            for (int i = 0; i < size; i++) {
+                if (nodes[node][i] == neighbor) {
+                    nodes[node][i] = nodes[node][size - 1];
+                    weights[node][i] = weights[node][size - 1];
+                    sizes[node]--;
+                    return;
+                }
+            }
+        }
+
+        int totalSize() {
+            int totalSize = 0;
+            for (int size : sizes) {
+                totalSize += size;
+            }
+            return totalSize;
+        }
+
+        void toCompressedSparseRows(int[] start, int[] edgeNode, int[] edgeWeight) {
+            int edge = 0;
+            for (int node = 0; node < sizes.length; node++) {
+                start[node] = edge;
+                System.arraycopy(nodes[node], 0, edgeNode, edge, sizes[node]);
+                System.arraycopy(weights[node], 0, edgeWeight, edge, sizes[node]);
+                edge += sizes[node];
+            }
+            start[sizes.length] = edge;
+        }
+    }
+
+    /**
+     * Reusable Dijkstra state of the witness searches, reset in O(touched nodes) rather than O(all nodes).
+     * Only lives as long as the preprocessing.
+     */
+    private static final class SearchSpace {
+
+        private final long[] distances;
+        private int[] touched = new int[64];
+        private int touchedCount = 0;
+        private final MinHeap heap = new MinHeap();
+
+        SearchSpace(int nodeCount) {
+            distances = new long[nodeCount];
+            Arrays.fill(distances, UNREACHABLE);
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                distances[touched[i]] = UNREACHABLE;
+            }
+            touchedCount = 0;
+            heap.clear();
+        }
+
+        void relax(int node, long distance) {
+            long oldDistance = distances[node];
+            if (distance < oldDistance) {
+                if (oldDistance == UNREACHABLE) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = node;
+                }
+                distances[node] = distance;
+                heap.add(distance, node);
+            }
+        }
+    }
+
+    /**
+     * Dijkstra state of a query, sized by the nodes it touches instead of by the node count:
+     * an open addressing hash map from node to distance, at most half full.
+     * Upward search spaces are small, so every search allocates its own,
+     * instead of keeping a state as large as the road network per thread for as long as the hierarchy lives.
+     */
+    private static final class QuerySearchSpace {
+
+        private static final int NO_NODE = -1;
+
+        private int[] slotNodes = new int[128];
+        private long[] slotDistances = new long[128];
+        // The slots of the touched nodes, in the order they were touched.
+        private int[] touchedSlots = new int[64];
+        private int touchedCount = 0;
+        private final MinHeap heap = new MinHeap();
+
+        QuerySearchSpace() {
+            Arrays.fill(slotNodes, NO_NODE);
+        }
+
+        int getTouchedCount() {
+            return touchedCount;
+        }
+
+        int getTouchedNode(int i) {
+            return slotNodes[touchedSlots[i]];
+        }
+
+        long getTouchedDistance(int i) {
+            return slotDistances[touchedSlots[i]];
+        }
+
+        long getDistance(int node) {
+            int slot = findSlot(node);
+            return slotNodes[slot] == NO_NODE ? UNREACHABLE : slotDistances[slot];
+        }
+
+        void relax(int node, long distance) {
+            int slot = findSlot(node);
+            if (slotNodes[slot] == NO_NODE) {
+                if (2 * (touchedCount + 1) > slotNodes.length) {
+                    grow();
+                    slot = findSlot(node);
+                }
+                if (touchedCount == touchedSlots.length) {
+                    touchedSlots = Arrays.copyOf(touchedSlots, touchedCount * 2);
+                }
+                touchedSlots[touchedCount++] = slot;
+                slotNodes[slot] = node;
+            } else if (distance >= slotDistances[slot]) {
+                return;
+            }
+            slotDistances[slot] = distance;
+            heap.add(distance, node);
+        }
+
+        private int findSlot(int node) {
+            int mask = slotNodes.length - 1;
+            int hash = node * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (slotNodes[slot] != NO_NODE && slotNodes[slot] != node) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldSlotNodes = slotNodes;
+            long[] oldSlotDistances = slotDistances;
+            slotNodes = new int[oldSlotNodes.length * 2];
+            slotDistances = new long[oldSlotDistances.length * 2];
+            Arrays.fill(slotNodes, NO_NODE);
+            for (int i = 0; i < touchedCount; i++) {
+                int oldSlot = touchedSlots[i];
+                int slot = findSlot(oldSlotNodes[oldSlot]);
+                slotNodes[slot] = oldSlotNodes[oldSlot];
+                slotDistances[slot] = oldSlotDistances[oldSlot];
+                touchedSlots[i] = slot;
+            }
+        }
+    }
+
+    /**
+     * Binary min-heap of (distance, node) pairs packed in a {@code long}, with lazy deletion of stale entries.
+     * Distances must stay below 2^31.
+     */
+    private static final class MinHeap {
+
+        private long[] entries = new long[64];
+        private int size = 0;
+
+        static int node(long entry) {
+            return (int) entry;
+        }
+
+        static long distance(long entry) {
+            return entry >>> 32;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(long distance, int node) {
+            if (distance > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The distance (" + distance + ") is too large.");
+            }
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            long entry = (distance << 32) | node;
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (entries[parent] <= entry) {
+                    break;
+                }
+                entries[i] = entries[parent];
+                i = parent;
+            }
+            entries[i] = entry;
+        }
+
+        long poll() {
+            long result = entries[0];
+            long last = entries[--size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && entries[child + 1] < entries[child]) {
+                    child++;
+                }
+                if (last <= entries[child]) {
+                    break;
+                }
+                entries[i] = entries[child];
+                i = child;
+            }
+            if (size > 0) {
+                entries[i] = last;
+            }
+            return result;
+        }
+    }
+}
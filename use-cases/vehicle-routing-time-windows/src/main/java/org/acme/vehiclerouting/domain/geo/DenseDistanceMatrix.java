@@ -0,0 +1,131 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.nio.IntBuffer;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Dense, index-addressed driving time matrix shared by all {@link Location}s of a plan.
+ * Each location carries its own row/column index, so a lookup is a single buffer read instead of a hash lookup
+ * and an unboxing.
+ * <p>
+ * Driving times are stored as {@code int} seconds (good for 68 years of driving) in one flat row-major buffer,
+ * which is either on the heap or memory-mapped from a file (see
+ * {@link org.acme.vehiclerouting.persistence.DistanceMatrixCache}).
+ * A heap matrix is limited to 46,340 locations.
+ * <p>
+ * The rows of a heap matrix can be longer than its size, to leave room for locations added while solving
+ * (see {@link #extend(DistanceCalculator, List, Location)}), so those are added in place.
+ */
+public final class DenseDistanceMatrix implements DistanceMatrix {
+
+    private static final int MAX_HEAP_SIZE = 46_340;
+
+    private final int capacity;
+    private final IntBuffer drivingTimeSeconds;
+    // Guarded by this.
+    private int size;
+
+    public DenseDistanceMatrix(int size) {
+        this(size, size);
+    }
+
+    /**
+     * @param size number of locations
+     * @param capacity at least {@code size}, number of locations the matrix has room for
+     */
+    public DenseDistanceMatrix(int size, int capacity) {
+        this(size, capacity, IntBuffer.allocate(Math.multiplyExact(checkCapacity(size, capacity), capacity)));
+    }
+
+    /**
+     * @param size number of locations
+     * @param drivingTimeSeconds never null, with room for at least {@code size * size} values
+     */
+    public DenseDistanceMatrix(int size, IntBuffer drivingTimeSeconds) {
+        this(size, size, drivingTimeSeconds);
+    }
+
+    private DenseDistanceMatrix(int size, int capacity, IntBuffer drivingTimeSeconds) {
+        checkCapacity(size, capacity);
+        if (drivingTimeSeconds.capacity() < (long) capacity * capacity) {
+            throw new IllegalArgumentException("The buffer capacity (" + drivingTimeSeconds.capacity()
+                    + ") is too small for a matrix of capacity (" + capacity + ").");
+        }
+        this.size = size;
+        this.capacity = capacity;
+        this.drivingTimeSeconds = drivingTimeSeconds;
+    }
+
+    private static int checkCapacity(int size, int capacity) {
+        if (size < 0) {
+            throw new IllegalArgumentException("The size (" + size + ") must not be negative.");
+        }
+        if (capacity < size) {
+            throw new IllegalArgumentException("The capacity (" + capacity
+                    + ") must not be smaller than the size (" + size + ").");
+        }
+        return capacity;
+    }
+
+    /**
+     * @param size number of locations
+     * @return at least {@code size}, with room for a few more locations, unless that exceeds the heap limit
+     */
+    public static int calculateCapacity(int size) {
+        return Math.max(size, Math.min(MAX_HEAP_SIZE, size + Math.max(16, size / 32)));
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public long get(int fromIndex, int toIndex) {
+        return drivingTimeSeconds.get(fromIndex * capacity + toIndex);
+    }
+
+    /**
+     * The new location gets the next free row and column of this matrix.
+     * The cells of that row and column towards locations of other plans sharing this matrix are left empty,
+     * as those plans never look them up.
+     * Only if this matrix is full or memory-mapped, it is copied to the heap, with room for more locations.
+     */
+    @Override
+    public synchronized DenseDistanceMatrix extend(DistanceCalculator distanceCalculator, List<Location> locations,
+            Location location) {
+        for (Location existingLocation : locations) {
+            if (existingLocation.getDistanceMatrix() != this) {
+                throw new IllegalArgumentException("The location (" + existingLocation
+                        + ") is not on this distance matrix.");
+            }
+        }
+        DenseDistanceMatrix extendedMatrix = this;
+        if (size == capacity || !drivingTimeSeconds.hasArray()) {
+            extendedMatrix = new DenseDistanceMatrix(size, calculateCapacity(size + 1));
+            for (int fromIndex = 0; fromIndex < size; fromIndex++) {
+                extendedMatrix.drivingTimeSeconds.put(fromIndex * extendedMatrix.capacity, drivingTimeSeconds,
+                        fromIndex * capacity, size);
+            }
+            for (Location existingLocation : locations) {
+                existingLocation.setDistanceMatrix(extendedMatrix, existingLocation.getIndex());
+            }
+        }
+        int newIndex = extendedMatrix.size++;
+        for (Location existingLocation : locations) {
+            int index = existingLocation.getIndex();
+            extendedMatrix.set(index, newIndex, distanceCalculator.calculateDistance(existingLocation, location));
+            extendedMatrix.set(newIndex, index, distanceCalculator.calculateDistance(location, existingLocation));
+        }
+        extendedMatrix.set(newIndex, newIndex, 0L);
+        location.setDistanceMatrix(extendedMatrix, newIndex);
+        return extendedMatrix;
+    }
+
+    public void set(int fromIndex, int toIndex, long drivingTimeSeconds) {
+        this.drivingTimeSeconds.put(fromIndex * capacity + toIndex, Math.toIntExact(drivingTimeSeconds));
+    }
+
+}
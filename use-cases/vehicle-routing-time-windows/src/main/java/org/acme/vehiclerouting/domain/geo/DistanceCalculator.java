@@ -1,14 +1,27 @@
 package org.acme.vehiclerouting.domain.geo;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.acme.vehiclerouting.domain.Location;
 
 public interface DistanceCalculator {
 
+    /**
+     * Identifies which distances this calculator returns, for example to key cached distance matrices.
+     *
+     * @return never null, the class name by default
+     */
+    default String getId() {
+        return getClass().getName();
+    }
+
     /**
      * Calculate the distance between {@code from} and {@code to} in seconds of driving time.
      *
@@ -37,12 +50,115 @@ public interface DistanceCalculator {
     }
 
     /**
-     * Calculate distance matrix for the given list of locations and assign distance maps accordingly.
+     * Bulk calculation of distance into a dense matrix, in which each location is addressed by its position
+     * in the list.
+     * The rows are calculated in parallel, so implementations must be thread-safe.
+     *
+     * @param locations never null
+     * @param distanceMatrix never null, of the same size as {@code locations}
+     */
+    default void fillDistanceMatrix(List<Location> locations, DenseDistanceMatrix distanceMatrix) {
+        IntStream.range(0, locations.size()).parallel().forEach(fromIndex -> {
+            Location from = locations.get(fromIndex);
+            for (int toIndex = 0; toIndex < locations.size(); toIndex++) {
+                distanceMatrix.set(fromIndex, toIndex, calculateDistance(from, locations.get(toIndex)));
+            }
+        });
+    }
+
+    /**
+     * Calculate distance matrix for the given list of locations and assign it to every location,
+     * together with the dense index of that location in the matrix.
      *
      * @param locations locations list
+     * @return never null
+     */
+    default DistanceMatrix initDistanceMatrix(Collection<Location> locations) {
+        List<Location> indexedLocations = List.copyOf(locations);
+        DenseDistanceMatrix distanceMatrix = new DenseDistanceMatrix(indexedLocations.size(),
+                DenseDistanceMatrix.calculateCapacity(indexedLocations.size()));
+        fillDistanceMatrix(indexedLocations, distanceMatrix);
+        distanceMatrix.assignTo(indexedLocations);
+        return distanceMatrix;
+    }
+
+    /**
+     * Calculate a sparse distance matrix for the given list of locations and assign it to every location,
+     * together with the dense index of that location in the matrix.
+     * Only the driving times to the nearest neighbours of each location are calculated upfront,
+     * all others are calculated by {@link #calculateDistance(Location, Location)} on every lookup.
+     *
+     * @param locations locations list
+     * @param neighborCount at least 1, the number of nearest neighbours per location
+     * @return never null
+     */
+    default DistanceMatrix initSparseDistanceMatrix(Collection<Location> locations, int neighborCount) {
+        List<Location> indexedLocations = List.copyOf(locations);
+        DistanceMatrix distanceMatrix = new SparseDistanceMatrix(this, indexedLocations, neighborCount);
+        distanceMatrix.assignTo(indexedLocations);
+        return distanceMatrix;
+    }
+
+    /**
+     * Calculate one distance matrix for several lists of locations, for example those of a batch of route plans,
+     * in which all locations with the same coordinates share one row, and assign it to every location,
+     * together with the index of its coordinates in the matrix.
+     * Only worth it if the lists have many coordinates in common,
+     * as the matrix has a row for every distinct coordinate of all lists together.
+     *
+     * @param locationLists never null
+     * @return never null
+     */
+    default DistanceMatrix initSharedDistanceMatrix(Collection<? extends Collection<Location>> locationLists) {
+        Map<Map.Entry<Double, Double>, Integer> coordinatesToIndex = new HashMap<>();
+        List<Location> distinctLocations = new ArrayList<>();
+        for (Collection<Location> locations : locationLists) {
+            for (Location location : locations) {
+                coordinatesToIndex.computeIfAbsent(getCoordinates(location), coordinates -> {
+                    distinctLocations.add(location);
+                    return distinctLocations.size() - 1;
+                });
+            }
+        }
+        DenseDistanceMatrix distanceMatrix = new DenseDistanceMatrix(distinctLocations.size(),
+                DenseDistanceMatrix.calculateCapacity(distinctLocations.size()));
+        fillDistanceMatrix(distinctLocations, distanceMatrix);
+        for (Collection<Location> locations : locationLists) {
+            for (Location location : locations) {
+                location.setDistanceMatrix(distanceMatrix, coordinatesToIndex.get(getCoordinates(location)));
+            }
+        }
+        return distanceMatrix;
+    }
+
+    /**
+     * @param locationLists never null
+     * @return the number of distinct coordinates, which is the size of
+     *         {@link #initSharedDistanceMatrix(Collection)}
+     */
+    static long countDistinctCoordinates(Collection<? extends Collection<Location>> locationLists) {
+        return locationLists.stream()
+                .flatMap(Collection::stream)
+                .map(DistanceCalculator::getCoordinates)
+                .distinct()
+                .count();
+    }
+
+    private static Map.Entry<Double, Double> getCoordinates(Location location) {
+        return Map.entry(location.getLatitude(), location.getLongitude());
+    }
+
+    /**
+     * Extend the distance matrix of the given locations with a location added while the plan is being solved,
+     * calculating only its own row and column
+     * (see {@link DistanceMatrix#extend(DistanceCalculator, List, Location)}).
+     * A dense matrix is extended in place, also if it is shared with other plans.
+     *
+     * @param locations never null, not empty, all on the same distance matrix
+     * @param location never null, not in {@code locations}
+     * @return never null
      */
-    default void initDistanceMaps(Collection<Location> locations) {
-        Map<Location, Map<Location, Long>> distanceMatrix = calculateBulkDistance(locations, locations);
-        locations.forEach(location -> location.setDrivingTimeSecondsMap(distanceMatrix.get(location)));
+    default DistanceMatrix extendDistanceMatrix(List<Location> locations, Location location) {
+        return locations.get(0).getDistanceMatrix().extend(this, locations, location);
     }
 }
@@ -0,0 +1,59 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Index-addressed driving times between all {@link Location}s of a plan.
+ * Each location carries its own row/column index (see {@link Location#setDistanceMatrix(DistanceMatrix, int)}).
+ *
+ * @see DenseDistanceMatrix
+ * @see SparseDistanceMatrix
+ */
+public sealed interface DistanceMatrix permits DenseDistanceMatrix, SparseDistanceMatrix {
+
+    /**
+     * @return number of locations
+     */
+    int size();
+
+    /**
+     * Driving time between two locations in seconds.
+     *
+     * @param fromIndex index of the starting location
+     * @param toIndex index of the target location
+     * @return driving time in seconds
+     */
+    long get(int fromIndex, int toIndex);
+
+    /**
+     * Add a location while the plan is being solved, as one more row and column.
+     * Only the driving times between the new location and the given locations are calculated.
+     * The new location is assigned the returned matrix,
+     * and so are the given locations, with their own index, if that is not this matrix.
+     *
+     * @param distanceCalculator never null
+     * @param locations never null, all on this matrix, not necessarily all of its locations,
+     *        as the matrix can be shared with other plans (see {@link DistanceCalculator#initSharedDistanceMatrix})
+     * @param location never null, not in {@code locations}
+     * @return never null, this matrix if it was extended in place, otherwise a larger copy
+     */
+    DistanceMatrix extend(DistanceCalculator distanceCalculator, List<Location> locations, Location location);
+
+    /**
+     * Assign this matrix to every location, together with its position in the list as its dense index.
+     *
+     * @param locations never null, in the same order as the matrix rows
+     */
+    default void assignTo(List<Location> locations) {
+        if (locations.size() != size()) {
+            throw new IllegalArgumentException("The locations size (" + locations.size()
+                    + ") differs from the matrix size (" + size() + ").");
+        }
+        for (int index = 0; index < locations.size(); index++) {
+            locations.get(index).setDistanceMatrix(this, index);
+        }
+    }
+
+}
@@ -1,5 +1,8 @@
 package org.acme.vehiclerouting.domain.geo;
 
+import java.util.List;
+import java.util.stream.IntStream;
+
 import org.acme.vehiclerouting.domain.Location;
 
 public class HaversineDistanceCalculator implements DistanceCalculator {
@@ -18,34 +21,71 @@ public class HaversineDistanceCalculator implements DistanceCalculator {
             return 0L;
         }
 
-        CartesianCoordinate fromCartesian = locationToCartesian(from);
-        CartesianCoordinate toCartesian = locationToCartesian(to);
-        return calculateDistance(fromCartesian, toCartesian);
+        return calculateDistance(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude());
     }
 
-    private long calculateDistance(CartesianCoordinate from, CartesianCoordinate to) {
-        if (from.equals(to)) {
-            return 0L;
+    /**
+     * Takes the coordinates in degrees, so callers with raw coordinates need not allocate a {@link Location}.
+     */
+    static long calculateDistance(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double fromLatitudeInRads = Math.toRadians(fromLatitude);
+        double fromLongitudeInRads = Math.toRadians(fromLongitude);
+        double toLatitudeInRads = Math.toRadians(toLatitude);
+        double toLongitudeInRads = Math.toRadians(toLongitude);
+        return calculateDistance(
+                cartesianX(fromLatitudeInRads, fromLongitudeInRads) - cartesianX(toLatitudeInRads, toLongitudeInRads),
+                cartesianY(fromLatitudeInRads, fromLongitudeInRads) - cartesianY(toLatitudeInRads, toLongitudeInRads),
+                cartesianZ(fromLatitudeInRads) - cartesianZ(toLatitudeInRads));
+    }
+
+    /**
+     * Converts every location to Cartesian coordinates only once, and then fills the rows in parallel
+     * without allocating anything per pair.
+     */
+    @Override
+    public void fillDistanceMatrix(List<Location> locations, DenseDistanceMatrix distanceMatrix) {
+        int size = locations.size();
+        double[] cartesianXs = new double[size];
+        double[] cartesianYs = new double[size];
+        double[] cartesianZs = new double[size];
+        for (int i = 0; i < size; i++) {
+            Location location = locations.get(i);
+            double latitudeInRads = Math.toRadians(location.getLatitude());
+            double longitudeInRads = Math.toRadians(location.getLongitude());
+            cartesianXs[i] = cartesianX(latitudeInRads, longitudeInRads);
+            cartesianYs[i] = cartesianY(latitudeInRads, longitudeInRads);
+            cartesianZs[i] = cartesianZ(latitudeInRads);
         }
 
-        double dX = from.x - to.x;
-        double dY = from.y - to.y;
-        double dZ = from.z - to.z;
+        IntStream.range(0, size).parallel().forEach(fromIndex -> {
+            double fromX = cartesianXs[fromIndex];
+            double fromY = cartesianYs[fromIndex];
+            double fromZ = cartesianZs[fromIndex];
+            for (int toIndex = 0; toIndex < size; toIndex++) {
+                long distance = fromIndex == toIndex ? 0L
+                        : calculateDistance(fromX - cartesianXs[toIndex], fromY - cartesianYs[toIndex],
+                                fromZ - cartesianZs[toIndex]);
+                distanceMatrix.set(fromIndex, toIndex, distance);
+            }
+        });
+    }
+
+    private static long calculateDistance(double dX, double dY, double dZ) {
         double r = Math.sqrt((dX * dX) + (dY * dY) + (dZ * dZ));
         return kilometersToDrivingSeconds(TWICE_EARTH_RADIUS_IN_KM * Math.asin(r));
     }
 
-    private CartesianCoordinate locationToCartesian(Location location) {
-        double latitudeInRads = Math.toRadians(location.getLatitude());
-        double longitudeInRads = Math.toRadians(location.getLongitude());
-        // Cartesian coordinates, normalized for a sphere of diameter 1.0
-        double cartesianX = 0.5 * Math.cos(latitudeInRads) * Math.sin(longitudeInRads);
-        double cartesianY = 0.5 * Math.cos(latitudeInRads) * Math.cos(longitudeInRads);
-        double cartesianZ = 0.5 * Math.sin(latitudeInRads);
-        return new CartesianCoordinate(cartesianX, cartesianY, cartesianZ);
+    // Cartesian coordinates, normalized for a sphere of diameter 1.0
+
+    static double cartesianX(double latitudeInRads, double longitudeInRads) {
+        return 0.5 * Math.cos(latitudeInRads) * Math.sin(longitudeInRads);
     }
 
-    private record CartesianCoordinate(double x, double y, double z) {
+    static double cartesianY(double latitudeInRads, double longitudeInRads) {
+        return 0.5 * Math.cos(latitudeInRads) * Math.cos(longitudeInRads);
+    }
 
+    static double cartesianZ(double latitudeInRads) {
+        return 0.5 * Math.sin(latitudeInRads);
     }
 }
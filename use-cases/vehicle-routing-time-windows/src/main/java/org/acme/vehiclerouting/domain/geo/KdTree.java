@@ -0,0 +1,195 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.Arrays;
+
+/**
+ * Static 3-dimensional k-d tree for nearest neighbour queries.
+ * <p>
+ * The tree is implicit: the points are permuted so that every subrange {@code [start, end)} has its splitting point
+ * at the middle, with the smaller coordinates on the left and the larger ones on the right.
+ * The splitting axis cycles through x, y and z with the depth.
+ */
+final class KdTree {
+
+    private static final int DIMENSIONS = 3;
+
+    private final double[][] coordinates;
+    private final int[] points;
+
+    /**
+     * @param xs never null, the x coordinate of every point
+     * @param ys never null, the y coordinate of every point, same length as {@code xs}
+     * @param zs never null, the z coordinate of every point, same length as {@code xs}
+     */
+    KdTree(double[] xs, double[] ys, double[] zs) {
+        this.coordinates = new double[][] { xs, ys, zs };
+        this.points = new int[xs.length];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = i;
+        }
+        build(0, points.length, 0);
+    }
+
+    private void build(int start, int end, int axis) {
+        if (end - start <= 1) {
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        select(start, end - 1, middle, coordinates[axis]);
+        int nextAxis = (axis + 1) % DIMENSIONS;
+        build(start, middle, nextAxis);
+        build(middle + 1, end, nextAxis);
+    }
+
+    /**
+     * Quickselect: partially sort {@code points[left..right]} so the k-th smallest coordinate ends up at {@code k}.
+     */
+    private void select(int left, int right, int k, double[] axisCoordinates) {
+        while (left < right) {
+            double pivot = axisCoordinates[points[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (axisCoordinates[points[i]] < pivot) {
+                    i++;
+                }
+                while (axisCoordinates[points[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int swap = points[i];
+                    points[i] = points[j];
+                    points[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Find the points closest to a point of this tree, excluding that point itself.
+     *
+     * @param point the index of the query point
+     * @param neighborCount at most the number of other points
+     * @return never null, the indexes of the {@code neighborCount} nearest other points, closest first
+     */
+    int[] findNearestNeighbors(int point, int neighborCount) {
+        Neighbors neighbors = new Neighbors(neighborCount);
+        search(0, points.length, 0, point, neighbors);
+        return neighbors.sortedPoints();
+    }
+
+    private void search(int start, int end, int axis, int queryPoint, Neighbors neighbors) {
+        if (start >= end) {
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        int splitPoint = points[middle];
+        if (splitPoint != queryPoint) {
+            neighbors.offer(splitPoint, distanceSquared(splitPoint, queryPoint));
+        }
+        double difference = coordinates[axis][queryPoint] - coordinates[axis][splitPoint];
+        int nextAxis = (axis + 1) % DIMENSIONS;
+        // Descend into the side of the query point first, so the other side is more likely to be pruned.
+        if (difference < 0) {
+            search(start, middle, nextAxis, queryPoint, neighbors);
+            if (difference * difference < neighbors.worstDistanceSquared()) {
+                search(middle + 1, end, nextAxis, queryPoint, neighbors);
+            }
+        } else {
+            search(middle + 1, end, nextAxis, queryPoint, neighbors);
+            if (difference * difference < neighbors.worstDistanceSquared()) {
+                search(start, middle, nextAxis, queryPoint, neighbors);
+            }
+        }
+    }
+
+    private double distanceSquared(int a, int b) {
+        double sum = 0.0;
+        for (double[] axisCoordinates : coordinates) {
+            double difference = axisCoordinates[a] - axisCoordinates[b];
+            sum += difference * difference;
+        }
+        return sum;
+    }
+
+    /**
+     * Bounded max-heap of the closest points found so far, with the farthest of them at the root.
+     */
+    private static final class Neighbors {
+
+        private final int[] points;
+        private final double[] distancesSquared;
+        private int size = 0;
+
+        Neighbors(int capacity) {
+            this.points = new int[capacity];
+            this.distancesSquared = new double[capacity];
+        }
+
+        double worstDistanceSquared() {
+            return size < points.length ? Double.POSITIVE_INFINITY : distancesSquared[0];
+        }
+
+        void offer(int point, double distanceSquared) {
+            if (size < points.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (distancesSquared[parent] >= distanceSquared) {
+                        break;
+                    }
+                    points[i] = points[parent];
+                    distancesSquared[i] = distancesSquared[parent];
+                    i = parent;
+                }
+                points[i] = point;
+                distancesSquared[i] = distanceSquared;
+            } else if (points.length > 0 && distanceSquared < distancesSquared[0]) {
+                siftDown(point, distanceSquared);
+            }
+        }
+
+        private void siftDown(int point, double distanceSquared) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && distancesSquared[child + 1] > distancesSquared[child]) {
+                    child++;
+                }
+                if (distancesSquared[child] <= distanceSquared) {
+                    break;
+                }
+                points[i] = points[child];
+                distancesSquared[i] = distancesSquared[child];
+                i = child;
+            }
+            points[i] = point;
+            distancesSquared[i] = distanceSquared;
+        }
+
+        int[] sortedPoints() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(distancesSquared[a], distancesSquared[b]));
+            int[] sortedPoints = new int[size];
+            for (int i = 0; i < size; i++) {
+                sortedPoints[i] = points[order[i]];
+            }
+            return sortedPoints;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Offline road graph with driving times, preprocessed into a {@link ContractionHierarchy}.
+ * <p>
+ * The text format has one node per {@code v <id> <latitude> <longitude>} line,
+ * one one-way road per {@code a <fromId> <toId> <drivingTimeSeconds>} line
+ * and one two-way road per {@code e <id> <id> <drivingTimeSeconds>} line.
+ * Blank lines and lines starting with {@code #} are ignored.
+ */
+public final class RoadNetwork {
+
+    /**
+     * Size of a cell of the grid that indexes the nodes by coordinates, in degrees.
+     */
+    private static final double GRID_CELL_DEGREES = 0.01;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final ContractionHierarchy contractionHierarchy;
+    private final String checksum;
+
+    private final double minLatitude;
+    private final double minLongitude;
+    private final int gridRowCount;
+    private final int gridColumnCount;
+    // Nodes sorted by grid cell, in compressed sparse row format.
+    private final int[] gridCellStart;
+    private final int[] gridCellNodes;
+
+    /**
+     * @param latitudes never null, the latitude of every node
+     * @param longitudes never null, the longitude of every node
+     * @param arcFroms never null, the source node index of every one-way arc
+     * @param arcTos never null, the target node index of every one-way arc
+     * @param arcDrivingTimeSeconds never null, the driving time of every one-way arc
+     */
+    public RoadNetwork(double[] latitudes, double[] longitudes,
+            int[] arcFroms, int[] arcTos, int[] arcDrivingTimeSeconds) {
+        if (latitudes.length == 0) {
+            throw new IllegalArgumentException("The road network must have at least one node.");
+        }
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.contractionHierarchy = new ContractionHierarchy(latitudes.length, arcFroms, arcTos, arcDrivingTimeSeconds);
+        this.checksum = calculateChecksum(latitudes, longitudes, arcFroms, arcTos, arcDrivingTimeSeconds);
+
+        double minLatitude = Double.POSITIVE_INFINITY;
+        double maxLatitude = Double.NEGATIVE_INFINITY;
+        double minLongitude = Double.POSITIVE_INFINITY;
+        double maxLongitude = Double.NEGATIVE_INFINITY;
+        for (int node = 0; node < latitudes.length; node++) {
+            minLatitude = Math.min(minLatitude, latitudes[node]);
+            maxLatitude = Math.max(maxLatitude, latitudes[node]);
+            minLongitude = Math.min(minLongitude, longitudes[node]);
+            maxLongitude = Math.max(maxLongitude, longitudes[node]);
+        }
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.gridRowCount = (int) ((maxLatitude - minLatitude) / GRID_CELL_DEGREES) + 1;
+        this.gridColumnCount = (int) ((maxLongitude - minLongitude) / GRID_CELL_DEGREES) + 1;
+        this.gridCellStart = new int[Math.multiplyExact(gridRowCount, gridColumnCount) + 1];
+        this.gridCellNodes = new int[latitudes.length];
+        for (int node = 0; node < latitudes.length; node++) {
+            gridCellStart[gridCell(gridRow(latitudes[node]), gridColumn(longitudes[node])) + 1]++;
+        }
+        for (int cell = 1; cell < gridCellStart.length; cell++) {
+            gridCellStart[cell] += gridCellStart[cell - 1];
+        }
+        int[] gridCellFill = Arrays.copyOf(gridCellStart, gridCellStart.length - 1);
+        for (int node = 0; node < latitudes.length; node++) {
+            gridCellNodes[gridCellFill[gridCell(gridRow(latitudes[node]), gridColumn(longitudes[node]))]++] = node;
+        }
+    }
+
+    public static RoadNetwork load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            return read(reader);
+        }
+    }
+
+    public static RoadNetwork read(Reader reader) throws IOException {
+        BufferedReader bufferedReader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        Map<String, Integer> idToNode = new HashMap<>();
+        GrowableDoubles latitudes = new GrowableDoubles();
+        GrowableDoubles longitudes = new GrowableDoubles();
+        GrowableInts arcFroms = new GrowableInts();
+        GrowableInts arcTos = new GrowableInts();
+        GrowableInts arcDrivingTimeSeconds = new GrowableInts();
+        String line;
+        int lineNumber = 0;
+        while ((line = bufferedReader.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] tokens = line.split("\\s+");
+            try {
+                switch (tokens[0]) {
+                    case "v" -> {
+                        checkTokenCount(tokens, 4);
+                        if (idToNode.putIfAbsent(tokens[1], latitudes.size) != null) {
+                            throw new IllegalArgumentException("Duplicate node id (" + tokens[1] + ").");
+                        }
+                        latitudes.add(Double.parseDouble(tokens[2]));
+                        longitudes.add(Double.parseDouble(tokens[3]));
+                    }
+                    case "a", "e" -> {
+                        checkTokenCount(tokens, 4);
+                        int from = findNode(idToNode, tokens[1]);
+                        int to = findNode(idToNode, tokens[2]);
+                        int drivingTimeSeconds = Integer.parseInt(tokens[3]);
+                        arcFroms.add(from);
+                        arcTos.add(to);
+                        arcDrivingTimeSeconds.add(drivingTimeSeconds);
+                        if (tokens[0].equals("e")) {
+                            arcFroms.add(to);
+                            arcTos.add(from);
+                            arcDrivingTimeSeconds.add(drivingTimeSeconds);
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unknown line type (" + tokens[0] + ").");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid road network line " + lineNumber + " (" + line + "): "
+                        + e.getMessage(), e);
+            }
+        }
+        return new RoadNetwork(latitudes.toArray(), longitudes.toArray(),
+                arcFroms.toArray(), arcTos.toArray(), arcDrivingTimeSeconds.toArray());
+    }
+
+    private static void checkTokenCount(String[] tokens, int expectedCount) {
+        if (tokens.length != expectedCount) {
+            throw new IllegalArgumentException("Expected " + expectedCount + " tokens.");
+        }
+    }
+
+    private static int findNode(Map<String, Integer> idToNode, String id) {
+        Integer node = idToNode.get(id);
+        if (node == null) {
+            throw new IllegalArgumentException("Unknown node id (" + id + "), nodes must be declared before roads.");
+        }
+        return node;
+    }
+
+    public int getNodeCount() {
+        return latitudes.length;
+    }
+
+    public double getLatitude(int node) {
+        return latitudes[node];
+    }
+
+    public double getLongitude(int node) {
+        return longitudes[node];
+    }
+
+    /**
+     * @return never null, a content hash that identifies this road network
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    ContractionHierarchy getContractionHierarchy() {
+        return contractionHierarchy;
+    }
+
+    /**
+     * Find the closest node, by searching the grid cells in rings around the given coordinates.
+     * Distances are equirectangular: a degree of longitude is scaled by the cosine of the latitude,
+     * so away from the equator a node east or west is not favoured over a node north or south.
+     *
+     * @param latitude latitude to snap
+     * @param longitude longitude to snap
+     * @return the index of the nearest node
+     */
+    public int findNearestNode(double latitude, double longitude) {
+        int row = gridRow(latitude);
+        int column = gridColumn(longitude);
+        double longitudeScale = Math.cos(Math.toRadians(latitude));
+        int nearestNode = -1;
+        double nearestDistanceSquared = Double.POSITIVE_INFINITY;
+        int maxRing = Math.max(gridRowCount, gridColumnCount);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every node outside of this ring is at least this far away, a degree of longitude being the shortest.
+            double ringDistance = Math.max(0, ring - 1) * GRID_CELL_DEGREES * longitudeScale;
+            if (nearestNode >= 0 && ringDistance * ringDistance > nearestDistanceSquared) {
+                break;
+            }
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= gridRowCount) {
+                    continue;
+                }
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = column - ring; c <= column + ring; c += edgeRow ? 1 : 2 * ring) {
+                    if (c >= 0 && c < gridColumnCount) {
+                        int cell = gridCell(r, c);
+                        for (int i = gridCellStart[cell]; i < gridCellStart[cell + 1]; i++) {
+                            int node = gridCellNodes[i];
+                            double latitudeDifference = latitudes[node] - latitude;
+                            double longitudeDifference = (longitudes[node] - longitude) * longitudeScale;
+                            double distanceSquared = latitudeDifference * latitudeDifference
+                                    + longitudeDifference * longitudeDifference;
+                            if (distanceSquared < nearestDistanceSquared) {
+                                nearestDistanceSquared = distanceSquared;
+                                nearestNode = node;
+                            }
+                        }
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return nearestNode;
+    }
+
+    private int gridRow(double latitude) {
+        return clamp((int) Math.floor((latitude - minLatitude) / GRID_CELL_DEGREES), gridRowCount);
+    }
+
+    private int gridColumn(double longitude) {
+        return clamp((int) Math.floor((longitude - minLongitude) / GRID_CELL_DEGREES), gridColumnCount);
+    }
+
+    private int gridCell(int row, int column) {
+        return row * gridColumnCount + column;
+    }
+
+    private static int clamp(int value, int count) {
+        return Math.max(0, Math.min(count - 1, value));
+    }
+
+    private static String calculateChecksum(double[] latitudes, double[] longitudes,
+            int[] arcFroms, int[] arcTos, int[] arcDrivingTimeSeconds) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM.", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Double.BYTES * latitudes.length
+                + 3 * Integer.BYTES * arcFroms.length);
+        buffer.asDoubleBuffer().put(latitudes).put(longitudes);
+        buffer.position(2 * Double.BYTES * latitudes.length);
+        buffer.asIntBuffer().put(arcFroms).put(arcTos).put(arcDrivingTimeSeconds);
+        digest.update(buffer.array());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static final class GrowableDoubles {
+
+        private double[] values = new double[64];
+        private int size = 0;
+
+        void add(double value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private static final class GrowableInts {
+
+        private int[] values = new int[64];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
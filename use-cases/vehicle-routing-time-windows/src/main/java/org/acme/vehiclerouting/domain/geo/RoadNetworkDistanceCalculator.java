@@ -0,0 +1,115 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Driving times over an offline {@link RoadNetwork}.
+ * <p>
+ * Every location snaps to its nearest road node; the leg between the location and that node
+ * is added as a straight line (see {@link HaversineDistanceCalculator}).
+ * <p>
+ * Two locations that the road network does not connect, such as an island without a ferry,
+ * are {@link #UNREACHABLE_DRIVING_TIME_SECONDS} apart,
+ * so the solver avoids driving between them instead of the whole plan failing.
+ */
+public class RoadNetworkDistanceCalculator implements DistanceCalculator {
+
+    /**
+     * A week, far longer than any route, but small enough to add up without overflowing.
+     */
+    public static final long UNREACHABLE_DRIVING_TIME_SECONDS = 7L * 24L * 60L * 60L;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RoadNetworkDistanceCalculator.class);
+
+    private final RoadNetwork roadNetwork;
+
+    public RoadNetworkDistanceCalculator(RoadNetwork roadNetwork) {
+        this.roadNetwork = roadNetwork;
+    }
+
+    @Override
+    public String getId() {
+        return DistanceCalculator.super.getId() + ":" + roadNetwork.getChecksum();
+    }
+
+    @Override
+    public long calculateDistance(Location from, Location to) {
+        if (from.equals(to)) {
+            return 0L;
+        }
+        int fromNode = findNearestNode(from);
+        int toNode = findNearestNode(to);
+        long roadDrivingTime = roadNetwork.getContractionHierarchy().calculateDistance(fromNode, toNode);
+        if (roadDrivingTime == ContractionHierarchy.UNREACHABLE) {
+            return UNREACHABLE_DRIVING_TIME_SECONDS;
+        }
+        return calculateAccessDrivingTime(from, fromNode) + roadDrivingTime + calculateAccessDrivingTime(to, toNode);
+    }
+
+    /**
+     * Answers the whole matrix with one many-to-many search over the distinct snapped nodes,
+     * instead of one point-to-point query per pair.
+     */
+    @Override
+    public void fillDistanceMatrix(List<Location> locations, DenseDistanceMatrix distanceMatrix) {
+        int size = locations.size();
+        int[] nodes = new int[size];
+        long[] accessDrivingTimes = new long[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            nodes[i] = findNearestNode(locations.get(i));
+            accessDrivingTimes[i] = calculateAccessDrivingTime(locations.get(i), nodes[i]);
+        });
+
+        Map<Integer, Integer> nodeToDistinctIndex = new HashMap<>();
+        int[] distinctIndexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            distinctIndexes[i] = nodeToDistinctIndex.computeIfAbsent(nodes[i], node -> nodeToDistinctIndex.size());
+        }
+        int[] distinctNodes = new int[nodeToDistinctIndex.size()];
+        nodeToDistinctIndex.forEach((node, distinctIndex) -> distinctNodes[distinctIndex] = node);
+        long[][] roadDrivingTimes = new long[distinctNodes.length][];
+        roadNetwork.getContractionHierarchy().calculateDistances(distinctNodes, distinctNodes,
+                (row, distinctIndex) -> roadDrivingTimes[distinctIndex] = row);
+
+        long unreachableCount = IntStream.range(0, size).parallel().mapToLong(fromIndex -> {
+            long[] row = roadDrivingTimes[distinctIndexes[fromIndex]];
+            long rowUnreachableCount = 0L;
+            for (int toIndex = 0; toIndex < size; toIndex++) {
+                if (fromIndex == toIndex) {
+                    distanceMatrix.set(fromIndex, toIndex, 0L);
+                    continue;
+                }
+                long roadDrivingTime = row[distinctIndexes[toIndex]];
+                if (roadDrivingTime == ContractionHierarchy.UNREACHABLE) {
+                    distanceMatrix.set(fromIndex, toIndex, UNREACHABLE_DRIVING_TIME_SECONDS);
+                    rowUnreachableCount++;
+                } else {
+                    distanceMatrix.set(fromIndex, toIndex,
+                            accessDrivingTimes[fromIndex] + roadDrivingTime + accessDrivingTimes[toIndex]);
+                }
+            }
+            return rowUnreachableCount;
+        }).sum();
+        if (unreachableCount > 0L) {
+            LOGGER.warn("The road network does not connect {} of the {} pairs of locations, "
+                    + "so they are {} seconds apart.", unreachableCount, (long) size * (size - 1),
+                    UNREACHABLE_DRIVING_TIME_SECONDS);
+        }
+    }
+
+    private int findNearestNode(Location location) {
+        return roadNetwork.findNearestNode(location.getLatitude(), location.getLongitude());
+    }
+
+    private long calculateAccessDrivingTime(Location location, int node) {
+        return HaversineDistanceCalculator.calculateDistance(location.getLatitude(), location.getLongitude(),
+                roadNetwork.getLatitude(node), roadNetwork.getLongitude(node));
+    }
+}
@@ -0,0 +1,188 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+
+/**
+ * Driving time matrix that only stores the driving times from every location to its nearest neighbours,
+ * for plans too large for a {@link DenseDistanceMatrix}.
+ * <p>
+ * The nearest neighbours are found by straight-line distance with a {@link KdTree}.
+ * Every other pair is calculated on the fly by the {@link DistanceCalculator},
+ * so lookups return the same driving times as a dense matrix, only slower for distant pairs.
+ * Good routes mostly connect nearby locations, so most lookups hit the stored neighbours.
+ * <p>
+ * Takes 8 bytes per neighbour per location: 20,000 locations with 40 neighbours each take 6.4 MB,
+ * instead of 1.6 GB for a dense matrix.
+ */
+public final class SparseDistanceMatrix implements DistanceMatrix {
+
+    private final DistanceCalculator distanceCalculator;
+    private final List<Location> locations;
+    private final int neighborCount;
+    // Row-major, neighborCount entries per row, each row sorted by neighbor index.
+    private final int[] neighborIndexes;
+    private final int[] neighborDrivingTimeSeconds;
+
+    /**
+     * Calculate the driving times to the nearest neighbours of every location.
+     *
+     * @param distanceCalculator never null, also used for every pair that is not stored
+     * @param locations never null, in the order of the matrix rows
+     * @param neighborCount at least 1, the number of driving times stored per location,
+     *        capped at the number of other locations
+     */
+    public SparseDistanceMatrix(DistanceCalculator distanceCalculator, List<Location> locations, int neighborCount) {
+        if (neighborCount < 1) {
+            throw new IllegalArgumentException("The neighborCount (" + neighborCount + ") must be at least 1.");
+        }
+        this.distanceCalculator = distanceCalculator;
+        this.locations = List.copyOf(locations);
+        int size = this.locations.size();
+        this.neighborCount = Math.min(neighborCount, Math.max(0, size - 1));
+        this.neighborIndexes = new int[Math.multiplyExact(size, this.neighborCount)];
+        this.neighborDrivingTimeSeconds = new int[neighborIndexes.length];
+
+        double[] cartesianXs = new double[size];
+        double[] cartesianYs = new double[size];
+        double[] cartesianZs = new double[size];
+        for (int i = 0; i < size; i++) {
+            Location location = this.locations.get(i);
+            double latitudeInRads = Math.toRadians(location.getLatitude());
+            double longitudeInRads = Math.toRadians(location.getLongitude());
+            cartesianXs[i] = HaversineDistanceCalculator.cartesianX(latitudeInRads, longitudeInRads);
+            cartesianYs[i] = HaversineDistanceCalculator.cartesianY(latitudeInRads, longitudeInRads);
+            cartesianZs[i] = HaversineDistanceCalculator.cartesianZ(latitudeInRads);
+        }
+        KdTree kdTree = new KdTree(cartesianXs, cartesianYs, cartesianZs);
+
+        IntStream.range(0, size).parallel().forEach(fromIndex -> {
+            int[] neighbors = kdTree.findNearestNeighbors(fromIndex, this.neighborCount);
+            Arrays.sort(neighbors);
+            int rowStart = fromIndex * this.neighborCount;
+            Location from = this.locations.get(fromIndex);
+            for (int i = 0; i < neighbors.length; i++) {
+                neighborIndexes[rowStart + i] = neighbors[i];
+                neighborDrivingTimeSeconds[rowStart + i] = Math.toIntExact(
+                        distanceCalculator.calculateDistance(from, this.locations.get(neighbors[i])));
+            }
+        });
+    }
+
+    private SparseDistanceMatrix(DistanceCalculator distanceCalculator, List<Location> locations, int neighborCount,
+            int[] neighborIndexes, int[] neighborDrivingTimeSeconds) {
+        this.distanceCalculator = distanceCalculator;
+        this.locations = locations;
+        this.neighborCount = neighborCount;
+        this.neighborIndexes = neighborIndexes;
+        this.neighborDrivingTimeSeconds = neighborDrivingTimeSeconds;
+    }
+
+    @Override
+    public int size() {
+        return locations.size();
+    }
+
+    public int getNeighborCount() {
+        return neighborCount;
+    }
+
+    @Override
+    public long get(int fromIndex, int toIndex) {
+        if (fromIndex == toIndex) {
+            return 0L;
+        }
+        int rowStart = fromIndex * neighborCount;
+        int i = Arrays.binarySearch(neighborIndexes, rowStart, rowStart + neighborCount, toIndex);
+        if (i >= 0) {
+            return neighborDrivingTimeSeconds[i];
+        }
+        return distanceCalculator.calculateDistance(locations.get(fromIndex), locations.get(toIndex));
+    }
+
+    /**
+     * Only the new location gets its nearest neighbours, found by a linear scan instead of a new {@link KdTree}.
+     * The rows of the other locations are copied as they are,
+     * so their driving times to the new location are calculated on every lookup.
+     * A sparse matrix is never shared, so the given locations are all of its locations.
+     */
+    @Override
+    public SparseDistanceMatrix extend(DistanceCalculator distanceCalculator, List<Location> locations,
+            Location location) {
+        int size = size();
+        if (locations.size() != size) {
+            throw new IllegalArgumentException("The locations size (" + locations.size()
+                    + ") differs from the matrix size (" + size + ").");
+        }
+        List<Location> extendedLocations = new ArrayList<>(size + 1);
+        extendedLocations.addAll(this.locations);
+        extendedLocations.add(location);
+        extendedLocations = List.copyOf(extendedLocations);
+        int[] neighbors = findNearestNeighbors(extendedLocations, size);
+        int[] extendedNeighborIndexes = Arrays.copyOf(neighborIndexes, neighborIndexes.length + neighborCount);
+        int[] extendedNeighborDrivingTimeSeconds =
+                Arrays.copyOf(neighborDrivingTimeSeconds, neighborDrivingTimeSeconds.length + neighborCount);
+        int rowStart = size * neighborCount;
+        for (int i = 0; i < neighbors.length; i++) {
+            extendedNeighborIndexes[rowStart + i] = neighbors[i];
+            extendedNeighborDrivingTimeSeconds[rowStart + i] = Math.toIntExact(
+                    distanceCalculator.calculateDistance(location, extendedLocations.get(neighbors[i])));
+        }
+        SparseDistanceMatrix extendedMatrix = new SparseDistanceMatrix(distanceCalculator, extendedLocations,
+                neighborCount, extendedNeighborIndexes, extendedNeighborDrivingTimeSeconds);
+        extendedMatrix.assignTo(extendedLocations);
+        return extendedMatrix;
+    }
+
+    private int[] findNearestNeighbors(List<Location> locations, int fromIndex) {
+        double[] squaredDistances = new double[locations.size()];
+        Location from = locations.get(fromIndex);
+        double fromLatitudeInRads = Math.toRadians(from.getLatitude());
+        double fromLongitudeInRads = Math.toRadians(from.getLongitude());
+        double fromX = HaversineDistanceCalculator.cartesianX(fromLatitudeInRads, fromLongitudeInRads);
+        double fromY = HaversineDistanceCalculator.cartesianY(fromLatitudeInRads, fromLongitudeInRads);
+        double fromZ = HaversineDistanceCalculator.cartesianZ(fromLatitudeInRads);
+        for (int i = 0; i < locations.size(); i++) {
+            Location location = locations.get(i);
+            double latitudeInRads = Math.toRadians(location.getLatitude());
+            double longitudeInRads = Math.toRadians(location.getLongitude());
+            double dx = HaversineDistanceCalculator.cartesianX(latitudeInRads, longitudeInRads) - fromX;
+            double dy = HaversineDistanceCalculator.cartesianY(latitudeInRads, longitudeInRads) - fromY;
+            double dz = HaversineDistanceCalculator.cartesianZ(latitudeInRads) - fromZ;
+            squaredDistances[i] = dx * dx + dy * dy + dz * dz;
+        }
+        // The farthest of the nearest neighbours found so far is on top, to be replaced by a nearer one.
+        PriorityQueue<Integer> nearestNeighbors = new PriorityQueue<>(neighborCount + 1,
+                Comparator.comparingDouble((Integer i) -> squaredDistances[i]).reversed());
+        for (int i = 0; i < locations.size(); i++) {
+            if (i != fromIndex) {
+                nearestNeighbors.add(i);
+                if (nearestNeighbors.size() > neighborCount) {
+                    nearestNeighbors.poll();
+                }
+            }
+        }
+        int[] neighbors = nearestNeighbors.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(neighbors);
+        return neighbors;
+    }
+
+
+    /**
+     * @param fromIndex index of the starting location
+     * @param toIndex index of the target location
+     * @return true if the driving time is stored, false if it is calculated on every lookup
+     */
+    public boolean isStored(int fromIndex, int toIndex) {
+        int rowStart = fromIndex * neighborCount;
+        return fromIndex == toIndex
+                || Arrays.binarySearch(neighborIndexes, rowStart, rowStart + neighborCount, toIndex) >= 0;
+    }
+
+}
@@ -0,0 +1,45 @@
+package org.acme.vehiclerouting.persistence;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.HaversineDistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.RoadNetwork;
+import org.acme.vehiclerouting.domain.geo.RoadNetworkDistanceCalculator;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@ApplicationScoped
+public class DistanceCalculatorProducer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DistanceCalculatorProducer.class);
+
+    @ConfigProperty(name = "vehicle-routing.road-network-file")
+    Optional<String> roadNetworkFile;
+
+    /**
+     * Loads and preprocesses the road network only once, as that takes a while on a large graph.
+     *
+     * @return road driving times if a road network file is configured, straight-line driving times otherwise
+     * @throws IOException if the road network file cannot be read
+     */
+    @Produces
+    @Singleton
+    DistanceCalculator produceDistanceCalculator() throws IOException {
+        if (roadNetworkFile.isEmpty()) {
+            return new HaversineDistanceCalculator();
+        }
+        long startMillis = System.currentTimeMillis();
+        RoadNetwork roadNetwork = RoadNetwork.load(Path.of(roadNetworkFile.get()));
+        LOGGER.info("Loaded the road network ({}) with {} nodes in {} ms.",
+                roadNetworkFile.get(), roadNetwork.getNodeCount(), System.currentTimeMillis() - startMillis);
+        return new RoadNetworkDistanceCalculator(roadNetwork);
+    }
+}
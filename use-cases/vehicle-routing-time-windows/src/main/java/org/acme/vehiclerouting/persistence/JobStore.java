@@ -0,0 +1,435 @@
+package org.acme.vehiclerouting.persistence;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps the route plan jobs submitted through the REST API, within bounded memory.
+ * <p>
+ * At most a fixed number of jobs are kept on the heap, the least recently used ones are spilled to JSON files
+ * on local disk and reloaded when they are requested again.
+ * Jobs that are neither updated nor requested for longer than the time to live are removed altogether.
+ * Pinned jobs are never spilled and do not count towards the maximum,
+ * for example the pending route plans of a batch, which share one distance matrix that a reload would not restore.
+ * The jobs are serialized and deserialized outside the lock, so a large job does not block the others.
+ */
+@Singleton
+public class JobStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobStore.class);
+
+    private static final String FILE_SUFFIX = ".json";
+    private static final String TEMPORARY_FILE_SUFFIX = ".json.tmp";
+
+    private final int maxInMemoryJobs;
+    private final Duration timeToLive;
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    // Guarded by this. Both maps are in least recently used order.
+    private final Map<String, StoredJob> jobIdToJob = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> spilledJobIdToLastAccessMillis = new LinkedHashMap<>();
+    // Guarded by this. The jobs that are being written to or read from disk, outside the lock.
+    private final Map<String, StoredJob> jobIdToSpillingJob = new HashMap<>();
+    private final Map<String, CompletableFuture<Job>> jobIdToReload = new HashMap<>();
+    // Guarded by this.
+    private int pinnedJobCount = 0;
+
+    @Inject
+    public JobStore(
+            @ConfigProperty(name = "vehicle-routing.job-store.max-in-memory-jobs") int maxInMemoryJobs,
+            @ConfigProperty(name = "vehicle-routing.job-store.time-to-live") Duration timeToLive,
+            @ConfigProperty(name = "vehicle-routing.job-store.directory") String directory,
+            ObjectMapper objectMapper) {
+        if (maxInMemoryJobs < 1) {
+            throw new IllegalArgumentException("The maxInMemoryJobs (" + maxInMemoryJobs + ") must be at least 1.");
+        }
+        this.maxInMemoryJobs = maxInMemoryJobs;
+        this.timeToLive = timeToLive;
+        this.directory = Path.of(directory);
+        this.objectMapper = objectMapper;
+        registerSpilledJobs();
+    }
+
+    /**
+     * Jobs spilled before a restart can still be reloaded.
+     */
+    private void registerSpilledJobs() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.sorted(Comparator.comparingLong(JobStore::getLastModifiedMillis))
+                    .forEach(file -> {
+                        String fileName = file.getFileName().toString();
+                        if (fileName.endsWith(TEMPORARY_FILE_SUFFIX)) {
+                            // Left behind by a spill that was interrupted.
+                            deleteFile(file);
+                        } else if (fileName.endsWith(FILE_SUFFIX)) {
+                            String jobId = fileName.substring(0, fileName.length() - FILE_SUFFIX.length());
+                            spilledJobIdToLastAccessMillis.put(jobId, getLastModifiedMillis(file));
+                        }
+                    });
+        } catch (IOException e) {
+            LOGGER.warn("Could not list the job store directory ({}).", directory, e);
+        }
+    }
+
+    /**
+     * @return never null, the IDs of all jobs, in memory or spilled to disk
+     */
+    public Set<String> getJobIds() {
+        Set<String> jobIds;
+        List<Spill> spills = new ArrayList<>();
+        synchronized (this) {
+            evict(spills);
+            jobIds = new LinkedHashSet<>(spilledJobIdToLastAccessMillis.keySet());
+            jobIds.addAll(jobIdToReload.keySet());
+            jobIds.addAll(jobIdToSpillingJob.keySet());
+            jobIds.addAll(jobIdToJob.keySet());
+        }
+        spills.forEach(this::spill);
+        return jobIds;
+    }
+
+    /**
+     * Add or replace a job, which also counts as an access.
+     *
+     * @param jobId never null
+     * @param job never null
+     */
+    public void put(String jobId, Job job) {
+        put(jobId, job, false);
+    }
+
+    /**
+     * Add or replace a job that stays in memory until it is {@link #unpin(String) unpinned} or replaced.
+     *
+     * @param jobId never null
+     * @param job never null
+     */
+    public void putPinned(String jobId, Job job) {
+        put(jobId, job, true);
+    }
+
+    private void put(String jobId, Job job, boolean pinned) {
+        List<Spill> spills = new ArrayList<>();
+        synchronized (this) {
+            if (spilledJobIdToLastAccessMillis.remove(jobId) != null) {
+                deleteFile(resolveFile(jobId));
+            }
+            // A spill or a reload of the replaced job that is still running is discarded when it is done.
+            jobIdToSpillingJob.remove(jobId);
+            jobIdToReload.remove(jobId);
+            storeInMemory(jobId, new StoredJob(job, System.currentTimeMillis(), pinned));
+            evict(spills);
+        }
+        spills.forEach(this::spill);
+    }
+
+    /**
+     * Lets a pinned job be spilled again, like any other job.
+     *
+     * @param jobId never null
+     */
+    public void unpin(String jobId) {
+        List<Spill> spills = new ArrayList<>();
+        synchronized (this) {
+            StoredJob storedJob = jobIdToJob.get(jobId);
+            if (storedJob == null || !storedJob.pinned) {
+                return;
+            }
+            storeInMemory(jobId, new StoredJob(storedJob.job, storedJob.lastAccessMillis, false));
+            evict(spills);
+        }
+        spills.forEach(this::spill);
+    }
+
+    // Guarded by this.
+    private void storeInMemory(String jobId, StoredJob storedJob) {
+        StoredJob previousStoredJob = jobIdToJob.put(jobId, storedJob);
+        if (previousStoredJob != null && previousStoredJob.pinned) {
+            pinnedJobCount--;
+        }
+        if (storedJob.pinned) {
+            pinnedJobCount++;
+        }
+    }
+
+    /**
+     * @param jobId never null
+     * @param reloadedRoutePlanConsumer never null, called with every route plan that is reloaded from disk,
+     *        to restore what is not serialized, such as the distance matrix
+     * @return null if there is no such job or if it expired
+     */
+    public Job get(String jobId, Consumer<VehicleRoutePlan> reloadedRoutePlanConsumer) {
+        Job job = null;
+        CompletableFuture<Job> reload = null;
+        boolean reloading = false;
+        List<Spill> spills = new ArrayList<>();
+        synchronized (this) {
+            evict(spills);
+            StoredJob storedJob = jobIdToJob.get(jobId);
+            if (storedJob == null) {
+                // Requested again before its spill finished, which is then discarded.
+                storedJob = jobIdToSpillingJob.remove(jobId);
+            }
+            if (storedJob != null) {
+                job = storedJob.job;
+                storeInMemory(jobId, new StoredJob(job, System.currentTimeMillis(), storedJob.pinned));
+                evict(spills);
+            } else {
+                reload = jobIdToReload.get(jobId);
+                if (reload == null && spilledJobIdToLastAccessMillis.remove(jobId) != null) {
+                    reload = new CompletableFuture<>();
+                    jobIdToReload.put(jobId, reload);
+                    reloading = true;
+                }
+            }
+        }
+        spills.forEach(this::spill);
+        if (reloading) {
+            reload(jobId, reload, reloadedRoutePlanConsumer);
+        }
+        return reload == null ? job : reload.join();
+    }
+
+    /**
+     * Reads the job outside the lock, so other jobs can be used meanwhile.
+     * Concurrent requests for the same job wait for the same reload.
+     */
+    private void reload(String jobId, CompletableFuture<Job> reload,
+            Consumer<VehicleRoutePlan> reloadedRoutePlanConsumer) {
+        Job job;
+        try {
+            job = read(jobId);
+            if (job != null && job.routePlan != null) {
+                reloadedRoutePlanConsumer.accept(job.routePlan);
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                jobIdToReload.remove(jobId, reload);
+            }
+            reload.completeExceptionally(e);
+            throw e;
+        }
+        List<Spill> spills = new ArrayList<>();
+        synchronized (this) {
+            // Unless the job was replaced while reloading.
+            if (jobIdToReload.remove(jobId, reload)) {
+                deleteFile(resolveFile(jobId));
+                if (job != null) {
+                    storeInMemory(jobId, new StoredJob(job, System.currentTimeMillis(), false));
+                    evict(spills);
+                }
+            }
+        }
+        reload.complete(job);
+        spills.forEach(this::spill);
+    }
+
+    private Job read(String jobId) {
+        Path file = resolveFile(jobId);
+        try {
+            SpilledJob spilledJob = objectMapper.readValue(file.toFile(), SpilledJob.class);
+            LOGGER.debug("Reloaded jobId ({}) from disk.", jobId);
+            return spilledJob.exceptionMessage == null ? Job.ofRoutePlan(spilledJob.routePlan)
+                    : Job.ofException(new IllegalStateException(spilledJob.exceptionMessage));
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.warn("Could not reload jobId ({}) from the job store file ({}).", jobId, file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Removes the expired jobs and takes the least recently used unpinned jobs beyond the maximum out of memory.
+     * Only deletes files, which is quick, the caller spills the jobs after releasing the lock.
+     *
+     * @param spills never null, receives the jobs to spill
+     */
+    private void evict(List<Spill> spills) {
+        long now = System.currentTimeMillis();
+        long expiryMillis = now - timeToLive.toMillis();
+        Iterator<Map.Entry<String, Long>> spilledIterator = spilledJobIdToLastAccessMillis.entrySet().iterator();
+        while (spilledIterator.hasNext()) {
+            Map.Entry<String, Long> entry = spilledIterator.next();
+            if (entry.getValue() >= expiryMillis) {
+                break;
+            }
+            spilledIterator.remove();
+            deleteFile(resolveFile(entry.getKey()));
+            LOGGER.debug("Removed expired jobId ({}) from disk.", entry.getKey());
+        }
+        Iterator<Map.Entry<String, StoredJob>> iterator = jobIdToJob.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, StoredJob> entry = iterator.next();
+            StoredJob storedJob = entry.getValue();
+            if (storedJob.lastAccessMillis < expiryMillis) {
+                iterator.remove();
+                if (storedJob.pinned) {
+                    pinnedJobCount--;
+                }
+                LOGGER.debug("Removed expired jobId ({}).", entry.getKey());
+            } else if (storedJob.pinned) {
+                continue;
+            } else if (jobIdToJob.size() - pinnedJobCount > maxInMemoryJobs) {
+                iterator.remove();
+                jobIdToSpillingJob.put(entry.getKey(), storedJob);
+                spills.add(new Spill(entry.getKey(), storedJob));
+            } else {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Serializes outside the lock, into a temporary file that only replaces the job file
+     * if the job was neither requested nor replaced in the meantime.
+     */
+    private void spill(Spill spill) {
+        String jobId = spill.jobId;
+        Job job = spill.storedJob.job;
+        Path temporaryFile = null;
+        try {
+            Files.createDirectories(directory);
+            temporaryFile = Files.createTempFile(directory, jobId + "-", TEMPORARY_FILE_SUFFIX);
+            objectMapper.writeValue(temporaryFile.toFile(), new SpilledJob(job.routePlan,
+                    job.exception == null ? null : String.valueOf(job.exception.getMessage())));
+            synchronized (this) {
+                if (jobIdToSpillingJob.remove(jobId, spill.storedJob)) {
+                    Files.move(temporaryFile, resolveFile(jobId), StandardCopyOption.REPLACE_EXISTING);
+                    spilledJobIdToLastAccessMillis.put(jobId, spill.storedJob.lastAccessMillis);
+                    LOGGER.debug("Spilled jobId ({}) to disk.", jobId);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not spill jobId ({}) to the job store directory ({}), dropping it.",
+                    jobId, directory, e);
+            synchronized (this) {
+                jobIdToSpillingJob.remove(jobId, spill.storedJob);
+            }
+        }
+        if (temporaryFile != null) {
+            deleteFile(temporaryFile);
+        }
+    }
+
+    private Path resolveFile(String jobId) {
+        // Job IDs are generated UUIDs, but never trust them as a file name.
+        if (!jobId.matches("[A-Za-z0-9-]+")) {
+            throw new IllegalArgumentException("The jobId (" + jobId + ") is not a valid file name.");
+        }
+        return directory.resolve(jobId + FILE_SUFFIX);
+    }
+
+    private static void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.debug("Could not delete the job store file ({}).", file, e);
+        }
+    }
+
+    private static long getLastModifiedMillis(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    /**
+     * A route plan or the exception that solving it failed with.
+     * Every best solution is a new job, so its score explanation is cached here.
+     */
+    public static final class Job {
+
+        private final VehicleRoutePlan routePlan;
+        private final Throwable exception;
+        // Guarded by this.
+        private String scoreExplanation = null;
+
+        private Job(VehicleRoutePlan routePlan, Throwable exception) {
+            this.routePlan = routePlan;
+            this.exception = exception;
+        }
+
+        public static Job ofRoutePlan(VehicleRoutePlan routePlan) {
+            return new Job(routePlan, null);
+        }
+
+        public static Job ofException(Throwable exception) {
+            return new Job(null, exception);
+        }
+
+        /**
+         * @return null if solving failed
+         */
+        public VehicleRoutePlan routePlan() {
+            return routePlan;
+        }
+
+        /**
+         * @return null unless solving failed
+         */
+        public Throwable exception() {
+            return exception;
+        }
+
+        /**
+         * The score is explained at most once per best solution.
+         * The explanation is not spilled to disk,
+         * because explaining a reloaded route plan also restores its shadow variables.
+         *
+         * @param scoreExplainer never null, only called the first time
+         * @return never null
+         */
+        public synchronized String getScoreExplanation(Function<VehicleRoutePlan, String> scoreExplainer) {
+            if (scoreExplanation == null) {
+                scoreExplanation = scoreExplainer.apply(routePlan);
+            }
+            return scoreExplanation;
+        }
+
+    }
+
+    private record StoredJob(Job job, long lastAccessMillis, boolean pinned) {
+    }
+
+    private record Spill(String jobId, StoredJob storedJob) {
+    }
+
+    record SpilledJob(VehicleRoutePlan routePlan, String exceptionMessage) {
+    }
+}
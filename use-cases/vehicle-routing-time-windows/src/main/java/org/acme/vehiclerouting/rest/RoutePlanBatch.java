@@ -0,0 +1,14 @@
+package org.acme.vehiclerouting.rest;
+
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Route plans submitted together, for example by a regional dispatch.
+ *
+ * @param priority null for 0, the batches with a higher priority start solving first
+ * @param routePlans never null
+ */
+public record RoutePlanBatch(Integer priority, List<VehicleRoutePlan> routePlans) {
+}
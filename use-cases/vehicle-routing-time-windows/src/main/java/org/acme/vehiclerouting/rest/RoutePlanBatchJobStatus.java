@@ -0,0 +1,20 @@
+package org.acme.vehiclerouting.rest;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The status of one route plan of a {@link RoutePlanBatch}.
+ *
+ * @param jobId never null, to get the route plan with the other methods
+ * @param name null if solving failed
+ * @param score null if not solved yet or if solving failed
+ * @param solverStatus never null
+ * @param errorMessage null unless solving failed
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RoutePlanBatchJobStatus(String jobId, String name, HardSoftLongScore score, SolverStatus solverStatus,
+        String errorMessage) {
+}
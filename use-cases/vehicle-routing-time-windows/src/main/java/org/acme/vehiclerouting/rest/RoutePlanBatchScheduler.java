@@ -0,0 +1,211 @@
+package org.acme.vehiclerouting.rest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Starts the jobs of route plan batches, at most a fixed number at a time,
+ * so a large batch does not hold up the route plans that are submitted one by one.
+ * Pending jobs start in order of the priority of their batch, highest first, then in order of submission.
+ * <p>
+ * A batch is forgotten once all its jobs ended and the time to live of the job store passed,
+ * as its jobs have expired from the job store by then too.
+ */
+@Singleton
+public class RoutePlanBatchScheduler {
+
+    private static final Comparator<PendingJob> PENDING_JOB_COMPARATOR =
+            Comparator.comparingInt(PendingJob::priority).reversed().thenComparingLong(PendingJob::sequence);
+
+    private final int maxActiveJobs;
+    private final Duration timeToLive;
+
+    // Guarded by this.
+    private final Map<String, List<String>> batchIdToJobIds = new HashMap<>();
+    private final Map<String, String> jobIdToBatchId = new HashMap<>();
+    private final Map<String, Integer> batchIdToUnfinishedJobCount = new HashMap<>();
+    // In order of finishing.
+    private final Map<String, Long> finishedBatchIdToMillis = new LinkedHashMap<>();
+    private final PriorityQueue<PendingJob> pendingJobs = new PriorityQueue<>(PENDING_JOB_COMPARATOR);
+    private final Map<String, PendingJob> jobIdToPendingJob = new HashMap<>();
+    private final Set<String> activeJobIds = new HashSet<>();
+    private long nextSequence = 0L;
+
+    @Inject
+    public RoutePlanBatchScheduler(
+            @ConfigProperty(name = "vehicle-routing.batch.max-active-jobs") int maxActiveJobs,
+            @ConfigProperty(name = "vehicle-routing.job-store.time-to-live") Duration timeToLive) {
+        if (maxActiveJobs < 1) {
+            throw new IllegalArgumentException("The maxActiveJobs (" + maxActiveJobs + ") must be at least 1.");
+        }
+        this.maxActiveJobs = maxActiveJobs;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * @param jobIds never null, the jobs of one batch, already in the job store
+     * @param priority higher starts sooner
+     * @param jobStarter never null, starts solving a job, after which {@link #jobEnded(String)} must be called
+     * @return never null, the batch ID
+     */
+    public String schedule(List<String> jobIds, int priority, Consumer<String> jobStarter) {
+        String batchId = UUID.randomUUID().toString();
+        synchronized (this) {
+            evictFinishedBatches();
+            batchIdToJobIds.put(batchId, List.copyOf(jobIds));
+            batchIdToUnfinishedJobCount.put(batchId, jobIds.size());
+            for (String jobId : jobIds) {
+                jobIdToBatchId.put(jobId, batchId);
+                PendingJob pendingJob = new PendingJob(jobId, priority, nextSequence++, jobStarter);
+                pendingJobs.add(pendingJob);
+                jobIdToPendingJob.put(jobId, pendingJob);
+            }
+        }
+        startPendingJobs();
+        return batchId;
+    }
+
+    /**
+     * @param jobId never null
+     */
+    public void jobEnded(String jobId) {
+        boolean removed;
+        synchronized (this) {
+            removed = activeJobIds.remove(jobId);
+            if (removed) {
+                jobFinished(jobId);
+            }
+        }
+        if (removed) {
+            startPendingJobs();
+        }
+    }
+
+    /**
+     * Terminates a job that might still be waiting for a solver of the solver manager.
+     * Such a job never calls its final best solution consumer, so it ends here instead.
+     *
+     * @param jobId never null
+     * @param solverManager never null, the solver manager the job was submitted to
+     * @return true if the job was waiting for a solver, and never will start now
+     */
+    public boolean terminateEarly(String jobId, SolverManager<?, String> solverManager) {
+        boolean scheduled = solverManager.getSolverStatus(jobId) == SolverStatus.SOLVING_SCHEDULED;
+        solverManager.terminateEarly(jobId);
+        if (scheduled) {
+            jobEnded(jobId);
+        }
+        return scheduled;
+    }
+
+    /**
+     * @param jobId never null
+     * @return true if the job was waiting to start, and never will now
+     */
+    public synchronized boolean cancel(String jobId) {
+        PendingJob pendingJob = jobIdToPendingJob.remove(jobId);
+        if (pendingJob == null || !pendingJobs.remove(pendingJob)) {
+            return false;
+        }
+        jobFinished(jobId);
+        return true;
+    }
+
+    /**
+     * @param jobId never null
+     * @return true if the job is waiting to start, or starting
+     */
+    public synchronized boolean isPending(String jobId) {
+        return jobIdToPendingJob.containsKey(jobId);
+    }
+
+    /**
+     * @param batchId never null
+     * @return null if there is no such batch
+     */
+    public synchronized List<String> getJobIds(String batchId) {
+        evictFinishedBatches();
+        return batchIdToJobIds.get(batchId);
+    }
+
+    /**
+     * @param batchId never null
+     */
+    public synchronized void removeBatch(String batchId) {
+        List<String> jobIds = batchIdToJobIds.remove(batchId);
+        if (jobIds != null) {
+            jobIds.forEach(jobIdToBatchId::remove);
+        }
+        batchIdToUnfinishedJobCount.remove(batchId);
+        finishedBatchIdToMillis.remove(batchId);
+    }
+
+    // Guarded by this.
+    private void jobFinished(String jobId) {
+        String batchId = jobIdToBatchId.remove(jobId);
+        if (batchId == null) {
+            return;
+        }
+        int unfinishedJobCount = batchIdToUnfinishedJobCount.merge(batchId, -1, Integer::sum);
+        if (unfinishedJobCount <= 0) {
+            batchIdToUnfinishedJobCount.remove(batchId);
+            finishedBatchIdToMillis.put(batchId, System.currentTimeMillis());
+        }
+    }
+
+    // Guarded by this.
+    private void evictFinishedBatches() {
+        long expiryMillis = System.currentTimeMillis() - timeToLive.toMillis();
+        Iterator<Map.Entry<String, Long>> iterator = finishedBatchIdToMillis.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            // Not >=, so a time to live of zero forgets a batch as soon as it finished.
+            if (entry.getValue() > expiryMillis) {
+                break;
+            }
+            iterator.remove();
+            batchIdToJobIds.remove(entry.getKey());
+        }
+    }
+
+    private void startPendingJobs() {
+        List<PendingJob> startingJobs = new ArrayList<>();
+        synchronized (this) {
+            while (activeJobIds.size() < maxActiveJobs && !pendingJobs.isEmpty()) {
+                PendingJob pendingJob = pendingJobs.poll();
+                activeJobIds.add(pendingJob.jobId());
+                startingJobs.add(pendingJob);
+            }
+        }
+        // Outside the lock, as a job that fails to start calls jobEnded() right away.
+        for (PendingJob startingJob : startingJobs) {
+            startingJob.jobStarter().accept(startingJob.jobId());
+            // Only now, so the job does not look like it is not solving while it starts.
+            synchronized (this) {
+                jobIdToPendingJob.remove(startingJob.jobId());
+            }
+        }
+    }
+
+    private record PendingJob(String jobId, int priority, long sequence, Consumer<String> jobStarter) {
+    }
+}
@@ -0,0 +1,237 @@
+package org.acme.vehiclerouting.rest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.rest.exception.ErrorInfo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Pushes the best solutions of route plans to server-sent event subscribers.
+ * <p>
+ * A subscriber first receives a {@value #ROUTES_EVENT} event with the routes of all vehicles.
+ * After that, every new best solution is a {@value #BEST_SOLUTION_EVENT} event with the score,
+ * only the routes of the vehicles that changed and the IDs of the vehicles that were removed,
+ * and the stream ends with a {@value #SOLVING_ENDED_EVENT}
+ * or {@value #SOLVING_FAILED_EVENT} event.
+ * Each event is serialized once, regardless of the number of subscribers,
+ * and nothing is calculated for jobs without subscribers.
+ */
+@Singleton
+public class RoutePlanEventPublisher {
+
+    public static final String ROUTES_EVENT = "routes";
+    public static final String BEST_SOLUTION_EVENT = "best-solution";
+    public static final String SOLVING_ENDED_EVENT = "solving-ended";
+    public static final String SOLVING_FAILED_EVENT = "solving-failed";
+
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentMap<String, JobSubscription> jobIdToSubscription = new ConcurrentHashMap<>();
+
+    @Inject
+    public RoutePlanEventPublisher(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param jobId never null
+     * @param routePlan never null, the best solution so far, used only if the job has no subscribers yet
+     * @param eventSink never null
+     * @param sse never null
+     */
+    public void subscribe(String jobId, VehicleRoutePlan routePlan, SseEventSink eventSink, Sse sse) {
+        while (true) {
+            JobSubscription subscription = jobIdToSubscription.computeIfAbsent(jobId,
+                    jobId_ -> new JobSubscription(jobId, routePlan, sse));
+            synchronized (subscription) {
+                if (subscription.closed) {
+                    // Solving ended or the last subscriber left in the meantime.
+                    continue;
+                }
+                eventSink.send(toEvent(subscription.sse, ROUTES_EVENT,
+                        new RoutePlanEvent(subscription.score, List.copyOf(subscription.vehicleIdToRoute.values()),
+                                List.of())));
+                subscription.broadcaster.register(eventSink);
+                subscription.eventSinks.add(eventSink);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Called from the best solution consumer of the solver.
+     *
+     * @param jobId never null
+     * @param solution never null
+     */
+    public void publishBestSolution(String jobId, VehicleRoutePlan solution) {
+        JobSubscription subscription = jobIdToSubscription.get(jobId);
+        if (subscription == null) {
+            return;
+        }
+        synchronized (subscription) {
+            if (!subscription.closed) {
+                subscription.broadcast(BEST_SOLUTION_EVENT, subscription.update(solution));
+            }
+        }
+    }
+
+    /**
+     * Sends the changes of the final best solution and closes all subscriptions of the job.
+     *
+     * @param jobId never null
+     * @param solution never null
+     */
+    public void publishSolvingEnded(String jobId, VehicleRoutePlan solution) {
+        JobSubscription subscription = jobIdToSubscription.get(jobId);
+        if (subscription == null) {
+            return;
+        }
+        synchronized (subscription) {
+            if (!subscription.closed) {
+                subscription.broadcast(SOLVING_ENDED_EVENT, subscription.update(solution));
+                subscription.close();
+            }
+        }
+    }
+
+    /**
+     * @param jobId never null
+     * @param exception never null
+     */
+    public void publishSolvingFailed(String jobId, Throwable exception) {
+        JobSubscription subscription = jobIdToSubscription.get(jobId);
+        if (subscription == null) {
+            return;
+        }
+        synchronized (subscription) {
+            if (!subscription.closed) {
+                subscription.broadcast(SOLVING_FAILED_EVENT, new ErrorInfo(jobId, exception.getMessage()));
+                subscription.close();
+            }
+        }
+    }
+
+    private OutboundSseEvent toEvent(Sse sse, String name, Object data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed serializing the event (" + name + ").", e);
+        }
+        return sse.newEventBuilder().name(name).data(json).build();
+    }
+
+    /**
+     * Replaces the routes of the vehicles that changed and forgets the routes of the vehicles that were removed.
+     *
+     * @param vehicleIdToRoute never null, the routes sent so far, updated in place
+     * @param routePlan never null
+     * @return never null, with the routes of the vehicles that changed and the IDs of the vehicles that were removed
+     */
+    static RoutePlanEvent updateVehicleRoutes(Map<String, VehicleRoute> vehicleIdToRoute, VehicleRoutePlan routePlan) {
+        List<VehicleRoute> changedVehicleRoutes = new ArrayList<>();
+        Set<String> vehicleIds = new HashSet<>();
+        for (Vehicle vehicle : routePlan.getVehicles()) {
+            vehicleIds.add(vehicle.getId());
+            VehicleRoute vehicleRoute = VehicleRoute.of(vehicle);
+            if (!vehicleRoute.equals(vehicleIdToRoute.put(vehicle.getId(), vehicleRoute))) {
+                changedVehicleRoutes.add(vehicleRoute);
+            }
+        }
+        List<String> removedVehicleIds = new ArrayList<>();
+        for (Iterator<String> it = vehicleIdToRoute.keySet().iterator(); it.hasNext();) {
+            String vehicleId = it.next();
+            if (!vehicleIds.contains(vehicleId)) {
+                removedVehicleIds.add(vehicleId);
+                it.remove();
+            }
+        }
+        return new RoutePlanEvent(routePlan.getScore(), changedVehicleRoutes, removedVehicleIds);
+    }
+
+    public record VehicleRoute(String vehicleId, List<String> customerIds, long totalDrivingTimeSeconds) {
+
+        static VehicleRoute of(Vehicle vehicle) {
+            return new VehicleRoute(vehicle.getId(),
+                    vehicle.getCustomers().stream().map(Customer::getId).toList(),
+                    vehicle.getTotalDrivingTimeSeconds());
+        }
+
+    }
+
+    /**
+     * @param removedVehicleIds never null, the vehicles removed while solving, for which no route is sent anymore
+     */
+    public record RoutePlanEvent(HardSoftLongScore score, List<VehicleRoute> vehicleRoutes,
+            List<String> removedVehicleIds) {
+    }
+
+    private final class JobSubscription {
+
+        private final String jobId;
+        private final Sse sse;
+        private final SseBroadcaster broadcaster;
+        private final Map<String, VehicleRoute> vehicleIdToRoute = new LinkedHashMap<>();
+        private final Set<SseEventSink> eventSinks = Collections.newSetFromMap(new IdentityHashMap<>());
+        private HardSoftLongScore score;
+        private boolean closed = false;
+
+        private JobSubscription(String jobId, VehicleRoutePlan routePlan, Sse sse) {
+            this.jobId = jobId;
+            this.sse = sse;
+            this.broadcaster = sse.newBroadcaster();
+            this.score = routePlan.getScore();
+            updateVehicleRoutes(vehicleIdToRoute, routePlan);
+            broadcaster.onClose(this::unsubscribe);
+            broadcaster.onError((eventSink, throwable) -> unsubscribe(eventSink));
+        }
+
+        private RoutePlanEvent update(VehicleRoutePlan solution) {
+            score = solution.getScore();
+            return updateVehicleRoutes(vehicleIdToRoute, solution);
+        }
+
+        private void broadcast(String name, Object data) {
+            broadcaster.broadcast(toEvent(sse, name, data));
+        }
+
+        private synchronized void unsubscribe(SseEventSink eventSink) {
+            eventSinks.remove(eventSink);
+            if (eventSinks.isEmpty() && !closed) {
+                close();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            jobIdToSubscription.remove(jobId, this);
+            broadcaster.close();
+        }
+
+    }
+}
@@ -0,0 +1,12 @@
+package org.acme.vehiclerouting.rest;
+
+import java.time.LocalDateTime;
+
+/**
+ * The new time window of a customer in a route plan that is being solved.
+ *
+ * @param minStartTime never null
+ * @param maxEndTime never null, not before {@code minStartTime}
+ */
+public record TimeWindow(LocalDateTime minStartTime, LocalDateTime maxEndTime) {
+}
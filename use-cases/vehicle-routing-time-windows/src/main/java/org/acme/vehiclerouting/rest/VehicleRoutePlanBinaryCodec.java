@@ -0,0 +1,357 @@
+package org.acme.vehiclerouting.rest;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Compact binary encoding of a {@link VehicleRoutePlan}, for plans too large to send as JSON quickly.
+ * <p>
+ * Depots, customers and vehicles are written column by column: first all their ids, then all their latitudes,
+ * and so on. Times are epoch seconds in UTC, like {@link Customer#toEpochSecond}.
+ * References are indexes instead of repeated ids: a vehicle refers to its depot by depot index
+ * and to its customers by customer indexes.
+ * The shadow variables of a solved plan (arrival times and total driving times) are included,
+ * so a plan reads back as it was written.
+ * <p>
+ * Reading and writing stream straight from and into the domain objects, without an intermediate tree.
+ * Malformed content fails with an {@link IllegalArgumentException}.
+ */
+public final class VehicleRoutePlanBinaryCodec {
+
+    public static final String MEDIA_TYPE = "application/x-vehicle-route-plan";
+
+    private static final int MAGIC_NUMBER = 0x56525031; // "VRP1"
+    private static final int VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+    private static final long NO_DURATION_SECONDS = -1L;
+    // A count is read before its values, so it is not trusted to size an array up front.
+    private static final int MAX_INITIAL_ARRAY_LENGTH = 1024;
+
+    private VehicleRoutePlanBinaryCodec() {
+    }
+
+    /**
+     * @param routePlan never null
+     * @param outputStream never null, not closed, buffered by the caller if needed
+     * @throws IOException if the output stream fails
+     */
+    public static void write(VehicleRoutePlan routePlan, OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC_NUMBER);
+        output.writeInt(VERSION);
+        writeString(output, routePlan.getName());
+        writeString(output, routePlan.getScore() == null ? null : routePlan.getScore().toString());
+        writeString(output, routePlan.getSolverStatus() == null ? null : routePlan.getSolverStatus().name());
+        writeString(output, routePlan.getScoreExplanation());
+        writeLocation(output, routePlan.getSouthWestCorner());
+        writeLocation(output, routePlan.getNorthEastCorner());
+        output.writeLong(Customer.toEpochSecond(routePlan.getStartDateTime()));
+        output.writeLong(Customer.toEpochSecond(routePlan.getEndDateTime()));
+        writeNullableInt(output, routePlan.getSparseDistanceMatrixNeighborCount());
+        writeNullableInt(output, routePlan.getDecompositionRegionCount());
+
+        List<Depot> depots = routePlan.getDepots();
+        output.writeInt(depots.size());
+        for (Depot depot : depots) {
+            writeString(output, depot.getId());
+        }
+        for (Depot depot : depots) {
+            output.writeDouble(depot.getLocation().getLatitude());
+        }
+        for (Depot depot : depots) {
+            output.writeDouble(depot.getLocation().getLongitude());
+        }
+
+        List<Customer> customers = routePlan.getCustomers();
+        output.writeInt(customers.size());
+        for (Customer customer : customers) {
+            writeString(output, customer.getId());
+        }
+        for (Customer customer : customers) {
+            writeString(output, customer.getName());
+        }
+        for (Customer customer : customers) {
+            output.writeDouble(customer.getLocation().getLatitude());
+        }
+        for (Customer customer : customers) {
+            output.writeDouble(customer.getLocation().getLongitude());
+        }
+        for (Customer customer : customers) {
+            output.writeLong(Customer.toEpochSecond(customer.getMinStartTime()));
+        }
+        for (Customer customer : customers) {
+            output.writeLong(Customer.toEpochSecond(customer.getMaxEndTime()));
+        }
+        for (Customer customer : customers) {
+            Duration serviceDuration = customer.getServiceDuration();
+            output.writeLong(serviceDuration == null ? NO_DURATION_SECONDS : serviceDuration.getSeconds());
+        }
+        for (Customer customer : customers) {
+            output.writeLong(customer.getArrivalEpochSecond());
+        }
+
+        Map<Depot, Integer> depotToIndex = toIndexMap(depots);
+        Map<Customer, Integer> customerToIndex = toIndexMap(customers);
+        List<Vehicle> vehicles = routePlan.getVehicles();
+        output.writeInt(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            writeString(output, vehicle.getId());
+        }
+        for (Vehicle vehicle : vehicles) {
+            output.writeInt(getIndex(depotToIndex, vehicle.getDepot(), "depot"));
+        }
+        for (Vehicle vehicle : vehicles) {
+            output.writeLong(vehicle.getDepartureEpochSecond());
+        }
+        for (Vehicle vehicle : vehicles) {
+            output.writeLong(vehicle.getTotalDrivingTimeSeconds());
+        }
+        for (Vehicle vehicle : vehicles) {
+            output.writeInt(vehicle.getCustomers().size());
+        }
+        for (Vehicle vehicle : vehicles) {
+            for (Customer customer : vehicle.getCustomers()) {
+                output.writeInt(getIndex(customerToIndex, customer, "customer"));
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * @param inputStream never null, not closed, buffered by the caller if needed
+     * @return never null
+     * @throws IOException if the input stream fails or ends too early
+     */
+    public static VehicleRoutePlan read(InputStream inputStream) throws IOException {
+        DataInputStream input = new DataInputStream(inputStream);
+        int magicNumber = input.readInt();
+        if (magicNumber != MAGIC_NUMBER) {
+            throw new IllegalArgumentException("The content is not a binary vehicle route plan.");
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("The binary vehicle route plan version (" + version
+                    + ") is not supported, only version (" + VERSION + ") is.");
+        }
+        String name = readString(input);
+        String score = readString(input);
+        String solverStatus = readString(input);
+        String scoreExplanation = readString(input);
+        Location southWestCorner = readLocation(input);
+        Location northEastCorner = readLocation(input);
+        long startEpochSecond = input.readLong();
+        long endEpochSecond = input.readLong();
+        Integer sparseDistanceMatrixNeighborCount = readNullableInt(input);
+        Integer decompositionRegionCount = readNullableInt(input);
+
+        int depotCount = readCount(input, "depot");
+        String[] depotIds = readStrings(input, depotCount);
+        double[] depotLatitudes = readDoubles(input, depotCount);
+        double[] depotLongitudes = readDoubles(input, depotCount);
+        List<Depot> depots = new ArrayList<>(depotCount);
+        for (int i = 0; i < depotCount; i++) {
+            depots.add(new Depot(depotIds[i], new Location(depotLatitudes[i], depotLongitudes[i])));
+        }
+
+        int customerCount = readCount(input, "customer");
+        String[] customerIds = readStrings(input, customerCount);
+        String[] customerNames = readStrings(input, customerCount);
+        double[] customerLatitudes = readDoubles(input, customerCount);
+        double[] customerLongitudes = readDoubles(input, customerCount);
+        long[] minStartEpochSeconds = readLongs(input, customerCount);
+        long[] maxEndEpochSeconds = readLongs(input, customerCount);
+        long[] serviceDurationSeconds = readLongs(input, customerCount);
+        long[] arrivalEpochSeconds = readLongs(input, customerCount);
+        List<Customer> customers = new ArrayList<>(customerCount);
+        for (int i = 0; i < customerCount; i++) {
+            Customer customer = new Customer(customerIds[i], customerNames[i],
+                    new Location(customerLatitudes[i], customerLongitudes[i]),
+                    Customer.toLocalDateTime(minStartEpochSeconds[i]), Customer.toLocalDateTime(maxEndEpochSeconds[i]),
+                    serviceDurationSeconds[i] == NO_DURATION_SECONDS ? null
+                            : Duration.ofSeconds(serviceDurationSeconds[i]));
+            customer.setArrivalEpochSecond(arrivalEpochSeconds[i]);
+            customers.add(customer);
+        }
+
+        int vehicleCount = readCount(input, "vehicle");
+        String[] vehicleIds = readStrings(input, vehicleCount);
+        int[] depotIndexes = new int[vehicleCount];
+        for (int i = 0; i < vehicleCount; i++) {
+            depotIndexes[i] = readIndex(input, depotCount, "depot");
+        }
+        long[] departureEpochSeconds = readLongs(input, vehicleCount);
+        long[] totalDrivingTimeSeconds = readLongs(input, vehicleCount);
+        int[] routeSizes = new int[vehicleCount];
+        for (int i = 0; i < vehicleCount; i++) {
+            routeSizes[i] = readCount(input, "route customer");
+        }
+        List<Vehicle> vehicles = new ArrayList<>(vehicleCount);
+        for (int i = 0; i < vehicleCount; i++) {
+            Vehicle vehicle = new Vehicle(vehicleIds[i], depots.get(depotIndexes[i]),
+                    Customer.toLocalDateTime(departureEpochSeconds[i]));
+            vehicle.setTotalDrivingTimeSeconds(totalDrivingTimeSeconds[i]);
+            List<Customer> route = vehicle.getCustomers();
+            Customer previousCustomer = null;
+            for (int j = 0; j < routeSizes[i]; j++) {
+                Customer customer = customers.get(readIndex(input, customerCount, "customer"));
+                if (customer.getVehicle() != null) {
+                    throw new IllegalArgumentException("The customer (" + customer.getId()
+                            + ") is visited by more than one vehicle.");
+                }
+                // Restore the shadow variables that the solver would otherwise recalculate.
+                customer.setVehicle(vehicle);
+                customer.setPreviousCustomer(previousCustomer);
+                if (previousCustomer != null) {
+                    previousCustomer.setNextCustomer(customer);
+                }
+                route.add(customer);
+                previousCustomer = customer;
+            }
+            vehicles.add(vehicle);
+        }
+
+        VehicleRoutePlan routePlan = new VehicleRoutePlan(name, southWestCorner, northEastCorner,
+                Customer.toLocalDateTime(startEpochSecond), Customer.toLocalDateTime(endEpochSecond),
+                depots, vehicles, customers);
+        routePlan.setScore(score == null ? null : HardSoftLongScore.parseScore(score));
+        routePlan.setSolverStatus(solverStatus == null ? null : SolverStatus.valueOf(solverStatus));
+        routePlan.setScoreExplanation(scoreExplanation);
+        routePlan.setSparseDistanceMatrixNeighborCount(sparseDistanceMatrixNeighborCount);
+        routePlan.setDecompositionRegionCount(decompositionRegionCount);
+        return routePlan;
+    }
+
+    private static <T> Map<T, Integer> toIndexMap(List<T> list) {
+        Map<T, Integer> map = new IdentityHashMap<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            map.put(list.get(i), i);
+        }
+        return map;
+    }
+
+    private static <T> int getIndex(Map<T, Integer> map, T value, String type) {
+        Integer index = map.get(value);
+        if (index == null) {
+            throw new IllegalArgumentException("The " + type + " (" + value + ") is not in the route plan.");
+        }
+        return index;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(NULL_LENGTH);
+            return;
+        }
+        // Not writeUTF(), which is limited to 64 KiB, too little for a score explanation.
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IllegalArgumentException("The string length (" + length + ") must not be negative.");
+        }
+        return new String(input.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static String[] readStrings(DataInputStream input, int count) throws IOException {
+        String[] values = new String[Math.min(count, MAX_INITIAL_ARRAY_LENGTH)];
+        for (int i = 0; i < count; i++) {
+            if (i == values.length) {
+                values = Arrays.copyOf(values, (int) Math.min(count, 2L * values.length));
+            }
+            values[i] = readString(input);
+        }
+        return values;
+    }
+
+    private static double[] readDoubles(DataInputStream input, int count) throws IOException {
+        double[] values = new double[Math.min(count, MAX_INITIAL_ARRAY_LENGTH)];
+        for (int i = 0; i < count; i++) {
+            if (i == values.length) {
+                values = Arrays.copyOf(values, (int) Math.min(count, 2L * values.length));
+            }
+            values[i] = input.readDouble();
+        }
+        return values;
+    }
+
+    private static long[] readLongs(DataInputStream input, int count) throws IOException {
+        long[] values = new long[Math.min(count, MAX_INITIAL_ARRAY_LENGTH)];
+        for (int i = 0; i < count; i++) {
+            if (i == values.length) {
+                values = Arrays.copyOf(values, (int) Math.min(count, 2L * values.length));
+            }
+            values[i] = input.readLong();
+        }
+        return values;
+    }
+
+    private static void writeLocation(DataOutputStream output, Location location) throws IOException {
+        output.writeBoolean(location != null);
+        if (location != null) {
+            output.writeDouble(location.getLatitude());
+            output.writeDouble(location.getLongitude());
+        }
+    }
+
+    private static Location readLocation(DataInputStream input) throws IOException {
+        return input.readBoolean() ? new Location(input.readDouble(), input.readDouble()) : null;
+    }
+
+    private static void writeNullableInt(DataOutputStream output, Integer value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeInt(value);
+        }
+    }
+
+    private static Integer readNullableInt(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readInt() : null;
+    }
+
+    /**
+     * The arrays of a forged count grow only as far as the content goes,
+     * before reading past its end fails with an {@link java.io.EOFException}.
+     */
+    private static int readCount(DataInputStream input, String type) throws IOException {
+        int count = input.readInt();
+        if (count < 0) {
+            throw new IllegalArgumentException("The " + type + " count (" + count + ") must not be negative.");
+        }
+        return count;
+    }
+
+    private static int readIndex(DataInputStream input, int size, String type) throws IOException {
+        int index = input.readInt();
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("The " + type + " index (" + index + ") must be between 0 and "
+                    + size + " (exclusive).");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,62 @@
+package org.acme.vehiclerouting.rest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Reads and writes route plans in the {@link VehicleRoutePlanBinaryCodec#MEDIA_TYPE binary media type},
+ * next to JSON.
+ */
+@Provider
+@Consumes(VehicleRoutePlanBinaryCodec.MEDIA_TYPE)
+@Produces(VehicleRoutePlanBinaryCodec.MEDIA_TYPE)
+public class VehicleRoutePlanBinaryProvider
+        implements MessageBodyReader<VehicleRoutePlan>, MessageBodyWriter<VehicleRoutePlan> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == VehicleRoutePlan.class;
+    }
+
+    @Override
+    public VehicleRoutePlan readFrom(Class<VehicleRoutePlan> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType, MultivaluedMap<String, String> httpHeaders, InputStream entityStream)
+            throws IOException {
+        try {
+            return VehicleRoutePlanBinaryCodec.read(new BufferedInputStream(entityStream, BUFFER_SIZE));
+        } catch (IllegalArgumentException | EOFException e) {
+            throw new BadRequestException("Invalid binary route plan: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return VehicleRoutePlan.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(VehicleRoutePlan routePlan, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException {
+        VehicleRoutePlanBinaryCodec.write(routePlan, new BufferedOutputStream(entityStream, BUFFER_SIZE));
+    }
+}
@@ -1,29 +1,48 @@
 package org.acme.vehiclerouting.rest;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
 import ai.timefold.solver.core.api.solver.SolutionManager;
 import ai.timefold.solver.core.api.solver.SolverManager;
 import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
 
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
 import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.persistence.DistanceMatrixCache;
+import org.acme.vehiclerouting.persistence.JobStore;
+import org.acme.vehiclerouting.persistence.JobStore.Job;
 import org.acme.vehiclerouting.rest.exception.ErrorInfo;
 import org.acme.vehiclerouting.rest.exception.VehicleRoutingSolverException;
+import org.acme.vehiclerouting.solver.RegionDecompositionSolver;
+import org.acme.vehiclerouting.solver.change.AddCustomerProblemChange;
+import org.acme.vehiclerouting.solver.change.ChangeTimeWindowProblemChange;
+import org.acme.vehiclerouting.solver.change.RemoveCustomerProblemChange;
+import org.acme.vehiclerouting.solver.change.RemoveVehicleProblemChange;
 import org.eclipse.microprofile.openapi.annotations.Operation;
 import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
 import org.eclipse.microprofile.openapi.annotations.media.Content;
@@ -46,20 +65,44 @@ public class VehicleRoutePlanResource {
 
     private final SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager;
 
-    // TODO: Without any "time to live", the map may eventually grow out of memory.
-    private final ConcurrentMap<String, Job> jobIdToJob = new ConcurrentHashMap<>();
+    private final DistanceCalculator distanceCalculator;
+
+    private final DistanceMatrixCache distanceMatrixCache;
+
+    private final JobStore jobStore;
+
+    private final RoutePlanEventPublisher routePlanEventPublisher;
+
+    private final RegionDecompositionSolver regionDecompositionSolver;
+
+    private final RoutePlanBatchScheduler routePlanBatchScheduler;
 
     // Workaround to make Quarkus CDI happy. Do not use.
     public VehicleRoutePlanResource() {
         this.solverManager = null;
         this.solutionManager = null;
+        this.distanceCalculator = null;
+        this.distanceMatrixCache = null;
+        this.jobStore = null;
+        this.routePlanEventPublisher = null;
+        this.regionDecompositionSolver = null;
+        this.routePlanBatchScheduler = null;
     }
 
     @Inject
     public VehicleRoutePlanResource(SolverManager<VehicleRoutePlan, String> solverManager,
-            SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager) {
+            SolutionManager<VehicleRoutePlan, HardSoftLongScore> solutionManager,
+            DistanceCalculator distanceCalculator, DistanceMatrixCache distanceMatrixCache, JobStore jobStore,
+            RoutePlanEventPublisher routePlanEventPublisher, RegionDecompositionSolver regionDecompositionSolver,
+            RoutePlanBatchScheduler routePlanBatchScheduler) {
         this.solverManager = solverManager;
         this.solutionManager = solutionManager;
+        this.distanceCalculator = distanceCalculator;
+        this.distanceMatrixCache = distanceMatrixCache;
+        this.jobStore = jobStore;
+        this.routePlanEventPublisher = routePlanEventPublisher;
+        this.regionDecompositionSolver = regionDecompositionSolver;
+        this.routePlanBatchScheduler = routePlanBatchScheduler;
     }
 
     @Operation(summary = "List the job IDs of all submitted route plans.")
@@ -70,36 +113,165 @@ public class VehicleRoutePlanResource {
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     public Collection<String> list() {
-        return jobIdToJob.keySet();
+        return jobStore.getJobIds();
     }
 
-    @Operation(summary = "Submit a route plan to start solving as soon as CPU resources are available.")
+    @Operation(summary = "Submit a route plan to start solving as soon as CPU resources are available. Large route plans can be submitted in the compact binary format instead of JSON.")
     @APIResponses(value = {
             @APIResponse(responseCode = "202",
                     description = "The job ID. Use that ID to get the solution with the other methods.",
                     content = @Content(mediaType = MediaType.TEXT_PLAIN, schema = @Schema(implementation = String.class))) })
     @POST
-    @Consumes({ MediaType.APPLICATION_JSON })
+    @Consumes({ MediaType.APPLICATION_JSON, VehicleRoutePlanBinaryCodec.MEDIA_TYPE })
     @Produces(MediaType.TEXT_PLAIN)
     public String solve(VehicleRoutePlan problem) {
+        initDistanceMatrix(problem);
         String jobId = UUID.randomUUID().toString();
-        jobIdToJob.put(jobId, Job.ofRoutePlan(problem));
-        solverManager.solveAndListen(jobId,
-                jobId_ -> jobIdToJob.get(jobId).routePlan,
-                solution -> jobIdToJob.put(jobId, Job.ofRoutePlan(solution)),
-                (jobId_, exception) -> {
-                    jobIdToJob.put(jobId, Job.ofException(exception));
-                    LOGGER.error("Failed solving jobId ({}).", jobId, exception);
-                });
+        jobStore.put(jobId, Job.ofRoutePlan(problem));
+        startSolving(jobId, problem, () -> {
+        });
         return jobId;
     }
 
+    @Operation(
+            summary = "Submit many route plans at once. Locations with the same coordinates share one row of a distance matrix across the batch. The route plans start solving in order of the batch priority, at most a configured number at a time.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202",
+                    description = "The batch ID. Use that ID to get the job IDs and statuses of its route plans.",
+                    content = @Content(mediaType = MediaType.TEXT_PLAIN, schema = @Schema(implementation = String.class))),
+            @APIResponse(responseCode = "400", description = "The batch has no route plans.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))) })
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.TEXT_PLAIN)
+    @Path("batches")
+    public String solveBatch(RoutePlanBatch batch) {
+        if (batch.routePlans() == null || batch.routePlans().isEmpty()) {
+            throw new VehicleRoutingSolverException(null, Response.Status.BAD_REQUEST,
+                    "The batch must have routePlans.");
+        }
+        boolean shared = initDistanceMatrices(batch.routePlans());
+        List<String> jobIds = new ArrayList<>(batch.routePlans().size());
+        for (VehicleRoutePlan problem : batch.routePlans()) {
+            String jobId = UUID.randomUUID().toString();
+            if (shared && problem.getSparseDistanceMatrixNeighborCount() == null) {
+                // A reload would give it a distance matrix of its own, so it stays in memory until it starts.
+                jobStore.putPinned(jobId, Job.ofRoutePlan(problem));
+            } else {
+                jobStore.put(jobId, Job.ofRoutePlan(problem));
+            }
+            jobIds.add(jobId);
+        }
+        int priority = batch.priority() == null ? 0 : batch.priority();
+        return routePlanBatchScheduler.schedule(jobIds, priority, this::startBatchJob);
+    }
+
+    private void startBatchJob(String jobId) {
+        // Pending jobs are kept by the job store only, which might have spilled them to disk in the meantime,
+        // unless they share a distance matrix.
+        Job job = jobStore.get(jobId, this::initDistanceMatrix);
+        if (job == null) {
+            LOGGER.warn("Skipping jobId ({}), which expired before it started.", jobId);
+            routePlanBatchScheduler.jobEnded(jobId);
+            return;
+        }
+        startSolving(jobId, job.routePlan(), () -> routePlanBatchScheduler.jobEnded(jobId));
+    }
+
+    /**
+     * A batch shares one distance matrix if that is not larger than the matrices of its route plans together,
+     * which is the case when they have many locations in common.
+     * Sparse route plans always get their own.
+     *
+     * @return true if the dense route plans share one distance matrix
+     */
+    private boolean initDistanceMatrices(List<VehicleRoutePlan> routePlans) {
+        List<List<Location>> denseLocationLists = new ArrayList<>(routePlans.size());
+        long separateMatrixSize = 0L;
+        for (VehicleRoutePlan routePlan : routePlans) {
+            if (routePlan.getSparseDistanceMatrixNeighborCount() == null) {
+                List<Location> locations = routePlan.getLocations();
+                denseLocationLists.add(locations);
+                separateMatrixSize += (long) locations.size() * locations.size();
+            } else {
+                initDistanceMatrix(routePlan);
+            }
+        }
+        long distinctCount = DistanceCalculator.countDistinctCoordinates(denseLocationLists);
+        if (denseLocationLists.size() > 1 && distinctCount * distinctCount <= separateMatrixSize) {
+            LOGGER.info("Sharing one distance matrix of {} locations between {} route plans.",
+                    distinctCount, denseLocationLists.size());
+            distanceCalculator.initSharedDistanceMatrix(denseLocationLists);
+            return true;
+        }
+        routePlans.parallelStream()
+                .filter(routePlan -> routePlan.getSparseDistanceMatrixNeighborCount() == null)
+                .forEach(this::initDistanceMatrix);
+        return false;
+    }
+
+    /**
+     * @param solvingEndedListener never null, called once the job no longer solves, also if it failed
+     */
+    private void startSolving(String jobId, VehicleRoutePlan problem, Runnable solvingEndedListener) {
+        Consumer<VehicleRoutePlan> bestSolutionConsumer = solution -> {
+            jobStore.put(jobId, Job.ofRoutePlan(solution));
+            routePlanEventPublisher.publishBestSolution(jobId, solution);
+        };
+        Consumer<VehicleRoutePlan> finalBestSolutionConsumer = solution -> {
+            routePlanEventPublisher.publishSolvingEnded(jobId, solution);
+            solvingEndedListener.run();
+        };
+        BiConsumer<String, Throwable> exceptionHandler = (jobId_, exception) -> {
+            jobStore.put(jobId, Job.ofException(exception));
+            routePlanEventPublisher.publishSolvingFailed(jobId, exception);
+            LOGGER.error("Failed solving jobId ({}).", jobId, exception);
+            solvingEndedListener.run();
+        };
+        if (problem.getDecompositionRegionCount() != null) {
+            regionDecompositionSolver.solve(jobId, problem, bestSolutionConsumer, finalBestSolutionConsumer,
+                    exceptionHandler);
+            jobStore.unpin(jobId);
+            return;
+        }
+        solverManager.solveBuilder()
+                .withProblemId(jobId)
+                .withProblemFinder(jobId_ -> findProblem(jobId))
+                .withBestSolutionConsumer(bestSolutionConsumer)
+                .withFinalBestSolutionConsumer(finalBestSolutionConsumer)
+                .withExceptionHandler(exceptionHandler)
+                .run();
+    }
+
+    private VehicleRoutePlan findProblem(String jobId) {
+        Job job = jobStore.get(jobId, this::initDistanceMatrix);
+        if (job == null || job.routePlan() == null) {
+            // Fails the job through its exception handler.
+            throw new IllegalStateException("The jobId (" + jobId + ") expired before solving started.");
+        }
+        // The solver holds on to the route plan from now on.
+        jobStore.unpin(jobId);
+        return job.routePlan();
+    }
+
+    private void initDistanceMatrix(VehicleRoutePlan routePlan) {
+        if (routePlan.getSparseDistanceMatrixNeighborCount() == null) {
+            distanceMatrixCache.initDistanceMatrix(distanceCalculator, routePlan.getLocations());
+        } else {
+            distanceCalculator.initSparseDistanceMatrix(routePlan.getLocations(),
+                    routePlan.getSparseDistanceMatrixNeighborCount());
+        }
+    }
+
     @Operation(
             summary = "Get the route plan and score for a given job ID. This is the best solution so far, as it might still be running or not even started.")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "The best solution of the route plan so far.",
-                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
-                            schema = @Schema(implementation = VehicleRoutePlan.class))),
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = VehicleRoutePlan.class)),
+                            @Content(mediaType = VehicleRoutePlanBinaryCodec.MEDIA_TYPE,
+                                    schema = @Schema(type = SchemaType.STRING, format = "binary")) }),
             @APIResponse(responseCode = "404", description = "No route plan found.",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON,
                             schema = @Schema(implementation = ErrorInfo.class))),
@@ -108,18 +280,63 @@ public class VehicleRoutePlanResource {
                             schema = @Schema(implementation = ErrorInfo.class)))
     })
     @GET
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({ MediaType.APPLICATION_JSON, VehicleRoutePlanBinaryCodec.MEDIA_TYPE })
     @Path("{jobId}")
     public VehicleRoutePlan getRoutePlan(
             @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
-        VehicleRoutePlan routePlan = getRoutePlanAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
-        String scoreExplanation = solutionManager.explain(routePlan).getSummary();
+        Job job = getJobAndCheckForExceptions(jobId);
+        VehicleRoutePlan routePlan = job.routePlan();
+        SolverStatus solverStatus = getSolverStatus(jobId);
+        String scoreExplanation =
+                job.getScoreExplanation(routePlan_ -> solutionManager.explain(routePlan_).getSummary());
         routePlan.setSolverStatus(solverStatus);
         routePlan.setScoreExplanation(scoreExplanation);
         return routePlan;
     }
 
+    @Operation(summary = "Get the job IDs, statuses and scores of the route plans of a batch.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200",
+                    description = "The status and the best score so far of every route plan, in the order of submission.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(type = SchemaType.ARRAY, implementation = RoutePlanBatchJobStatus.class))),
+            @APIResponse(responseCode = "404", description = "No batch found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("batches/{batchId}")
+    public List<RoutePlanBatchJobStatus> getBatchStatus(
+            @Parameter(description = "The batch ID returned by the POST method.") @PathParam("batchId") String batchId) {
+        List<String> jobIds = routePlanBatchScheduler.getJobIds(batchId);
+        if (jobIds == null) {
+            throw new VehicleRoutingSolverException(null, Response.Status.NOT_FOUND, "No batch (" + batchId + ") found.");
+        }
+        List<RoutePlanBatchJobStatus> jobStatuses = new ArrayList<>(jobIds.size());
+        for (String jobId : jobIds) {
+            Job job = jobStore.get(jobId, this::initDistanceMatrix);
+            if (job == null) {
+                continue;
+            }
+            SolverStatus solverStatus = getSolverStatus(jobId);
+            if (job.exception() != null) {
+                jobStatuses.add(new RoutePlanBatchJobStatus(jobId, null, null, solverStatus,
+                        job.exception().getMessage()));
+            } else {
+                VehicleRoutePlan routePlan = job.routePlan();
+                jobStatuses.add(new RoutePlanBatchJobStatus(jobId, routePlan.getName(), routePlan.getScore(),
+                        solverStatus, null));
+            }
+        }
+        if (jobStatuses.isEmpty()) {
+            // All its jobs expired from the job store.
+            routePlanBatchScheduler.removeBatch(batchId);
+            throw new VehicleRoutingSolverException(null, Response.Status.NOT_FOUND, "No batch (" + batchId + ") found.");
+        }
+        return jobStatuses;
+    }
+
     @Operation(
             summary = "Get the route plan status and score for a given job ID.")
     @APIResponses(value = {
@@ -138,28 +355,220 @@ public class VehicleRoutePlanResource {
     @Path("{jobId}/status")
     public VehicleRoutePlan getStatus(
             @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
-        VehicleRoutePlan routePlan = getRoutePlanAndCheckForExceptions(jobId);
-        SolverStatus solverStatus = solverManager.getSolverStatus(jobId);
+        VehicleRoutePlan routePlan = getJobAndCheckForExceptions(jobId).routePlan();
+        SolverStatus solverStatus = getSolverStatus(jobId);
         return new VehicleRoutePlan(routePlan.getName(), routePlan.getScore(), solverStatus);
     }
 
-    private VehicleRoutePlan getRoutePlanAndCheckForExceptions(String jobId) {
-        Job job = jobIdToJob.get(jobId);
+    @Operation(
+            summary = "Stream the score and the changed vehicle routes of every new best solution for a given job ID, as server-sent events. Get the full route plan with the GET method when needed.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "200",
+                    description = "A routes event with all vehicle routes, a best-solution event per new best solution and a final solving-ended or solving-failed event.",
+                    content = @Content(mediaType = MediaType.SERVER_SENT_EVENTS,
+                            schema = @Schema(implementation = RoutePlanEventPublisher.RoutePlanEvent.class))),
+            @APIResponse(responseCode = "404", description = "No route plan found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "500", description = "Exception during solving a route plan.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @Path("{jobId}/events")
+    public void streamEvents(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Context SseEventSink eventSink, @Context Sse sse) {
+        VehicleRoutePlan routePlan = getJobAndCheckForExceptions(jobId).routePlan();
+        routePlanEventPublisher.subscribe(jobId, routePlan, eventSink, sse);
+        // Solving might have ended before or while subscribing.
+        if (getSolverStatus(jobId) == SolverStatus.NOT_SOLVING) {
+            Job job = jobStore.get(jobId, this::initDistanceMatrix);
+            if (job != null && job.exception() != null) {
+                routePlanEventPublisher.publishSolvingFailed(jobId, job.exception());
+            } else {
+                routePlanEventPublisher.publishSolvingEnded(jobId, job == null ? routePlan : job.routePlan());
+            }
+        }
+    }
+
+    @Operation(
+            summary = "Add a customer to a route plan that is being solved. The solver keeps the current best routes and inserts the customer into them.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202", description = "The customer is added at the next step of the solver."),
+            @APIResponse(responseCode = "400", description = "The customer has no ID or no location.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "404", description = "No route plan found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409",
+                    description = "The route plan is not being solved, or already has a customer with that ID.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("{jobId}/customers")
+    public Response addCustomer(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            Customer customer) {
+        VehicleRoutePlan routePlan = getRoutePlanToChange(jobId);
+        if (customer.getId() == null || customer.getLocation() == null) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.BAD_REQUEST,
+                    "The customer must have an id and a location.");
+        }
+        if (routePlan.getCustomers().stream().anyMatch(other -> other.getId().equals(customer.getId()))) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.CONFLICT,
+                    "The route plan already has a customer (" + customer.getId() + ").");
+        }
+        addProblemChange(jobId, new AddCustomerProblemChange(customer, distanceCalculator));
+        return Response.accepted().build();
+    }
+
+    @Operation(summary = "Remove a customer from a route plan that is being solved.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202", description = "The customer is removed at the next step of the solver."),
+            @APIResponse(responseCode = "404", description = "No route plan or customer found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409", description = "The route plan is not being solved.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @DELETE
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("{jobId}/customers/{customerId}")
+    public Response removeCustomer(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Parameter(description = "The ID of the customer.") @PathParam("customerId") String customerId) {
+        Customer customer = findCustomer(jobId, getRoutePlanToChange(jobId), customerId);
+        addProblemChange(jobId, new RemoveCustomerProblemChange(customer));
+        return Response.accepted().build();
+    }
+
+    @Operation(summary = "Change the time window of a customer in a route plan that is being solved.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202",
+                    description = "The time window is changed at the next step of the solver."),
+            @APIResponse(responseCode = "400", description = "The time window is incomplete or ends before it starts.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "404", description = "No route plan or customer found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409", description = "The route plan is not being solved.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @PUT
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("{jobId}/customers/{customerId}/time-window")
+    public Response changeTimeWindow(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Parameter(description = "The ID of the customer.") @PathParam("customerId") String customerId,
+            TimeWindow timeWindow) {
+        if (timeWindow.minStartTime() == null || timeWindow.maxEndTime() == null
+                || timeWindow.maxEndTime().isBefore(timeWindow.minStartTime())) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.BAD_REQUEST,
+                    "The time window (" + timeWindow + ") must have a minStartTime before its maxEndTime.");
+        }
+        Customer customer = findCustomer(jobId, getRoutePlanToChange(jobId), customerId);
+        addProblemChange(jobId,
+                new ChangeTimeWindowProblemChange(customer, timeWindow.minStartTime(), timeWindow.maxEndTime()));
+        return Response.accepted().build();
+    }
+
+    @Operation(
+            summary = "Take a vehicle out of service in a route plan that is being solved. Its customers are moved to the other vehicles.")
+    @APIResponses(value = {
+            @APIResponse(responseCode = "202", description = "The vehicle is removed at the next step of the solver."),
+            @APIResponse(responseCode = "404", description = "No route plan or vehicle found.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class))),
+            @APIResponse(responseCode = "409", description = "The route plan is not being solved.",
+                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = ErrorInfo.class)))
+    })
+    @DELETE
+    @Produces(MediaType.APPLICATION_JSON)
+    @Path("{jobId}/vehicles/{vehicleId}")
+    public Response removeVehicle(
+            @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId,
+            @Parameter(description = "The ID of the vehicle.") @PathParam("vehicleId") String vehicleId) {
+        Vehicle vehicle = getRoutePlanToChange(jobId).getVehicles().stream()
+                .filter(other -> other.getId().equals(vehicleId))
+                .findFirst()
+                .orElseThrow(() -> new VehicleRoutingSolverException(jobId, Response.Status.NOT_FOUND,
+                        "No vehicle (" + vehicleId + ") found."));
+        addProblemChange(jobId, new RemoveVehicleProblemChange(vehicle));
+        return Response.accepted().build();
+    }
+
+    /**
+     * Problem changes keep the current best routes and distance matrix,
+     * instead of solving the changed route plan from scratch.
+     */
+    private VehicleRoutePlan getRoutePlanToChange(String jobId) {
+        VehicleRoutePlan routePlan = getJobAndCheckForExceptions(jobId).routePlan();
+        if (regionDecompositionSolver.getSolverStatus(jobId) != null) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.CONFLICT,
+                    "The route plan is solved by region decomposition, which does not support changes while solving.");
+        }
+        if (solverManager.getSolverStatus(jobId) != SolverStatus.SOLVING_ACTIVE) {
+            throw new VehicleRoutingSolverException(jobId, Response.Status.CONFLICT,
+                    "The route plan is not being solved. Submit the changed route plan instead.");
+        }
+        return routePlan;
+    }
+
+    private static Customer findCustomer(String jobId, VehicleRoutePlan routePlan, String customerId) {
+        return routePlan.getCustomers().stream()
+                .filter(customer -> customer.getId().equals(customerId))
+                .findFirst()
+                .orElseThrow(() -> new VehicleRoutingSolverException(jobId, Response.Status.NOT_FOUND,
+                        "No customer (" + customerId + ") found."));
+    }
+
+    private void addProblemChange(String jobId, ProblemChange<VehicleRoutePlan> problemChange) {
+        try {
+            solverManager.addProblemChange(jobId, problemChange);
+        } catch (IllegalStateException e) {
+            // Solving ended since the status was checked.
+            throw new VehicleRoutingSolverException(jobId, Response.Status.CONFLICT, e.getMessage());
+        }
+    }
+
+    private SolverStatus getSolverStatus(String jobId) {
+        if (routePlanBatchScheduler.isPending(jobId)) {
+            return SolverStatus.SOLVING_SCHEDULED;
+        }
+        SolverStatus solverStatus = regionDecompositionSolver.getSolverStatus(jobId);
+        return solverStatus == null ? solverManager.getSolverStatus(jobId) : solverStatus;
+    }
+
+    private Job getJobAndCheckForExceptions(String jobId) {
+        Job job = jobStore.get(jobId, this::initDistanceMatrix);
         if (job == null) {
             throw new VehicleRoutingSolverException(jobId, Response.Status.NOT_FOUND, "No route plan found.");
         }
-        if (job.exception != null) {
-            throw new VehicleRoutingSolverException(jobId, job.exception);
+        if (job.exception() != null) {
+            throw new VehicleRoutingSolverException(jobId, job.exception());
         }
-        return job.routePlan;
+        return job;
     }
 
     @Operation(
             summary = "Terminate solving for a given job ID. Returns the best solution of the route plan so far, as it might still be running or not even started.")
     @APIResponses(value = {
             @APIResponse(responseCode = "200", description = "The best solution of the route plan so far.",
-                    content = @Content(mediaType = MediaType.APPLICATION_JSON,
-                            schema = @Schema(implementation = VehicleRoutePlan.class))),
+                    content = { @Content(mediaType = MediaType.APPLICATION_JSON,
+                            schema = @Schema(implementation = VehicleRoutePlan.class)),
+                            @Content(mediaType = VehicleRoutePlanBinaryCodec.MEDIA_TYPE,
+                                    schema = @Schema(type = SchemaType.STRING, format = "binary")) }),
             @APIResponse(responseCode = "404", description = "No route plan found.",
                     content = @Content(mediaType = MediaType.APPLICATION_JSON,
                             schema = @Schema(implementation = ErrorInfo.class))),
@@ -168,24 +577,20 @@ public class VehicleRoutePlanResource {
                             schema = @Schema(implementation = ErrorInfo.class)))
     })
     @DELETE
-    @Produces(MediaType.APPLICATION_JSON)
+    @Produces({ MediaType.APPLICATION_JSON, VehicleRoutePlanBinaryCodec.MEDIA_TYPE })
     @Path("{jobId}")
     public VehicleRoutePlan terminateSolving(
             @Parameter(description = "The job ID returned by the POST method.") @PathParam("jobId") String jobId) {
         // TODO: Replace with .terminateEarlyAndWait(... [, timeout]); see https://github.com/TimefoldAI/timefold-solver/issues/77
-        solverManager.terminateEarly(jobId);
-        return getRoutePlan(jobId);
-    }
-
-    private record Job(VehicleRoutePlan routePlan, Throwable exception) {
-
-        static Job ofRoutePlan(VehicleRoutePlan routePlan) {
-            return new Job(routePlan, null);
+        if (routePlanBatchScheduler.cancel(jobId)) {
+            routePlanEventPublisher.publishSolvingEnded(jobId, getJobAndCheckForExceptions(jobId).routePlan());
+        } else if (!regionDecompositionSolver.terminateEarly(jobId)
+                && routePlanBatchScheduler.terminateEarly(jobId, solverManager)) {
+            // It never started, so its final best solution consumer does not publish this.
+            routePlanEventPublisher.publishSolvingEnded(jobId, getJobAndCheckForExceptions(jobId).routePlan());
         }
-
-        static Job ofException(Throwable exception) {
-            return new Job(null, exception);
-        }
-
+        // A batch job that never starts solving is not pinned any longer.
+        jobStore.unpin(jobId);
+        return getRoutePlan(jobId);
     }
 }
@@ -1,8 +1,5 @@
 package org.acme.vehiclerouting.solver;
 
-import java.time.LocalDateTime;
-import java.util.Objects;
-
 import ai.timefold.solver.core.api.domain.variable.VariableListener;
 import ai.timefold.solver.core.api.score.director.ScoreDirector;
 
@@ -11,7 +8,7 @@ import org.acme.vehiclerouting.domain.VehicleRoutePlan;
 
 public class ArrivalTimeUpdatingVariableListener implements VariableListener<VehicleRoutePlan, Customer> {
 
-    private static final String ARRIVAL_TIME_FIELD = "arrivalTime";
+    private static final String ARRIVAL_TIME_FIELD = "arrivalEpochSecond";
 
     @Override
     public void beforeVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
@@ -21,25 +18,26 @@ public class ArrivalTimeUpdatingVariableListener implements VariableListener<Veh
     @Override
     public void afterVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
         if (customer.getVehicle() == null) {
-            if (customer.getArrivalTime() != null) {
+            if (customer.getArrivalEpochSecond() != Customer.NO_EPOCH_SECOND) {
                 scoreDirector.beforeVariableChanged(customer, ARRIVAL_TIME_FIELD);
-                customer.setArrivalTime(null);
+                customer.setArrivalEpochSecond(Customer.NO_EPOCH_SECOND);
                 scoreDirector.afterVariableChanged(customer, ARRIVAL_TIME_FIELD);
             }
             return;
         }
 
+        // Epoch seconds instead of LocalDateTime, so walking the rest of the route allocates nothing.
         Customer previousCustomer = customer.getPreviousCustomer();
-        LocalDateTime departureTime =
-                previousCustomer == null ? customer.getVehicle().getDepartureTime() : previousCustomer.getDepartureTime();
+        long departureTime = previousCustomer == null ? customer.getVehicle().getDepartureEpochSecond()
+                : previousCustomer.getDepartureEpochSecond();
 
         Customer nextCustomer = customer;
-        LocalDateTime arrivalTime = calculateArrivalTime(nextCustomer, departureTime);
-        while (nextCustomer != null && !Objects.equals(nextCustomer.getArrivalTime(), arrivalTime)) {
+        long arrivalTime = calculateArrivalTime(nextCustomer, departureTime);
+        while (nextCustomer != null && nextCustomer.getArrivalEpochSecond() != arrivalTime) {
             scoreDirector.beforeVariableChanged(nextCustomer, ARRIVAL_TIME_FIELD);
-            nextCustomer.setArrivalTime(arrivalTime);
+            nextCustomer.setArrivalEpochSecond(arrivalTime);
             scoreDirector.afterVariableChanged(nextCustomer, ARRIVAL_TIME_FIELD);
-            departureTime = nextCustomer.getDepartureTime();
+            departureTime = nextCustomer.getDepartureEpochSecond();
             nextCustomer = nextCustomer.getNextCustomer();
             arrivalTime = calculateArrivalTime(nextCustomer, departureTime);
         }
@@ -65,10 +63,10 @@ public class ArrivalTimeUpdatingVariableListener implements VariableListener<Veh
 
     }
 
-    private LocalDateTime calculateArrivalTime(Customer customer, LocalDateTime previousDepartureTime) {
-        if (customer == null || previousDepartureTime == null) {
-            return null;
+    private long calculateArrivalTime(Customer customer, long previousDepartureTime) {
+        if (customer == null || previousDepartureTime == Customer.NO_EPOCH_SECOND) {
+            return Customer.NO_EPOCH_SECOND;
         }
-        return previousDepartureTime.plusSeconds(customer.getDrivingTimeSecondsFromPreviousStandstill());
+        return previousDepartureTime + customer.getDrivingTimeSecondsFromPreviousStandstill();
     }
 }
@@ -0,0 +1,331 @@
+package org.acme.vehiclerouting.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Splits a route plan in geographic regions that can be solved independently, and merges the solved regions back.
+ * <p>
+ * The customers are clustered by k-means on their coordinates.
+ * Every region gets a share of the vehicles proportional to its number of customers,
+ * preferring the vehicles of which the depot, or the existing route, is closest to the region.
+ * The customers on an existing route go to the region of their vehicle, so the regions start from those routes.
+ * The regions contain copies of the vehicles and customers, so splitting does not change the original plan.
+ * The locations are shared, so the regions reuse the distance matrix of the original plan.
+ */
+public final class RegionDecomposition {
+
+    private static final int MAX_K_MEANS_ITERATIONS = 100;
+
+    private RegionDecomposition() {
+    }
+
+    /**
+     * @param routePlan never null
+     * @param regionCount at least 1, reduced to the number of customers or vehicles if there are fewer
+     * @return never null, never empty, the regions, with the existing routes of the vehicles
+     */
+    public static List<VehicleRoutePlan> split(VehicleRoutePlan routePlan, int regionCount) {
+        if (regionCount < 1) {
+            throw new IllegalArgumentException("The regionCount (" + regionCount + ") must be at least 1.");
+        }
+        List<Customer> customers = routePlan.getCustomers();
+        List<Vehicle> vehicles = routePlan.getVehicles();
+        int clusterCount = Math.max(1, Math.min(regionCount, Math.min(customers.size(), vehicles.size())));
+        double longitudeScale = Math.cos(Math.toRadians(
+                (routePlan.getSouthWestCorner().getLatitude() + routePlan.getNorthEastCorner().getLatitude()) / 2.0));
+        double[][] points = new double[customers.size()][];
+        for (int i = 0; i < customers.size(); i++) {
+            points[i] = toPoint(customers.get(i).getLocation(), longitudeScale);
+        }
+        double[][] centroids = clusterKMeans(points, clusterCount);
+        int[] customerClusters = assignToNearest(points, centroids);
+
+        // K-means can leave clusters empty, those do not become regions.
+        List<List<Customer>> regionCustomersList = new ArrayList<>();
+        List<double[]> regionCentroids = new ArrayList<>();
+        for (int cluster = 0; cluster < centroids.length; cluster++) {
+            List<Customer> regionCustomers = new ArrayList<>();
+            for (int i = 0; i < customers.size(); i++) {
+                if (customerClusters[i] == cluster) {
+                    regionCustomers.add(customers.get(i));
+                }
+            }
+            if (!regionCustomers.isEmpty() || customers.isEmpty()) {
+                regionCustomersList.add(regionCustomers);
+                regionCentroids.add(centroids[cluster]);
+            }
+        }
+        List<List<Vehicle>> regionVehiclesList = assignVehicles(vehicles, regionCustomersList, regionCentroids,
+                longitudeScale);
+        moveRoutedCustomersToVehicleRegions(regionCustomersList, regionVehiclesList);
+
+        List<VehicleRoutePlan> regions = new ArrayList<>(regionCustomersList.size());
+        for (int region = 0; region < regionCustomersList.size(); region++) {
+            regions.add(createRegion(routePlan, region, regionVehiclesList.get(region),
+                    regionCustomersList.get(region)));
+        }
+        return regions;
+    }
+
+    /**
+     * @param routePlan never null, the original plan
+     * @param solvedRegions never null, the solutions of the regions returned by {@link #split(VehicleRoutePlan, int)}
+     * @return never null, a new plan with the vehicles and customers of the solved regions, in the original order
+     */
+    public static VehicleRoutePlan merge(VehicleRoutePlan routePlan, List<VehicleRoutePlan> solvedRegions) {
+        Map<String, Vehicle> idToVehicle = new HashMap<>();
+        Map<String, Customer> idToCustomer = new HashMap<>();
+        for (VehicleRoutePlan solvedRegion : solvedRegions) {
+            solvedRegion.getVehicles().forEach(vehicle -> idToVehicle.put(vehicle.getId(), vehicle));
+            solvedRegion.getCustomers().forEach(customer -> idToCustomer.put(customer.getId(), customer));
+        }
+        List<Vehicle> vehicles = new ArrayList<>(routePlan.getVehicles().size());
+        for (Vehicle vehicle : routePlan.getVehicles()) {
+            vehicles.add(getOrFail(idToVehicle, vehicle.getId(), "vehicle"));
+        }
+        List<Customer> customers = new ArrayList<>(routePlan.getCustomers().size());
+        for (Customer customer : routePlan.getCustomers()) {
+            customers.add(getOrFail(idToCustomer, customer.getId(), "customer"));
+        }
+        VehicleRoutePlan mergedPlan = new VehicleRoutePlan(routePlan.getName(),
+                routePlan.getSouthWestCorner(), routePlan.getNorthEastCorner(),
+                routePlan.getStartDateTime(), routePlan.getEndDateTime(),
+                routePlan.getDepots(), vehicles, customers);
+        mergedPlan.setSparseDistanceMatrixNeighborCount(routePlan.getSparseDistanceMatrixNeighborCount());
+        mergedPlan.setDecompositionRegionCount(routePlan.getDecompositionRegionCount());
+        return mergedPlan;
+    }
+
+    private static <T> T getOrFail(Map<String, T> idToValue, String id, String type) {
+        T value = idToValue.get(id);
+        if (value == null) {
+            throw new IllegalArgumentException("The " + type + " (" + id + ") is not in any solved region.");
+        }
+        return value;
+    }
+
+    private static double[] toPoint(Location location, double longitudeScale) {
+        // An equirectangular projection is precise enough to cluster customers within a country.
+        return new double[] { location.getLongitude() * longitudeScale, location.getLatitude() };
+    }
+
+    private static double distanceSquared(double[] a, double[] b) {
+        double dX = a[0] - b[0];
+        double dY = a[1] - b[1];
+        return dX * dX + dY * dY;
+    }
+
+    /**
+     * K-means, with k-means++ seeding so the result is reproducible and rarely poor.
+     */
+    private static double[][] clusterKMeans(double[][] points, int clusterCount) {
+        double[][] centroids = new double[clusterCount][];
+        if (points.length == 0) {
+            Arrays.fill(centroids, new double[] { 0.0, 0.0 });
+            return centroids;
+        }
+        Random random = new Random(0);
+        centroids[0] = points[random.nextInt(points.length)].clone();
+        double[] nearestDistances = new double[points.length];
+        Arrays.fill(nearestDistances, Double.MAX_VALUE);
+        for (int cluster = 1; cluster < clusterCount; cluster++) {
+            double totalDistance = 0.0;
+            for (int i = 0; i < points.length; i++) {
+                nearestDistances[i] = Math.min(nearestDistances[i], distanceSquared(points[i], centroids[cluster - 1]));
+                totalDistance += nearestDistances[i];
+            }
+            double threshold = random.nextDouble() * totalDistance;
+            int chosen = points.length - 1;
+            for (int i = 0; i < points.length; i++) {
+                threshold -= nearestDistances[i];
+                if (threshold < 0.0) {
+                    chosen = i;
+                    break;
+                }
+            }
+            centroids[cluster] = points[chosen].clone();
+        }
+
+        int[] assignments = assignToNearest(points, centroids);
+        for (int iteration = 0; iteration < MAX_K_MEANS_ITERATIONS; iteration++) {
+            double[][] sums = new double[clusterCount][2];
+            int[] counts = new int[clusterCount];
+            for (int i = 0; i < points.length; i++) {
+                sums[assignments[i]][0] += points[i][0];
+                sums[assignments[i]][1] += points[i][1];
+                counts[assignments[i]]++;
+            }
+            for (int cluster = 0; cluster < clusterCount; cluster++) {
+                if (counts[cluster] > 0) {
+                    centroids[cluster] = new double[] { sums[cluster][0] / counts[cluster],
+                            sums[cluster][1] / counts[cluster] };
+                }
+            }
+            int[] newAssignments = assignToNearest(points, centroids);
+            if (Arrays.equals(assignments, newAssignments)) {
+                break;
+            }
+            assignments = newAssignments;
+        }
+        return centroids;
+    }
+
+    private static int[] assignToNearest(double[][] points, double[][] centroids) {
+        int[] assignments = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            double nearestDistance = Double.MAX_VALUE;
+            for (int cluster = 0; cluster < centroids.length; cluster++) {
+                double distance = distanceSquared(points[i], centroids[cluster]);
+                if (distance < nearestDistance) {
+                    nearestDistance = distance;
+                    assignments[i] = cluster;
+                }
+            }
+        }
+        return assignments;
+    }
+
+    /**
+     * Every region gets at least 1 vehicle, the remaining vehicles are divided proportional to the customers
+     * by the largest remainder method.
+     */
+    private static List<List<Vehicle>> assignVehicles(List<Vehicle> vehicles, List<List<Customer>> regionCustomersList,
+            List<double[]> regionCentroids, double longitudeScale) {
+        int regionCount = regionCustomersList.size();
+        int customerCount = regionCustomersList.stream().mapToInt(List::size).sum();
+        int spareVehicleCount = vehicles.size() - regionCount;
+        int[] quotas = new int[regionCount];
+        double[] remainders = new double[regionCount];
+        int assignedSpareVehicleCount = 0;
+        for (int region = 0; region < regionCount; region++) {
+            double share = customerCount == 0 ? 0.0
+                    : (double) spareVehicleCount * regionCustomersList.get(region).size() / customerCount;
+            quotas[region] = 1 + (int) share;
+            remainders[region] = share - (int) share;
+            assignedSpareVehicleCount += (int) share;
+        }
+        Integer[] regionsByRemainder = new Integer[regionCount];
+        Arrays.setAll(regionsByRemainder, region -> region);
+        Arrays.sort(regionsByRemainder, Comparator.comparingDouble((Integer region) -> remainders[region]).reversed());
+        for (int i = 0; assignedSpareVehicleCount < spareVehicleCount; i = (i + 1) % regionCount) {
+            quotas[regionsByRemainder[i]]++;
+            assignedSpareVehicleCount++;
+        }
+
+        // Greedily give every vehicle to the region closest to its depot, or to its route,
+        // that still needs vehicles.
+        List<int[]> vehicleRegionPairs = new ArrayList<>(vehicles.size() * regionCount);
+        double[][] vehiclePoints = new double[vehicles.size()][];
+        for (int vehicle = 0; vehicle < vehicles.size(); vehicle++) {
+            vehiclePoints[vehicle] = toVehiclePoint(vehicles.get(vehicle), longitudeScale);
+            for (int region = 0; region < regionCount; region++) {
+                vehicleRegionPairs.add(new int[] { vehicle, region });
+            }
+        }
+        vehicleRegionPairs.sort(Comparator.comparingDouble(
+                pair -> distanceSquared(vehiclePoints[pair[0]], regionCentroids.get(pair[1]))));
+        List<List<Vehicle>> regionVehiclesList = new ArrayList<>(regionCount);
+        for (int region = 0; region < regionCount; region++) {
+            regionVehiclesList.add(new ArrayList<>());
+        }
+        boolean[] assigned = new boolean[vehicles.size()];
+        for (int[] pair : vehicleRegionPairs) {
+            int vehicle = pair[0];
+            int region = pair[1];
+            if (!assigned[vehicle] && regionVehiclesList.get(region).size() < quotas[region]) {
+                assigned[vehicle] = true;
+                regionVehiclesList.get(region).add(vehicles.get(vehicle));
+            }
+        }
+        return regionVehiclesList;
+    }
+
+    /**
+     * @return the centroid of the customers on the route of the vehicle, or its depot if the route is empty
+     */
+    private static double[] toVehiclePoint(Vehicle vehicle, double longitudeScale) {
+        List<Customer> routeCustomers = vehicle.getCustomers();
+        if (routeCustomers.isEmpty()) {
+            return toPoint(vehicle.getDepot().getLocation(), longitudeScale);
+        }
+        double[] sum = new double[2];
+        for (Customer customer : routeCustomers) {
+            double[] point = toPoint(customer.getLocation(), longitudeScale);
+            sum[0] += point[0];
+            sum[1] += point[1];
+        }
+        return new double[] { sum[0] / routeCustomers.size(), sum[1] / routeCustomers.size() };
+    }
+
+    /**
+     * A customer on an existing route is solved in the region of its vehicle, whatever its own cluster.
+     */
+    private static void moveRoutedCustomersToVehicleRegions(List<List<Customer>> regionCustomersList,
+            List<List<Vehicle>> regionVehiclesList) {
+        Map<Customer, Integer> routedCustomerToRegion = new IdentityHashMap<>();
+        for (int region = 0; region < regionVehiclesList.size(); region++) {
+            for (Vehicle vehicle : regionVehiclesList.get(region)) {
+                for (Customer customer : vehicle.getCustomers()) {
+                    routedCustomerToRegion.put(customer, region);
+                }
+            }
+        }
+        if (routedCustomerToRegion.isEmpty()) {
+            return;
+        }
+        List<List<Customer>> movedCustomersList = new ArrayList<>(regionCustomersList.size());
+        for (int region = 0; region < regionCustomersList.size(); region++) {
+            movedCustomersList.add(new ArrayList<>());
+        }
+        for (int region = 0; region < regionCustomersList.size(); region++) {
+            for (Customer customer : regionCustomersList.get(region)) {
+                movedCustomersList.get(routedCustomerToRegion.getOrDefault(customer, region)).add(customer);
+            }
+        }
+        for (int region = 0; region < regionCustomersList.size(); region++) {
+            regionCustomersList.set(region, movedCustomersList.get(region));
+        }
+    }
+
+    private static VehicleRoutePlan createRegion(VehicleRoutePlan routePlan, int region, List<Vehicle> vehicles,
+            List<Customer> customers) {
+        Map<Customer, Customer> customerToCopy = new IdentityHashMap<>(customers.size());
+        List<Customer> customerCopies = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            Customer customerCopy = new Customer(customer.getId(), customer.getName(), customer.getLocation(),
+                    customer.getMinStartTime(), customer.getMaxEndTime(), customer.getServiceDuration());
+            customerToCopy.put(customer, customerCopy);
+            customerCopies.add(customerCopy);
+        }
+        Set<Depot> depots = new LinkedHashSet<>();
+        List<Vehicle> vehicleCopies = new ArrayList<>(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            depots.add(vehicle.getDepot());
+            Vehicle vehicleCopy = new Vehicle(vehicle.getId(), vehicle.getDepot(), vehicle.getDepartureTime());
+            // The solver starts from the existing route, its shadow variables are recalculated on solving.
+            for (Customer customer : vehicle.getCustomers()) {
+                vehicleCopy.getCustomers().add(customerToCopy.get(customer));
+            }
+            vehicleCopies.add(vehicleCopy);
+        }
+        return new VehicleRoutePlan(routePlan.getName() + " (region " + (region + 1) + ")",
+                routePlan.getSouthWestCorner(), routePlan.getNorthEastCorner(),
+                routePlan.getStartDateTime(), routePlan.getEndDateTime(),
+                new ArrayList<>(depots), vehicleCopies, customerCopies);
+    }
+}
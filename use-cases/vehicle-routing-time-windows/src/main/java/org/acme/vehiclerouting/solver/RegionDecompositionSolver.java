@@ -0,0 +1,222 @@
+package org.acme.vehiclerouting.solver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.SolverManagerConfig;
+
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Solves a large route plan by splitting it in geographic regions (see {@link RegionDecomposition}),
+ * solving the regions in parallel as independent jobs, merging them
+ * and polishing the merged plan as a whole, to improve the routes across region boundaries.
+ * <p>
+ * The regions and the polish have their own solver managers, each with its own spent limit.
+ * Together they solve on as many threads as the main solver manager
+ * ({@code quarkus.timefold.solver-manager.parallel-solver-count}): one for the polish and the rest, at least one,
+ * for the regions.
+ */
+@Singleton
+public class RegionDecompositionSolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegionDecompositionSolver.class);
+
+    private final SolverManager<VehicleRoutePlan, String> regionSolverManager;
+    private final SolverManager<VehicleRoutePlan, String> polishSolverManager;
+
+    private final ConcurrentMap<String, DecomposedJob> jobIdToJob = new ConcurrentHashMap<>();
+
+    @Inject
+    public RegionDecompositionSolver(SolverConfig solverConfig,
+            @ConfigProperty(name = "quarkus.timefold.solver-manager.parallel-solver-count",
+                    defaultValue = "AUTO") String parallelSolverCount,
+            @ConfigProperty(name = "vehicle-routing.decomposition.region-spent-limit") Duration regionSpentLimit,
+            @ConfigProperty(name = "vehicle-routing.decomposition.polish-spent-limit") Duration polishSpentLimit) {
+        int resolvedParallelSolverCount =
+                new SolverManagerConfig().withParallelSolverCount(parallelSolverCount).resolveParallelSolverCount();
+        this.regionSolverManager = createSolverManager(solverConfig, Math.max(1, resolvedParallelSolverCount - 1),
+                regionSpentLimit);
+        this.polishSolverManager = createSolverManager(solverConfig, 1, polishSpentLimit);
+    }
+
+    private static SolverManager<VehicleRoutePlan, String> createSolverManager(SolverConfig solverConfig,
+            int parallelSolverCount, Duration spentLimit) {
+        SolverFactory<VehicleRoutePlan> solverFactory =
+                SolverFactory.create(solverConfig.copyConfig().withTerminationSpentLimit(spentLimit));
+        return SolverManager.create(solverFactory,
+                new SolverManagerConfig().withParallelSolverCount(String.valueOf(parallelSolverCount)));
+    }
+
+    @PreDestroy
+    void close() {
+        regionSolverManager.close();
+        polishSolverManager.close();
+    }
+
+    /**
+     * Like {@link SolverManager#solveBuilder()}, returns immediately.
+     *
+     * @param jobId never null
+     * @param problem never null, with a {@link VehicleRoutePlan#getDecompositionRegionCount()}
+     * @param bestSolutionConsumer never null, called with the merged regions and with every better polished solution
+     * @param finalBestSolutionConsumer never null
+     * @param exceptionHandler never null
+     */
+    public void solve(String jobId, VehicleRoutePlan problem, Consumer<VehicleRoutePlan> bestSolutionConsumer,
+            Consumer<VehicleRoutePlan> finalBestSolutionConsumer, BiConsumer<String, Throwable> exceptionHandler) {
+        List<VehicleRoutePlan> regions = RegionDecomposition.split(problem, problem.getDecompositionRegionCount());
+        LOGGER.info("Solving jobId ({}) as {} regions.", jobId, regions.size());
+        DecomposedJob job = new DecomposedJob(regions.size(), finalBestSolutionConsumer);
+        jobIdToJob.put(jobId, job);
+        List<CompletableFuture<VehicleRoutePlan>> solvedRegionFutures = new ArrayList<>(regions.size());
+        for (int i = 0; i < regions.size(); i++) {
+            VehicleRoutePlan region = regions.get(i);
+            CompletableFuture<VehicleRoutePlan> solvedRegionFuture = new CompletableFuture<>();
+            regionSolverManager.solveBuilder()
+                    .withProblemId(getRegionJobId(jobId, i))
+                    .withProblemFinder(regionJobId -> region)
+                    .withFinalBestSolutionConsumer(solvedRegionFuture::complete)
+                    .withExceptionHandler(
+                            (regionJobId, exception) -> solvedRegionFuture.completeExceptionally(exception))
+                    .run();
+            solvedRegionFutures.add(solvedRegionFuture);
+        }
+        CompletableFuture.allOf(solvedRegionFutures.toArray(CompletableFuture[]::new))
+                .whenComplete((ignored, exception) -> {
+                    if (exception != null) {
+                        terminateRegions(jobId, job);
+                        jobIdToJob.remove(jobId);
+                        exceptionHandler.accept(jobId,
+                                exception instanceof CompletionException ? exception.getCause() : exception);
+                        return;
+                    }
+                    List<VehicleRoutePlan> solvedRegions = solvedRegionFutures.stream()
+                            .map(CompletableFuture::join)
+                            .toList();
+                    polish(jobId, job, RegionDecomposition.merge(problem, solvedRegions), solvedRegions,
+                            bestSolutionConsumer, exceptionHandler);
+                });
+    }
+
+    private void polish(String jobId, DecomposedJob job, VehicleRoutePlan mergedPlan,
+            List<VehicleRoutePlan> solvedRegions, Consumer<VehicleRoutePlan> bestSolutionConsumer,
+            BiConsumer<String, Throwable> exceptionHandler) {
+        // The constraints only penalize single customers and vehicles, so the regions add up.
+        HardSoftLongScore score = HardSoftLongScore.ZERO;
+        for (VehicleRoutePlan solvedRegion : solvedRegions) {
+            score = score.add(solvedRegion.getScore());
+        }
+        mergedPlan.setScore(score);
+        bestSolutionConsumer.accept(mergedPlan);
+        synchronized (job) {
+            job.mergedPlan = mergedPlan;
+            if (job.terminated) {
+                jobIdToJob.remove(jobId);
+                job.finalBestSolutionConsumer.accept(mergedPlan);
+                return;
+            }
+            job.polishing = true;
+            LOGGER.info("Polishing jobId ({}) with merged score ({}).", jobId, score);
+            // Still holding the lock, so terminateEarly() cannot run before the polish is known to its solver manager.
+            polishSolverManager.solveBuilder()
+                    .withProblemId(jobId)
+                    .withProblemFinder(jobId_ -> mergedPlan)
+                    .withBestSolutionConsumer(bestSolutionConsumer)
+                    .withFinalBestSolutionConsumer(solution -> {
+                        jobIdToJob.remove(jobId);
+                        job.finalBestSolutionConsumer.accept(solution);
+                    })
+                    .withExceptionHandler((jobId_, exception) -> {
+                        jobIdToJob.remove(jobId);
+                        exceptionHandler.accept(jobId, exception);
+                    })
+                    .run();
+        }
+    }
+
+    /**
+     * @param jobId never null
+     * @return null if the job is not solved by decomposition
+     */
+    public SolverStatus getSolverStatus(String jobId) {
+        DecomposedJob job = jobIdToJob.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        synchronized (job) {
+            return job.polishing ? polishSolverManager.getSolverStatus(jobId) : SolverStatus.SOLVING_ACTIVE;
+        }
+    }
+
+    /**
+     * Terminates the regions that are still solving, or the polish.
+     *
+     * @param jobId never null
+     * @return false if the job is not solved by decomposition
+     */
+    public boolean terminateEarly(String jobId) {
+        DecomposedJob job = jobIdToJob.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        synchronized (job) {
+            job.terminated = true;
+            if (!job.polishing) {
+                terminateRegions(jobId, job);
+                return true;
+            }
+        }
+        boolean scheduled = polishSolverManager.getSolverStatus(jobId) == SolverStatus.SOLVING_SCHEDULED;
+        polishSolverManager.terminateEarly(jobId);
+        if (scheduled && jobIdToJob.remove(jobId, job)) {
+            // A job that never started does not call its final best solution consumer.
+            job.finalBestSolutionConsumer.accept(job.mergedPlan);
+        }
+        return true;
+    }
+
+    private void terminateRegions(String jobId, DecomposedJob job) {
+        for (int i = 0; i < job.regionCount; i++) {
+            regionSolverManager.terminateEarly(getRegionJobId(jobId, i));
+        }
+    }
+
+    private static String getRegionJobId(String jobId, int region) {
+        return jobId + "-region-" + region;
+    }
+
+    private static final class DecomposedJob {
+
+        private final int regionCount;
+        private final Consumer<VehicleRoutePlan> finalBestSolutionConsumer;
+        private VehicleRoutePlan mergedPlan = null;
+        private boolean polishing = false;
+        private boolean terminated = false;
+
+        private DecomposedJob(int regionCount, Consumer<VehicleRoutePlan> finalBestSolutionConsumer) {
+            this.regionCount = regionCount;
+            this.finalBestSolutionConsumer = finalBestSolutionConsumer;
+        }
+
+    }
+}
@@ -0,0 +1,121 @@
+package org.acme.vehiclerouting.solver;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ai.timefold.solver.core.api.domain.variable.ListVariableListener;
+import ai.timefold.solver.core.api.score.director.ScoreDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Keeps {@link Vehicle#getTotalDrivingTimeSeconds()} up to date incrementally.
+ * <p>
+ * Only the legs around the changed range of the route are recalculated:
+ * their driving time before the change is subtracted and their driving time after the change is added,
+ * so a move costs the same on a route of 3 or 300 customers.
+ */
+public class VehicleTotalsUpdatingVariableListener
+        implements ListVariableListener<VehicleRoutePlan, Vehicle, Customer> {
+
+    private static final String TOTAL_DRIVING_TIME_FIELD = "totalDrivingTimeSeconds";
+
+    // The driving time of the legs outside of the changed range, which the change does not touch.
+    private final Map<Vehicle, Long> vehicleToDrivingTimeOutsideChange = new IdentityHashMap<>();
+
+    @Override
+    public void resetWorkingSolution(ScoreDirector<VehicleRoutePlan> scoreDirector) {
+        vehicleToDrivingTimeOutsideChange.clear();
+        for (Vehicle vehicle : scoreDirector.getWorkingSolution().getVehicles()) {
+            setTotalDrivingTime(scoreDirector, vehicle, calculateTotalDrivingTimeSeconds(vehicle));
+        }
+    }
+
+    @Override
+    public void beforeListVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            int fromIndex, int toIndex) {
+        vehicleToDrivingTimeOutsideChange.put(vehicle,
+                vehicle.getTotalDrivingTimeSeconds() - calculateDrivingTimeSeconds(vehicle, fromIndex, toIndex));
+    }
+
+    @Override
+    public void afterListVariableChanged(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            int fromIndex, int toIndex) {
+        Long drivingTimeOutsideChange = vehicleToDrivingTimeOutsideChange.remove(vehicle);
+        if (drivingTimeOutsideChange == null) {
+            setTotalDrivingTime(scoreDirector, vehicle, calculateTotalDrivingTimeSeconds(vehicle));
+            return;
+        }
+        long totalDrivingTime = drivingTimeOutsideChange + calculateDrivingTimeSeconds(vehicle, fromIndex, toIndex);
+        if (vehicle.getTotalDrivingTimeSeconds() != totalDrivingTime) {
+            setTotalDrivingTime(scoreDirector, vehicle, totalDrivingTime);
+        }
+    }
+
+    @Override
+    public void afterListVariableElementUnassigned(ScoreDirector<VehicleRoutePlan> scoreDirector, Customer customer) {
+
+    }
+
+    @Override
+    public void beforeEntityAdded(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle) {
+
+    }
+
+    @Override
+    public void afterEntityAdded(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle) {
+        setTotalDrivingTime(scoreDirector, vehicle, calculateTotalDrivingTimeSeconds(vehicle));
+    }
+
+    @Override
+    public void beforeEntityRemoved(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle) {
+
+    }
+
+    @Override
+    public void afterEntityRemoved(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle) {
+
+    }
+
+    /**
+     * Also sets a total that is not calculated yet, which {@link Vehicle#getTotalDrivingTimeSeconds()}
+     * would otherwise calculate from the whole route on every call.
+     */
+    private static void setTotalDrivingTime(ScoreDirector<VehicleRoutePlan> scoreDirector, Vehicle vehicle,
+            long totalDrivingTime) {
+        scoreDirector.beforeVariableChanged(vehicle, TOTAL_DRIVING_TIME_FIELD);
+        vehicle.setTotalDrivingTimeSeconds(totalDrivingTime);
+        scoreDirector.afterVariableChanged(vehicle, TOTAL_DRIVING_TIME_FIELD);
+    }
+
+    /**
+     * Calculate the driving time of the whole route, from the depot back to the depot.
+     *
+     * @param vehicle never null
+     * @return driving time in seconds
+     */
+    public static long calculateTotalDrivingTimeSeconds(Vehicle vehicle) {
+        return calculateDrivingTimeSeconds(vehicle, 0, vehicle.getCustomers().size());
+    }
+
+    /**
+     * Calculate the driving time of the legs that end at the customers in the range, including the leg that leaves
+     * the range. The route starts and ends at the depot.
+     */
+    private static long calculateDrivingTimeSeconds(Vehicle vehicle, int fromIndex, int toIndex) {
+        List<Customer> customers = vehicle.getCustomers();
+        Location depotLocation = vehicle.getDepot().getLocation();
+        Location previousLocation = fromIndex == 0 ? depotLocation : customers.get(fromIndex - 1).getLocation();
+        long drivingTime = 0L;
+        for (int index = fromIndex; index <= toIndex; index++) {
+            Location location = index < customers.size() ? customers.get(index).getLocation() : depotLocation;
+            drivingTime += previousLocation.getDrivingTimeTo(location);
+            previousLocation = location;
+        }
+        return drivingTime;
+    }
+}
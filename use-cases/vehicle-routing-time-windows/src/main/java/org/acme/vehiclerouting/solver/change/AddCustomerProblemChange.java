@@ -0,0 +1,36 @@
+package org.acme.vehiclerouting.solver.change;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+
+/**
+ * Adds an unassigned customer, which the construction heuristic then inserts into the current best routes.
+ * The distance matrix only gets one new row and column.
+ */
+public class AddCustomerProblemChange implements ProblemChange<VehicleRoutePlan> {
+
+    private final Customer customer;
+    private final DistanceCalculator distanceCalculator;
+
+    public AddCustomerProblemChange(Customer customer, DistanceCalculator distanceCalculator) {
+        this.customer = customer;
+        this.distanceCalculator = distanceCalculator;
+    }
+
+    @Override
+    public void doChange(VehicleRoutePlan workingRoutePlan, ProblemChangeDirector problemChangeDirector) {
+        if (problemChangeDirector.lookUpWorkingObject(customer).isPresent()) {
+            // Added concurrently with the same ID.
+            return;
+        }
+        Location location = customer.getLocation();
+        distanceCalculator.extendDistanceMatrix(workingRoutePlan.getLocations(), location);
+        workingRoutePlan.addLocation(location);
+        problemChangeDirector.addEntity(customer, workingRoutePlan.getCustomers()::add);
+    }
+}
@@ -0,0 +1,56 @@
+package org.acme.vehiclerouting.solver.change;
+
+import java.time.LocalDateTime;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Changes the time window of a customer, which stays in its route.
+ * The departure from the customer can move with its time window,
+ * so the arrival times of the customers after it are updated as well.
+ */
+public class ChangeTimeWindowProblemChange implements ProblemChange<VehicleRoutePlan> {
+
+    private static final String ARRIVAL_TIME_FIELD = "arrivalEpochSecond";
+
+    private final Customer customer;
+    private final LocalDateTime minStartTime;
+    private final LocalDateTime maxEndTime;
+
+    public ChangeTimeWindowProblemChange(Customer customer, LocalDateTime minStartTime, LocalDateTime maxEndTime) {
+        this.customer = customer;
+        this.minStartTime = minStartTime;
+        this.maxEndTime = maxEndTime;
+    }
+
+    @Override
+    public void doChange(VehicleRoutePlan workingRoutePlan, ProblemChangeDirector problemChangeDirector) {
+        problemChangeDirector.lookUpWorkingObject(customer).ifPresent(workingCustomer -> {
+            problemChangeDirector.changeProblemProperty(workingCustomer, changedCustomer -> {
+                changedCustomer.setMinStartTime(minStartTime);
+                changedCustomer.setMaxEndTime(maxEndTime);
+            });
+            updateArrivalTimesAfter(workingCustomer, problemChangeDirector);
+        });
+    }
+
+    private static void updateArrivalTimesAfter(Customer workingCustomer, ProblemChangeDirector problemChangeDirector) {
+        long departureTime = workingCustomer.getDepartureEpochSecond();
+        Customer nextCustomer = workingCustomer.getNextCustomer();
+        while (nextCustomer != null && departureTime != Customer.NO_EPOCH_SECOND) {
+            long arrivalTime = departureTime + nextCustomer.getDrivingTimeSecondsFromPreviousStandstill();
+            if (nextCustomer.getArrivalEpochSecond() == arrivalTime) {
+                // The rest of the route is unaffected.
+                return;
+            }
+            problemChangeDirector.changeVariable(nextCustomer, ARRIVAL_TIME_FIELD,
+                    changedCustomer -> changedCustomer.setArrivalEpochSecond(arrivalTime));
+            departureTime = nextCustomer.getDepartureEpochSecond();
+            nextCustomer = nextCustomer.getNextCustomer();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.acme.vehiclerouting.solver.change;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+public class RemoveCustomerProblemChange implements ProblemChange<VehicleRoutePlan> {
+
+    private final Customer customer;
+
+    public RemoveCustomerProblemChange(Customer customer) {
+        this.customer = customer;
+    }
+
+    @Override
+    public void doChange(VehicleRoutePlan workingRoutePlan, ProblemChangeDirector problemChangeDirector) {
+        problemChangeDirector.lookUpWorkingObject(customer).ifPresent(workingCustomer -> {
+            Vehicle vehicle = workingCustomer.getVehicle();
+            if (vehicle != null) {
+                problemChangeDirector.changeVariable(vehicle, "customers",
+                        workingVehicle -> workingVehicle.getCustomers().remove(workingCustomer));
+            }
+            problemChangeDirector.removeEntity(workingCustomer, workingRoutePlan.getCustomers()::remove);
+        });
+    }
+}
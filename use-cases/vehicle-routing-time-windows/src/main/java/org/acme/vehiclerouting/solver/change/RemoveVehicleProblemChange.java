@@ -0,0 +1,31 @@
+package org.acme.vehiclerouting.solver.change;
+
+import ai.timefold.solver.core.api.solver.change.ProblemChange;
+import ai.timefold.solver.core.api.solver.change.ProblemChangeDirector;
+
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+
+/**
+ * Takes a vehicle out of service. Its customers become unassigned,
+ * so the construction heuristic inserts them into the routes of the other vehicles.
+ */
+public class RemoveVehicleProblemChange implements ProblemChange<VehicleRoutePlan> {
+
+    private final Vehicle vehicle;
+
+    public RemoveVehicleProblemChange(Vehicle vehicle) {
+        this.vehicle = vehicle;
+    }
+
+    @Override
+    public void doChange(VehicleRoutePlan workingRoutePlan, ProblemChangeDirector problemChangeDirector) {
+        problemChangeDirector.lookUpWorkingObject(vehicle).ifPresent(workingVehicle -> {
+            if (!workingVehicle.getCustomers().isEmpty()) {
+                problemChangeDirector.changeVariable(workingVehicle, "customers",
+                        changedVehicle -> changedVehicle.getCustomers().clear());
+            }
+            problemChangeDirector.removeEntity(workingVehicle, workingRoutePlan.getVehicles()::remove);
+        });
+    }
+}
@@ -1,4 +1,4 @@
-let autoRefreshIntervalId = null;
+let bestSolutionEventSource = null;
 let initialized = false;
 let demoDataId = null;
 let scheduleId = null;
@@ -363,17 +363,60 @@ function refreshSolvingButtons(solving) {
     if (solving) {
         $("#solveButton").hide();
         $("#stopSolvingButton").show();
-        if (autoRefreshIntervalId == null) {
-            autoRefreshIntervalId = setInterval(refreshRoutePlan, 2000);
+        if (bestSolutionEventSource == null && scheduleId != null) {
+            // Only fetch the full route plan when (re)connecting, a new best solution sends the changed routes only.
+            bestSolutionEventSource = new EventSource("/route-plans/" + scheduleId + "/events");
+            bestSolutionEventSource.addEventListener("routes", refreshRoutePlan);
+            bestSolutionEventSource.addEventListener("best-solution", applyRouteChanges);
+            bestSolutionEventSource.addEventListener("solving-ended", closeBestSolutionEventSourceAndRefresh);
+            bestSolutionEventSource.addEventListener("solving-failed", closeBestSolutionEventSourceAndRefresh);
         }
     } else {
         $("#solveButton").show();
         $("#stopSolvingButton").hide();
-        if (autoRefreshIntervalId != null) {
-            clearInterval(autoRefreshIntervalId);
-            autoRefreshIntervalId = null;
-        }
+        closeBestSolutionEventSource();
+    }
+}
+
+function closeBestSolutionEventSource() {
+    if (bestSolutionEventSource != null) {
+        bestSolutionEventSource.close();
+        bestSolutionEventSource = null;
+    }
+}
+
+function closeBestSolutionEventSourceAndRefresh() {
+    closeBestSolutionEventSource();
+    refreshRoutePlan();
+}
+
+function applyRouteChanges(event) {
+    if (loadedRoutePlan === null) {
+        return;
     }
+    const routePlanEvent = JSON.parse(event.data);
+    const vehicleByIdMap = new Map(loadedRoutePlan.vehicles.map(vehicle => [vehicle.id, vehicle]));
+    const customerIds = new Set(loadedRoutePlan.customers.map(customer => customer.id));
+    const unknownIds = routePlanEvent.vehicleRoutes.some(vehicleRoute => !vehicleByIdMap.has(vehicleRoute.vehicleId)
+        || vehicleRoute.customerIds.some(customerId => !customerIds.has(customerId)));
+    if (unknownIds) {
+        // A vehicle or customer was added while solving, only the full route plan has its details.
+        refreshRoutePlan();
+        return;
+    }
+    const removedVehicleIds = new Set(routePlanEvent.removedVehicleIds);
+    loadedRoutePlan.vehicles = loadedRoutePlan.vehicles.filter(vehicle => !removedVehicleIds.has(vehicle.id));
+    routePlanEvent.vehicleRoutes.forEach((vehicleRoute) => {
+        const vehicle = vehicleByIdMap.get(vehicleRoute.vehicleId);
+        vehicle.customers = vehicleRoute.customerIds;
+        vehicle.totalDrivingTimeSeconds = vehicleRoute.totalDrivingTimeSeconds;
+    });
+    loadedRoutePlan.score = routePlanEvent.score;
+    loadedRoutePlan.totalDrivingTimeSeconds = loadedRoutePlan.vehicles
+        .reduce((sum, vehicle) => sum + vehicle.totalDrivingTimeSeconds, 0);
+    // Only the full route plan explains the score, it is fetched again when solving ends.
+    loadedRoutePlan.scoreExplanation = "";
+    renderRoutes(loadedRoutePlan);
 }
 
 function refreshRoutePlan() {
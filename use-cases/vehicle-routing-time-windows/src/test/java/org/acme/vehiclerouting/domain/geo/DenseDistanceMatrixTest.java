@@ -0,0 +1,109 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.junit.jupiter.api.Test;
+
+class DenseDistanceMatrixTest {
+
+    private final DistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+
+    @Test
+    void extendWithNewLocation() {
+        List<Location> locations = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            locations.add(new Location(43.75 + i * 0.01, 11.17 + (i % 3) * 0.02));
+        }
+        DistanceMatrix distanceMatrix = distanceCalculator.initDistanceMatrix(locations);
+        Location newLocation = new Location(43.8, 11.2);
+
+        DistanceMatrix extendedMatrix = distanceCalculator.extendDistanceMatrix(locations, newLocation);
+        assertThat(extendedMatrix.size()).isEqualTo(11);
+        assertThat(newLocation.getIndex()).isEqualTo(10);
+        List<Location> extendedLocations = new ArrayList<>(locations);
+        extendedLocations.add(newLocation);
+        for (int i = 0; i < extendedLocations.size(); i++) {
+            Location from = extendedLocations.get(i);
+            assertThat(from.getDistanceMatrix()).isSameAs(extendedMatrix);
+            assertThat(from.getIndex()).isEqualTo(i);
+            for (Location to : extendedLocations) {
+                assertThat(from.getDrivingTimeTo(to)).isEqualTo(distanceCalculator.calculateDistance(from, to));
+            }
+        }
+        // Extended in place, as the matrix has room for more locations.
+        assertThat(extendedMatrix).isSameAs(distanceMatrix);
+    }
+
+    @Test
+    void extendFullMatrixWithNewLocation() {
+        List<Location> locations = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            locations.add(new Location(43.75 + i * 0.01, 11.17 + (i % 3) * 0.02));
+        }
+        DenseDistanceMatrix distanceMatrix = new DenseDistanceMatrix(locations.size());
+        distanceCalculator.fillDistanceMatrix(locations, distanceMatrix);
+        distanceMatrix.assignTo(locations);
+        Location newLocation = new Location(43.8, 11.2);
+
+        DistanceMatrix extendedMatrix = distanceCalculator.extendDistanceMatrix(locations, newLocation);
+        assertThat(extendedMatrix).isNotSameAs(distanceMatrix);
+        assertThat(extendedMatrix.size()).isEqualTo(6);
+        assertThat(distanceMatrix.size()).isEqualTo(5);
+        List<Location> extendedLocations = new ArrayList<>(locations);
+        extendedLocations.add(newLocation);
+        for (Location from : extendedLocations) {
+            assertThat(from.getDistanceMatrix()).isSameAs(extendedMatrix);
+            for (Location to : extendedLocations) {
+                assertThat(from.getDrivingTimeTo(to)).isEqualTo(distanceCalculator.calculateDistance(from, to));
+            }
+        }
+    }
+
+    @Test
+    void shareBetweenLocationLists() {
+        List<Location> firstLocations = List.of(new Location(43.75, 11.17), new Location(43.76, 11.18),
+                new Location(43.77, 11.19));
+        // Other instances with the same coordinates, as in another route plan.
+        List<Location> secondLocations = List.of(new Location(43.77, 11.19), new Location(43.75, 11.17),
+                new Location(43.78, 11.20));
+        assertThat(DistanceCalculator.countDistinctCoordinates(List.of(firstLocations, secondLocations)))
+                .isEqualTo(4L);
+
+        DistanceMatrix distanceMatrix =
+                distanceCalculator.initSharedDistanceMatrix(List.of(firstLocations, secondLocations));
+        assertThat(distanceMatrix.size()).isEqualTo(4);
+        assertThat(secondLocations.get(0).getIndex()).isEqualTo(firstLocations.get(2).getIndex());
+        assertThat(secondLocations.get(1).getIndex()).isEqualTo(firstLocations.get(0).getIndex());
+        for (List<Location> locations : List.of(firstLocations, secondLocations)) {
+            for (Location from : locations) {
+                assertThat(from.getDistanceMatrix()).isSameAs(distanceMatrix);
+                for (Location to : locations) {
+                    assertThat(from.getDrivingTimeTo(to)).isEqualTo(distanceCalculator.calculateDistance(from, to));
+                }
+            }
+        }
+
+        // A shared matrix is extended in place, with driving times to the locations of the second list only.
+        Location newLocation = new Location(43.79, 11.21);
+        DistanceMatrix extendedMatrix = distanceCalculator.extendDistanceMatrix(secondLocations, newLocation);
+        assertThat(extendedMatrix).isSameAs(distanceMatrix);
+        assertThat(extendedMatrix.size()).isEqualTo(5);
+        assertThat(newLocation.getIndex()).isEqualTo(4);
+        for (Location location : secondLocations) {
+            assertThat(newLocation.getDrivingTimeTo(location))
+                    .isEqualTo(distanceCalculator.calculateDistance(newLocation, location));
+            assertThat(location.getDrivingTimeTo(newLocation))
+                    .isEqualTo(distanceCalculator.calculateDistance(location, newLocation));
+        }
+        for (Location from : firstLocations) {
+            assertThat(from.getDistanceMatrix()).isSameAs(distanceMatrix);
+            for (Location to : firstLocations) {
+                assertThat(from.getDrivingTimeTo(to)).isEqualTo(distanceCalculator.calculateDistance(from, to));
+            }
+        }
+    }
+}
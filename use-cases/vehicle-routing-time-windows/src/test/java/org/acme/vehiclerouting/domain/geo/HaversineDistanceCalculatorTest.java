@@ -1,5 +1,10 @@
 package org.acme.vehiclerouting.domain.geo;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
 import org.acme.vehiclerouting.domain.Location;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -22,4 +27,32 @@ class HaversineDistanceCalculatorTest {
         Assertions.assertThat(distanceCalculator.calculateDistance(Svolvaer, Lulea))
                 .isEqualTo(HaversineDistanceCalculator.kilometersToDrivingSeconds(442.297));
     }
+
+    @Test
+    void distanceMatrix() {
+        Location Gent = new Location(51.0441461, 3.7336349);
+        Location Brno = new Location(49.1913945, 16.6122723);
+        DistanceMatrix distanceMatrix = distanceCalculator.initDistanceMatrix(Arrays.asList(Gent, Brno));
+        Assertions.assertThat(distanceMatrix.size()).isEqualTo(2);
+        Assertions.assertThat(Gent.getDrivingTimeTo(Gent)).isZero();
+        Assertions.assertThat(Gent.getDrivingTimeTo(Brno)).isEqualTo(distanceCalculator.calculateDistance(Gent, Brno));
+        Assertions.assertThat(Brno.getDrivingTimeTo(Gent)).isEqualTo(distanceCalculator.calculateDistance(Brno, Gent));
+    }
+
+    @Test
+    void fillDistanceMatrixMatchesCalculateDistance() {
+        Random random = new Random(37);
+        List<Location> locations = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            locations.add(new Location(43.75 + random.nextDouble() / 10, 11.17 + random.nextDouble() / 10));
+        }
+        DenseDistanceMatrix distanceMatrix = new DenseDistanceMatrix(locations.size());
+        distanceCalculator.fillDistanceMatrix(locations, distanceMatrix);
+        for (int i = 0; i < locations.size(); i++) {
+            for (int j = 0; j < locations.size(); j++) {
+                Assertions.assertThat(distanceMatrix.get(i, j))
+                        .isEqualTo(distanceCalculator.calculateDistance(locations.get(i), locations.get(j)));
+            }
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.junit.jupiter.api.Test;
+
+class RoadNetworkDistanceCalculatorTest {
+
+    private static RoadNetwork loadTestRoadNetwork() throws IOException {
+        try (Reader reader = new InputStreamReader(
+                RoadNetworkDistanceCalculatorTest.class.getResourceAsStream("test-road-network.txt"),
+                StandardCharsets.UTF_8)) {
+            return RoadNetwork.read(reader);
+        }
+    }
+
+    private static List<Location> nodeLocations(RoadNetwork roadNetwork) {
+        List<Location> locations = new ArrayList<>(roadNetwork.getNodeCount());
+        for (int node = 0; node < roadNetwork.getNodeCount(); node++) {
+            locations.add(new Location(roadNetwork.getLatitude(node), roadNetwork.getLongitude(node)));
+        }
+        return locations;
+    }
+
+    @Test
+    void calculateDistance() throws IOException {
+        RoadNetwork roadNetwork = loadTestRoadNetwork();
+        assertThat(roadNetwork.getNodeCount()).isEqualTo(16);
+        DistanceCalculator distanceCalculator = new RoadNetworkDistanceCalculator(roadNetwork);
+        Location southWest = new Location(43.76, 11.20);
+        Location southEast = new Location(43.76, 11.26);
+        Location northEast = new Location(43.79, 11.26);
+
+        assertThat(distanceCalculator.calculateDistance(southWest, southEast)).isEqualTo(3 * 60);
+        assertThat(distanceCalculator.calculateDistance(southEast, northEast)).isEqualTo(3 * 90);
+        // The one-way boulevard only helps in one direction.
+        assertThat(distanceCalculator.calculateDistance(southWest, northEast)).isEqualTo(300);
+        assertThat(distanceCalculator.calculateDistance(northEast, southWest)).isEqualTo(3 * 60 + 3 * 90);
+
+        // Snapping to the nearest node adds a straight-line leg.
+        Location nearSouthWest = new Location(43.7601, 11.2001);
+        assertThat(distanceCalculator.calculateDistance(nearSouthWest, southEast))
+                .isEqualTo(new HaversineDistanceCalculator().calculateDistance(nearSouthWest, southWest) + 3 * 60);
+    }
+
+    @Test
+    void fillDistanceMatrixMatchesCalculateDistance() throws IOException {
+        DistanceCalculator distanceCalculator = new RoadNetworkDistanceCalculator(loadTestRoadNetwork());
+        List<Location> locations = new ArrayList<>(nodeLocations(loadTestRoadNetwork()));
+        locations.add(new Location(43.7751, 11.2302)); // Snaps to the same node as another location.
+        locations.add(new Location(43.775, 11.23));
+        DistanceMatrix distanceMatrix = distanceCalculator.initDistanceMatrix(locations);
+        for (int i = 0; i < locations.size(); i++) {
+            for (int j = 0; j < locations.size(); j++) {
+                assertThat(distanceMatrix.get(i, j))
+                        .isEqualTo(distanceCalculator.calculateDistance(locations.get(i), locations.get(j)));
+            }
+        }
+    }
+
+    @Test
+    void findNearestNodeScalesLongitude() {
+        // At 60 degrees north, a degree of longitude is half as long as a degree of latitude.
+        RoadNetwork roadNetwork = new RoadNetwork(new double[] { 60.006, 60.0 }, new double[] { 10.0, 10.01 },
+                new int[0], new int[0], new int[0]);
+        assertThat(roadNetwork.findNearestNode(60.0, 10.0)).isEqualTo(1);
+    }
+
+    @Test
+    void penalizeUnreachableLocations() {
+        // Two roads that do not connect.
+        RoadNetwork roadNetwork = new RoadNetwork(new double[] { 43.76, 43.76, 43.79, 43.79 },
+                new double[] { 11.20, 11.23, 11.20, 11.23 },
+                new int[] { 0, 1, 2, 3 }, new int[] { 1, 0, 3, 2 }, new int[] { 60, 60, 60, 60 });
+        DistanceCalculator distanceCalculator = new RoadNetworkDistanceCalculator(roadNetwork);
+        List<Location> locations = nodeLocations(roadNetwork);
+
+        assertThat(distanceCalculator.calculateDistance(locations.get(0), locations.get(1))).isEqualTo(60L);
+        assertThat(distanceCalculator.calculateDistance(locations.get(0), locations.get(2)))
+                .isEqualTo(RoadNetworkDistanceCalculator.UNREACHABLE_DRIVING_TIME_SECONDS);
+        DistanceMatrix distanceMatrix = distanceCalculator.initDistanceMatrix(locations);
+        assertThat(distanceMatrix.get(0, 1)).isEqualTo(60L);
+        assertThat(distanceMatrix.get(3, 0)).isEqualTo(RoadNetworkDistanceCalculator.UNREACHABLE_DRIVING_TIME_SECONDS);
+    }
+
+    @Test
+    void randomRoadNetworkMatchesFloydWarshall() {
+        Random random = new Random(37);
+        int nodeCount = 60;
+        double[] latitudes = new double[nodeCount];
+        double[] longitudes = new double[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            latitudes[node] = 43.75 + random.nextDouble() / 10;
+            longitudes[node] = 11.17 + random.nextDouble() / 10;
+        }
+        int arcCount = 4 * nodeCount;
+        int[] arcFroms = new int[arcCount];
+        int[] arcTos = new int[arcCount];
+        int[] arcWeights = new int[arcCount];
+        for (int arc = 0; arc < arcCount; arc++) {
+            // A one-way ring keeps every node reachable, the other arcs are random.
+            arcFroms[arc] = arc < nodeCount ? arc : random.nextInt(nodeCount);
+            arcTos[arc] = arc < nodeCount ? (arc + 1) % nodeCount : random.nextInt(nodeCount);
+            arcWeights[arc] = 1 + random.nextInt(600);
+        }
+
+        long[][] expected = new long[nodeCount][nodeCount];
+        for (long[] row : expected) {
+            Arrays.fill(row, Long.MAX_VALUE / 2);
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            expected[node][node] = 0L;
+        }
+        for (int arc = 0; arc < arcCount; arc++) {
+            expected[arcFroms[arc]][arcTos[arc]] = Math.min(expected[arcFroms[arc]][arcTos[arc]], arcWeights[arc]);
+        }
+        for (int k = 0; k < nodeCount; k++) {
+            for (int i = 0; i < nodeCount; i++) {
+                for (int j = 0; j < nodeCount; j++) {
+                    expected[i][j] = Math.min(expected[i][j], expected[i][k] + expected[k][j]);
+                }
+            }
+        }
+
+        RoadNetwork roadNetwork = new RoadNetwork(latitudes, longitudes, arcFroms, arcTos, arcWeights);
+        DistanceCalculator distanceCalculator = new RoadNetworkDistanceCalculator(roadNetwork);
+        List<Location> locations = nodeLocations(roadNetwork);
+        DistanceMatrix distanceMatrix = distanceCalculator.initDistanceMatrix(locations);
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = 0; j < nodeCount; j++) {
+                assertThat(distanceMatrix.get(i, j)).isEqualTo(expected[i][j]);
+                assertThat(distanceCalculator.calculateDistance(locations.get(i), locations.get(j)))
+                        .isEqualTo(expected[i][j]);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.acme.vehiclerouting.domain.geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.junit.jupiter.api.Test;
+
+class SparseDistanceMatrixTest {
+
+    private final DistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+
+    private static List<Location> createLocations(int count) {
+        Random random = new Random(37);
+        List<Location> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            locations.add(new Location(43.75 + random.nextDouble() / 10, 11.17 + random.nextDouble() / 10));
+        }
+        return locations;
+    }
+
+    @Test
+    void storesNearestNeighbors() {
+        List<Location> locations = createLocations(300);
+        int neighborCount = 10;
+        SparseDistanceMatrix distanceMatrix = new SparseDistanceMatrix(distanceCalculator, locations, neighborCount);
+        assertThat(distanceMatrix.getNeighborCount()).isEqualTo(neighborCount);
+        for (int from = 0; from < locations.size(); from++) {
+            int fromIndex = from;
+            List<Integer> nearestIndexes = IntStream.range(0, locations.size())
+                    .filter(toIndex -> toIndex != fromIndex)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(toIndex -> straightLineDistanceSquared(
+                            locations.get(fromIndex), locations.get(toIndex))))
+                    .limit(neighborCount)
+                    .toList();
+            for (int toIndex : nearestIndexes) {
+                assertThat(distanceMatrix.isStored(fromIndex, toIndex)).isTrue();
+            }
+            long storedCount = IntStream.range(0, locations.size())
+                    .filter(toIndex -> toIndex != fromIndex && distanceMatrix.isStored(fromIndex, toIndex))
+                    .count();
+            assertThat(storedCount).isEqualTo(neighborCount);
+        }
+    }
+
+    @Test
+    void matchesCalculateDistance() {
+        List<Location> locations = createLocations(100);
+        DistanceMatrix distanceMatrix = distanceCalculator.initSparseDistanceMatrix(locations, 5);
+        assertThat(distanceMatrix.size()).isEqualTo(locations.size());
+        for (Location from : locations) {
+            for (Location to : locations) {
+                assertThat(from.getDrivingTimeTo(to)).isEqualTo(distanceCalculator.calculateDistance(from, to));
+            }
+        }
+    }
+
+    @Test
+    void neighborCountLargerThanLocations() {
+        List<Location> locations = createLocations(4);
+        SparseDistanceMatrix distanceMatrix = new SparseDistanceMatrix(distanceCalculator, locations, 10);
+        assertThat(distanceMatrix.getNeighborCount()).isEqualTo(3);
+        for (int i = 0; i < locations.size(); i++) {
+            for (int j = 0; j < locations.size(); j++) {
+                assertThat(distanceMatrix.isStored(i, j)).isTrue();
+                assertThat(distanceMatrix.get(i, j))
+                        .isEqualTo(distanceCalculator.calculateDistance(locations.get(i), locations.get(j)));
+            }
+        }
+    }
+
+    @Test
+    void extendWithNewLocation() {
+        List<Location> locations = createLocations(101);
+        Location newLocation = locations.remove(100);
+        int neighborCount = 5;
+        distanceCalculator.initSparseDistanceMatrix(locations, neighborCount);
+        SparseDistanceMatrix distanceMatrix =
+                (SparseDistanceMatrix) distanceCalculator.extendDistanceMatrix(locations, newLocation);
+        assertThat(distanceMatrix.size()).isEqualTo(101);
+        assertThat(newLocation.getIndex()).isEqualTo(100);
+        List<Integer> nearestIndexes = IntStream.range(0, locations.size())
+                .boxed()
+                .sorted(Comparator.comparingDouble(toIndex -> straightLineDistanceSquared(
+                        newLocation, locations.get(toIndex))))
+                .limit(neighborCount)
+                .toList();
+        for (int toIndex : nearestIndexes) {
+            assertThat(distanceMatrix.isStored(100, toIndex)).isTrue();
+        }
+        for (Location location : locations) {
+            assertThat(location.getDistanceMatrix()).isSameAs(distanceMatrix);
+            assertThat(newLocation.getDrivingTimeTo(location))
+                    .isEqualTo(distanceCalculator.calculateDistance(newLocation, location));
+            assertThat(location.getDrivingTimeTo(newLocation))
+                    .isEqualTo(distanceCalculator.calculateDistance(location, newLocation));
+        }
+    }
+
+    private static double straightLineDistanceSquared(Location from, Location to) {
+        // Same order as the great-circle distance, which the Haversine formula is based on.
+        double dX = cartesianX(from) - cartesianX(to);
+        double dY = cartesianY(from) - cartesianY(to);
+        double dZ = cartesianZ(from) - cartesianZ(to);
+        return dX * dX + dY * dY + dZ * dZ;
+    }
+
+    private static double cartesianX(Location location) {
+        return HaversineDistanceCalculator.cartesianX(Math.toRadians(location.getLatitude()),
+                Math.toRadians(location.getLongitude()));
+    }
+
+    private static double cartesianY(Location location) {
+        return HaversineDistanceCalculator.cartesianY(Math.toRadians(location.getLatitude()),
+                Math.toRadians(location.getLongitude()));
+    }
+
+    private static double cartesianZ(Location location) {
+        return HaversineDistanceCalculator.cartesianZ(Math.toRadians(location.getLatitude()));
+    }
+}
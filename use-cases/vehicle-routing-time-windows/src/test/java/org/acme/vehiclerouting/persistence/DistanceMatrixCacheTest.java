@@ -0,0 +1,78 @@
+package org.acme.vehiclerouting.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.acme.vehiclerouting.domain.geo.HaversineDistanceCalculator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DistanceMatrixCacheTest {
+
+    private final DistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reuseCachedMatrix() throws IOException {
+        DistanceMatrixCache cache = new DistanceMatrixCache(true, directory.toString(), Long.MAX_VALUE, Duration.ofDays(1));
+        List<Location> locations = createLocations(0.0);
+        DistanceMatrix distanceMatrix = cache.initDistanceMatrix(distanceCalculator, locations);
+        assertThat(countMatrixFiles()).isOne();
+        assertThat(locations.get(0).getDistanceMatrix()).isSameAs(distanceMatrix);
+
+        // Same coordinates, new Location instances.
+        List<Location> sameLocations = createLocations(0.0);
+        DistanceMatrix cachedDistanceMatrix = cache.initDistanceMatrix(distanceCalculator, sameLocations);
+        assertThat(countMatrixFiles()).isOne();
+        for (Location from : sameLocations) {
+            for (Location to : sameLocations) {
+                assertThat(from.getDrivingTimeTo(to)).isEqualTo(distanceCalculator.calculateDistance(from, to));
+            }
+        }
+        assertThat(cachedDistanceMatrix.get(0, 2)).isEqualTo(distanceMatrix.get(0, 2));
+    }
+
+    @Test
+    void evictBySize() throws IOException {
+        long matrixSizeBytes = 3 * 3 * Integer.BYTES;
+        DistanceMatrixCache cache = new DistanceMatrixCache(true, directory.toString(), matrixSizeBytes,
+                Duration.ofDays(1));
+        cache.initDistanceMatrix(distanceCalculator, createLocations(0.0));
+        cache.initDistanceMatrix(distanceCalculator, createLocations(1.0));
+        assertThat(countMatrixFiles()).isOne();
+    }
+
+    @Test
+    void disabled() throws IOException {
+        DistanceMatrixCache cache = new DistanceMatrixCache(false, directory.toString(), Long.MAX_VALUE,
+                Duration.ofDays(1));
+        List<Location> locations = createLocations(0.0);
+        cache.initDistanceMatrix(distanceCalculator, locations);
+        assertThat(countMatrixFiles()).isZero();
+        assertThat(locations.get(0).getDrivingTimeTo(locations.get(1)))
+                .isEqualTo(distanceCalculator.calculateDistance(locations.get(0), locations.get(1)));
+    }
+
+    private static List<Location> createLocations(double offset) {
+        return List.of(new Location(49.288087 + offset, 16.562172),
+                new Location(49.190922 + offset, 16.624466),
+                new Location(49.1767533245638 + offset, 16.50422914190477));
+    }
+
+    private long countMatrixFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".matrix")).count();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.acme.vehiclerouting.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Inject;
+
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.acme.vehiclerouting.domain.geo.HaversineDistanceCalculator;
+import org.acme.vehiclerouting.persistence.JobStore.Job;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource.DemoData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+class JobStoreTest {
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void spillAndReload() {
+        JobStore jobStore = new JobStore(1, Duration.ofDays(1), directory.toString(), objectMapper);
+        VehicleRoutePlan routePlan = new VehicleRouteDemoResource().build(DemoData.FIRENZE);
+        jobStore.put("a", Job.ofRoutePlan(routePlan));
+        jobStore.put("b", Job.ofException(new IllegalStateException("Broken")));
+        assertThat(directory.resolve("a.json")).exists();
+        assertThat(jobStore.getJobIds()).containsExactlyInAnyOrder("a", "b");
+
+        List<VehicleRoutePlan> reloadedRoutePlans = new ArrayList<>();
+        Job job = jobStore.get("a", reloadedRoutePlans::add);
+        assertThat(reloadedRoutePlans).containsExactly(job.routePlan());
+        assertThat(job.routePlan()).isNotSameAs(routePlan);
+        assertThat(job.routePlan().getName()).isEqualTo(routePlan.getName());
+        assertThat(job.routePlan().getCustomers()).hasSameSizeAs(routePlan.getCustomers());
+        assertThat(directory.resolve("a.json")).doesNotExist();
+        assertThat(directory.resolve("b.json")).exists();
+
+        Job exceptionJob = jobStore.get("b", reloadedRoutePlans::add);
+        assertThat(exceptionJob.exception()).hasMessage("Broken");
+        assertThat(reloadedRoutePlans).hasSize(1);
+    }
+
+    @Test
+    void keepPinnedBatchPlansOnOneDistanceMatrix() {
+        JobStore jobStore = new JobStore(1, Duration.ofDays(1), directory.toString(), objectMapper);
+        VehicleRouteDemoResource demoResource = new VehicleRouteDemoResource();
+        List<VehicleRoutePlan> routePlans = List.of(demoResource.build(DemoData.FIRENZE),
+                demoResource.build(DemoData.FIRENZE), demoResource.build(DemoData.FIRENZE));
+        DistanceMatrix distanceMatrix = new HaversineDistanceCalculator().initSharedDistanceMatrix(
+                routePlans.stream().map(VehicleRoutePlan::getLocations).toList());
+        for (int i = 0; i < routePlans.size(); i++) {
+            jobStore.putPinned("batch-" + i, Job.ofRoutePlan(routePlans.get(i)));
+        }
+        jobStore.put("a", Job.ofException(new IllegalStateException("Broken")));
+        jobStore.put("b", Job.ofException(new IllegalStateException("Also broken")));
+        // More jobs than the maximum, but only the unpinned ones are spilled.
+        assertThat(directory.resolve("a.json")).exists();
+
+        for (int i = 0; i < routePlans.size(); i++) {
+            Job job = jobStore.get("batch-" + i, routePlan -> {
+                throw new IllegalStateException("A pinned job is never reloaded.");
+            });
+            assertThat(job.routePlan()).isSameAs(routePlans.get(i));
+            assertThat(job.routePlan().getLocations())
+                    .allMatch(location -> location.getDistanceMatrix() == distanceMatrix);
+            assertThat(directory.resolve("batch-" + i + ".json")).doesNotExist();
+        }
+
+        jobStore.unpin("batch-0");
+        jobStore.put("c", Job.ofException(new IllegalStateException("Broken too")));
+        assertThat(directory.resolve("batch-0.json")).exists();
+        assertThat(directory.resolve("batch-1.json")).doesNotExist();
+    }
+
+    @Test
+    void reloadAfterRestart() {
+        JobStore jobStore = new JobStore(1, Duration.ofDays(1), directory.toString(), objectMapper);
+        jobStore.put("a", Job.ofException(new IllegalStateException("Broken")));
+        jobStore.put("b", Job.ofException(new IllegalStateException("Also broken")));
+
+        JobStore restartedJobStore = new JobStore(1, Duration.ofDays(1), directory.toString(), objectMapper);
+        assertThat(restartedJobStore.getJobIds()).containsExactly("a");
+        assertThat(restartedJobStore.get("a", routePlan -> {
+        }).exception()).hasMessage("Broken");
+        assertThat(restartedJobStore.get("b", routePlan -> {
+        })).isNull();
+    }
+
+    @Test
+    void expire() throws InterruptedException {
+        JobStore jobStore = new JobStore(1, Duration.ofMillis(50), directory.toString(), objectMapper);
+        jobStore.put("a", Job.ofException(new IllegalStateException("Broken")));
+        jobStore.put("b", Job.ofException(new IllegalStateException("Also broken")));
+        Thread.sleep(100);
+        assertThat(jobStore.getJobIds()).isEmpty();
+        assertThat(jobStore.get("a", routePlan -> {
+        })).isNull();
+        assertThat(Files.exists(directory.resolve("a.json"))).isFalse();
+    }
+
+    @Test
+    void explainScoreOncePerJob() {
+        Job job = Job.ofRoutePlan(new VehicleRoutePlan());
+        AtomicInteger explainCount = new AtomicInteger();
+        assertThat(job.getScoreExplanation(routePlan -> "Explanation " + explainCount.incrementAndGet()))
+                .isEqualTo("Explanation 1");
+        assertThat(job.getScoreExplanation(routePlan -> "Explanation " + explainCount.incrementAndGet()))
+                .isEqualTo("Explanation 1");
+        // A new best solution is a new job.
+        Job nextJob = Job.ofRoutePlan(job.routePlan());
+        assertThat(nextJob.getScoreExplanation(routePlan -> "Explanation " + explainCount.incrementAndGet()))
+                .isEqualTo("Explanation 2");
+    }
+}
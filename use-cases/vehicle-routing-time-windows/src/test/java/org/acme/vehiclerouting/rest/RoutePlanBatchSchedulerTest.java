@@ -0,0 +1,114 @@
+package org.acme.vehiclerouting.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import org.junit.jupiter.api.Test;
+
+class RoutePlanBatchSchedulerTest {
+
+    private static final Duration TIME_TO_LIVE = Duration.ofHours(1);
+
+    @Test
+    void startAtMostMaxActiveJobs() {
+        RoutePlanBatchScheduler scheduler = new RoutePlanBatchScheduler(2, TIME_TO_LIVE);
+        List<String> startedJobIds = new ArrayList<>();
+        String batchId = scheduler.schedule(List.of("a", "b", "c"), 0, startedJobIds::add);
+        assertThat(scheduler.getJobIds(batchId)).containsExactly("a", "b", "c");
+        assertThat(startedJobIds).containsExactly("a", "b");
+        assertThat(scheduler.isPending("c")).isTrue();
+
+        scheduler.jobEnded("b");
+        assertThat(startedJobIds).containsExactly("a", "b", "c");
+        assertThat(scheduler.isPending("c")).isFalse();
+        // Not a job of a batch.
+        scheduler.jobEnded("other");
+        assertThat(startedJobIds).hasSize(3);
+    }
+
+    @Test
+    void startHigherPriorityFirst() {
+        RoutePlanBatchScheduler scheduler = new RoutePlanBatchScheduler(1, TIME_TO_LIVE);
+        List<String> startedJobIds = new ArrayList<>();
+        scheduler.schedule(List.of("low-1", "low-2"), 0, startedJobIds::add);
+        scheduler.schedule(List.of("high"), 10, startedJobIds::add);
+        assertThat(startedJobIds).containsExactly("low-1");
+
+        scheduler.jobEnded("low-1");
+        scheduler.jobEnded("high");
+        assertThat(startedJobIds).containsExactly("low-1", "high", "low-2");
+    }
+
+    @Test
+    void cancelPendingJob() {
+        RoutePlanBatchScheduler scheduler = new RoutePlanBatchScheduler(1, TIME_TO_LIVE);
+        List<String> startedJobIds = new ArrayList<>();
+        scheduler.schedule(List.of("a", "b", "c"), 0, startedJobIds::add);
+        assertThat(scheduler.cancel("b")).isTrue();
+        assertThat(scheduler.cancel("a")).isFalse();
+
+        scheduler.jobEnded("a");
+        assertThat(startedJobIds).containsExactly("a", "c");
+    }
+
+    @Test
+    void startNextWhenJobFailsToStart() {
+        RoutePlanBatchScheduler scheduler = new RoutePlanBatchScheduler(1, TIME_TO_LIVE);
+        List<String> startedJobIds = new ArrayList<>();
+        scheduler.schedule(List.of("a", "b"), 0, jobId -> {
+            startedJobIds.add(jobId);
+            scheduler.jobEnded(jobId);
+        });
+        assertThat(startedJobIds).containsExactly("a", "b");
+    }
+
+    @Test
+    void terminateScheduledJob() {
+        RoutePlanBatchScheduler scheduler = new RoutePlanBatchScheduler(1, TIME_TO_LIVE);
+        List<String> startedJobIds = new ArrayList<>();
+        scheduler.schedule(List.of("a", "b"), 0, startedJobIds::add);
+        List<String> terminatedJobIds = new ArrayList<>();
+
+        assertThat(scheduler.terminateEarly("a", solverManager(SolverStatus.SOLVING_SCHEDULED, terminatedJobIds)))
+                .isTrue();
+        assertThat(terminatedJobIds).containsExactly("a");
+        assertThat(startedJobIds).containsExactly("a", "b");
+        // A solving job ends through its final best solution consumer instead.
+        assertThat(scheduler.terminateEarly("b", solverManager(SolverStatus.SOLVING_ACTIVE, terminatedJobIds)))
+                .isFalse();
+        assertThat(terminatedJobIds).containsExactly("a", "b");
+    }
+
+    @Test
+    void evictBatchAfterItsJobsEnded() {
+        // Without a time to live, so no need to wait for it.
+        RoutePlanBatchScheduler scheduler = new RoutePlanBatchScheduler(1, Duration.ZERO);
+        String batchId = scheduler.schedule(List.of("a", "b"), 0, jobId -> {
+        });
+        assertThat(scheduler.cancel("b")).isTrue();
+        assertThat(scheduler.getJobIds(batchId)).containsExactly("a", "b");
+
+        scheduler.jobEnded("a");
+        assertThat(scheduler.getJobIds(batchId)).isNull();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SolverManager<?, String> solverManager(SolverStatus solverStatus, List<String> terminatedJobIds) {
+        return (SolverManager<?, String>) Proxy.newProxyInstance(RoutePlanBatchSchedulerTest.class.getClassLoader(),
+                new Class<?>[] { SolverManager.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "getSolverStatus" -> solverStatus;
+                    case "terminateEarly" -> {
+                        terminatedJobIds.add((String) args[0]);
+                        yield null;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
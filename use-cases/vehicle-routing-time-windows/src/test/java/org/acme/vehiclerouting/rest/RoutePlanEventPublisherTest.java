@@ -0,0 +1,86 @@
+package org.acme.vehiclerouting.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.rest.RoutePlanEventPublisher.RoutePlanEvent;
+import org.acme.vehiclerouting.rest.RoutePlanEventPublisher.VehicleRoute;
+import org.junit.jupiter.api.Test;
+
+class RoutePlanEventPublisherTest {
+
+    private static final LocalDateTime TOMORROW_07_00 = LocalDateTime.of(LocalDate.now().plusDays(1), LocalTime.of(7, 0));
+
+    @Test
+    void updateOnlyChangedVehicleRoutes() {
+        Location location = new Location(49.288087, 16.562172);
+        Depot depot = new Depot("1", location);
+        Vehicle vehicleA = new Vehicle("A", depot, TOMORROW_07_00);
+        Vehicle vehicleB = new Vehicle("B", depot, TOMORROW_07_00);
+        Customer customer1 = createCustomer("1", location);
+        Customer customer2 = createCustomer("2", location);
+        VehicleRoutePlan routePlan = new VehicleRoutePlan("test", location, location, TOMORROW_07_00,
+                TOMORROW_07_00.plusDays(1), List.of(depot), List.of(vehicleA, vehicleB), List.of(customer1, customer2));
+        vehicleA.setCustomers(new ArrayList<>(List.of(customer1, customer2)));
+
+        Map<String, VehicleRoute> vehicleIdToRoute = new HashMap<>();
+        assertThat(RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, routePlan).vehicleRoutes())
+                .extracting(VehicleRoute::vehicleId)
+                .containsExactly("A", "B");
+        assertThat(RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, routePlan).vehicleRoutes()).isEmpty();
+
+        vehicleA.setCustomers(new ArrayList<>(List.of(customer1)));
+        vehicleB.setCustomers(new ArrayList<>(List.of(customer2)));
+        vehicleB.setTotalDrivingTimeSeconds(10L);
+        List<VehicleRoute> changedVehicleRoutes =
+                RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, routePlan).vehicleRoutes();
+        assertThat(changedVehicleRoutes).containsExactly(
+                new VehicleRoute("A", List.of("1"), 0L),
+                new VehicleRoute("B", List.of("2"), 10L));
+
+        vehicleA.setCustomers(new ArrayList<>(List.of(customer1)));
+        assertThat(RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, routePlan).vehicleRoutes()).isEmpty();
+    }
+
+    @Test
+    void sendRemovedVehicleIds() {
+        Location location = new Location(49.288087, 16.562172);
+        Depot depot = new Depot("1", location);
+        Vehicle vehicleA = new Vehicle("A", depot, TOMORROW_07_00);
+        Vehicle vehicleB = new Vehicle("B", depot, TOMORROW_07_00);
+        Map<String, VehicleRoute> vehicleIdToRoute = new HashMap<>();
+        RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, createRoutePlan(depot, vehicleA, vehicleB));
+
+        RoutePlanEvent routePlanEvent =
+                RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, createRoutePlan(depot, vehicleB));
+        assertThat(routePlanEvent.vehicleRoutes()).isEmpty();
+        assertThat(routePlanEvent.removedVehicleIds()).containsExactly("A");
+        assertThat(vehicleIdToRoute.keySet()).containsExactly("B");
+        assertThat(RoutePlanEventPublisher.updateVehicleRoutes(vehicleIdToRoute, createRoutePlan(depot, vehicleB))
+                .removedVehicleIds()).isEmpty();
+    }
+
+    private static VehicleRoutePlan createRoutePlan(Depot depot, Vehicle... vehicles) {
+        Location location = depot.getLocation();
+        return new VehicleRoutePlan("test", location, location, TOMORROW_07_00, TOMORROW_07_00.plusDays(1),
+                List.of(depot), List.of(vehicles), List.of());
+    }
+
+    private static Customer createCustomer(String id, Location location) {
+        return new Customer(id, "Customer " + id, location, TOMORROW_07_00, TOMORROW_07_00.plusHours(4),
+                Duration.ofMinutes(10L));
+    }
+}
@@ -0,0 +1,132 @@
+package org.acme.vehiclerouting.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import ai.timefold.solver.core.api.score.buildin.hardsoftlong.HardSoftLongScore;
+import ai.timefold.solver.core.api.solver.SolverStatus;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource.DemoData;
+import org.junit.jupiter.api.Test;
+
+class VehicleRoutePlanBinaryCodecTest {
+
+    @Test
+    void roundTrip() throws IOException {
+        VehicleRoutePlan routePlan = new VehicleRouteDemoResource().build(DemoData.FIRENZE);
+        List<Customer> customers = routePlan.getCustomers();
+        Vehicle firstVehicle = routePlan.getVehicles().get(0);
+        Vehicle secondVehicle = routePlan.getVehicles().get(1);
+        firstVehicle.getCustomers().addAll(List.of(customers.get(3), customers.get(0), customers.get(7)));
+        secondVehicle.getCustomers().add(customers.get(5));
+        customers.get(3).setArrivalTime(firstVehicle.getDepartureTime().plusMinutes(20));
+        firstVehicle.setTotalDrivingTimeSeconds(1234L);
+        routePlan.setScore(HardSoftLongScore.of(-1L, -5678L));
+        routePlan.setSolverStatus(SolverStatus.SOLVING_ACTIVE);
+
+        VehicleRoutePlan decodedPlan = decode(encode(routePlan));
+        assertThat(decodedPlan.getName()).isEqualTo(routePlan.getName());
+        assertThat(decodedPlan.getScore()).isEqualTo(routePlan.getScore());
+        assertThat(decodedPlan.getSolverStatus()).isEqualTo(SolverStatus.SOLVING_ACTIVE);
+        assertThat(decodedPlan.getStartDateTime()).isEqualTo(routePlan.getStartDateTime());
+        assertThat(decodedPlan.getEndDateTime()).isEqualTo(routePlan.getEndDateTime());
+        assertThat(decodedPlan.getDepots()).hasSameSizeAs(routePlan.getDepots());
+        assertThat(decodedPlan.getVehicles()).hasSameSizeAs(routePlan.getVehicles());
+        assertThat(decodedPlan.getCustomers()).hasSameSizeAs(customers);
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            Customer decodedCustomer = decodedPlan.getCustomers().get(i);
+            assertThat(decodedCustomer.getId()).isEqualTo(customer.getId());
+            assertThat(decodedCustomer.getName()).isEqualTo(customer.getName());
+            assertThat(decodedCustomer.getLocation().getLatitude()).isEqualTo(customer.getLocation().getLatitude());
+            assertThat(decodedCustomer.getLocation().getLongitude()).isEqualTo(customer.getLocation().getLongitude());
+            assertThat(decodedCustomer.getMinStartTime()).isEqualTo(customer.getMinStartTime());
+            assertThat(decodedCustomer.getMaxEndTime()).isEqualTo(customer.getMaxEndTime());
+            assertThat(decodedCustomer.getServiceDuration()).isEqualTo(customer.getServiceDuration());
+        }
+        assertThat(decodedPlan.getCustomers().get(3).getArrivalTime()).isEqualTo(customers.get(3).getArrivalTime());
+
+        Vehicle decodedVehicle = decodedPlan.getVehicles().get(0);
+        assertThat(decodedVehicle.getId()).isEqualTo(firstVehicle.getId());
+        assertThat(decodedVehicle.getDepot().getId()).isEqualTo(firstVehicle.getDepot().getId());
+        assertThat(decodedVehicle.getDepartureTime()).isEqualTo(firstVehicle.getDepartureTime());
+        assertThat(decodedVehicle.getTotalDrivingTimeSeconds()).isEqualTo(1234L);
+        assertThat(decodedVehicle.getCustomers().stream().map(Customer::getId).toList())
+                .containsExactly(customers.get(3).getId(), customers.get(0).getId(), customers.get(7).getId());
+        // The shadow variables are restored from the routes.
+        Customer decodedMiddle = decodedVehicle.getCustomers().get(1);
+        assertThat(decodedMiddle.getVehicle()).isSameAs(decodedVehicle);
+        assertThat(decodedMiddle.getPreviousCustomer()).isSameAs(decodedVehicle.getCustomers().get(0));
+        assertThat(decodedMiddle.getNextCustomer()).isSameAs(decodedVehicle.getCustomers().get(2));
+        assertThat(decodedPlan.getVehicles().get(1).getCustomers()).containsExactly(decodedPlan.getCustomers().get(5));
+        assertThat(decodedPlan.getCustomers().get(1).getVehicle()).isNull();
+    }
+
+    @Test
+    void roundTripUnsolved() throws IOException {
+        VehicleRoutePlan routePlan = new VehicleRouteDemoResource().build(DemoData.HARTFORT);
+        VehicleRoutePlan decodedPlan = decode(encode(routePlan));
+        assertThat(decodedPlan.getScore()).isNull();
+        assertThat(decodedPlan.getSolverStatus()).isNull();
+        assertThat(decodedPlan.getVehicles()).allMatch(vehicle -> vehicle.getCustomers().isEmpty());
+    }
+
+    @Test
+    void rejectOtherContent() {
+        assertThatThrownBy(() -> decode("{\"name\":\"json\"}".getBytes()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectTruncatedContentWithHugeCount() throws IOException {
+        VehicleRoutePlan routePlan = new VehicleRouteDemoResource().build(DemoData.HARTFORT);
+        byte[] bytes = encode(routePlan);
+        // The depot count is followed by the length and the bytes of the first depot id.
+        byte[] firstDepotId = routePlan.getDepots().get(0).getId().getBytes(StandardCharsets.UTF_8);
+        byte[] depotsStart = ByteBuffer.allocate(2 * Integer.BYTES + firstDepotId.length)
+                .putInt(routePlan.getDepots().size())
+                .putInt(firstDepotId.length)
+                .put(firstDepotId)
+                .array();
+        int depotCountOffset = indexOf(bytes, depotsStart);
+        assertThat(depotCountOffset).isPositive();
+        byte[] truncatedBytes = ByteBuffer.allocate(depotCountOffset + 2 * Integer.BYTES)
+                .put(bytes, 0, depotCountOffset)
+                .putInt(Integer.MAX_VALUE)
+                .put(bytes, depotCountOffset + Integer.BYTES, Integer.BYTES)
+                .array();
+        assertThatThrownBy(() -> decode(truncatedBytes))
+                .isInstanceOf(EOFException.class);
+    }
+
+    private static int indexOf(byte[] bytes, byte[] pattern) {
+        for (int i = 0; i + pattern.length <= bytes.length; i++) {
+            if (Arrays.equals(bytes, i, i + pattern.length, pattern, 0, pattern.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] encode(VehicleRoutePlan routePlan) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        VehicleRoutePlanBinaryCodec.write(routePlan, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static VehicleRoutePlan decode(byte[] bytes) throws IOException {
+        return VehicleRoutePlanBinaryCodec.read(new ByteArrayInputStream(bytes));
+    }
+}
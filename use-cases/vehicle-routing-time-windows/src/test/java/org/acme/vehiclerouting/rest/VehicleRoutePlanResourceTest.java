@@ -7,11 +7,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.Duration;
+import java.util.List;
 
 import ai.timefold.solver.core.api.solver.SolverStatus;
 
 import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.rest.VehicleRouteDemoResource.DemoData;
 import org.junit.jupiter.api.Test;
 
 import io.quarkus.test.junit.QuarkusTest;
@@ -54,4 +59,73 @@ public class VehicleRoutePlanResourceTest {
         assertNotNull(solution.getVehicles().get(0).getCustomers());
         assertTrue(solution.getScore().isFeasible());
     }
+
+    @Test
+    public void solveDemoDataInBinaryFormat() throws IOException {
+        ByteArrayOutputStream problemBytes = new ByteArrayOutputStream();
+        VehicleRoutePlanBinaryCodec.write(new VehicleRouteDemoResource().build(DemoData.FIRENZE), problemBytes);
+
+        String jobId = given()
+                .contentType(VehicleRoutePlanBinaryCodec.MEDIA_TYPE)
+                .body(problemBytes.toByteArray())
+                .expect().contentType(ContentType.TEXT)
+                .when().post("/route-plans")
+                .then()
+                .statusCode(200)
+                .extract()
+                .asString();
+
+        await()
+                .atMost(Duration.ofMinutes(1))
+                .pollInterval(Duration.ofMillis(500L))
+                .until(() -> SolverStatus.NOT_SOLVING.name().equals(
+                        get("/route-plans/" + jobId + "/status")
+                                .jsonPath().get("solverStatus")));
+
+        byte[] solutionBytes = given()
+                .accept(VehicleRoutePlanBinaryCodec.MEDIA_TYPE)
+                .when().get("/route-plans/" + jobId)
+                .then()
+                .statusCode(200)
+                .contentType(VehicleRoutePlanBinaryCodec.MEDIA_TYPE)
+                .extract()
+                .asByteArray();
+        VehicleRoutePlan solution = VehicleRoutePlanBinaryCodec.read(new ByteArrayInputStream(solutionBytes));
+        assertEquals(solution.getSolverStatus(), SolverStatus.NOT_SOLVING);
+        assertEquals(77, solution.getCustomers().size());
+        assertEquals(77, solution.getVehicles().stream().mapToInt(vehicle -> vehicle.getCustomers().size()).sum());
+        assertTrue(solution.getScore().isFeasible());
+    }
+
+    @Test
+    public void solveDemoDataBatch() {
+        VehicleRouteDemoResource demoResource = new VehicleRouteDemoResource();
+        RoutePlanBatch batch = new RoutePlanBatch(1,
+                List.of(demoResource.build(DemoData.FIRENZE), demoResource.build(DemoData.FIRENZE)));
+
+        String batchId = given()
+                .contentType(ContentType.JSON)
+                .body(batch)
+                .expect().contentType(ContentType.TEXT)
+                .when().post("/route-plans/batches")
+                .then()
+                .statusCode(200)
+                .extract()
+                .asString();
+
+        await()
+                .atMost(Duration.ofMinutes(1))
+                .pollInterval(Duration.ofMillis(500L))
+                .until(() -> get("/route-plans/batches/" + batchId)
+                        .jsonPath().getList("solverStatus").stream()
+                        .allMatch(SolverStatus.NOT_SOLVING.name()::equals));
+
+        List<String> jobIds = get("/route-plans/batches/" + batchId).jsonPath().getList("jobId");
+        assertEquals(2, jobIds.size());
+        for (String jobId : jobIds) {
+            VehicleRoutePlan solution = get("/route-plans/" + jobId).then().extract().as(VehicleRoutePlan.class);
+            assertEquals(solution.getSolverStatus(), SolverStatus.NOT_SOLVING);
+            assertTrue(solution.getScore().isFeasible());
+        }
+    }
 }
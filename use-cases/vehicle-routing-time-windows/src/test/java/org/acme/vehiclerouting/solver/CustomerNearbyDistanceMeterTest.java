@@ -0,0 +1,41 @@
+package org.acme.vehiclerouting.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.geo.HaversineDistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+class CustomerNearbyDistanceMeterTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 7, 0);
+
+    @Test
+    void drivingTimeFromDestinationToOrigin() {
+        Location depotLocation = new Location(49.288087, 16.562172);
+        Location nearLocation = new Location(49.190922, 16.624466);
+        Location farLocation = new Location(50.0, 17.5);
+        new HaversineDistanceCalculator().initDistanceMatrix(List.of(depotLocation, nearLocation, farLocation));
+        Vehicle vehicle = new Vehicle("1", new Depot("1", depotLocation), START);
+        Customer origin = createCustomer("2", nearLocation);
+        Customer farCustomer = createCustomer("3", farLocation);
+
+        CustomerNearbyDistanceMeter meter = new CustomerNearbyDistanceMeter();
+        assertThat(meter.getNearbyDistance(origin, vehicle)).isEqualTo(
+                (double) depotLocation.getDrivingTimeTo(nearLocation));
+        assertThat(meter.getNearbyDistance(origin, farCustomer)).isEqualTo(
+                (double) farLocation.getDrivingTimeTo(nearLocation));
+        assertThat(meter.getNearbyDistance(origin, vehicle)).isLessThan(meter.getNearbyDistance(origin, farCustomer));
+    }
+
+    private static Customer createCustomer(String id, Location location) {
+        return new Customer(id, "Customer " + id, location, START, START.plusHours(8), Duration.ofMinutes(10));
+    }
+}
@@ -0,0 +1,127 @@
+package org.acme.vehiclerouting.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.junit.jupiter.api.Test;
+
+class RegionDecompositionTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 7, 0);
+    private static final LocalDateTime END = START.plusHours(12);
+
+    @Test
+    void splitFarApartClusters() {
+        VehicleRoutePlan routePlan = createRoutePlan();
+
+        List<VehicleRoutePlan> regions = RegionDecomposition.split(routePlan, 2);
+        assertThat(regions).hasSize(2);
+        List<String> vehicleIds = new ArrayList<>();
+        List<String> customerIds = new ArrayList<>();
+        for (VehicleRoutePlan region : regions) {
+            assertThat(region.getVehicles()).hasSize(2);
+            assertThat(region.getCustomers()).hasSize(4);
+            // Every region is served from the depot in its own cluster.
+            assertThat(region.getDepots()).hasSize(1);
+            Depot depot = region.getDepots().get(0);
+            for (Customer customer : region.getCustomers()) {
+                assertThat(customer.getId()).startsWith(depot.getId());
+            }
+            region.getVehicles().forEach(vehicle -> vehicleIds.add(vehicle.getId()));
+            region.getCustomers().forEach(customer -> customerIds.add(customer.getId()));
+        }
+        assertThat(vehicleIds).containsExactlyInAnyOrderElementsOf(
+                routePlan.getVehicles().stream().map(Vehicle::getId).toList());
+        assertThat(customerIds).containsExactlyInAnyOrderElementsOf(
+                routePlan.getCustomers().stream().map(Customer::getId).toList());
+    }
+
+    @Test
+    void splitDoesNotChangeOriginal() {
+        VehicleRoutePlan routePlan = createRoutePlan();
+        List<VehicleRoutePlan> regions = RegionDecomposition.split(routePlan, 2);
+        for (VehicleRoutePlan region : regions) {
+            Vehicle vehicle = region.getVehicles().get(0);
+            vehicle.getCustomers().addAll(region.getCustomers());
+            assertThat(routePlan.getVehicles()).doesNotContain(vehicle);
+        }
+        assertThat(routePlan.getVehicles()).allMatch(vehicle -> vehicle.getCustomers().isEmpty());
+    }
+
+    @Test
+    void splitKeepsExistingRoutes() {
+        VehicleRoutePlan routePlan = createRoutePlan();
+        Vehicle westVehicle = routePlan.getVehicles().get(0);
+        // The route crosses to the east once, that customer goes along to the west region.
+        westVehicle.getCustomers().addAll(routePlan.getCustomers().subList(0, 3));
+
+        List<VehicleRoutePlan> regions = RegionDecomposition.split(routePlan, 2);
+        VehicleRoutePlan westRegion = regions.stream()
+                .filter(region -> region.getVehicles().stream()
+                        .anyMatch(vehicle -> vehicle.getId().equals(westVehicle.getId())))
+                .findFirst()
+                .orElseThrow();
+        Vehicle westVehicleCopy = westRegion.getVehicles().stream()
+                .filter(vehicle -> vehicle.getId().equals(westVehicle.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(westVehicleCopy).isNotSameAs(westVehicle);
+        assertThat(westVehicleCopy.getCustomers().stream().map(Customer::getId).toList())
+                .containsExactly("west-0", "east-0", "west-1");
+        assertThat(westRegion.getCustomers()).hasSize(5);
+        assertThat(westRegion.getCustomers()).containsAll(westVehicleCopy.getCustomers());
+        for (VehicleRoutePlan region : regions) {
+            if (region != westRegion) {
+                assertThat(region.getCustomers()).noneMatch(customer -> customer.getId().equals("east-0"));
+            }
+        }
+    }
+
+    @Test
+    void mergeRestoresOriginalOrder() {
+        VehicleRoutePlan routePlan = createRoutePlan();
+        List<VehicleRoutePlan> regions = RegionDecomposition.split(routePlan, 2);
+        for (VehicleRoutePlan region : regions) {
+            region.getVehicles().get(0).getCustomers().addAll(region.getCustomers());
+        }
+
+        VehicleRoutePlan mergedPlan = RegionDecomposition.merge(routePlan, List.of(regions.get(1), regions.get(0)));
+        assertThat(mergedPlan.getVehicles().stream().map(Vehicle::getId).toList())
+                .isEqualTo(routePlan.getVehicles().stream().map(Vehicle::getId).toList());
+        assertThat(mergedPlan.getCustomers().stream().map(Customer::getId).toList())
+                .isEqualTo(routePlan.getCustomers().stream().map(Customer::getId).toList());
+        assertThat(mergedPlan.getDepots()).isEqualTo(routePlan.getDepots());
+        assertThat(mergedPlan.getVehicles().stream().mapToInt(vehicle -> vehicle.getCustomers().size()).sum())
+                .isEqualTo(routePlan.getCustomers().size());
+    }
+
+    private static VehicleRoutePlan createRoutePlan() {
+        Depot westDepot = new Depot("west", new Location(50.0, 4.0));
+        Depot eastDepot = new Depot("east", new Location(51.0, 6.0));
+        List<Vehicle> vehicles = new ArrayList<>();
+        List<Customer> customers = new ArrayList<>();
+        // Interleaved, so the regions do not just follow the original order.
+        for (int i = 0; i < 4; i++) {
+            double offset = i * 0.01;
+            customers.add(new Customer("west-" + i, "West " + i, new Location(50.0 + offset, 4.0 - offset),
+                    START, END, Duration.ofMinutes(10)));
+            customers.add(new Customer("east-" + i, "East " + i, new Location(51.0 - offset, 6.0 + offset),
+                    START, END, Duration.ofMinutes(10)));
+        }
+        for (int i = 0; i < 2; i++) {
+            vehicles.add(new Vehicle("west-vehicle-" + i, westDepot, START));
+            vehicles.add(new Vehicle("east-vehicle-" + i, eastDepot, START));
+        }
+        return new VehicleRoutePlan("test", new Location(49.0, 3.0), new Location(52.0, 7.0), START, END,
+                List.of(westDepot, eastDepot), vehicles, customers);
+    }
+}
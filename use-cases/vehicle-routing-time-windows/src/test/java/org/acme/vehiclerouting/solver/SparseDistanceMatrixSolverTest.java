@@ -0,0 +1,130 @@
+package org.acme.vehiclerouting.solver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import ai.timefold.solver.core.api.solver.SolverFactory;
+import ai.timefold.solver.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import ai.timefold.solver.core.config.localsearch.LocalSearchPhaseConfig;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+import ai.timefold.solver.core.config.solver.termination.TerminationConfig;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.acme.vehiclerouting.domain.geo.HaversineDistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.SparseDistanceMatrix;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Solves the same generated plan on a dense and on a sparse distance matrix.
+ * The sparse matrix returns the same driving times as the dense one,
+ * so a reproducible solver takes the same steps on both and ends with the same routes and score.
+ */
+class SparseDistanceMatrixSolverTest {
+
+    private static final int CUSTOMER_COUNT = 200;
+    private static final int NEIGHBOR_COUNT = 10;
+    private static final LocalDate TOMORROW = LocalDate.now().plusDays(1);
+
+    private final DistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+
+    @Test
+    void sameDrivingTimesAsDenseMatrix() {
+        VehicleRoutePlan problem = generateProblem();
+        List<Location> locations = problem.getLocations();
+        DistanceMatrix denseDistanceMatrix = distanceCalculator.initDistanceMatrix(locations);
+        DistanceMatrix sparseDistanceMatrix = distanceCalculator.initSparseDistanceMatrix(locations, NEIGHBOR_COUNT);
+
+        // Only the nearest neighbours are stored, instead of a row of every location.
+        assertThat(((SparseDistanceMatrix) sparseDistanceMatrix).getNeighborCount()).isEqualTo(NEIGHBOR_COUNT);
+        assertThat(sparseDistanceMatrix.size()).isEqualTo(denseDistanceMatrix.size());
+        for (int from = 0; from < locations.size(); from++) {
+            for (int to = 0; to < locations.size(); to++) {
+                assertThat(sparseDistanceMatrix.get(from, to)).isEqualTo(denseDistanceMatrix.get(from, to));
+            }
+        }
+    }
+
+    @Test
+    void sameSolutionAsDenseMatrix() {
+        VehicleRoutePlan denseProblem = generateProblem();
+        distanceCalculator.initDistanceMatrix(denseProblem.getLocations());
+        VehicleRoutePlan sparseProblem = generateProblem();
+        distanceCalculator.initSparseDistanceMatrix(sparseProblem.getLocations(), NEIGHBOR_COUNT);
+
+        VehicleRoutePlan denseSolution = solve(denseProblem);
+        VehicleRoutePlan sparseSolution = solve(sparseProblem);
+
+        assertThat(sparseSolution.getScore()).isEqualTo(denseSolution.getScore());
+        assertThat(sparseSolution.getTotalDrivingTimeSeconds()).isEqualTo(denseSolution.getTotalDrivingTimeSeconds());
+        for (int i = 0; i < denseSolution.getVehicles().size(); i++) {
+            assertThat(customerIds(sparseSolution.getVehicles().get(i)))
+                    .isEqualTo(customerIds(denseSolution.getVehicles().get(i)));
+        }
+    }
+
+    private static VehicleRoutePlan solve(VehicleRoutePlan problem) {
+        return SolverFactory.<VehicleRoutePlan> create(new SolverConfig()
+                .withSolutionClass(VehicleRoutePlan.class)
+                .withEntityClasses(Vehicle.class, Customer.class)
+                .withConstraintProviderClass(VehicleRoutingConstraintProvider.class)
+                .withEnvironmentMode(EnvironmentMode.REPRODUCIBLE)
+                .withPhases(new ConstructionHeuristicPhaseConfig(),
+                        new LocalSearchPhaseConfig()
+                                .withTerminationConfig(new TerminationConfig().withStepCountLimit(500))))
+                .buildSolver()
+                .solve(problem);
+    }
+
+    private static List<String> customerIds(Vehicle vehicle) {
+        return vehicle.getCustomers().stream()
+                .map(Customer::getId)
+                .toList();
+    }
+
+    private static VehicleRoutePlan generateProblem() {
+        Random random = new Random(0);
+        Location southWestCorner = new Location(43.751466, 11.177210);
+        Location northEastCorner = new Location(43.809291, 11.290195);
+        LocalDateTime startDateTime = LocalDateTime.of(TOMORROW, LocalTime.of(7, 30));
+        LocalDateTime endDateTime = LocalDateTime.of(TOMORROW.plusDays(1), LocalTime.MIDNIGHT);
+
+        List<Depot> depots = List.of(new Depot("0", randomLocation(random, southWestCorner, northEastCorner)));
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < CUSTOMER_COUNT / 10; i++) {
+            vehicles.add(new Vehicle(String.valueOf(i), depots.get(0), startDateTime));
+        }
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < CUSTOMER_COUNT; i++) {
+            boolean morningTimeWindow = random.nextBoolean();
+            customers.add(new Customer(String.valueOf(i), "Customer " + i,
+                    randomLocation(random, southWestCorner, northEastCorner),
+                    LocalDateTime.of(TOMORROW, morningTimeWindow ? LocalTime.of(8, 0) : LocalTime.of(13, 0)),
+                    LocalDateTime.of(TOMORROW, morningTimeWindow ? LocalTime.of(12, 0) : LocalTime.of(18, 0)),
+                    Duration.ofMinutes(10L + 10L * random.nextInt(4))));
+        }
+        return new VehicleRoutePlan("sparse", southWestCorner, northEastCorner, startDateTime, endDateTime,
+                depots, vehicles, customers);
+    }
+
+    private static Location randomLocation(Random random, Location southWestCorner, Location northEastCorner) {
+        return new Location(
+                southWestCorner.getLatitude()
+                        + random.nextDouble() * (northEastCorner.getLatitude() - southWestCorner.getLatitude()),
+                southWestCorner.getLongitude()
+                        + random.nextDouble() * (northEastCorner.getLongitude() - southWestCorner.getLongitude()));
+    }
+}
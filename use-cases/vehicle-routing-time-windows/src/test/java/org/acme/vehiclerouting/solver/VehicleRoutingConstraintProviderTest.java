@@ -38,8 +38,8 @@ class VehicleRoutingConstraintProviderTest {
     ConstraintVerifier<VehicleRoutingConstraintProvider, VehicleRoutePlan> constraintVerifier;
 
     @BeforeAll
-    static void initDistanceMaps() {
-        new HaversineDistanceCalculator().initDistanceMaps(Arrays.asList(LOCATION_1, LOCATION_2, LOCATION_3));
+    static void initDistanceMatrix() {
+        new HaversineDistanceCalculator().initDistanceMatrix(Arrays.asList(LOCATION_1, LOCATION_2, LOCATION_3));
     }
 
     @Test
@@ -49,9 +49,8 @@ class VehicleRoutingConstraintProviderTest {
         LocalDateTime tomorrow_10_00 = LocalDateTime.of(TOMORROW, LocalTime.of(10, 0));
         Vehicle vehicleA = new Vehicle("1", new Depot("1", LOCATION_1), tomorrow_07_00);
         Customer customer1 = new Customer("2", "John", LOCATION_2, tomorrow_08_00, tomorrow_10_00, Duration.ofMinutes(30L));
-        vehicleA.getCustomers().add(customer1);
         Customer customer2 = new Customer("3", "Paul", LOCATION_3, tomorrow_08_00, tomorrow_10_00, Duration.ofMinutes(30L));
-        vehicleA.getCustomers().add(customer2);
+        connect(vehicleA, customer1, customer2);
 
         constraintVerifier.verifyThat(VehicleRoutingConstraintProvider::minimizeTravelTime)
                 .given(vehicleA, customer1, customer2)
@@ -92,5 +91,7 @@ class VehicleRoutingConstraintProviderTest {
                 customer.setNextCustomer(customers[i + 1]);
             }
         }
+        vehicle.setTotalDrivingTimeSeconds(
+                VehicleTotalsUpdatingVariableListener.calculateTotalDrivingTimeSeconds(vehicle));
     }
 }
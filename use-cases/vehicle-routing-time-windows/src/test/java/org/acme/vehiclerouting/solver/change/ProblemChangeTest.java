@@ -0,0 +1,192 @@
+package org.acme.vehiclerouting.solver.change;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import ai.timefold.solver.core.api.solver.SolverManager;
+import ai.timefold.solver.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import ai.timefold.solver.core.config.solver.EnvironmentMode;
+import ai.timefold.solver.core.config.solver.SolverConfig;
+
+import org.acme.vehiclerouting.domain.Customer;
+import org.acme.vehiclerouting.domain.Depot;
+import org.acme.vehiclerouting.domain.Location;
+import org.acme.vehiclerouting.domain.Vehicle;
+import org.acme.vehiclerouting.domain.VehicleRoutePlan;
+import org.acme.vehiclerouting.domain.geo.DistanceCalculator;
+import org.acme.vehiclerouting.domain.geo.DistanceMatrix;
+import org.acme.vehiclerouting.domain.geo.HaversineDistanceCalculator;
+import org.acme.vehiclerouting.solver.VehicleRoutingConstraintProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Submits every problem change to a running solver job.
+ * The solver only has a construction heuristic and runs as a daemon,
+ * so it only assigns the unassigned customers after each change and leaves the rest of the routes as they are.
+ */
+class ProblemChangeTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 7, 0);
+    private static final LocalDateTime END = START.plusHours(12);
+    private static final String JOB_ID = "test";
+
+    private final DistanceCalculator distanceCalculator = new HaversineDistanceCalculator();
+    private final SolverManager<VehicleRoutePlan, String> solverManager = SolverManager.create(new SolverConfig()
+            .withSolutionClass(VehicleRoutePlan.class)
+            .withEntityClasses(Vehicle.class, Customer.class)
+            .withConstraintProviderClass(VehicleRoutingConstraintProvider.class)
+            .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+            .withDaemon(true)
+            .withPhases(new ConstructionHeuristicPhaseConfig()));
+    private final AtomicReference<VehicleRoutePlan> bestSolution = new AtomicReference<>();
+
+    @AfterEach
+    void close() {
+        solverManager.close();
+    }
+
+    @Test
+    void addCustomerOnSharedDistanceMatrix() throws Exception {
+        VehicleRoutePlan routePlan = createRoutePlan("plan");
+        VehicleRoutePlan otherRoutePlan = createRoutePlan("other-plan");
+        DistanceMatrix distanceMatrix = distanceCalculator.initSharedDistanceMatrix(
+                List.of(routePlan.getLocations(), otherRoutePlan.getLocations()));
+        startSolving(routePlan);
+
+        Location location = new Location(43.79, 11.26);
+        Customer customer = new Customer("added", "Added", location, START, END, Duration.ofMinutes(10));
+        solverManager.addProblemChange(JOB_ID, new AddCustomerProblemChange(customer, distanceCalculator)).get();
+        VehicleRoutePlan solution = awaitBestSolution(plan -> findCustomer(plan, "added") != null
+                && findCustomer(plan, "added").getVehicle() != null);
+
+        // The new location got its own row and column on the shared matrix, instead of a matrix of its own.
+        assertThat(location.getDistanceMatrix()).isSameAs(distanceMatrix);
+        assertThat(solution.getLocations()).contains(location);
+        // Both plans have the same 7 coordinates.
+        assertThat(distanceMatrix.size()).isEqualTo(8);
+        for (Location otherLocation : otherRoutePlan.getLocations()) {
+            assertThat(otherLocation.getDistanceMatrix()).isSameAs(distanceMatrix);
+        }
+        for (Location otherLocation : solution.getLocations()) {
+            assertThat(location.getDrivingTimeTo(otherLocation))
+                    .isEqualTo(distanceCalculator.calculateDistance(location, otherLocation));
+        }
+        assertThat(solution.getCustomers()).hasSize(7);
+        assertArrivalTimes(solution);
+    }
+
+    @Test
+    void removeCustomer() throws Exception {
+        VehicleRoutePlan routePlan = createRoutePlan("plan");
+        distanceCalculator.initDistanceMatrix(routePlan.getLocations());
+        startSolving(routePlan);
+
+        Customer customer = findCustomer(bestSolution.get(), "customer-2");
+        solverManager.addProblemChange(JOB_ID, new RemoveCustomerProblemChange(customer)).get();
+        VehicleRoutePlan solution = awaitBestSolution(plan -> findCustomer(plan, "customer-2") == null);
+
+        assertThat(solution.getCustomers()).hasSize(5);
+        for (Vehicle vehicle : solution.getVehicles()) {
+            assertThat(vehicle.getCustomers()).noneMatch(routeCustomer -> routeCustomer.getId().equals("customer-2"));
+        }
+        assertArrivalTimes(solution);
+    }
+
+    @Test
+    void changeTimeWindow() throws Exception {
+        VehicleRoutePlan routePlan = createRoutePlan("plan");
+        distanceCalculator.initDistanceMatrix(routePlan.getLocations());
+        startSolving(routePlan);
+
+        Customer customer = findCustomer(bestSolution.get(), "customer-2");
+        String vehicleId = customer.getVehicle().getId();
+        int index = customer.getVehicle().getCustomers().indexOf(customer);
+        LocalDateTime minStartTime = START.plusHours(6);
+        solverManager.addProblemChange(JOB_ID, new ChangeTimeWindowProblemChange(customer, minStartTime, END)).get();
+        VehicleRoutePlan solution = awaitBestSolution(
+                plan -> findCustomer(plan, "customer-2").getMinStartTime().equals(minStartTime));
+
+        // The customer kept its place in its route, only the arrival times after it moved.
+        Customer changedCustomer = findCustomer(solution, "customer-2");
+        assertThat(changedCustomer.getVehicle().getId()).isEqualTo(vehicleId);
+        assertThat(changedCustomer.getVehicle().getCustomers().indexOf(changedCustomer)).isEqualTo(index);
+        assertThat(changedCustomer.getStartServiceTime()).isEqualTo(minStartTime);
+        if (changedCustomer.getNextCustomer() != null) {
+            assertThat(changedCustomer.getNextCustomer().getArrivalTime()).isAfter(minStartTime);
+        }
+        assertArrivalTimes(solution);
+    }
+
+    @Test
+    void removeVehicle() throws Exception {
+        VehicleRoutePlan routePlan = createRoutePlan("plan");
+        distanceCalculator.initDistanceMatrix(routePlan.getLocations());
+        startSolving(routePlan);
+
+        Vehicle vehicle = bestSolution.get().getVehicles().get(0);
+        solverManager.addProblemChange(JOB_ID, new RemoveVehicleProblemChange(vehicle)).get();
+        VehicleRoutePlan solution = awaitBestSolution(plan -> plan.getVehicles().size() == 1
+                && plan.getCustomers().stream().allMatch(customer -> customer.getVehicle() != null));
+
+        // Its customers were moved to the remaining vehicle.
+        Vehicle remainingVehicle = solution.getVehicles().get(0);
+        assertThat(remainingVehicle.getId()).isNotEqualTo(vehicle.getId());
+        assertThat(remainingVehicle.getCustomers()).hasSize(6);
+        assertArrivalTimes(solution);
+    }
+
+    private void startSolving(VehicleRoutePlan routePlan) {
+        solverManager.solveAndListen(JOB_ID, jobId -> routePlan, bestSolution::set);
+        awaitBestSolution(plan -> plan.getCustomers().stream().allMatch(customer -> customer.getVehicle() != null));
+    }
+
+    private VehicleRoutePlan awaitBestSolution(Predicate<VehicleRoutePlan> condition) {
+        await()
+                .atMost(Duration.ofSeconds(30))
+                .pollInterval(Duration.ofMillis(50L))
+                .until(() -> bestSolution.get() != null && condition.test(bestSolution.get()));
+        return bestSolution.get();
+    }
+
+    private static Customer findCustomer(VehicleRoutePlan routePlan, String id) {
+        return routePlan.getCustomers().stream()
+                .filter(customer -> customer.getId().equals(id))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static void assertArrivalTimes(VehicleRoutePlan routePlan) {
+        for (Vehicle vehicle : routePlan.getVehicles()) {
+            long departureTime = vehicle.getDepartureEpochSecond();
+            for (Customer customer : vehicle.getCustomers()) {
+                assertThat(customer.getArrivalEpochSecond())
+                        .isEqualTo(departureTime + customer.getDrivingTimeSecondsFromPreviousStandstill());
+                departureTime = customer.getDepartureEpochSecond();
+            }
+        }
+    }
+
+    private static VehicleRoutePlan createRoutePlan(String name) {
+        Depot depot = new Depot("depot", new Location(43.77, 11.25));
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            vehicles.add(new Vehicle("vehicle-" + i, depot, START));
+        }
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            double offset = i * 0.01;
+            customers.add(new Customer("customer-" + i, "Customer " + i,
+                    new Location(43.75 + offset, 11.2 + (i % 3) * 0.03), START, END, Duration.ofMinutes(10)));
+        }
+        return new VehicleRoutePlan(name, new Location(43.7, 11.1), new Location(43.9, 11.4), START, END,
+                List.of(depot), vehicles, customers);
+    }
+}